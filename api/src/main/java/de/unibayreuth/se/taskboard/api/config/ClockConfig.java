@@ -0,0 +1,17 @@
+package de.unibayreuth.se.taskboard.api.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Clock of the validators of conditional requests, replaceable in tests.
+ */
+@Configuration
+public class ClockConfig {
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+}
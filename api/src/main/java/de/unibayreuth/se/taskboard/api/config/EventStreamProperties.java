@@ -0,0 +1,24 @@
+package de.unibayreuth.se.taskboard.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the Server-Sent Events stream of the change feed.
+ *
+ * @param pollInterval maximum time between two reads of new events, which are also read on every event notification
+ * @param batchSize maximum number of events per read
+ * @param bufferSize number of latest events kept in memory, from which resuming clients catch up without a query
+ * @param heartbeatInterval time between two comments sent to all clients, which detect broken connections
+ * @param timeout time after which a stream is closed, the client then reconnects with Last-Event-ID
+ */
+@ConfigurationProperties("taskboard.events.stream")
+public record EventStreamProperties(
+        @DefaultValue("1s") Duration pollInterval,
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("10000") int bufferSize,
+        @DefaultValue("15s") Duration heartbeatInterval,
+        @DefaultValue("30m") Duration timeout
+) { }
@@ -0,0 +1,74 @@
+package de.unibayreuth.se.taskboard.api.config;
+
+import de.unibayreuth.se.taskboard.business.ports.ReplicaRoutingPersistenceService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Lets clients read their own writes while reads go to replicas. Mutating requests read from the primary, as their
+ * reads decide about their writes, and set a cookie that lets the reads of the same client go to the primary until
+ * {@link ReplicaRoutingPersistenceService#primaryRequiredUntil(Instant)}, when the replicas caught up with the writes.
+ */
+@Component
+@ConditionalOnProperty(name = "taskboard.replicas.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static final String READ_YOUR_WRITES_COOKIE = "taskboard-primary-until";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ReplicaRoutingPersistenceService replicaRoutingPersistenceService;
+    private final Clock clock;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Instant now = clock.instant();
+        boolean mutation = !SAFE_METHODS.contains(request.getMethod());
+        if (mutation) {
+            Instant primaryUntil = replicaRoutingPersistenceService.primaryRequiredUntil(now);
+            Cookie cookie = new Cookie(READ_YOUR_WRITES_COOKIE, Long.toString(primaryUntil.toEpochMilli()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Duration.between(now, primaryUntil).toSeconds() + 1);
+            response.addCookie(cookie); // before the response is committed
+        }
+        if (mutation || primaryUntil(request) > now.toEpochMilli()) {
+            replicaRoutingPersistenceService.requirePrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            replicaRoutingPersistenceService.reset();
+        }
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (READ_YOUR_WRITES_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
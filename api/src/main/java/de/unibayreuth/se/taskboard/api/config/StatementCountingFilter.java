@@ -0,0 +1,50 @@
+package de.unibayreuth.se.taskboard.api.config;
+
+import de.unibayreuth.se.taskboard.business.ports.StatementCountingPersistenceService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Reports the SQL statements of every HTTP request as the distribution summary {@code taskboard.http.statements}
+ * (tagged with method and URI pattern) and as a debug log line.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatementCountingFilter extends OncePerRequestFilter {
+    private final StatementCountingPersistenceService statementCountingPersistenceService;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        statementCountingPersistenceService.startCounting();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int count = statementCountingPersistenceService.stopCounting();
+            String uri = Objects.toString(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                    "UNKNOWN");
+            DistributionSummary.builder("taskboard.http.statements")
+                    .description("SQL statements per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(count);
+            log.debug("{} {} ran {} SQL statement(s)", request.getMethod(), uri, count);
+        }
+    }
+}
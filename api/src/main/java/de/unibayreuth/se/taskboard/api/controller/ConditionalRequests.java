@@ -0,0 +1,76 @@
+package de.unibayreuth.se.taskboard.api.controller;
+
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Shared conditional request contract of the endpoints.
+ * Responses carry a strong {@code ETag} and, if known, a {@code Last-Modified} header. Requests with a matching
+ * {@code If-None-Match} (or, without it, {@code If-Modified-Since}) are answered with {@value #NOT_MODIFIED} before
+ * anything else is loaded, so that polling unchanged content costs one revision lookup. Writes accept the {@code ETag}
+ * of a versioned entity in {@code If-Match} as the version they are conditional on and answer {@value #CONFLICT} if it
+ * is outdated; the version is checked when the change is written, not before.
+ */
+@Component
+@RequiredArgsConstructor
+class ConditionalRequests {
+    static final String NOT_MODIFIED = "304";
+    static final String CONFLICT = "409";
+
+    private final Clock clock;
+
+    /**
+     * Sets the validator headers and, if the client's copy is current, the status 304. Handlers return null then.
+     * {@code Last-Modified} only has a precision of seconds, so it is only sent (and {@code If-Modified-Since} only
+     * evaluated) once the second of the last change has passed; otherwise, a later change in the same second would be
+     * answered with 304. The {@code ETag} is exact.
+     */
+    boolean notModified(WebRequest request, Revision revision) {
+        LocalDateTime lastModified = revision.lastModified();
+        LocalDateTime currentSecond = LocalDateTime.now(clock.withZone(ZoneOffset.UTC)).truncatedTo(ChronoUnit.SECONDS);
+        if (lastModified == null || !lastModified.isBefore(currentSecond)) {
+            return request.checkNotModified(revision.tag());
+        }
+        return request.checkNotModified(revision.tag(), lastModified.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    /**
+     * Returns the version in an {@code If-Match} header, or null if there is no header or it is {@code *}.
+     */
+    @Nullable
+    static Long expectedVersion(@Nullable String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        Long version = tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")
+                ? Revision.versionOf(tag.substring(1, tag.length() - 1))
+                : null; // weak or multiple tags cannot identify one version
+        if (version == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must be a single ETag of this resource.");
+        }
+        return version;
+    }
+
+    /**
+     * Returns the expected version of a write from the {@code If-Match} header or, without it, the request body.
+     */
+    @Nullable
+    static Long expectedVersion(@Nullable String ifMatch, @Nullable Long bodyVersion) {
+        Long version = expectedVersion(ifMatch);
+        if (version != null && bodyVersion != null && !version.equals(bodyVersion)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Version in If-Match and body do not match.");
+        }
+        return version != null ? version : bodyVersion;
+    }
+}
@@ -0,0 +1,87 @@
+package de.unibayreuth.se.taskboard.api.controller;
+
+import de.unibayreuth.se.taskboard.api.dtos.FeedEventDto;
+import de.unibayreuth.se.taskboard.api.mapper.FeedEventDtoMapper;
+import de.unibayreuth.se.taskboard.business.domain.EventPosition;
+import de.unibayreuth.se.taskboard.business.domain.FeedPage;
+import de.unibayreuth.se.taskboard.business.ports.EventService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.headers.Header;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@Tag(name = "Events")
+@Controller
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class EventController {
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private final EventService eventService;
+    private final FeedEventDtoMapper feedEventDtoMapper;
+    private final EventStreamPublisher eventStreamPublisher;
+
+    @Operation(
+            summary = "Get the change feed.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(type = "array", implementation = FeedEventDto.class)
+                            ),
+                            headers = @Header(name = Pagination.NEXT_CURSOR_HEADER, description = "Position of the last event, absent if no further events are available yet."),
+                            description = "One page of events after the provided position in feed order as a JSON array."
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid position or limit."
+                    )
+            }
+    )
+    @GetMapping
+    public ResponseEntity<List<FeedEventDto>> getPage(@RequestParam(required = false) String after,
+                                                      @RequestParam(defaultValue = Pagination.DEFAULT_LIMIT) int limit) {
+        FeedPage page = eventService.getPage(Pagination.decodePosition(after), Pagination.checkLimit(limit));
+        return Pagination.ok(page, page.events().stream()
+                .map(feedEventDtoMapper::fromBusiness)
+                .toList()
+        );
+    }
+
+    @Operation(
+            summary = "Stream the change feed as Server-Sent Events.",
+            description = "Every event is sent with its position as ID. Without a position, only new events are sent.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(
+                                    mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                                    schema = @Schema(implementation = FeedEventDto.class)
+                            ),
+                            description = "Stream of the events after the provided position."
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid position."
+                    )
+            }
+    )
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam(required = false) String after,
+                                             @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        // a reconnecting client sends the ID of the last received event, which is newer than the initial position
+        EventPosition position = Pagination.decodePosition(lastEventId != null ? lastEventId : after);
+        return ResponseEntity.ok(eventStreamPublisher.subscribe(position));
+    }
+}
@@ -0,0 +1,261 @@
+package de.unibayreuth.se.taskboard.api.controller;
+
+import de.unibayreuth.se.taskboard.api.config.EventStreamProperties;
+import de.unibayreuth.se.taskboard.api.dtos.FeedEventDto;
+import de.unibayreuth.se.taskboard.api.mapper.FeedEventDtoMapper;
+import de.unibayreuth.se.taskboard.business.domain.EntityChangedEvent;
+import de.unibayreuth.se.taskboard.business.domain.EventPosition;
+import de.unibayreuth.se.taskboard.business.domain.FeedEvent;
+import de.unibayreuth.se.taskboard.business.ports.EventService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans the change feed out to the clients of the Server-Sent Events stream. One thread reads the new events, woken up
+ * by the event notifications ({@link EntityChangedEvent}) and at least every poll interval, and hands them to all
+ * subscribers, so that the number of queries does not grow with the number of clients. The latest events are kept in
+ * a buffer, from which new and resuming clients catch up; only clients that resume from an older position read their
+ * backlog from the database, page by page, before they join.
+ * <p>
+ * Every subscriber sends on its own virtual thread from a bounded queue, so that a slow client cannot stall the
+ * others. A client that falls too far behind is disconnected and resumes with {@code Last-Event-ID}.
+ */
+@Component
+@RegisterReflectionForBinding(FeedEventDto.class) // sent as SSE data, not a controller return type (native image)
+@RequiredArgsConstructor
+@Slf4j
+class EventStreamPublisher implements SmartLifecycle {
+    private static final int PENDING_BATCHES = 100; // per subscriber
+
+    private final EventService eventService;
+    private final FeedEventDtoMapper feedEventDtoMapper;
+    private final EventStreamProperties properties;
+
+    private final Object lock = new Object();
+    private final Deque<FeedEvent> buffer = new ArrayDeque<>(); // guarded by lock
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet(); // joined under lock
+    private final BlockingQueue<Boolean> wakeUp = new ArrayBlockingQueue<>(1);
+    private EventPosition bufferStart; // the buffer contains all events after it, guarded by lock
+    private EventPosition head; // latest read event, guarded by lock
+
+    private volatile boolean running;
+    private Thread thread;
+    private long lastHeartbeat; // only used by the publisher thread
+
+    /**
+     * Streams the events after the provided position, or only new events if it is null.
+     */
+    SseEmitter subscribe(@Nullable EventPosition after) {
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscriber.close());
+        subscriber.start(after);
+        return emitter;
+    }
+
+    @EventListener
+    void onEntityChanged(EntityChangedEvent event) {
+        wakeUp.offer(Boolean.TRUE); // coalesced, the publisher reads all new events at once
+    }
+
+    @Override
+    public void start() {
+        EventPosition position = eventService.getHead();
+        synchronized (lock) {
+            head = position;
+            bufferStart = position;
+        }
+        running = true;
+        thread = new Thread(this::run, "event-stream-publisher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(properties.pollInterval().multipliedBy(2).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter.complete()); // before the web server waits for requests
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                wakeUp.poll(properties.pollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                publish();
+                heartbeat();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Reading the change feed failed, retrying in {}.", properties.pollInterval(), e);
+            }
+        }
+    }
+
+    private void publish() {
+        List<FeedEvent> events;
+        do {
+            events = eventService.getAfter(head(), properties.batchSize());
+            if (events.isEmpty()) {
+                return;
+            }
+            synchronized (lock) {
+                for (FeedEvent event : events) {
+                    buffer.addLast(event);
+                    if (buffer.size() > properties.bufferSize()) {
+                        bufferStart = buffer.removeFirst().position();
+                    }
+                }
+                head = events.getLast().position();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(events);
+            }
+        } while (events.size() == properties.batchSize());
+    }
+
+    private void heartbeat() {
+        long now = System.nanoTime();
+        if (now - lastHeartbeat >= properties.heartbeatInterval().toNanos()) {
+            lastHeartbeat = now;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(List.of());
+            }
+        }
+    }
+
+    private EventPosition head() {
+        synchronized (lock) {
+            return head;
+        }
+    }
+
+    private EventPosition bufferStart() {
+        synchronized (lock) {
+            return bufferStart;
+        }
+    }
+
+    /**
+     * Joins the subscriber and returns the buffered events after the position, or returns null if the buffer does not
+     * reach back to the position. Events that the publisher reads afterward are handed to the subscriber.
+     */
+    @Nullable
+    private List<FeedEvent> join(Subscriber subscriber, EventPosition after) {
+        synchronized (lock) {
+            if (after.compareTo(bufferStart) < 0) {
+                return null;
+            }
+            subscribers.add(subscriber);
+            return buffer.stream()
+                    .filter(event -> event.position().compareTo(after) > 0)
+                    .toList();
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<List<FeedEvent>> pending = new ArrayBlockingQueue<>(PENDING_BATCHES);
+        private volatile Thread sender;
+        private EventPosition position; // of the last sent event, only used by the sender
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void start(@Nullable EventPosition after) {
+            sender = Thread.ofVirtual().name("event-stream-subscriber").start(() -> run(after));
+        }
+
+        void offer(List<FeedEvent> events) {
+            if (!pending.offer(events)) {
+                log.debug("Disconnecting a client that fell too far behind the change feed.");
+                subscribers.remove(this);
+                emitter.complete();
+            }
+        }
+
+        void close() {
+            subscribers.remove(this);
+            Thread current = sender;
+            if (current != null) {
+                current.interrupt();
+            }
+        }
+
+        private void run(@Nullable EventPosition after) {
+            try {
+                position = after != null ? after : head();
+                List<FeedEvent> backlog;
+                while ((backlog = join(this, position)) == null) {
+                    List<FeedEvent> page = eventService.getAfter(position, properties.batchSize());
+                    if (page.isEmpty()) {
+                        position = bufferStart(); // no events before the buffer, e.g., for a made-up position
+                    }
+                    send(page);
+                }
+                send(backlog);
+                while (!Thread.currentThread().isInterrupted()) {
+                    send(pending.take());
+                }
+            } catch (InterruptedException e) {
+                // the client disconnected or the stream was completed
+            } catch (IOException | RuntimeException e) {
+                log.debug("Streaming the change feed failed.", e);
+                emitter.completeWithError(e);
+            } finally {
+                subscribers.remove(this);
+            }
+        }
+
+        /**
+         * Sends the events after the last sent one, or a heartbeat comment if there are no events.
+         */
+        private void send(List<FeedEvent> events) throws IOException {
+            if (events.isEmpty()) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            for (FeedEvent event : events) {
+                if (event.position().compareTo(position) > 0) {
+                    emitter.send(SseEmitter.event()
+                            .id(event.position().toString())
+                            .data(feedEventDtoMapper.fromBusiness(event), MediaType.APPLICATION_JSON));
+                    position = event.position();
+                }
+            }
+        }
+    }
+}
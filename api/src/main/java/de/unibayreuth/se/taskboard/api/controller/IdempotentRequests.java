@@ -0,0 +1,103 @@
+package de.unibayreuth.se.taskboard.api.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibayreuth.se.taskboard.business.domain.IdempotentResponse;
+import de.unibayreuth.se.taskboard.business.exceptions.IdempotencyKeyInUseException;
+import de.unibayreuth.se.taskboard.business.exceptions.IdempotencyKeyReusedException;
+import de.unibayreuth.se.taskboard.business.ports.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Shared idempotency contract of the create endpoints.
+ * A request with an {@code Idempotency-Key} header runs at most once per key (within the retention of the keys):
+ * retries with the same key and body get the stored response with the header {@code Idempotent-Replayed: true},
+ * without running the request again. A retry while the first request is still running is answered with
+ * {@value #CONFLICT}, a request that reuses a key with another body with {@value #UNPROCESSABLE_ENTITY}. Keys of
+ * failed requests are released, so that the request can be retried.
+ */
+@Component
+@RequiredArgsConstructor
+class IdempotentRequests {
+    static final String HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String CONFLICT = "409";
+    static final String UNPROCESSABLE_ENTITY = "422";
+    private static final int MAX_KEY_LENGTH = 255; // see V15__add_idempotency_keys.sql
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Returns the response of create, which runs unless a request with the same key has already completed.
+     */
+    <T> ResponseEntity<T> create(String scope, @Nullable String key, Object request, Class<T> responseType,
+                                 Supplier<T> create) {
+        if (key == null) {
+            return ResponseEntity.ok(create.get());
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    HEADER + " must not be blank or longer than " + MAX_KEY_LENGTH + " characters.");
+        }
+        Optional<IdempotentResponse> stored;
+        try {
+            stored = idempotencyService.begin(scope, key, hash(request));
+        } catch (IdempotencyKeyInUseException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        } catch (IdempotencyKeyReusedException e) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage(), e);
+        }
+        if (stored.isPresent()) {
+            return ResponseEntity.status(Objects.requireNonNull(stored.get().status()))
+                    .header(REPLAYED_HEADER, "true")
+                    .body(read(Objects.requireNonNull(stored.get().body()), responseType));
+        }
+        T response;
+        try {
+            response = create.get();
+        } catch (RuntimeException e) {
+            idempotencyService.release(scope, key);
+            throw e;
+        }
+        idempotencyService.complete(scope, key, HttpStatus.OK.value(), write(response));
+        return ResponseEntity.ok(response);
+    }
+
+    private String hash(Object request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to hash the request.", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to store the response.", e);
+        }
+    }
+
+    private <T> T read(String body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read the stored response.", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package de.unibayreuth.se.taskboard.api.controller;
+
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.CursorPage;
+import de.unibayreuth.se.taskboard.business.domain.EventPosition;
+import de.unibayreuth.se.taskboard.business.domain.FeedPage;
+import de.unibayreuth.se.taskboard.business.domain.SearchCursor;
+import de.unibayreuth.se.taskboard.business.domain.SearchPage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shared cursor (keyset) pagination contract of the list endpoints.
+ * The response body stays a plain JSON array; the opaque cursor for the next page is returned in the
+ * {@value #NEXT_CURSOR_HEADER} header and omitted on the last page.
+ */
+final class Pagination {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String DEFAULT_LIMIT = "100";
+    static final int MAX_LIMIT = 1000;
+    private static final String SEPARATOR = "|";
+
+    private Pagination() {
+    }
+
+    static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+        return limit;
+    }
+
+    @Nullable
+    static Cursor decode(@Nullable String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new Cursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor.", e);
+        }
+    }
+
+    @Nullable
+    static SearchCursor decodeSearch(@Nullable String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new SearchCursor(
+                    Float.parseFloat(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor.", e);
+        }
+    }
+
+    @Nullable
+    static EventPosition decodePosition(@Nullable String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            return EventPosition.parse(token);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid position.", e);
+        }
+    }
+
+    static String encode(Cursor cursor) {
+        return encode(cursor.timestamp() + SEPARATOR + cursor.id());
+    }
+
+    static String encode(SearchCursor cursor) {
+        return encode(cursor.rank() + SEPARATOR + cursor.id()); // Float.toString() round-trips exactly
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static <T> ResponseEntity<List<T>> ok(CursorPage<?> page, List<T> body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, encode(page.next()));
+        }
+        return response.body(body);
+    }
+
+    static <T> ResponseEntity<List<T>> ok(SearchPage<?> page, List<T> body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, encode(page.next()));
+        }
+        return response.body(body);
+    }
+
+    static <T> ResponseEntity<List<T>> ok(FeedPage page, List<T> body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.next().toString()); // positions are already opaque tokens
+        }
+        return response.body(body);
+    }
+}
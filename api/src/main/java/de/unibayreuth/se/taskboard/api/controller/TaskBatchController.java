@@ -0,0 +1,109 @@
+package de.unibayreuth.se.taskboard.api.controller;
+
+import de.unibayreuth.se.taskboard.api.dtos.TaskBatchRequestDto;
+import de.unibayreuth.se.taskboard.api.dtos.TaskBatchResponseDto;
+import de.unibayreuth.se.taskboard.api.dtos.TaskBatchResultDto;
+import de.unibayreuth.se.taskboard.api.dtos.TaskDto;
+import de.unibayreuth.se.taskboard.api.mapper.TaskDtoMapper;
+import de.unibayreuth.se.taskboard.business.domain.BatchResult;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskBatchResults;
+import de.unibayreuth.se.taskboard.business.exceptions.TaskNotFoundException;
+import de.unibayreuth.se.taskboard.business.exceptions.VersionConflictException;
+import de.unibayreuth.se.taskboard.business.ports.TaskService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Bulk endpoint for tasks, separate from {@link TaskController} because Spring would insert a slash between
+ * the class-level path "/api/tasks" and the custom method suffix ":batch".
+ */
+@Tag(name = "Tasks")
+@Controller
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class TaskBatchController {
+    static final int MAX_BATCH_SIZE = 5000;
+
+    private final TaskService taskService;
+    private final TaskDtoMapper taskDtoMapper;
+
+    @Operation(
+            summary = "Creates, updates, and deletes tasks in bulk.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = TaskBatchResponseDto.class)
+                            ),
+                            description = "One result per task or ID in the order of the request."
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "The batch is invalid or too large."
+                    ),
+                    @ApiResponse(
+                            responseCode = ConditionalRequests.CONFLICT,
+                            description = "A task was changed or deleted concurrently while the batch was written, "
+                                    + "nothing was written."
+                    )
+            }
+    )
+    @PostMapping("/tasks:batch")
+    public ResponseEntity<TaskBatchResponseDto> batch(@RequestBody @Valid TaskBatchRequestDto request) {
+        List<TaskDto> upserts = Objects.requireNonNullElse(request.getUpserts(), List.of());
+        List<UUID> deletes = Objects.requireNonNullElse(request.getDeletes(), List.of());
+        if (upserts.size() + deletes.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch can contain at most " + MAX_BATCH_SIZE + " items.");
+        }
+
+        TaskBatchResults results;
+        try {
+            results = taskService.applyAll(upserts.stream()
+                    .map(taskDtoMapper::toBusiness)
+                    .toList(), deletes); // stale versions are reported per task, only races fail the whole batch
+        } catch (VersionConflictException | TaskNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+        List<BatchResult<Task>> upsertResults = results.upserts();
+        List<TaskDto> upsertedTasks = taskDtoMapper.fromBusiness(upsertResults.stream()
+                .filter(BatchResult::succeeded)
+                .map(BatchResult::value)
+                .toList());
+        List<TaskBatchResultDto> upsertResultDtos = new ArrayList<>(upsertResults.size());
+        int succeeded = 0;
+        for (int i = 0; i < upsertResults.size(); i++) {
+            BatchResult<Task> result = upsertResults.get(i);
+            upsertResultDtos.add(result.succeeded()
+                    ? new TaskBatchResultDto(true, result.value().getId(), upsertedTasks.get(succeeded++), null)
+                    : new TaskBatchResultDto(false, upserts.get(i).getId(), null, result.error()));
+        }
+
+        List<TaskBatchResultDto> deleteResultDtos = new ArrayList<>(deletes.size());
+        List<BatchResult<UUID>> deleteResults = results.deletes();
+        for (int i = 0; i < deleteResults.size(); i++) {
+            deleteResultDtos.add(new TaskBatchResultDto(deleteResults.get(i).succeeded(), deletes.get(i), null,
+                    deleteResults.get(i).error()));
+        }
+
+        return ResponseEntity.ok(new TaskBatchResponseDto(upsertResultDtos, deleteResultDtos));
+    }
+}
@@ -1,14 +1,26 @@
 package de.unibayreuth.se.taskboard.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibayreuth.se.taskboard.api.dtos.TaskChangeDto;
 import de.unibayreuth.se.taskboard.api.dtos.TaskDto;
+import de.unibayreuth.se.taskboard.api.dtos.TaskStatsDto;
 import de.unibayreuth.se.taskboard.api.mapper.TaskDtoMapper;
+import de.unibayreuth.se.taskboard.api.mapper.TaskStatsDtoMapper;
+import de.unibayreuth.se.taskboard.business.domain.CursorPage;
+import de.unibayreuth.se.taskboard.business.domain.SearchPage;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskChange;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
 import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
 import de.unibayreuth.se.taskboard.business.exceptions.MalformedRequestException;
 import de.unibayreuth.se.taskboard.business.exceptions.TaskNotFoundException;
 import de.unibayreuth.se.taskboard.business.exceptions.UserNotFoundException;
+import de.unibayreuth.se.taskboard.business.exceptions.VersionConflictException;
 import de.unibayreuth.se.taskboard.business.ports.TaskService;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -16,13 +28,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @OpenAPIDefinition(
@@ -34,10 +58,18 @@ import java.util.UUID;
 @Tag(name = "Tasks")
 @Controller
 @RequestMapping("/api/tasks")
+@RegisterReflectionForBinding(TaskDto.class) // written by the NDJSON export, not a controller return type (native image)
 @RequiredArgsConstructor
 public class TaskController {
     private final TaskService taskService;
     private final TaskDtoMapper taskDtoMapper;
+    private final TaskStatsDtoMapper taskStatsDtoMapper;
+    private final ObjectMapper objectMapper;
+    private final IdempotentRequests idempotentRequests;
+    private final ConditionalRequests conditionalRequests;
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_BATCH_SIZE = 500; // tasks per assignee lookup and flush
 
     @Operation(
             summary = "Get all tasks.",
@@ -48,17 +80,137 @@ public class TaskController {
                                     mediaType = "application/json",
                                     schema = @Schema(type = "array", implementation = TaskDto.class)
                             ),
-                            description = "All tasks as a JSON array."
+                            headers = @Header(name = Pagination.NEXT_CURSOR_HEADER, description = "Cursor of the next page, absent on the last page."),
+                            description = "One page of the tasks that match all provided filters sorted by update time as a JSON array, or all tasks as of the provided time."
+                    ),
+                    @ApiResponse(
+                            responseCode = ConditionalRequests.NOT_MODIFIED,
+                            description = "No task changed since the provided ETag."
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid filter, cursor, limit, or time, a cursor or filter together with a time, or a time before the archived events."
                     )
             }
     )
     @GetMapping
-    public ResponseEntity<List<TaskDto>> getAll() {
-        return ResponseEntity.ok(
-                taskService.getAll().stream()
-                        .map(taskDtoMapper::fromBusiness)
-                        .toList()
-        );
+    public ResponseEntity<List<TaskDto>> getAll(@RequestParam(required = false) TaskStatus status,
+                                                @RequestParam(required = false) UUID assignee,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = Pagination.DEFAULT_LIMIT) int limit,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+                                                WebRequest request) {
+        TaskQuery query = new TaskQuery(status, assignee, updatedSince);
+        if (asOf != null) {
+            // historical boards are folded from the event log as a whole, assignees are resolved as of now
+            if (cursor != null || !query.equals(TaskQuery.all())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursors and filters are not supported together with asOf.");
+            }
+            try {
+                return ResponseEntity.ok(taskDtoMapper.fromBusiness(taskService.getAllAsOf(asOf)));
+            } catch (MalformedRequestException e) { // before the archived events
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+        }
+        if (conditionalRequests.notModified(request, taskService.getRevision())) {
+            return null;
+        }
+        return page(taskService.find(query, Pagination.decode(cursor), Pagination.checkLimit(limit)));
+    }
+
+    @Operation(
+            summary = "Export all tasks.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(
+                                    mediaType = NDJSON,
+                                    schema = @Schema(implementation = TaskDto.class)
+                            ),
+                            description = "All tasks as newline-delimited JSON, streamed without loading the whole board into memory."
+                    )
+            }
+    )
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null); // lines are separated by '\n' in writeLines()
+                List<Task> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+                taskService.exportAll(task -> {
+                    batch.add(task);
+                    if (batch.size() == EXPORT_BATCH_SIZE) {
+                        writeLines(generator, batch);
+                    }
+                });
+                writeLines(generator, batch);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    @Operation(
+            summary = "Search tasks.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(type = "array", implementation = TaskDto.class)
+                            ),
+                            headers = @Header(name = Pagination.NEXT_CURSOR_HEADER, description = "Cursor of the next page, absent on the last page."),
+                            description = "One page of tasks whose title or description matches the query, most relevant first, as a JSON array."
+                    ),
+                    @ApiResponse(
+                            responseCode = ConditionalRequests.NOT_MODIFIED,
+                            description = "No task changed since the provided ETag."
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Blank query or invalid status, cursor, or limit."
+                    )
+            }
+    )
+    @GetMapping("/search")
+    public ResponseEntity<List<TaskDto>> search(@RequestParam String q,
+                                                @RequestParam(required = false) TaskStatus status,
+                                                @RequestParam(required = false) UUID assigneeId,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = Pagination.DEFAULT_LIMIT) int limit,
+                                                WebRequest request) {
+        if (conditionalRequests.notModified(request, taskService.getRevision())) {
+            return null;
+        }
+        try {
+            SearchPage<Task> page = taskService.search(q, status, assigneeId, Pagination.decodeSearch(cursor),
+                    Pagination.checkLimit(limit));
+            return Pagination.ok(page, taskDtoMapper.fromBusiness(page.items()));
+        } catch (MalformedRequestException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @Operation(
+            summary = "Get the task counts of the board.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = TaskStatsDto.class)
+                            ),
+                            description = "Number of tasks in total, per status, and per assignee as a JSON object."
+                    )
+            }
+    )
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStatsDto> getStats() {
+        return ResponseEntity.ok(taskStatsDtoMapper.fromBusiness(taskService.getStats()));
     }
 
     @Operation(
@@ -72,6 +224,10 @@ public class TaskController {
                             ),
                             description = "The task with the provided ID as a JSON object."
                     ),
+                    @ApiResponse(
+                            responseCode = ConditionalRequests.NOT_MODIFIED,
+                            description = "The task did not change since the provided ETag or time."
+                    ),
                     @ApiResponse(
                             responseCode = "400",
                             description = "No task with the provided ID could not be found."
@@ -79,8 +235,11 @@ public class TaskController {
             }
     )
     @GetMapping("/{id}")
-    public ResponseEntity<TaskDto> getById(@PathVariable UUID id) {
+    public ResponseEntity<TaskDto> getById(@PathVariable UUID id, WebRequest request) {
         try {
+            if (conditionalRequests.notModified(request, taskService.getRevision(id))) {
+                return null;
+            }
             return ResponseEntity.ok(
                     taskDtoMapper.fromBusiness(taskService.getById(id))
             );
@@ -89,6 +248,40 @@ public class TaskController {
         }
     }
 
+    @Operation(
+            summary = "Get the history of a task.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(type = "array", implementation = TaskChangeDto.class)
+                            ),
+                            description = "All changes of the task with the provided ID, oldest first, as a JSON array."
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "No task with the provided ID ever existed."
+                    )
+            }
+    )
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<TaskChangeDto>> getHistory(@PathVariable UUID id) {
+        try {
+            List<TaskChange> history = taskService.getHistory(id);
+            Iterator<TaskDto> tasks = taskDtoMapper.fromBusiness(history.stream()
+                    .map(TaskChange::task)
+                    .filter(Objects::nonNull)
+                    .toList()).iterator();
+            return ResponseEntity.ok(history.stream()
+                    .map(change -> new TaskChangeDto(change.changedAt(), change.type(),
+                            change.task() == null ? null : tasks.next()))
+                    .toList());
+        } catch (TaskNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     @Operation(
             summary = "Get tasks by status.",
             responses = {
@@ -98,21 +291,28 @@ public class TaskController {
                                     mediaType = "application/json",
                                     schema = @Schema(type = "array", implementation = TaskDto.class)
                             ),
-                            description = "The tasks with the provided status as a JSON array."
+                            headers = @Header(name = Pagination.NEXT_CURSOR_HEADER, description = "Cursor of the next page, absent on the last page."),
+                            description = "One page of tasks with the provided status as a JSON array."
+                    ),
+                    @ApiResponse(
+                            responseCode = ConditionalRequests.NOT_MODIFIED,
+                            description = "No task changed since the provided ETag."
                     ),
                     @ApiResponse(
                             responseCode = "400",
-                            description = "No task with the provided ID could not be found."
+                            description = "Invalid status, cursor, or limit."
                     )
             }
     )
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<TaskDto>> getByStatus(@PathVariable TaskStatus status) {
-        return ResponseEntity.ok(
-                taskService.getByStatus(status).stream()
-                        .map(taskDtoMapper::fromBusiness)
-                        .toList()
-        );
+    public ResponseEntity<List<TaskDto>> getByStatus(@PathVariable TaskStatus status,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = Pagination.DEFAULT_LIMIT) int limit,
+                                                     WebRequest request) {
+        if (conditionalRequests.notModified(request, taskService.getRevision())) {
+            return null;
+        }
+        return page(taskService.getPageByStatus(status, Pagination.decode(cursor), Pagination.checkLimit(limit)));
     }
 
     @Operation(
@@ -124,21 +324,28 @@ public class TaskController {
                                     mediaType = "application/json",
                                     schema = @Schema(type = "array", implementation = TaskDto.class)
                             ),
-                            description = "The tasks with the provided status as a JSON array."
+                            headers = @Header(name = Pagination.NEXT_CURSOR_HEADER, description = "Cursor of the next page, absent on the last page."),
+                            description = "One page of tasks with the provided assignee as a JSON array."
+                    ),
+                    @ApiResponse(
+                            responseCode = ConditionalRequests.NOT_MODIFIED,
+                            description = "No task changed since the provided ETag."
                     ),
                     @ApiResponse(
                             responseCode = "400",
-                            description = "No task with the provided ID could not be found."
+                            description = "Invalid cursor or limit."
                     )
             }
     )
     @GetMapping("/assignee/{userId}")
-    public ResponseEntity<List<TaskDto>> getByStatus(@PathVariable UUID userId) {
-        return ResponseEntity.ok(
-                taskService.getByAssignee(userId).stream()
-                        .map(taskDtoMapper::fromBusiness)
-                        .toList()
-        );
+    public ResponseEntity<List<TaskDto>> getByAssignee(@PathVariable UUID userId,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = Pagination.DEFAULT_LIMIT) int limit,
+                                                       WebRequest request) {
+        if (conditionalRequests.notModified(request, taskService.getRevision())) {
+            return null;
+        }
+        return page(taskService.getPageByAssignee(userId, Pagination.decode(cursor), Pagination.checkLimit(limit)));
     }
 
     @Operation(
@@ -150,18 +357,28 @@ public class TaskController {
                                     mediaType = "application/json",
                                     schema = @Schema(implementation = TaskDto.class)
                             ),
+                            headers = @Header(name = IdempotentRequests.REPLAYED_HEADER, description = "true if the response of an earlier request with the same Idempotency-Key is returned."),
                             description = "The new task as a JSON object."
                     ),
                     @ApiResponse(
                             responseCode = "400",
                             description = "ID present or user with the provided user ID could not be found."
+                    ),
+                    @ApiResponse(
+                            responseCode = IdempotentRequests.CONFLICT,
+                            description = "A request with the same Idempotency-Key is still in progress."
+                    ),
+                    @ApiResponse(
+                            responseCode = IdempotentRequests.UNPROCESSABLE_ENTITY,
+                            description = "The Idempotency-Key was already used for another task."
                     )
             }
     )
     @PostMapping
-    public ResponseEntity<TaskDto> create(@RequestBody @Valid TaskDto taskDto) {
+    public ResponseEntity<TaskDto> create(@RequestBody @Valid TaskDto taskDto,
+                                          @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
         try {
-            return ResponseEntity.ok(
+            return idempotentRequests.create("tasks", idempotencyKey, taskDto, TaskDto.class, () ->
                     taskDtoMapper.fromBusiness(
                             taskService.create(
                                     taskDtoMapper.toBusiness(taskDto)
@@ -186,26 +403,33 @@ public class TaskController {
                     ),
                     @ApiResponse(
                             responseCode = "400",
-                            description = "IDs do not match or no task or user with the provided IDs could be found."
+                            description = "IDs or versions do not match or no task or user with the provided IDs could be found."
+                    ),
+                    @ApiResponse(
+                            responseCode = ConditionalRequests.CONFLICT,
+                            description = "The task was changed since the version in If-Match or the body."
                     )
             }
     )
     @PutMapping("/{id}")
-    public ResponseEntity<TaskDto> update(@PathVariable UUID id, @RequestBody @Valid TaskDto taskDto) {
+    public ResponseEntity<TaskDto> update(@PathVariable UUID id, @RequestBody @Valid TaskDto taskDto,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (!id.equals(taskDto.getId())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Task ID in path and body do not match.");
         }
 
+        Task task = taskDtoMapper.toBusiness(taskDto);
+        task.setVersion(ConditionalRequests.expectedVersion(ifMatch, taskDto.getVersion()));
         try {
             return ResponseEntity.ok(
                     taskDtoMapper.fromBusiness(
-                            taskService.upsert(
-                                    taskDtoMapper.toBusiness(taskDto)
-                            )
+                            taskService.upsert(task)
                     )
             );
         } catch (TaskNotFoundException | UserNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (VersionConflictException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
         }
     }
 
@@ -219,17 +443,41 @@ public class TaskController {
                     @ApiResponse(
                             responseCode = "400",
                             description = "No task with the provided ID could be found."
+                    ),
+                    @ApiResponse(
+                            responseCode = ConditionalRequests.CONFLICT,
+                            description = "The task was changed since the version in If-Match."
                     )
             }
     )
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable UUID id) {
+    public ResponseEntity<Void> delete(@PathVariable UUID id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            taskService.delete(id);
+            taskService.delete(id, ConditionalRequests.expectedVersion(ifMatch));
             return ResponseEntity.ok().build();
         } catch (TaskNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (VersionConflictException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
         }
 
     }
+
+    private ResponseEntity<List<TaskDto>> page(CursorPage<Task> page) {
+        return Pagination.ok(page, taskDtoMapper.fromBusiness(page.items()));
+    }
+
+    private void writeLines(JsonGenerator generator, List<Task> batch) {
+        try {
+            for (TaskDto taskDto : taskDtoMapper.fromBusiness(batch)) {
+                generator.writeObject(taskDto);
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+            batch.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -2,11 +2,15 @@ package de.unibayreuth.se.taskboard.api.controller;
 
 import de.unibayreuth.se.taskboard.api.dtos.UserDto;
 import de.unibayreuth.se.taskboard.api.mapper.UserDtoMapper;
+import de.unibayreuth.se.taskboard.business.domain.CursorPage;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.User;
 import de.unibayreuth.se.taskboard.business.exceptions.DuplicateNameException;
 import de.unibayreuth.se.taskboard.business.exceptions.MalformedRequestException;
 import de.unibayreuth.se.taskboard.business.ports.UserService;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -18,9 +22,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @OpenAPIDefinition(
@@ -36,6 +42,8 @@ import java.util.UUID;
 public class UserController {
     private final UserService userService;
     private final UserDtoMapper userDtoMapper;
+    private final IdempotentRequests idempotentRequests;
+    private final ConditionalRequests conditionalRequests;
 
     @Operation(
             summary = "Get all users.",
@@ -44,18 +52,32 @@ public class UserController {
                             responseCode = "200",
                             content = @Content(
                                     mediaType = "application/json",
-                                    schema = @Schema(implementation = UserDto.class)
+                                    schema = @Schema(type = "array", implementation = UserDto.class)
                             ),
-                            description = "All users as a JSON array."
+                            headers = @Header(name = Pagination.NEXT_CURSOR_HEADER, description = "Cursor of the next page, absent on the last page."),
+                            description = "One page of users sorted by creation time as a JSON array."
+                    ),
+                    @ApiResponse(
+                            responseCode = ConditionalRequests.NOT_MODIFIED,
+                            description = "No user changed since the provided ETag."
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid cursor or limit."
                     )
             }
     )
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAll() {
-        return ResponseEntity.ok(
-                userService.getAll().stream()
-                        .map(userDtoMapper::fromBusiness)
-                        .toList()
+    public ResponseEntity<List<UserDto>> getAll(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = Pagination.DEFAULT_LIMIT) int limit,
+                                                WebRequest request) {
+        if (conditionalRequests.notModified(request, userService.getRevision())) {
+            return null;
+        }
+        CursorPage<User> page = userService.getPage(Pagination.decode(cursor), Pagination.checkLimit(limit));
+        return Pagination.ok(page, page.items().stream()
+                .map(userDtoMapper::fromBusiness)
+                .toList()
         );
     }
 
@@ -70,6 +92,10 @@ public class UserController {
                             ),
                             description = "The user as a JSON object."
                     ),
+                    @ApiResponse(
+                            responseCode = ConditionalRequests.NOT_MODIFIED,
+                            description = "The user did not change since the provided ETag or time."
+                    ),
                     @ApiResponse(
                             responseCode = "404",
                             content = @Content(mediaType = "application/json"),
@@ -78,10 +104,17 @@ public class UserController {
             }
     )
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getById(@PathVariable UUID id) {
-        return userService.getById(id)
-                .map(user -> ResponseEntity.ok(userDtoMapper.fromBusiness(user)))
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<UserDto> getById(@PathVariable UUID id, WebRequest request) {
+        Optional<User> user = userService.getById(id); // cached, so the user is checked without a query
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // users are never updated
+        Revision revision = Revision.of(user.get().getCreatedAt(), user.get().getId(), user.get().getName());
+        if (conditionalRequests.notModified(request, revision)) {
+            return null;
+        }
+        return ResponseEntity.ok(userDtoMapper.fromBusiness(user.get()));
     }
 
     @Operation(
@@ -93,19 +126,29 @@ public class UserController {
                                     mediaType = "application/json",
                                     schema = @Schema(implementation = UserDto.class)
                             ),
+                            headers = @Header(name = IdempotentRequests.REPLAYED_HEADER, description = "true if the response of an earlier request with the same Idempotency-Key is returned."),
                             description = "The new user as a JSON object."
                     ),
                     @ApiResponse(
                             responseCode = "400",
                             content = @Content(mediaType = "application/json"),
                             description = "An ID was provided or a user with the same name already exists."
+                    ),
+                    @ApiResponse(
+                            responseCode = IdempotentRequests.CONFLICT,
+                            description = "A request with the same Idempotency-Key is still in progress."
+                    ),
+                    @ApiResponse(
+                            responseCode = IdempotentRequests.UNPROCESSABLE_ENTITY,
+                            description = "The Idempotency-Key was already used for another user."
                     )
             }
     )
     @PostMapping
-    public ResponseEntity<UserDto> create(@RequestBody @Valid UserDto userDto) {
+    public ResponseEntity<UserDto> create(@RequestBody @Valid UserDto userDto,
+                                          @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
         try {
-            return ResponseEntity.ok(
+            return idempotentRequests.create("users", idempotencyKey, userDto, UserDto.class, () ->
                     userDtoMapper.fromBusiness(
                             userService.create(
                                     userDtoMapper.toBusiness(userDto)
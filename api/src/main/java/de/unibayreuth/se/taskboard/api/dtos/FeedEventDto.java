@@ -0,0 +1,23 @@
+package de.unibayreuth.se.taskboard.api.dtos;
+
+import de.unibayreuth.se.taskboard.business.domain.FeedEvent;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO for an event of the change feed.
+ *
+ */
+@Data
+public class FeedEventDto {
+        private final String position; // continue after this event with ?after=<position> or Last-Event-ID
+        private final FeedEvent.Type type;
+        private final String entity;
+        private final UUID entityId;
+        private final long version;
+        private final LocalDateTime createdAt;
+        private final Map<String, Object> body; // state after the change, only the ID for deletions
+}
@@ -0,0 +1,84 @@
+package de.unibayreuth.se.taskboard.api.dtos;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import jakarta.annotation.Nullable;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes timestamps in the format of {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}, as the {@code JavaTimeModule}
+ * does, but without the formatter. The formatted timestamps are kept in a small cache, as the timestamps of a task
+ * list often repeat (e.g., the creation and update time of new tasks, or tasks created by one batch), together with
+ * their encoded form, which the generator copies without escaping.
+ */
+final class IsoTimestamps {
+    private static final int CACHE_SIZE = 1024; // a power of two
+
+    private static final Entry[] CACHE = new Entry[CACHE_SIZE]; // racy, but the entries are immutable
+
+    private record Entry(LocalDateTime timestamp, SerializedString text) { }
+
+    private IsoTimestamps() { }
+
+    static void write(JsonGenerator generator, SerializableString name, @Nullable LocalDateTime timestamp)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (timestamp == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(format(timestamp));
+        }
+    }
+
+    static SerializedString format(LocalDateTime timestamp) {
+        int hash = timestamp.hashCode();
+        int index = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+        Entry entry = CACHE[index];
+        if (entry == null || !entry.timestamp().equals(timestamp)) {
+            entry = new Entry(timestamp, new SerializedString(toText(timestamp)));
+            CACHE[index] = entry;
+        }
+        return entry.text();
+    }
+
+    private static String toText(LocalDateTime timestamp) {
+        int year = timestamp.getYear();
+        if (year < 0 || year > 9999) {
+            return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp); // with a sign
+        }
+        char[] text = new char[29]; // yyyy-MM-ddTHH:mm:ss.nnnnnnnnn
+        digits(text, 0, year, 4);
+        text[4] = '-';
+        digits(text, 5, timestamp.getMonthValue(), 2);
+        text[7] = '-';
+        digits(text, 8, timestamp.getDayOfMonth(), 2);
+        text[10] = 'T';
+        digits(text, 11, timestamp.getHour(), 2);
+        text[13] = ':';
+        digits(text, 14, timestamp.getMinute(), 2);
+        text[16] = ':';
+        digits(text, 17, timestamp.getSecond(), 2);
+        int nano = timestamp.getNano();
+        if (nano == 0) {
+            return new String(text, 0, 19);
+        }
+        text[19] = '.';
+        digits(text, 20, nano, 9);
+        int length = text.length;
+        while (text[length - 1] == '0') { // the fraction has as few digits as possible
+            length--;
+        }
+        return new String(text, 0, length);
+    }
+
+    private static void digits(char[] text, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
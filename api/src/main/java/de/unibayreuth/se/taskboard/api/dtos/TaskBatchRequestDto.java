@@ -0,0 +1,21 @@
+package de.unibayreuth.se.taskboard.api.dtos;
+
+import jakarta.annotation.Nullable;
+import jakarta.validation.Valid;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for bulk task changes.
+ *
+ */
+@Data
+public class TaskBatchRequestDto {
+        @Nullable
+        @Valid
+        private final List<TaskDto> upserts; // tasks without ID are created, tasks with ID are updated
+        @Nullable
+        private final List<UUID> deletes; // IDs of the tasks to delete
+}
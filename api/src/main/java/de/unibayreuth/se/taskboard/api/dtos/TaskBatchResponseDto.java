@@ -0,0 +1,15 @@
+package de.unibayreuth.se.taskboard.api.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO for the per-item results of bulk task changes, in the order of the request.
+ *
+ */
+@Data
+public class TaskBatchResponseDto {
+        private final List<TaskBatchResultDto> upserts;
+        private final List<TaskBatchResultDto> deletes;
+}
@@ -0,0 +1,21 @@
+package de.unibayreuth.se.taskboard.api.dtos;
+
+import jakarta.annotation.Nullable;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * DTO for the result of a single item of a bulk task change.
+ *
+ */
+@Data
+public class TaskBatchResultDto {
+        private final boolean succeeded;
+        @Nullable
+        private final UUID id; // null if the creation of a task failed
+        @Nullable
+        private final TaskDto task; // null for deletes and failed upserts
+        @Nullable
+        private final String error; // null if the item succeeded
+}
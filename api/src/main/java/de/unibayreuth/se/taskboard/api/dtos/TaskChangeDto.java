@@ -0,0 +1,19 @@
+package de.unibayreuth.se.taskboard.api.dtos;
+
+import de.unibayreuth.se.taskboard.business.domain.TaskChange;
+import jakarta.annotation.Nullable;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a single change in the history of a task.
+ *
+ */
+@Data
+public class TaskChangeDto {
+        private final LocalDateTime changedAt;
+        private final TaskChange.Type type;
+        @Nullable
+        private final TaskDto task; // state after the change, null if the task was deleted
+}
@@ -1,5 +1,6 @@
 package de.unibayreuth.se.taskboard.api.dtos;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
 import jakarta.annotation.Nullable;
 import jakarta.validation.Valid;
@@ -16,6 +17,7 @@ import java.util.UUID;
  *
  */
 @Data
+@JsonSerialize(using = TaskDtoSerializer.class) // keep in sync with the fields
 public class TaskDto {
         @Nullable
         private final UUID id; // task id is null when creating or update a new task
@@ -34,4 +36,6 @@ public class TaskDto {
         @Nullable
         @Valid
         private final UserDto assignee; // null when no user is assigned yet
+        @Nullable
+        private final Long version; // expected version on updates, null to overwrite the current version
 }
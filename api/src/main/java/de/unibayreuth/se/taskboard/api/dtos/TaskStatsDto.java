@@ -0,0 +1,19 @@
+package de.unibayreuth.se.taskboard.api.dtos;
+
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO for the task counts of the board.
+ *
+ */
+@Data
+public class TaskStatsDto {
+        private final long total;
+        private final Map<TaskStatus, Long> byStatus; // all statuses, also those without tasks
+        private final Map<UUID, Long> byAssignee; // only assignees with tasks
+        private final long unassigned;
+}
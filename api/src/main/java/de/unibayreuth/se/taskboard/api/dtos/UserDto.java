@@ -1,5 +1,6 @@
 package de.unibayreuth.se.taskboard.api.dtos;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
@@ -13,6 +14,7 @@ import java.util.UUID;
  *
  */
 @Data
+@JsonSerialize(using = UserDtoSerializer.class) // keep in sync with the fields
 public class UserDto {
         @Nullable
         private final UUID id; // null when using DTO to create a new user
@@ -0,0 +1,37 @@
+package de.unibayreuth.se.taskboard.api.dtos;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes users with the same JSON as the reflection-based serializer, but with pre-encoded field names and the
+ * cached timestamps of {@link IsoTimestamps}. Also used for the assignees of {@link TaskDtoSerializer}.
+ */
+public class UserDtoSerializer extends StdSerializer<UserDto> {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString NAME = new SerializedString("name");
+
+    public UserDtoSerializer() {
+        super(UserDto.class);
+    }
+
+    @Override
+    public void serialize(UserDto user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(user, generator);
+    }
+
+    static void write(UserDto user, JsonGenerator generator) throws IOException {
+        generator.writeStartObject(user);
+        generator.writeFieldName(ID);
+        generator.writeString(user.getId() == null ? null : user.getId().toString());
+        IsoTimestamps.write(generator, CREATED_AT, user.getCreatedAt());
+        generator.writeFieldName(NAME);
+        generator.writeString(user.getName());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,16 @@
+package de.unibayreuth.se.taskboard.api.mapper;
+
+import de.unibayreuth.se.taskboard.api.dtos.FeedEventDto;
+import de.unibayreuth.se.taskboard.business.domain.FeedEvent;
+import lombok.NoArgsConstructor;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+
+@Mapper(componentModel = "spring")
+@ConditionalOnMissingBean // prevent IntelliJ warning about duplicate beans
+@NoArgsConstructor
+public abstract class FeedEventDtoMapper {
+    @Mapping(target = "position", expression = "java(source.position().toString())")
+    public abstract FeedEventDto fromBusiness(FeedEvent source);
+}
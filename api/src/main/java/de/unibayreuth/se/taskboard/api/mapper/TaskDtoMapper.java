@@ -3,8 +3,10 @@ package de.unibayreuth.se.taskboard.api.mapper;
 import de.unibayreuth.se.taskboard.api.dtos.TaskDto;
 import de.unibayreuth.se.taskboard.api.dtos.UserDto;
 import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.User;
 import de.unibayreuth.se.taskboard.business.ports.UserService;
 import lombok.NoArgsConstructor;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +14,8 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Mapper(componentModel = "spring")
 @ConditionalOnMissingBean // prevent IntelliJ warning about duplicate beans
@@ -29,6 +32,24 @@ public abstract class TaskDtoMapper {
     @Mapping(target = "assignee", expression = "java(getUserById(source.getAssigneeId()))")
     public abstract TaskDto fromBusiness(Task source);
 
+    @Mapping(target = "assignee", expression = "java(assignees.get(source.getAssigneeId()))")
+    protected abstract TaskDto fromBusiness(Task source, @Context Map<UUID, UserDto> assignees);
+
+    /**
+     * Maps a list of tasks and resolves all assignees with a single user lookup instead of one lookup per task.
+     */
+    public List<TaskDto> fromBusiness(List<Task> sources) {
+        Set<UUID> assigneeIds = sources.stream()
+                .map(Task::getAssigneeId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<UUID, UserDto> assignees = userService.getByIds(assigneeIds).stream()
+                .collect(Collectors.toMap(User::getId, userDtoMapper::fromBusiness, (a, b) -> a));
+        return sources.stream()
+                .map(task -> fromBusiness(task, assignees)) // the HashMap from toMap() permits null keys
+                .toList();
+    }
+
     @Mapping(target = "assigneeId", source = "assignee.id")
     @Mapping(target = "status", source = "status", defaultValue = "TODO")
     @Mapping(target = "createdAt", expression = "java(mapTimestamp(source.getCreatedAt()))")
@@ -0,0 +1,14 @@
+package de.unibayreuth.se.taskboard.api.mapper;
+
+import de.unibayreuth.se.taskboard.api.dtos.TaskStatsDto;
+import de.unibayreuth.se.taskboard.business.domain.TaskStats;
+import lombok.NoArgsConstructor;
+import org.mapstruct.Mapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+
+@Mapper(componentModel = "spring")
+@ConditionalOnMissingBean // prevent IntelliJ warning about duplicate beans
+@NoArgsConstructor
+public abstract class TaskStatsDtoMapper {
+    public abstract TaskStatsDto fromBusiness(TaskStats source);
+}
@@ -0,0 +1,29 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.ports.ProjectionPersistenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the projection tables from the events on startup if the application is started with
+ * {@code --rebuild-projections}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class RebuildProjections implements ApplicationRunner {
+    static final String OPTION = "rebuild-projections";
+
+    private final ProjectionPersistenceService projectionPersistenceService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(OPTION)) {
+            log.info("Rebuilding projections...");
+            projectionPersistenceService.rebuild();
+        }
+    }
+}
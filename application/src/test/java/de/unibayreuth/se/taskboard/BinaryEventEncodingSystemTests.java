@@ -0,0 +1,100 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.domain.FeedEvent;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskChange;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.domain.User;
+import de.unibayreuth.se.taskboard.business.ports.EventService;
+import de.unibayreuth.se.taskboard.business.ports.ProjectionPersistenceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * System tests with binary event payloads, which requires a separate application context.
+ */
+@TestPropertySource(properties = "taskboard.events.encoding.format=binary")
+public class BinaryEventEncodingSystemTests extends AbstractSystemTest {
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private ProjectionPersistenceService projectionPersistenceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void projectionsAndQueriesDecodeBinaryPayloads() {
+        List<User> createdUsers = TestFixtures.createUsers(userService);
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+        Task task = createdTasks.getFirst();
+        task.setTitle("Ünïcödé title");
+        task.setStatus(TaskStatus.DOING);
+        task.setAssigneeId(createdUsers.getFirst().getId());
+        Task updated = taskService.upsert(task);
+
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from events where body is not null or payload is null", Long.class)).isZero();
+        assertThat(taskService.getById(task.getId()))
+                .usingRecursiveComparison()
+                .isEqualTo(updated);
+        assertThat(userService.getAll())
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("createdAt")
+                .containsExactlyInAnyOrderElementsOf(createdUsers);
+
+        List<TaskChange> history = taskService.getHistory(task.getId());
+        assertThat(history).extracting(TaskChange::type)
+                .containsExactly(TaskChange.Type.INSERT, TaskChange.Type.UPDATE);
+        assertThat(history.getLast().task())
+                .usingRecursiveComparison()
+                .isEqualTo(updated);
+        assertThat(taskService.getAllAsOf(LocalDateTime.now(ZoneId.of("UTC"))))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(taskService.getAll());
+
+        taskService.delete(task.getId(), updated.getVersion());
+        List<FeedEvent> feed = eventService.getPage(null, 100).events();
+        assertThat(feed.getLast().type()).isEqualTo(FeedEvent.Type.DELETE);
+        assertThat(feed.getLast().body()).containsOnlyKeys("id");
+        assertThat(feed)
+                .filteredOn(event -> event.entityId().equals(task.getId()) && event.type() == FeedEvent.Type.UPDATE)
+                .singleElement()
+                .satisfies(event -> assertThat(event.body())
+                        .containsEntry("title", "Ünïcödé title")
+                        .containsEntry("assigneeId", createdUsers.getFirst().getId().toString())
+                        .containsEntry("version", updated.getVersion()));
+    }
+
+    @Test
+    void rebuildReplaysJsonAndBinaryEvents() {
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+        Task task = createdTasks.getFirst();
+        jdbcTemplate.update("insert into events(type, entity, entity_version, created_at, body) "
+                + "select 'UPDATE', 'Task', 1, now(), jsonb_build_object('id', id, 'title', 'Written as JSON', "
+                + "       'description', description, 'status', status, 'assigneeId', assignee_id, "
+                + "       'createdAt', created_at, 'updatedAt', localtimestamp) "
+                + "from tasks where id = ?", task.getId()); // as written before the binary format was enabled
+        Task updated = taskService.getById(task.getId());
+        assertThat(updated.getTitle()).isEqualTo("Written as JSON");
+        assertThat(updated.getVersion()).isEqualTo(2L);
+
+        jdbcTemplate.execute("delete from tasks"); // corrupt the projection
+        projectionPersistenceService.rebuild();
+
+        assertThat(taskService.getById(task.getId()))
+                .usingRecursiveComparison()
+                .isEqualTo(updated);
+        assertThat(taskService.getAll()).hasSameSizeAs(createdTasks);
+        assertThat(taskService.getHistory(task.getId())).hasSize(2);
+    }
+}
@@ -0,0 +1,161 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.domain.BatchResult;
+import de.unibayreuth.se.taskboard.business.domain.EventPosition;
+import de.unibayreuth.se.taskboard.business.domain.FeedEvent;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.ports.EventService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the binary event payloads with the JSONB bodies: the projection by the triggers (JSONB before, binary
+ * after), storage size, decoding in the database (as done by the rebuild), and decoding in the application (as done by
+ * the change feed). The compared events are copies of the binary events with other IDs, in both formats, inserted
+ * through the triggers by one statement per format and type. Also logs the write throughput with the binary format.
+ * Excluded from the default build, run it with {@code mvn test -Pbenchmark -Dtest=EventEncodingBenchmarkTests}
+ * (event count via {@code -Dbenchmark.events=...}, default 200k).
+ */
+@Tag("benchmark")
+@Slf4j
+@TestPropertySource(properties = "taskboard.events.encoding.format=binary")
+public class EventEncodingBenchmarkTests extends AbstractSystemTest {
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 200_000);
+    private static final int TASKS = EVENTS / 2; // every task is inserted and updated once
+    private static final int BATCH_SIZE = 1_000;
+    private static final UUID COPIED_BY = UUID.nameUUIDFromBytes("copy".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop table if exists event_copies");
+        jdbcTemplate.execute("truncate events, snapshot_entries, snapshots, tasks, users");
+    }
+
+    @Test
+    void compareBinaryWithJson() {
+        long start = System.nanoTime();
+        for (int offset = 0; offset < TASKS; offset += BATCH_SIZE) {
+            List<Task> created = upsertAll(IntStream.range(offset, Math.min(offset + BATCH_SIZE, TASKS))
+                    .mapToObj(i -> new Task("Task " + i, "Description of task " + i + ", written by the benchmark."))
+                    .toList());
+            created.forEach(task -> task.setStatus(TaskStatus.DOING));
+            upsertAll(created);
+        }
+        log.info("Binary writes: {} events/s (encoding, insert, and projection).", perSecond(EVENTS, start));
+        EventPosition binaryHead = eventService.getHead();
+
+        prepareCopies();
+        long jsonNanos = insertCopies(1);
+        EventPosition jsonHead = eventService.getHead();
+        long binaryNanos = insertCopies(2);
+        jdbcTemplate.execute("drop table event_copies");
+        log.info("Projection triggers: {} events/s with JSONB bodies (before), {} events/s with binary payloads "
+                + "(after).", EVENTS * 1_000_000_000L / jsonNanos, EVENTS * 1_000_000_000L / binaryNanos);
+
+        Long binaryBytes = jdbcTemplate.queryForObject(
+                "select avg(pg_column_size(payload))::bigint from events where entity_version = 2", Long.class);
+        Long jsonBytes = jdbcTemplate.queryForObject(
+                "select avg(pg_column_size(body))::bigint from events where entity_version = 1", Long.class);
+        log.info("Storage: {} bytes per binary payload, {} bytes per JSONB body.", binaryBytes, jsonBytes);
+
+        start = System.nanoTime();
+        jdbcTemplate.queryForObject("select sum(length(fn_event_body(e) ->> 'title')) from events e "
+                + "where entity_version = 2 and created_by = ?", Long.class, COPIED_BY);
+        log.info("Database decoding, binary: {} events/s.", perSecond(EVENTS, start));
+        start = System.nanoTime();
+        jdbcTemplate.queryForObject("select sum(length(fn_event_body(e) ->> 'title')) from events e "
+                + "where entity_version = 1 and created_by = ?", Long.class, COPIED_BY);
+        log.info("Database decoding, JSONB: {} events/s.", perSecond(EVENTS, start));
+
+        start = System.nanoTime();
+        EventPosition position = readFeed(EventPosition.START, binaryHead);
+        log.info("Application decoding, binary: {} events/s.", perSecond(EVENTS, start));
+        start = System.nanoTime();
+        readFeed(position, jsonHead);
+        log.info("Application decoding, JSONB: {} events/s.", perSecond(EVENTS, start));
+
+        assertThat(binaryBytes).isLessThan(jsonBytes);
+        assertThat(taskService.getAll()).hasSize(3 * TASKS); // the originals and the copies in both formats
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tasks where status <> 'DOING'", Long.class))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from events e where entity_version = 2 "
+                + "and fn_event_body(e) ->> 'title' is null", Long.class)).isZero();
+    }
+
+    private List<Task> upsertAll(List<Task> tasks) {
+        List<Task> results = new ArrayList<>(tasks.size());
+        for (BatchResult<Task> result : taskService.upsertAll(tasks)) {
+            assertThat(result.succeeded()).isTrue();
+            results.add(result.value());
+        }
+        return results;
+    }
+
+    /**
+     * Prepares a JSONB copy and a binary copy of every binary event, with the same content apart from the ID, so that
+     * only their inserts through the projection triggers are timed.
+     */
+    private void prepareCopies() {
+        jdbcTemplate.execute("create unlogged table event_copies as "
+                + "select type, entity, 1 as entity_version, created_at, version, "
+                + "       fn_event_body(e) || jsonb_build_object('id', md5('json' || aggregate_id)::uuid) as body, "
+                + "       cast(null as bytea) as payload "
+                + "from events e "
+                + "union all "
+                + "select type, entity, 2, created_at, version, null, "
+                + "       decode(md5('binary' || aggregate_id), 'hex') || substring(payload from 17) "
+                + "from events e");
+    }
+
+    /**
+     * Inserts the copies of one format, the INSERT events by one statement, then the UPDATE events by another.
+     *
+     * @return the nanoseconds of both statements
+     */
+    private long insertCopies(int entityVersion) {
+        long nanos = 0;
+        for (String type : List.of("INSERT", "UPDATE")) {
+            long start = System.nanoTime();
+            jdbcTemplate.update("insert into events(type, entity, entity_version, created_by, created_at, body, "
+                    + "payload, version) "
+                    + "select type, entity, entity_version, ?, created_at, body, payload, version "
+                    + "from event_copies where entity_version = ? and type = ?", COPIED_BY, entityVersion, type);
+            nanos += System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private EventPosition readFeed(EventPosition after, EventPosition until) {
+        EventPosition position = after;
+        while (position.compareTo(until) < 0) {
+            List<FeedEvent> events = eventService.getAfter(position, BATCH_SIZE);
+            assertThat(events).isNotEmpty();
+            position = events.getLast().position();
+        }
+        return position;
+    }
+
+    private static long perSecond(long count, long startNanos) {
+        return count * 1_000_000_000L / Math.max(1, System.nanoTime() - startNanos);
+    }
+}
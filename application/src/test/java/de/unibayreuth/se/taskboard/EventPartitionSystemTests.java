@@ -0,0 +1,113 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.domain.ArchivedEventRange;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskChange;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.ports.EventPartitionPersistenceService;
+import de.unibayreuth.se.taskboard.business.ports.ProjectionPersistenceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.when;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * System tests of the event partitions and the archive, with a retention of one month, which requires a separate
+ * application context. Old events are inserted directly, with a creation time in the past.
+ */
+@TestPropertySource(properties = "taskboard.events.partitions.retention=P1M")
+public class EventPartitionSystemTests extends AbstractSystemTest {
+
+    @Autowired
+    private EventPartitionPersistenceService eventPartitionPersistenceService;
+
+    @Autowired
+    private ProjectionPersistenceService projectionPersistenceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void newEventsGoToTheMonthlyPartitions() {
+        eventPartitionPersistenceService.createPartitions();
+        assertThat(eventPartitionPersistenceService.createPartitions()).isZero();
+
+        Task created = taskService.create(TestFixtures.getTasks().getFirst());
+        assertThat(jdbcTemplate.queryForObject("select tableoid::regclass::text from events where aggregate_id = ?",
+                String.class, created.getId()))
+                .isEqualTo("events_" + YearMonth.now(ZoneId.of("UTC")).format(DateTimeFormatter.ofPattern("yyyy_MM")));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from pg_inherits "
+                + "where inhparent = 'events'::regclass and inhrelid::regclass::text <> 'events_default'", Long.class))
+                .isGreaterThanOrEqualTo(4L); // the current month and three ahead
+    }
+
+    @Test
+    void archiveCompactsOldEvents() {
+        UUID id = UUID.randomUUID();
+        LocalDateTime twoYearsAgo = LocalDateTime.now(ZoneId.of("UTC")).minusYears(2);
+        insertOldEvent("INSERT", id, "Old task", twoYearsAgo, twoYearsAgo);
+        insertOldEvent("UPDATE", id, "Old task, updated", twoYearsAgo, twoYearsAgo.plusDays(1));
+        Task old = taskService.getById(id);
+        assertThat(old.getVersion()).isEqualTo(2L);
+        UUID deletedId = UUID.randomUUID();
+        insertOldEvent("INSERT", deletedId, "Old deleted task", twoYearsAgo, twoYearsAgo);
+        insertOldEvent("DELETE", deletedId, "Old deleted task", twoYearsAgo, twoYearsAgo.plusDays(1));
+
+        List<ArchivedEventRange> ranges = eventPartitionPersistenceService.archive();
+
+        assertThat(ranges).extracting(ArchivedEventRange::eventCount).containsExactly(4L);
+        assertThat(eventPartitionPersistenceService.archive()).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from events where aggregate_id = ?",
+                Long.class, id)).isZero();
+        assertThat(jdbcTemplate.queryForList("select aggregate_id from event_versions where aggregate_id in (?, ?)",
+                UUID.class, id, deletedId)).containsExactly(id); // the version of the deleted task is purged
+        assertThat(taskService.getById(id))
+                .usingRecursiveComparison()
+                .isEqualTo(old);
+        List<TaskChange> history = taskService.getHistory(id);
+        assertThat(history).singleElement()
+                .satisfies(change -> assertThat(change.type()).isEqualTo(TaskChange.Type.UPDATE))
+                .satisfies(change -> assertThat(change.task())
+                        .usingRecursiveComparison()
+                        .isEqualTo(old));
+
+        old.setStatus(TaskStatus.DOING);
+        Task updated = taskService.upsert(old); // the version of the archived events is kept
+        assertThat(updated.getVersion()).isEqualTo(3L);
+        assertThat(taskService.getHistory(id)).hasSize(2);
+
+        jdbcTemplate.execute("delete from snapshot_entries; delete from snapshots; delete from tasks");
+        projectionPersistenceService.rebuild(); // from the archive and the newer events
+        assertThat(taskService.getById(id))
+                .usingRecursiveComparison()
+                .isEqualTo(updated);
+
+        when()
+                .get("/api/tasks?asOf={asOf}", twoYearsAgo.plusDays(2).toString())
+                .then()
+                .statusCode(400);
+        assertThat(taskService.getAllAsOf(LocalDateTime.now(ZoneId.of("UTC"))))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(taskService.getAll());
+    }
+
+    private void insertOldEvent(String type, UUID id, String title, LocalDateTime createdAt, LocalDateTime changedAt) {
+        Timestamp timestamp = Timestamp.valueOf(changedAt);
+        jdbcTemplate.update("insert into events(type, entity, entity_version, created_at, body) "
+                + "select ?, 'Task', 1, ?, jsonb_build_object('id', ?, 'title', ?, 'description', 'Archived', "
+                + "       'status', 'TODO', 'assigneeId', null, 'createdAt', cast(? as timestamp), "
+                + "       'updatedAt', cast(? as timestamp))",
+                type, timestamp, id, title, Timestamp.valueOf(createdAt), timestamp);
+    }
+}
@@ -0,0 +1,66 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.User;
+import de.unibayreuth.se.taskboard.business.exceptions.DuplicateNameException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * System tests with the group commit of events enabled, which requires a separate application context.
+ */
+@TestPropertySource(properties = "taskboard.events.group-commit.enabled=true")
+public class GroupCommitSystemTests extends AbstractSystemTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentWritesAreCommittedTogether() {
+        DistributionSummary batchSizes = meterRegistry.get("taskboard.events.batch.size").summary();
+        long batchesBefore = batchSizes.count();
+        double eventsBefore = batchSizes.totalAmount();
+
+        List<Object> results = runConcurrently(64, i -> taskService.create(new Task("Task " + i, "Created concurrently.")));
+
+        assertThat(results).allMatch(result -> result instanceof Task);
+        assertThat(taskService.getAll()).hasSize(64);
+        assertThat(batchSizes.totalAmount() - eventsBefore).isEqualTo(64);
+        assertThat(batchSizes.count() - batchesBefore).isLessThan(64);
+    }
+
+    @Test
+    void failingWritesOnlyFailTheirCaller() {
+        List<Object> results = runConcurrently(16, i -> i % 2 == 0
+                ? userService.create(new User("Same name")) // only one of them succeeds
+                : userService.create(new User("User " + i)));
+
+        assertThat(results).filteredOn(result -> result instanceof User).hasSize(9);
+        assertThat(results).filteredOn(result -> result instanceof DuplicateNameException).hasSize(7);
+        assertThat(userService.getAll()).hasSize(9);
+    }
+
+    private static List<Object> runConcurrently(int count, IntFunction<Object> action) {
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            List<CompletableFuture<Object>> results = IntStream.range(0, count)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> action.apply(i), executor)
+                            .exceptionally(Throwable::getCause))
+                    .toList();
+            return results.stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        }
+    }
+}
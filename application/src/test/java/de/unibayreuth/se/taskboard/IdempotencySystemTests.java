@@ -0,0 +1,97 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.ports.IdempotencyPersistenceService;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * System tests of the Idempotency-Key header of the create endpoints. Expired keys are inserted directly.
+ */
+public class IdempotencySystemTests extends AbstractSystemTest {
+    private static final Map<String, String> TASK = Map.of("title", "Idempotent task", "description", "Created once");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdempotencyPersistenceService idempotencyPersistenceService;
+
+    @Test
+    void retriedCreationIsReplayed() {
+        String key = UUID.randomUUID().toString();
+        Response first = create("/api/tasks", key, TASK);
+        Response retry = create("/api/tasks", key, TASK);
+
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.header("Idempotent-Replayed")).isNull();
+        assertThat(retry.statusCode()).isEqualTo(200);
+        assertThat(retry.header("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(retry.jsonPath().getString("id")).isEqualTo(first.jsonPath().getString("id"));
+        assertThat(retry.jsonPath().getString("createdAt")).isEqualTo(first.jsonPath().getString("createdAt"));
+        assertThat(taskService.getAll()).hasSize(1);
+
+        assertThat(create("/api/tasks", UUID.randomUUID().toString(), TASK).statusCode()).isEqualTo(200);
+        assertThat(create("/api/tasks", null, TASK).statusCode()).isEqualTo(200);
+        assertThat(taskService.getAll()).hasSize(3);
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() {
+        String key = UUID.randomUUID().toString();
+        assertThat(create("/api/tasks", key, TASK).statusCode()).isEqualTo(200);
+        assertThat(create("/api/tasks", key, Map.of("title", "Another task", "description", "")).statusCode())
+                .isEqualTo(422);
+        assertThat(create("/api/users", key, Map.of("name", "Alice")).statusCode())
+                .isEqualTo(200); // keys are scoped by endpoint
+        assertThat(create("/api/tasks", " ", TASK).statusCode()).isEqualTo(400);
+        assertThat(taskService.getAll()).extracting(Task::getTitle).containsExactly("Idempotent task");
+    }
+
+    @Test
+    void failedRequestReleasesItsKey() {
+        String key = UUID.randomUUID().toString();
+        assertThat(create("/api/users", null, Map.of("name", "Bob")).statusCode()).isEqualTo(200);
+        assertThat(create("/api/users", key, Map.of("name", "Bob")).statusCode()).isEqualTo(400);
+        userService.clear();
+
+        Response retry = create("/api/users", key, Map.of("name", "Bob"));
+        assertThat(retry.statusCode()).isEqualTo(200);
+        assertThat(retry.header("Idempotent-Replayed")).isNull();
+        assertThat(userService.getAll()).hasSize(1);
+    }
+
+    @Test
+    void expiredKeysAreFreeAgain() {
+        String key = UUID.randomUUID().toString();
+        jdbcTemplate.update("insert into idempotency_keys (scope, idempotency_key, request_hash, status, body, "
+                + "expires_at) values ('tasks', ?, 'expired', 200, '{}', localtimestamp - interval '1 hour')", key);
+
+        Response response = create("/api/tasks", key, TASK);
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.header("Idempotent-Replayed")).isNull();
+        assertThat(create("/api/tasks", key, TASK).header("Idempotent-Replayed")).isEqualTo("true");
+
+        jdbcTemplate.update("update idempotency_keys set expires_at = localtimestamp - interval '1 hour'");
+        assertThat(idempotencyPersistenceService.deleteExpired()).isPositive();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from idempotency_keys where idempotency_key = ?",
+                Long.class, key)).isZero();
+    }
+
+    private static Response create(String path, String key, Map<String, String> body) {
+        var request = given().contentType(ContentType.JSON).body(body);
+        if (key != null) {
+            request = request.header("Idempotency-Key", key);
+        }
+        return request.when().post(path);
+    }
+}
@@ -0,0 +1,10 @@
+package de.unibayreuth.se.taskboard;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs the persistence benchmark against the in-memory implementations, without a journal.
+ */
+@ActiveProfiles("in-memory")
+public class InMemoryPersistenceBenchmarkTests extends PersistenceBenchmarkTests {
+}
@@ -0,0 +1,177 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.domain.ProjectionRebuild;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskChange;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.domain.User;
+import de.unibayreuth.se.taskboard.business.exceptions.DuplicateNameException;
+import de.unibayreuth.se.taskboard.business.exceptions.VersionConflictException;
+import de.unibayreuth.se.taskboard.business.ports.ProjectionPersistenceService;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * System tests of the {@code in-memory} profile, which requires a separate application context. The database of the
+ * base class is started but not used; the journal is written to a temporary file.
+ */
+@ActiveProfiles("in-memory")
+public class InMemoryPersistenceSystemTests extends AbstractSystemTest {
+    private static final Path JOURNAL = createJournalPath();
+
+    @DynamicPropertySource
+    static void configureJournal(DynamicPropertyRegistry registry) {
+        registry.add("taskboard.in-memory.journal", JOURNAL::toString);
+        registry.add("taskboard.in-memory.lock-stripes", () -> "4"); // writes of different tasks share locks
+    }
+
+    @Autowired
+    private ProjectionPersistenceService projectionPersistenceService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void tasksAndUsersAreKeptInMemory() {
+        assertThat(applicationContext.getBeanNamesForType(DataSource.class)).isEmpty();
+        List<User> createdUsers = TestFixtures.createUsers(userService);
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+        Task task = createdTasks.getFirst();
+        task.setStatus(TaskStatus.DOING);
+        task.setAssigneeId(createdUsers.getFirst().getId());
+        Task updated = taskService.upsert(task);
+
+        assertThat(updated.getVersion()).isEqualTo(2L);
+        assertThat(taskService.getByStatus(TaskStatus.DOING)).extracting(Task::getId).containsExactly(task.getId());
+        assertThat(taskService.getByStatus(TaskStatus.TODO)).hasSize(createdTasks.size() - 1);
+        assertThat(taskService.getByAssignee(createdUsers.getFirst().getId())).singleElement()
+                .usingRecursiveComparison()
+                .isEqualTo(updated);
+        assertThat(taskService.getHistory(task.getId())).extracting(TaskChange::type)
+                .containsExactly(TaskChange.Type.INSERT, TaskChange.Type.UPDATE);
+
+        Task stale = taskService.getById(task.getId());
+        stale.setVersion(1L);
+        assertThatThrownBy(() -> taskService.upsert(stale)).isInstanceOf(VersionConflictException.class);
+        assertThatThrownBy(() -> userService.create(new User(createdUsers.getLast().getName())))
+                .isInstanceOf(DuplicateNameException.class);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("id", task.getId(), "title", "Updated via the API", "description", "",
+                        "version", 2))
+                .when()
+                .put("/api/tasks/{id}", task.getId())
+                .then()
+                .statusCode(200)
+                .body("version", equalTo(3));
+    }
+
+    @Test
+    void concurrentWritesKeepTheIndexesConsistent() {
+        List<User> users = TestFixtures.createUsers(userService);
+        List<Object> created = runConcurrently(64, i -> taskService.create(new Task("Task " + i, "Concurrent.")));
+        List<Task> tasks = created.stream().map(Task.class::cast).toList();
+
+        // every task is updated by one writer per round, moving between the statuses and assignees
+        TaskStatus[] statuses = TaskStatus.values();
+        for (int round = 1; round <= 5; round++) {
+            int currentRound = round;
+            List<Object> results = runConcurrently(tasks.size(), i -> {
+                Task task = taskService.getById(tasks.get(i).getId());
+                task.setStatus(statuses[(i + currentRound) % statuses.length]);
+                task.setAssigneeId(users.get((i + currentRound) % users.size()).getId());
+                return taskService.upsert(task);
+            });
+            assertThat(results).allMatch(result -> result instanceof Task);
+        }
+
+        assertThat(taskService.getAll()).hasSize(tasks.size())
+                .allSatisfy(task -> assertThat(task.getVersion()).isEqualTo(6L));
+        assertThat(IntStream.range(0, statuses.length)
+                .map(i -> taskService.getByStatus(statuses[i]).size())
+                .sum()).isEqualTo(tasks.size());
+        assertThat(users.stream()
+                .mapToInt(user -> taskService.getByAssignee(user.getId()).size())
+                .sum()).isEqualTo(tasks.size());
+        for (Task task : taskService.getAll()) {
+            assertThat(taskService.getByStatus(task.getStatus())).extracting(Task::getId).contains(task.getId());
+            assertThat(taskService.getByAssignee(task.getAssigneeId())).extracting(Task::getId)
+                    .contains(task.getId());
+        }
+    }
+
+    @Test
+    void theJournalIsReplayed() throws IOException {
+        List<User> createdUsers = TestFixtures.createUsers(userService);
+        TestFixtures.createTasks(taskService);
+        Task task = taskService.getAll().getFirst();
+        task.setAssigneeId(createdUsers.getFirst().getId());
+        taskService.upsert(task);
+        taskService.delete(taskService.getAll().getLast().getId(), null);
+        List<Task> tasks = taskService.getAll();
+        List<User> users = userService.getAll();
+        List<TaskChange> history = taskService.getHistory(task.getId());
+
+        Files.writeString(JOURNAL, "{\"type\":\"INS", StandardOpenOption.APPEND); // torn write
+        ProjectionRebuild rebuild = projectionPersistenceService.rebuild();
+
+        assertThat(rebuild.replayedEvents()).isPositive();
+        assertThat(taskService.getAll())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(tasks);
+        assertThat(userService.getAll())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(users);
+        assertThat(taskService.getHistory(task.getId()))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(history);
+        taskService.create(new Task("After the replay", "Appended to the cut journal."));
+        assertThat(projectionPersistenceService.rebuild().replayedEvents()).isEqualTo(rebuild.replayedEvents() + 1);
+    }
+
+    private static Path createJournalPath() {
+        try {
+            Path directory = Files.createTempDirectory("taskboard");
+            directory.toFile().deleteOnExit();
+            return directory.resolve("taskboard.journal");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Object> runConcurrently(int count, IntFunction<Object> action) {
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            List<CompletableFuture<Object>> results = IntStream.range(0, count)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> action.apply(i), executor)
+                            .exceptionally(Throwable::getCause))
+                    .toList();
+            return results.stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package de.unibayreuth.se.taskboard;
+
+/**
+ * Runs the persistence benchmark against the database-backed (event-sourcing) implementations.
+ */
+public class JpaPersistenceBenchmarkTests extends PersistenceBenchmarkTests {
+}
@@ -0,0 +1,145 @@
+package de.unibayreuth.se.taskboard;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import de.unibayreuth.se.taskboard.api.dtos.TaskDto;
+import de.unibayreuth.se.taskboard.api.dtos.UserDto;
+import de.unibayreuth.se.taskboard.business.domain.BatchResult;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.response.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the serialization of task lists by the application's object mapper, with Blackbird and the DTO serializers,
+ * with the reflection-based bean serializer and the {@code JavaTimeModule} formatter, on lists of 10k tasks (half of
+ * them with an assignee), and checks that both produce the same JSON. Also checks that large responses are compressed.
+ * Excluded from the default build, run it with {@code mvn test -Pbenchmark -Dtest=JsonSerializationBenchmarkTests}
+ * (task count via {@code -Dbenchmark.tasks=...}, default 10k, and rounds via {@code -Dbenchmark.rounds=...}, default
+ * 200).
+ */
+@Tag("benchmark")
+@Slf4j
+public class JsonSerializationBenchmarkTests extends AbstractSystemTest {
+    private static final int TASKS = Integer.getInteger("benchmark.tasks", 10_000);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 200);
+    private static final int RESPONSE_TASKS = 1_000; // the maximum page size
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        taskService.clear();
+    }
+
+    @Test
+    void compareWithTheBeanSerializer() throws JsonProcessingException {
+        List<TaskDto> tasks = createTaskDtos();
+        ObjectWriter optimized = objectMapper.writerFor(TaskDto[].class);
+        ObjectWriter reflective = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(new ParameterNamesModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(MapperFeature.USE_ANNOTATIONS) // ignores the DTO serializers
+                .build()
+                .writerFor(TaskDto[].class);
+        TaskDto[] payload = tasks.toArray(TaskDto[]::new);
+        byte[] json = optimized.writeValueAsBytes(payload);
+        assertThat(new String(json, StandardCharsets.UTF_8))
+                .isEqualTo(reflective.writeValueAsString(payload));
+
+        measure(reflective, payload, ROUNDS / 4); // warm-up
+        measure(optimized, payload, ROUNDS / 4);
+        long reflectiveRate = measure(reflective, payload, ROUNDS);
+        long optimizedRate = measure(optimized, payload, ROUNDS);
+        log.info("Bean serializer: {} tasks/s.", reflectiveRate);
+        log.info("Blackbird and DTO serializers: {} tasks/s ({}%).", optimizedRate,
+                optimizedRate * 100 / Math.max(1, reflectiveRate));
+        log.info("Payload of {} tasks: {} bytes, {} bytes compressed.", TASKS, json.length, gzip(json).length);
+
+        List<Task> created = IntStream.range(0, RESPONSE_TASKS)
+                .mapToObj(i -> new Task("Task " + i, "Description of task " + i + ", written by the benchmark."))
+                .toList();
+        assertThat(taskService.upsertAll(created)).allMatch(BatchResult::succeeded);
+        RestAssuredConfig undecoded = RestAssuredConfig.config()
+                .decoderConfig(DecoderConfig.decoderConfig().noContentDecoders());
+        Response compressed = given().config(undecoded)
+                .header("Accept-Encoding", "gzip")
+                .queryParam("limit", RESPONSE_TASKS)
+                .when()
+                .get("/api/tasks");
+        Response uncompressed = given().config(undecoded)
+                .queryParam("limit", RESPONSE_TASKS)
+                .when()
+                .get("/api/tasks");
+        log.info("Response with {} tasks: {} bytes, {} bytes compressed.", RESPONSE_TASKS,
+                uncompressed.asByteArray().length, compressed.asByteArray().length);
+        assertThat(compressed.header("Content-Encoding")).isEqualTo("gzip");
+        assertThat(uncompressed.header("Content-Encoding")).isNull();
+        assertThat(compressed.asByteArray().length).isLessThan(uncompressed.asByteArray().length / 2);
+    }
+
+    private static List<TaskDto> createTaskDtos() {
+        List<UserDto> users = IntStream.range(0, 20)
+                .mapToObj(i -> new UserDto(UUID.randomUUID(), LocalDateTime.now().minusDays(i), "User" + i))
+                .toList();
+        TaskStatus[] statuses = TaskStatus.values();
+        LocalDateTime start = LocalDateTime.now().minusDays(30).withNano(0);
+        return IntStream.range(0, TASKS)
+                .mapToObj(i -> {
+                    LocalDateTime createdAt = start.plusNanos(i * 1_234_567_000L); // microseconds, as in Postgres
+                    LocalDateTime updatedAt = i % 2 == 0 ? createdAt : createdAt.plusMinutes(i % 600);
+                    return new TaskDto(UUID.randomUUID(), createdAt, updatedAt, "Task " + i,
+                            "Description of task " + i + " with \"quotes\" and \u00fcmlauts.",
+                            statuses[i % statuses.length], i % 2 == 0 ? null : users.get(i % users.size()),
+                            (long) (i % 5 + 1));
+                })
+                .toList();
+    }
+
+    private static long measure(ObjectWriter writer, TaskDto[] payload, int rounds) throws JsonProcessingException {
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            bytes += writer.writeValueAsBytes(payload).length;
+        }
+        assertThat(bytes).isPositive(); // keeps the results alive
+        return (long) rounds * payload.length * 1_000_000_000L / Math.max(1, System.nanoTime() - start);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,245 @@
+package de.unibayreuth.se.taskboard;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the requests of {@link TaskBoardSystemTests} against the native executable (users, tasks with assignees,
+ * filters, updates with versions, deletions, change feed, export, and statistics) and compares its time to the first
+ * successful request and its resident memory after the requests with the jar. Requires the executable of
+ * {@code mvn install -Pnative}, run it with {@code mvn test -Pbenchmark -Dtest=NativeImageSmokeTests}. The comparison
+ * is logged and written to {@code target/native-image-report.md}.
+ */
+@Tag("benchmark")
+@Slf4j
+public class NativeImageSmokeTests {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Path NATIVE = Path.of("target", "taskboard");
+    private static final Path JAR = Path.of("target", "application-0.0.1.jar");
+    private static final Path REPORT = Path.of("target", "native-image-report.md");
+    private static final String JAVA = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:16-alpine"))
+            .withUsername("postgres")
+            .withPassword("postgres")
+            .withDatabaseName("postgres");
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private record Measurement(Duration timeToFirstRequest, long residentKilobytes) { }
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @Test
+    void nativeExecutableServesRequests() throws Exception {
+        assumeTrue(Files.isExecutable(NATIVE), "Build the native executable with -Pnative first.");
+        assumeTrue(Files.exists(Path.of("/proc/self/status")), "Resident memory is read from /proc.");
+
+        Measurement nativeImage = run(List.of(NATIVE.toAbsolutePath().toString()));
+        Measurement jvm = run(List.of(JAVA, "-jar", JAR.toAbsolutePath().toString()));
+
+        String report = """
+                | | Time to first request | Resident memory after the smoke test |
+                |---|---|---|
+                | JVM (`java -jar`) | %d ms | %d MiB |
+                | Native executable | %d ms | %d MiB |
+                """.formatted(jvm.timeToFirstRequest().toMillis(), jvm.residentKilobytes() / 1024,
+                nativeImage.timeToFirstRequest().toMillis(), nativeImage.residentKilobytes() / 1024);
+        Files.writeString(REPORT, report);
+        log.info("Native image comparison:\n{}", report);
+
+        assertThat(nativeImage.timeToFirstRequest()).isLessThan(jvm.timeToFirstRequest());
+        assertThat(nativeImage.residentKilobytes()).isLessThan(jvm.residentKilobytes());
+    }
+
+    private Measurement run(List<String> launchCommand) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(launchCommand);
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword()));
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(Path.of("target", "native-image-smoke-test.log").toFile())
+                .start();
+        try {
+            awaitFirstRequest(process, port);
+            Duration timeToFirstRequest = Duration.ofNanos(System.nanoTime() - start);
+            RestAssured.baseURI = "http://localhost:" + port;
+            exerciseApi();
+            return new Measurement(timeToFirstRequest, residentKilobytes(process));
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * Covers JPA and the JSONB event bodies (all writes), the MapStruct mappers and Jackson with the Java time types
+     * (all responses), and the Flyway migrations (the started application).
+     */
+    private void exerciseApi() {
+        String userName = "Native" + System.nanoTime();
+        String userId = given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("name", userName))
+                .when()
+                .post("/api/users")
+                .then()
+                .statusCode(200)
+                .extract().path("id");
+
+        Map<String, Object> task = new HashMap<>(given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("title", "Native", "description", "Served by the native executable",
+                        "assignee", Map.of("id", userId, "name", userName)))
+                .when()
+                .post("/api/tasks")
+                .then()
+                .statusCode(200)
+                .body("assignee.id", equalTo(userId))
+                .body("status", equalTo("TODO"))
+                .extract().jsonPath().getMap("$"));
+        String taskId = (String) task.get("id");
+
+        given()
+                .when()
+                .get("/api/tasks/{id}", taskId)
+                .then()
+                .statusCode(200)
+                .body("title", equalTo("Native"));
+        given()
+                .when()
+                .get("/api/tasks/assignee/{userId}", userId)
+                .then()
+                .statusCode(200)
+                .body(".", hasSize(1));
+
+        task.put("status", "DOING");
+        given()
+                .contentType(ContentType.JSON)
+                .body(task)
+                .when()
+                .put("/api/tasks/{id}", taskId)
+                .then()
+                .statusCode(200)
+                .body("status", equalTo("DOING"));
+        given()
+                .contentType(ContentType.JSON)
+                .body(task) // outdated version
+                .when()
+                .put("/api/tasks/{id}", taskId)
+                .then()
+                .statusCode(409);
+        given()
+                .when()
+                .get("/api/tasks/status/{status}", "DOING")
+                .then()
+                .statusCode(200)
+                .body("id", hasSize(1));
+        given()
+                .when()
+                .get("/api/tasks/{id}/history", taskId)
+                .then()
+                .statusCode(200)
+                .body(".", hasSize(2));
+        given()
+                .when()
+                .get("/api/tasks/export")
+                .then()
+                .statusCode(200);
+        given()
+                .when()
+                .get("/api/tasks/stats")
+                .then()
+                .statusCode(200)
+                .body("total", equalTo(1));
+        given()
+                .queryParam("after", "0.0")
+                .when()
+                .get("/api/events")
+                .then()
+                .statusCode(200);
+
+        given()
+                .when()
+                .delete("/api/tasks/{id}", taskId)
+                .then()
+                .statusCode(200);
+        given()
+                .when()
+                .get("/api/tasks/{id}", taskId)
+                .then()
+                .statusCode(400);
+    }
+
+    private void awaitFirstRequest(Process process, int port) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tasks")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            assertThat(process.isAlive()).as("application running").isTrue();
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Application did not answer within " + STARTUP_TIMEOUT + ".");
+    }
+
+    private static long residentKilobytes(Process process) throws IOException {
+        return Files.readAllLines(Path.of("/proc", String.valueOf(process.pid()), "status")).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
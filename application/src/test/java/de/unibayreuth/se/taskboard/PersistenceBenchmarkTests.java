@@ -0,0 +1,120 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.domain.BatchResult;
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.CursorPage;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.domain.User;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Workload that compares the persistence implementations, run by {@link JpaPersistenceBenchmarkTests} and
+ * {@link InMemoryPersistenceBenchmarkTests} through the services: batch inserts, concurrent reads by ID, the lists and
+ * pages of the secondary indexes, and concurrent updates. Excluded from the default build, run it with
+ * {@code mvn test -Pbenchmark -Dtest='*PersistenceBenchmarkTests'} (task count via {@code -Dbenchmark.tasks=...},
+ * default 100k, and threads via {@code -Dbenchmark.threads=...}, default 16).
+ */
+@Tag("benchmark")
+@Slf4j
+abstract class PersistenceBenchmarkTests extends AbstractSystemTest {
+    private static final int TASKS = Integer.getInteger("benchmark.tasks", 100_000);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 16);
+    private static final int BATCH_SIZE = 1_000;
+    private static final int READS = TASKS * 2;
+    private static final int PAGE_SIZE = 100;
+
+    @AfterEach
+    void tearDown() {
+        taskService.clear();
+        userService.clear();
+    }
+
+    @Test
+    void compareWithTheOtherImplementation() {
+        String implementation = getClass().getSimpleName().replace("PersistenceBenchmarkTests", "");
+        List<User> users = TestFixtures.createUsers(userService);
+
+        long start = System.nanoTime();
+        List<Task> tasks = new ArrayList<>(TASKS);
+        for (int offset = 0; offset < TASKS; offset += BATCH_SIZE) {
+            List<Task> batch = IntStream.range(offset, Math.min(offset + BATCH_SIZE, TASKS))
+                    .mapToObj(i -> {
+                        Task task = new Task("Task " + i, "Description of task " + i + ", written by the benchmark.");
+                        task.setStatus(TaskStatus.values()[i % TaskStatus.values().length]);
+                        task.setAssigneeId(users.get(i % users.size()).getId());
+                        return task;
+                    })
+                    .toList();
+            for (BatchResult<Task> result : taskService.upsertAll(batch)) {
+                assertThat(result.succeeded()).isTrue();
+                tasks.add(result.value());
+            }
+        }
+        log.info("{}: batch inserts, {} tasks/s.", implementation, perSecond(TASKS, start));
+
+        start = System.nanoTime();
+        runConcurrently(READS, i -> taskService.getById(
+                tasks.get(ThreadLocalRandom.current().nextInt(tasks.size())).getId()));
+        log.info("{}: reads by ID with {} threads, {} reads/s.", implementation, THREADS, perSecond(READS, start));
+
+        start = System.nanoTime();
+        int byStatus = taskService.getByStatus(TaskStatus.DOING).size();
+        int byAssignee = taskService.getByAssignee(users.getFirst().getId()).size();
+        log.info("{}: lists by status and assignee, {} tasks/s.", implementation,
+                perSecond(byStatus + byAssignee, start));
+
+        start = System.nanoTime();
+        int paged = 0;
+        Cursor cursor = null;
+        do {
+            CursorPage<Task> page = taskService.getPageByStatus(TaskStatus.TODO, cursor, PAGE_SIZE);
+            paged += page.items().size();
+            cursor = page.next();
+        } while (cursor != null);
+        log.info("{}: pages by status, {} tasks/s.", implementation, perSecond(paged, start));
+
+        start = System.nanoTime();
+        runConcurrently(tasks.size(), i -> { // every task once, so that the updates do not conflict
+            Task task = tasks.get(i);
+            task.setStatus(TaskStatus.DONE);
+            taskService.upsert(task);
+        });
+        log.info("{}: updates with {} threads, {} updates/s.", implementation, THREADS,
+                perSecond(tasks.size(), start));
+
+        assertThat(byStatus + paged).isEqualTo(TASKS - TASKS / TaskStatus.values().length);
+        assertThat(taskService.getByStatus(TaskStatus.DONE)).hasSize(TASKS);
+    }
+
+    private static void runConcurrently(int count, IntConsumer action) {
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<CompletableFuture<Void>> results = IntStream.range(0, THREADS)
+                    .mapToObj(thread -> CompletableFuture.runAsync(() -> {
+                        for (int i = thread; i < count; i += THREADS) {
+                            action.accept(i);
+                        }
+                    }, executor))
+                    .toList();
+            results.forEach(CompletableFuture::join);
+        }
+    }
+
+    private static long perSecond(long count, long startNanos) {
+        return count * 1_000_000_000L / Math.max(1, System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,78 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.domain.ProjectionRebuild;
+import de.unibayreuth.se.taskboard.business.ports.ProjectionPersistenceService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the replay throughput of the projection rebuild. Excluded from the default build, run it with
+ * {@code mvn test -Pbenchmark} (event count via {@code -Dbenchmark.events=...}, default 10M).
+ */
+@Tag("benchmark")
+@Slf4j
+public class ProjectionRebuildBenchmarkTests extends AbstractSystemTest {
+    private static final long EVENTS = Long.getLong("benchmark.events", 10_000_000L);
+    private static final long TASKS = EVENTS / 10; // every task is inserted once and updated nine times on average
+
+    @Autowired
+    private ProjectionPersistenceService projectionPersistenceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("truncate events, snapshot_entries, snapshots, tasks, users");
+    }
+
+    @Test
+    void replayEvents() {
+        jdbcTemplate.execute("truncate events, snapshot_entries, snapshots, tasks, users");
+        insertTaskEvents(0, EVENTS);
+
+        ProjectionRebuild fullRebuild = projectionPersistenceService.rebuild();
+        log.info("Full rebuild: {} events in {} ({} events/s).", fullRebuild.replayedEvents(), fullRebuild.duration(),
+                fullRebuild.replayedEvents() * 1000 / Math.max(1, fullRebuild.duration().toMillis()));
+
+        insertTaskEvents(EVENTS, EVENTS / 100); // 1% tail after the last snapshot
+        ProjectionRebuild tailRebuild = projectionPersistenceService.rebuild();
+        log.info("Rebuild from snapshot: {} events in {} ({} events/s).", tailRebuild.replayedEvents(),
+                tailRebuild.duration(),
+                tailRebuild.replayedEvents() * 1000 / Math.max(1, tailRebuild.duration().toMillis()));
+
+        assertThat(fullRebuild.replayedEvents()).isEqualTo(EVENTS);
+        assertThat(tailRebuild.startSnapshotId()).isNotNull();
+        assertThat(tailRebuild.replayedEvents()).isEqualTo(EVENTS / 100);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from tasks", Long.class)).isEqualTo(TASKS);
+    }
+
+    /**
+     * Inserts task events directly, bypassing the triggers, so that only the rebuild applies them (and the versions are
+     * set here instead of by the version trigger).
+     */
+    private void insertTaskEvents(long offset, long count) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("set local session_replication_role = replica");
+            jdbcTemplate.update("insert into events(type, entity, entity_version, created_at, body, version) "
+                    + "select case when i < " + TASKS + " then 'INSERT' else 'UPDATE' end, 'Task', 1, ts, "
+                    + "       jsonb_build_object('id', md5('task' || (i % " + TASKS + "))::uuid, "
+                    + "                          'title', 'Task ' || i, 'description', '', 'status', 'TODO', "
+                    + "                          'assigneeId', null, 'createdAt', ts, 'updatedAt', ts, "
+                    + "                          'version', i / " + TASKS + " + 1), "
+                    + "       i / " + TASKS + " + 1 "
+                    + "from generate_series(" + offset + ", " + (offset + count - 1) + ") i, "
+                    + "     lateral (select timestamp '2024-01-01' + i * interval '1 microsecond' as ts) t");
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.domain.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * System tests of the in-memory read model, which requires a separate application context. Events of other nodes are
+ * inserted directly.
+ */
+@TestPropertySource(properties = {"taskboard.read-model.enabled=true", "taskboard.read-model.poll-interval=100ms"})
+public class ReadModelSystemTests extends AbstractSystemTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void ownWritesAreReadFromMemory() {
+        List<User> createdUsers = TestFixtures.createUsers(userService);
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+        Task task = createdTasks.getFirst();
+        task.setStatus(TaskStatus.DOING);
+        task.setAssigneeId(createdUsers.getFirst().getId());
+        Task updated = taskService.upsert(task);
+        taskService.delete(createdTasks.getLast().getId(), null);
+
+        assertThat(taskService.getById(task.getId())).usingRecursiveComparison().isEqualTo(updated);
+        assertThat(taskService.getByStatus(TaskStatus.DOING)).extracting(Task::getId).containsExactly(task.getId());
+        assertThat(taskService.getByAssignee(createdUsers.getFirst().getId())).extracting(Task::getId)
+                .containsExactly(task.getId());
+        assertThat(taskService.getAll()).hasSize(createdTasks.size() - 1);
+
+        Revision revision = taskService.getRevision(task.getId());
+        Revision boardRevision = taskService.getRevision();
+        jdbcTemplate.update("update tasks set title = 'Changed behind the back', updated_at = localtimestamp, "
+                + "version = version + 1"); // without an event
+        assertThat(taskService.getAll()).extracting(Task::getTitle).doesNotContain("Changed behind the back");
+        assertThat(taskService.find(new TaskQuery(TaskStatus.DOING, null, null), null, 10).items())
+                .extracting(Task::getTitle).containsExactly(updated.getTitle());
+        assertThat(taskService.getPageByAssignee(createdUsers.getFirst().getId(), null, 10).items())
+                .extracting(Task::getId).containsExactly(task.getId());
+        // the revisions describe the tasks of the read model, not the newer rows
+        assertThat(taskService.getRevision(task.getId())).isEqualTo(revision);
+        assertThat(Revision.versionOf(revision.tag())).isEqualTo(updated.getVersion());
+        assertThat(taskService.getRevision()).isEqualTo(boardRevision);
+    }
+
+    @Test
+    void eventsOfOtherNodesAreApplied() {
+        UUID id = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+        insertEvent("INSERT", id, "Created elsewhere", now);
+        await(() -> taskService.getAll().stream().anyMatch(task -> task.getId().equals(id)));
+        insertEvent("UPDATE", id, "Updated elsewhere", now);
+        await(() -> taskService.getById(id).getTitle().equals("Updated elsewhere"));
+        assertThat(taskService.getById(id).getVersion()).isEqualTo(2L);
+
+        User user = userService.create(TestFixtures.getUsers().getFirst());
+        Task task = taskService.getById(id);
+        task.setAssigneeId(user.getId());
+        taskService.upsert(task);
+        userService.clear(); // the user delete trigger removes the assignee with an event of the task
+        await(() -> taskService.getById(id).getAssigneeId() == null);
+        assertThat(taskService.getById(id).getVersion()).isEqualTo(4L);
+        assertThat(taskService.getByAssignee(user.getId())).isEmpty();
+
+        assertThat(meterRegistry.get("taskboard.read-model.lag").gauge().value()).isNotNegative();
+        assertThat(meterRegistry.get("taskboard.read-model.staleness").timeGauge().value(TimeUnit.SECONDS))
+                .isLessThan(TIMEOUT.toSeconds());
+    }
+
+    private void insertEvent(String type, UUID id, String title, LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        jdbcTemplate.update("insert into events(type, entity, entity_version, created_at, body) "
+                        + "select ?, 'Task', 1, now(), jsonb_build_object('id', ?, 'title', ?, 'description', '', "
+                        + "       'status', 'TODO', 'assigneeId', null, 'createdAt', cast(? as timestamp), "
+                        + "       'updatedAt', localtimestamp)",
+                type, id, title, timestamp);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("The read model was not updated within " + TIMEOUT + ".");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted while waiting for the read model.");
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.data.config.ReplicaRoutingDataSource;
+import io.restassured.http.ContentType;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * System tests with read-only transactions routed to a replica, which requires a separate application context. The
+ * replica is a second, independently migrated database that never receives the writes, so that reads routed to it do
+ * not find them; the streaming replication itself is not under test.
+ */
+public class ReplicaRoutingSystemTests extends AbstractSystemTest {
+    private static final String READ_YOUR_WRITES_COOKIE = "taskboard-primary-until";
+
+    static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:16-alpine"))
+            .withUsername("postgres")
+            .withPassword("postgres")
+            .withDatabaseName("postgres");
+
+    @BeforeAll
+    static void startReplica() {
+        replica.start();
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @AfterAll
+    static void stopReplica() {
+        replica.stop();
+    }
+
+    @DynamicPropertySource
+    static void configureReplica(DynamicPropertyRegistry registry) {
+        registry.add("taskboard.replicas.enabled", () -> "true");
+        registry.add("taskboard.replicas.urls[0]", replica::getJdbcUrl);
+    }
+
+    @Test
+    void readsGoToTheReplicaExceptAfterOwnWrites() throws Exception {
+        String primaryUntil = given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("title", "Routed", "description", "Written to the primary"))
+                .when()
+                .post("/api/tasks")
+                .then()
+                .statusCode(200)
+                .cookie(READ_YOUR_WRITES_COOKIE, notNullValue())
+                .extract().cookie(READ_YOUR_WRITES_COOKIE);
+
+        // other clients read from the replica, which does not have the task
+        given()
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(200)
+                .body(".", hasSize(0));
+        given()
+                .when()
+                .get("/api/tasks/stats")
+                .then()
+                .statusCode(200)
+                .body("total", equalTo(0));
+
+        // the writing client reads its write from the primary
+        given()
+                .cookie(READ_YOUR_WRITES_COOKIE, primaryUntil)
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(200)
+                .body("title", equalTo(List.of("Routed")));
+        given()
+                .cookie(READ_YOUR_WRITES_COOKIE, Long.toString(System.currentTimeMillis() - 1))
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(200)
+                .body(".", hasSize(0));
+
+        // threads outside of requests are not pinned to the primary by their writes, only within onPrimary
+        Task task = taskService.create(new Task("Written by this thread", ""));
+        assertThat(taskService.getAll()).isEmpty();
+        assertThat(ReplicaRoutingDataSource.onPrimary(taskService::getAll)).extracting(Task::getId)
+                .contains(task.getId());
+        assertThat(taskService.getAll()).isEmpty();
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            assertThat(executor.submit(() -> taskService.create(new Task("Written by an executor", ""))).get())
+                    .isNotNull();
+            assertThat(executor.submit(() -> taskService.getAll()).get()).isEmpty();
+        }
+    }
+}
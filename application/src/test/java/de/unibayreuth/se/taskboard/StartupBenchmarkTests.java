@@ -0,0 +1,163 @@
+package de.unibayreuth.se.taskboard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures the time from launching the packaged application until it answers the first request successfully, once
+ * started from the jar as before and once as in the Dockerfile with {@code FAST_STARTUP=true} (extracted jar, AOT
+ * initialization, and a CDS archive of a training run), and checks that the latter takes at most half as long.
+ * Requires the jar of {@code mvn install -Pfast-startup}, run it with {@code mvn test -Pbenchmark} (number of startups
+ * per mode via {@code -Dbenchmark.startups=...}, default 5).
+ */
+@Tag("benchmark")
+@Slf4j
+public class StartupBenchmarkTests {
+    private static final int STARTUPS = Integer.getInteger("benchmark.startups", 5);
+    private static final long MAX_FAST_STARTUP_PERCENT = 50; // the goal of the fast-startup profile
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Path JAR = Path.of("target", "application-0.0.1.jar");
+    private static final Path EXTRACTED = Path.of("target", "startup-benchmark");
+    private static final String JAVA = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgres:16-alpine"))
+            .withUsername("postgres")
+            .withPassword("postgres")
+            .withDatabaseName("postgres");
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        postgres.stop();
+    }
+
+    @Test
+    void timeToFirstRequest() throws Exception {
+        assumeTrue(hasAotInitialization(), "Package the application with -Pfast-startup first.");
+        extract();
+        // the training run also migrates the database, so that no startup below includes the migrations
+        Process training = launch(EXTRACTED, List.of("-XX:ArchiveClassesAtExit=application.jsa",
+                "-Dspring.aot.enabled=true", "-Dspring.context.exit=onRefresh"), 0);
+        assertThat(training.waitFor()).isZero();
+
+        long jar = medianStartupMillis(JAR.getParent(), List.of());
+        long fastStartup = medianStartupMillis(EXTRACTED, List.of("-XX:SharedArchiveFile=application.jsa",
+                "-Dspring.aot.enabled=true"));
+        log.info("Time to first request (median of {}): {} ms from the jar, {} ms with AOT and CDS ({}%).",
+                STARTUPS, jar, fastStartup, fastStartup * 100 / jar);
+
+        assertThat(fastStartup)
+                .as("median time to first request with AOT and CDS, at most half of the %d ms from the jar", jar)
+                .isLessThanOrEqualTo(jar * MAX_FAST_STARTUP_PERCENT / 100);
+    }
+
+    private long medianStartupMillis(Path directory, List<String> jvmArguments) throws Exception {
+        List<Long> durations = new ArrayList<>();
+        for (int i = 0; i < STARTUPS; i++) {
+            int port = freePort();
+            long start = System.nanoTime();
+            Process process = launch(directory, jvmArguments, port);
+            try {
+                awaitFirstRequest(process, port);
+                durations.add(Duration.ofNanos(System.nanoTime() - start).toMillis());
+            } finally {
+                process.destroy();
+                process.waitFor();
+            }
+        }
+        log.info("Times to first request with {}: {} ms.", jvmArguments.isEmpty() ? "the jar" : jvmArguments,
+                durations);
+        return durations.stream().sorted().toList().get(durations.size() / 2);
+    }
+
+    private void awaitFirstRequest(Process process, int port) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tasks")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            assertThat(process.isAlive()).as("application running").isTrue();
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Application did not answer within " + STARTUP_TIMEOUT + ".");
+    }
+
+    private Process launch(Path directory, List<String> jvmArguments, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(JAVA);
+        command.addAll(jvmArguments);
+        command.addAll(List.of("-jar", JAR.getFileName().toString(),
+                "--server.port=" + port,
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword()));
+        return new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(EXTRACTED.getParent().resolve("startup-benchmark.log").toFile())
+                .start();
+    }
+
+    private void extract() throws Exception {
+        Process process = new ProcessBuilder(JAVA, "-Djarmode=tools", "-jar", JAR.toString(), "extract",
+                "--destination", EXTRACTED.toString(), "--force")
+                .inheritIO()
+                .start();
+        assertThat(process.waitFor()).isZero();
+        try (Stream<Path> archives = Files.list(EXTRACTED).filter(path -> path.toString().endsWith(".jsa"))) {
+            for (Path archive : archives.toList()) {
+                Files.delete(archive);
+            }
+        }
+    }
+
+    private static boolean hasAotInitialization() throws IOException {
+        if (!Files.exists(JAR)) {
+            return false;
+        }
+        try (ZipFile zip = new ZipFile(JAR.toFile())) {
+            return zip.getEntry("BOOT-INF/classes/"
+                    + Application.class.getName().replace('.', '/') + "__ApplicationContextInitializer.class") != null;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
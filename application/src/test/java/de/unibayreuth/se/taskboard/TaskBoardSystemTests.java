@@ -4,21 +4,74 @@ import de.unibayreuth.se.taskboard.api.dtos.TaskDto;
 import de.unibayreuth.se.taskboard.api.dtos.UserDto;
 import de.unibayreuth.se.taskboard.api.mapper.TaskDtoMapper;
 import de.unibayreuth.se.taskboard.api.mapper.UserDtoMapper;
+import de.unibayreuth.se.taskboard.business.domain.BatchResult;
 import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskBatchResults;
+import de.unibayreuth.se.taskboard.business.domain.TaskCount;
+import de.unibayreuth.se.taskboard.business.domain.TaskStats;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
 import de.unibayreuth.se.taskboard.business.domain.User;
+import de.unibayreuth.se.taskboard.business.domain.ProjectionRebuild;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.exceptions.VersionConflictException;
+import de.unibayreuth.se.taskboard.business.ports.ProjectionPersistenceService;
+import de.unibayreuth.se.taskboard.business.ports.TaskCounterPersistenceService;
+import de.unibayreuth.se.taskboard.business.ports.TaskPersistenceService;
+import de.unibayreuth.se.taskboard.data.impl.TaskPersistenceServiceEventSourcingImpl;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static io.restassured.RestAssured.given;
 import static io.restassured.RestAssured.when;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
 // TODO: Activate again after TODOs are resolved
+@Import(TaskBoardSystemTests.ClockConfig.class)
 public class TaskBoardSystemTests extends AbstractSystemTest {
 
     @Autowired
@@ -27,6 +80,27 @@ public class TaskBoardSystemTests extends AbstractSystemTest {
     @Autowired
     private UserDtoMapper userDtoMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ProjectionPersistenceService projectionPersistenceService;
+
+    @Autowired
+    private TaskCounterPersistenceService taskCounterPersistenceService;
+
+    @Autowired
+    private TaskPersistenceService taskPersistenceService;
+
+    @Autowired
+    private TaskPersistenceServiceEventSourcingImpl eventSourcedTaskPersistenceService;
+
+    @Autowired
+    private AdjustableClock clock;
+
     @Test
     void getAllCreatedTasks() {
         List<Task> createdTasks = TestFixtures.createTasks(taskService);
@@ -49,6 +123,483 @@ public class TaskBoardSystemTests extends AbstractSystemTest {
                 .containsExactlyInAnyOrderElementsOf(createdTasks);
     }
 
+    @Test
+    void getAllTasksResolvesAssignees() {
+        List<User> createdUsers = TestFixtures.createUsers(userService);
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+        for (int i = 0; i < createdTasks.size(); i++) {
+            Task task = createdTasks.get(i);
+            task.setAssigneeId(createdUsers.get(i).getId());
+            taskService.upsert(task);
+        }
+
+        given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(200)
+                .body("assignee.name", containsInAnyOrder(
+                        createdUsers.stream().map(User::getName).toArray()
+                ));
+    }
+
+    @Test
+    void pageThroughTasksWithCursor() {
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+
+        String cursor = given()
+                .queryParam("limit", createdTasks.size() - 1)
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(200)
+                .body(".", hasSize(createdTasks.size() - 1))
+                .header("X-Next-Cursor", notNullValue())
+                .extract().header("X-Next-Cursor");
+
+        given()
+                .queryParam("limit", createdTasks.size() - 1)
+                .queryParam("cursor", cursor)
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(200)
+                .body(".", hasSize(1))
+                .header("X-Next-Cursor", nullValue());
+    }
+
+    @Test
+    void readChangeFeedPagedAndAsStream() throws Exception {
+        // the event log is not cleared between tests, so the test continues after its current end
+        String start = "0.0";
+        String next = start;
+        while (next != null) {
+            ExtractableResponse<Response> response = given()
+                    .queryParam("after", next)
+                    .queryParam("limit", 1000)
+                    .when()
+                    .get("/api/events")
+                    .then()
+                    .statusCode(200)
+                    .extract();
+            List<String> positions = response.jsonPath().getList("position", String.class);
+            start = positions.isEmpty() ? start : positions.getLast();
+            next = response.header("X-Next-Cursor");
+        }
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+
+        next = given()
+                .queryParam("after", start)
+                .queryParam("limit", createdTasks.size() - 1)
+                .when()
+                .get("/api/events")
+                .then()
+                .statusCode(200)
+                .body(".", hasSize(createdTasks.size() - 1))
+                .body("type", everyItem(equalTo("INSERT")))
+                .header("X-Next-Cursor", notNullValue())
+                .extract().header("X-Next-Cursor");
+        given()
+                .queryParam("after", next)
+                .when()
+                .get("/api/events")
+                .then()
+                .statusCode(200)
+                .body("entityId", contains(createdTasks.getLast().getId().toString()))
+                .header("X-Next-Cursor", nullValue());
+        given()
+                .queryParam("after", "not-a-position")
+                .when()
+                .get("/api/events")
+                .then()
+                .statusCode(400);
+
+        // resuming with Last-Event-ID replays the last created task, then streams new events
+        HttpRequest request = HttpRequest.newBuilder(URI.create(RestAssured.baseURI + "/api/events/stream"))
+                .header("Last-Event-ID", next)
+                .build();
+        try (HttpClient client = HttpClient.newHttpClient();
+             ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Stream<String> lines = client.send(request, HttpResponse.BodyHandlers.ofLines()).body();
+            Iterator<String> iterator = lines.iterator();
+            Task newTask = taskService.create(new Task("Stream", "Streamed to subscribers"));
+            Future<List<String>> received = executor.submit(() -> {
+                List<String> data = new ArrayList<>();
+                while (data.size() < 2 && iterator.hasNext()) {
+                    String line = iterator.next();
+                    if (line.startsWith("data:")) {
+                        data.add(line);
+                    }
+                }
+                return data;
+            });
+            List<String> data = received.get(30, TimeUnit.SECONDS);
+            lines.close();
+
+            assertThat(data.getFirst()).contains(createdTasks.getLast().getId().toString());
+            assertThat(data.getLast()).contains(newTask.getId().toString()).contains("\"type\":\"INSERT\"");
+        }
+    }
+
+    @Test
+    void getStatsFromIncrementallyMaintainedCounters() throws Exception {
+        List<User> createdUsers = TestFixtures.createUsers(userService);
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+        Task assigned = createdTasks.get(0);
+        assigned.setAssigneeId(createdUsers.get(0).getId());
+        assigned.setStatus(TaskStatus.DOING);
+        taskService.upsert(assigned);
+        Task done = createdTasks.get(1);
+        done.setAssigneeId(createdUsers.get(1).getId());
+        done.setStatus(TaskStatus.DONE);
+        taskService.upsert(done);
+        done.setTitle("Renamed"); // changes no counter
+        taskService.upsert(done);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "insert into events(type, entity, entity_version, created_at, body) "
+                             + "values ('DELETE', 'User', 1, now(), cast(? as jsonb))")) {
+            statement.setString(1, "{\"id\": \"" + createdUsers.get(1).getId() + "\"}");
+            statement.executeUpdate(); // unassigns the task with an update event
+        }
+
+        given()
+                .when()
+                .get("/api/tasks/stats")
+                .then()
+                .statusCode(200)
+                .body("total", equalTo(createdTasks.size()))
+                .body("byStatus.TODO", equalTo(createdTasks.size() - 2))
+                .body("byStatus.DOING", equalTo(1))
+                .body("byStatus.DONE", equalTo(1))
+                .body("byAssignee." + createdUsers.get(0).getId(), equalTo(1))
+                .body("byAssignee", aMapWithSize(1))
+                .body("unassigned", equalTo(createdTasks.size() - 1));
+
+        taskCounterPersistenceService.compact();
+        assertThat(taskCounterPersistenceService.check()).isZero();
+        assertThat(taskService.getStats()).isEqualTo(recountStats());
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("update task_counters set count = count + 5"); // corrupt the counters
+        }
+        assertThat(taskService.getStats()).isNotEqualTo(recountStats());
+        assertThat(taskCounterPersistenceService.check()).isPositive();
+        assertThat(taskService.getStats()).isEqualTo(recountStats());
+
+        taskService.clear();
+        assertThat(taskService.getStats().total()).isZero();
+    }
+
+    private TaskStats recountStats() {
+        return TaskStats.of(taskService.getAll().stream()
+                .collect(Collectors.groupingBy(task -> new TaskCount(task.getStatus(), task.getAssigneeId(), 0),
+                        Collectors.counting()))
+                .entrySet().stream()
+                .map(entry -> new TaskCount(entry.getKey().status(), entry.getKey().assigneeId(), entry.getValue()))
+                .toList());
+    }
+
+    @Test
+    void searchTasksByRelevance() {
+        User alice = TestFixtures.createUsers(userService).getFirst();
+        Task titleMatch = taskService.create(new Task("Fix login bug", "Users cannot sign in with single sign-on"));
+        Task descriptionMatch = new Task("Write documentation", "Describe the login flow");
+        descriptionMatch.setAssigneeId(alice.getId());
+        descriptionMatch.setStatus(TaskStatus.DOING);
+        taskService.create(descriptionMatch);
+        taskService.create(new Task("Speed up the build", "Cache dependencies"));
+
+        String cursor = given()
+                .queryParam("q", "logins")
+                .queryParam("limit", 1)
+                .when()
+                .get("/api/tasks/search")
+                .then()
+                .statusCode(200)
+                .body("id", contains(titleMatch.getId().toString())) // title matches rank above description matches
+                .header("X-Next-Cursor", notNullValue())
+                .extract().header("X-Next-Cursor");
+
+        given()
+                .queryParam("q", "logins")
+                .queryParam("cursor", cursor)
+                .when()
+                .get("/api/tasks/search")
+                .then()
+                .statusCode(200)
+                .body("title", contains("Write documentation"))
+                .header("X-Next-Cursor", nullValue());
+
+        given()
+                .queryParam("q", "login -bug")
+                .queryParam("status", "DOING")
+                .queryParam("assigneeId", alice.getId())
+                .when()
+                .get("/api/tasks/search")
+                .then()
+                .statusCode(200)
+                .body("title", contains("Write documentation"));
+
+        given()
+                .queryParam("q", "login")
+                .queryParam("status", "DONE")
+                .when()
+                .get("/api/tasks/search")
+                .then()
+                .statusCode(200)
+                .body(".", hasSize(0));
+
+        given()
+                .queryParam("q", " ")
+                .when()
+                .get("/api/tasks/search")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void conditionalGetsAreNotModifiedUntilTheContentChanges() {
+        User user = TestFixtures.createUsers(userService).getFirst();
+        Task task = TestFixtures.createTasks(taskService).getFirst();
+        task.setAssigneeId(user.getId());
+        task = taskService.upsert(task);
+        clock.advance(Duration.ofSeconds(1)); // Last-Modified is only sent once the second of the last change has passed
+
+        String listTag = when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+        given()
+                .header("If-None-Match", listTag)
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(304);
+
+        var response = when()
+                .get("/api/tasks/{id}", task.getId())
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .header("Last-Modified", notNullValue())
+                .extract();
+        given()
+                .header("If-None-Match", response.header("ETag"))
+                .when()
+                .get("/api/tasks/{id}", task.getId())
+                .then()
+                .statusCode(304);
+        given()
+                .header("If-Modified-Since", response.header("Last-Modified"))
+                .when()
+                .get("/api/tasks/{id}", task.getId())
+                .then()
+                .statusCode(304);
+
+        userService.clear(); // unassigns the task with an update of the task
+        assertThat(taskService.getById(task.getId()).getVersion()).isEqualTo(task.getVersion() + 1);
+
+        given()
+                .header("If-None-Match", response.header("ETag"))
+                .when()
+                .get("/api/tasks/{id}", task.getId())
+                .then()
+                .statusCode(200)
+                .body("assigneeId", nullValue());
+        given() // the ETag takes precedence, the change may fall into the second of Last-Modified
+                .header("If-None-Match", response.header("ETag"))
+                .header("If-Modified-Since", response.header("Last-Modified"))
+                .when()
+                .get("/api/tasks/{id}", task.getId())
+                .then()
+                .statusCode(200);
+        given()
+                .header("If-None-Match", listTag)
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(200);
+    }
+
+    @Test
+    void listRevisionOnlyChangesWithTheTasks() {
+        Task task = TestFixtures.createTasks(taskService).getFirst();
+        Revision revision = eventSourcedTaskPersistenceService.getRevision(); // from the events, not the read model
+
+        TestFixtures.createUsers(userService);
+        taskCounterPersistenceService.compact();
+        assertThat(eventSourcedTaskPersistenceService.getRevision()).isEqualTo(revision);
+
+        task.setStatus(TaskStatus.DONE);
+        taskService.upsert(task);
+        assertThat(eventSourcedTaskPersistenceService.getRevision()).isNotEqualTo(revision);
+    }
+
+    @Test
+    void updatesConditionalOnAnOutdatedVersionConflict() throws Exception {
+        Task task = TestFixtures.createTasks(taskService).getFirst();
+        String tag = when()
+                .get("/api/tasks/{id}", task.getId())
+                .then()
+                .statusCode(200)
+                .body("version", equalTo(1))
+                .extract().header("ETag");
+
+        // concurrent writers that read version 1: exactly one of them succeeds
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> statusCodes = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String title = "Concurrent update " + i;
+                statusCodes.add(executor.submit(() -> given()
+                        .contentType(ContentType.JSON)
+                        .header("If-Match", tag)
+                        .body(Map.of("id", task.getId(), "title", title, "description", task.getDescription()))
+                        .when()
+                        .put("/api/tasks/{id}", task.getId())
+                        .then()
+                        .extract().statusCode()));
+            }
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> statusCode : statusCodes) {
+                results.add(statusCode.get());
+            }
+            assertThat(results).containsOnly(200, 409).containsOnlyOnce(200);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(taskService.getById(task.getId()).getVersion()).isEqualTo(2L);
+
+        // the version in the body works like If-Match, updates without a version overwrite the current one
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("id", task.getId(), "title", "Stale", "description", "", "version", 1))
+                .when()
+                .put("/api/tasks/{id}", task.getId())
+                .then()
+                .statusCode(409);
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("id", task.getId(), "title", "Unconditional", "description", ""))
+                .when()
+                .put("/api/tasks/{id}", task.getId())
+                .then()
+                .statusCode(200)
+                .body("version", equalTo(3));
+
+        given()
+                .header("If-Match", tag)
+                .when()
+                .delete("/api/tasks/{id}", task.getId())
+                .then()
+                .statusCode(409);
+        String currentTag = when()
+                .get("/api/tasks/{id}", task.getId())
+                .then()
+                .extract().header("ETag");
+        given()
+                .header("If-Match", currentTag)
+                .when()
+                .delete("/api/tasks/{id}", task.getId())
+                .then()
+                .statusCode(200);
+    }
+
+    @Test
+    void exportAllTasksAsNdjson() {
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+
+        String export = when()
+                .get("/api/tasks/export")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+
+        assertThat(export.lines())
+                .hasSize(createdTasks.size())
+                .allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"));
+    }
+
+    @Test
+    void createUpdateAndDeleteTasksInBatch() {
+        Task existingTask = taskService.create(TestFixtures.getTasks().getFirst());
+        UUID unknownId = UUID.randomUUID();
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of(
+                        "upserts", List.of(
+                                Map.of("title", "New task", "description", "Created in a batch"),
+                                Map.of("id", unknownId, "title", "Unknown task", "description", "Does not exist")
+                        ),
+                        "deletes", List.of(existingTask.getId())
+                ))
+                .when()
+                .post("/api/tasks:batch")
+                .then()
+                .statusCode(200)
+                .body("upserts.succeeded", contains(true, false))
+                .body("upserts[0].task.title", equalTo("New task"))
+                .body("deletes.succeeded", contains(true));
+
+        assertThat(taskService.getAll())
+                .extracting(Task::getTitle)
+                .containsExactly("New task");
+    }
+
+    @Test
+    void repeatedIdsInBatchAreAppliedInOrder() {
+        Task existingTask = taskService.create(TestFixtures.getTasks().getFirst());
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of(
+                        "upserts", List.of(
+                                Map.of("id", existingTask.getId(), "title", "First update", "description", ""),
+                                Map.of("id", existingTask.getId(), "title", "Second update", "description", ""),
+                                Map.of("id", existingTask.getId(), "title", "Stale update", "description", "",
+                                        "version", 1)
+                        ),
+                        "deletes", List.of()
+                ))
+                .when()
+                .post("/api/tasks:batch")
+                .then()
+                .statusCode(200)
+                .body("upserts.succeeded", contains(true, true, false))
+                .body("deletes", hasSize(0));
+
+        Task updated = taskService.getById(existingTask.getId());
+        assertThat(updated.getTitle()).isEqualTo("Second update");
+        assertThat(updated.getVersion()).isEqualTo(existingTask.getVersion() + 2);
+    }
+
+    @Test
+    void batchIsWrittenAllOrNothing() {
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+        Task updated = createdTasks.getFirst();
+        updated.setTitle("Updated and deleted in a batch");
+
+        TaskBatchResults results = taskService.applyAll(List.of(updated), List.of(updated.getId()));
+        assertThat(results.upserts()).allMatch(BatchResult::succeeded);
+        assertThat(results.deletes()).allMatch(BatchResult::succeeded);
+        assertThat(taskService.getAll()).hasSize(createdTasks.size() - 1);
+
+        Task stale = createdTasks.get(1);
+        Task deleted = createdTasks.get(2);
+        taskService.delete(deleted.getId(), null); // after the batch has read its version
+        stale.setTitle("Not written");
+        assertThatThrownBy(() -> taskPersistenceService.writeAll(List.of(stale),
+                Map.of(deleted.getId(), deleted.getVersion())))
+                .isInstanceOf(VersionConflictException.class);
+        assertThat(taskService.getById(stale.getId()).getTitle()).isNotEqualTo("Not written");
+    }
+
     @Test
     void createAndDeleteTask() {
         Task createdTask = taskService.create(
@@ -72,6 +623,82 @@ public class TaskBoardSystemTests extends AbstractSystemTest {
 
     }
 
+    @Test
+    void writesRunOneOrTwoStatementsPerRequest() throws Exception {
+        double createStatements = statementsOf("POST", "/api/tasks", () -> given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("title", "Counted", "description", ""))
+                .when()
+                .post("/api/tasks")
+                .then()
+                .statusCode(200));
+        UUID id = taskService.getAll().getFirst().getId();
+        double updateStatements = statementsOf("PUT", "/api/tasks/{id}", () -> given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("id", id, "title", "Counted again", "description", ""))
+                .when()
+                .put("/api/tasks/{id}", id)
+                .then()
+                .statusCode(200));
+        double deleteStatements = statementsOf("DELETE", "/api/tasks/{id}", () -> when()
+                .delete("/api/tasks/{id}", id)
+                .then()
+                .statusCode(200));
+
+        // the event, after reading the current task for updates; the triggers write the projection
+        assertThat(createStatements).isBetween(1.0, 2.0);
+        assertThat(updateStatements).isBetween(1.0, 2.0);
+        assertThat(deleteStatements).isBetween(1.0, 2.0);
+    }
+
+    @Test
+    void getTaskHistoryAndBoardAsOf() throws Exception {
+        Task createdTask = taskService.create(TestFixtures.getTasks().getFirst());
+        String createdAt = createdTask.getCreatedAt().toString();
+        Thread.sleep(10);
+        LocalDateTime beforeUpdate = LocalDateTime.now(ZoneId.of("UTC")); // like the events' created_at
+        Thread.sleep(10);
+        createdTask.setTitle("Updated title");
+        taskService.upsert(createdTask);
+        Thread.sleep(10);
+        LocalDateTime beforeDelete = LocalDateTime.now(ZoneId.of("UTC"));
+        Thread.sleep(10);
+        taskService.delete(createdTask.getId(), null);
+
+        when()
+                .get("/api/tasks/{id}/history", createdTask.getId())
+                .then()
+                .statusCode(200)
+                .body("type", contains("INSERT", "UPDATE", "DELETE"))
+                .body("[0].task.title", equalTo(TestFixtures.getTasks().getFirst().getTitle()))
+                .body("[1].task.title", equalTo("Updated title"))
+                .body("[1].task.createdAt", equalTo(createdAt))
+                .body("[2].task", nullValue());
+
+        when()
+                .get("/api/tasks?asOf={asOf}", beforeUpdate.toString())
+                .then()
+                .statusCode(200)
+                .body("title", contains(TestFixtures.getTasks().getFirst().getTitle()));
+
+        when()
+                .get("/api/tasks?asOf={asOf}", beforeDelete.toString())
+                .then()
+                .statusCode(200)
+                .body("title", contains("Updated title"));
+
+        when()
+                .get("/api/tasks?asOf={asOf}", LocalDateTime.now(ZoneId.of("UTC")).toString())
+                .then()
+                .statusCode(200)
+                .body(".", hasSize(0));
+
+        when()
+                .get("/api/tasks/{id}/history", UUID.randomUUID())
+                .then()
+                .statusCode(400);
+    }
+
     @Test
     void getAllCreatedUsers() {
         List<User> createdUsers = TestFixtures.createUsers(userService);
@@ -114,4 +741,144 @@ public class TaskBoardSystemTests extends AbstractSystemTest {
                 .ignoringFields("createdAt")
                 .isEqualTo(createdUser);
     }
-}
\ No newline at end of file
+
+    @Test
+    void repeatedUserLookupsAreServedFromCache() {
+        User createdUser = TestFixtures.createUsers(userService).getFirst();
+        double hitsBefore = userCacheGets("hit");
+        double missesBefore = userCacheGets("miss");
+
+        for (int i = 0; i < 3; i++) {
+            when()
+                    .get("/api/users/{id}", createdUser.getId())
+                    .then()
+                    .statusCode(200)
+                    .body("name", equalTo(createdUser.getName()));
+        }
+
+        assertThat(userCacheGets("miss") - missesBefore).isEqualTo(1);
+        assertThat(userCacheGets("hit") - hitsBefore).isEqualTo(2);
+
+        userService.clear(); // evicts the cache
+
+        when()
+                .get("/api/users/{id}", createdUser.getId())
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void userChangedByAnotherNodeIsEvictedFromCache() throws Exception {
+        User createdUser = TestFixtures.createUsers(userService).getFirst();
+        when()
+                .get("/api/users/{id}", createdUser.getId())
+                .then()
+                .body("name", equalTo(createdUser.getName())); // now cached
+
+        // another node writes the event through its own connection, bypassing this node's services
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "insert into events(type, entity, entity_version, created_at, body) "
+                             + "values ('UPDATE', 'User', 1, now(), cast(? as jsonb))")) {
+            statement.setString(1, "{\"id\": \"" + createdUser.getId() + "\", \"name\": \"Renamed\"}");
+            statement.executeUpdate();
+        }
+
+        String name = null;
+        for (int attempt = 0; attempt < 50 && !"Renamed".equals(name); attempt++) {
+            Thread.sleep(100);
+            name = when()
+                    .get("/api/users/{id}", createdUser.getId())
+                    .then()
+                    .statusCode(200)
+                    .extract().path("name");
+        }
+        assertThat(name).isEqualTo("Renamed");
+    }
+
+    @Test
+    void rebuildProjectionsFromEvents() throws Exception {
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("delete from tasks"); // corrupt the projection
+        }
+        assertThat(taskService.getAll()).isEmpty();
+
+        ProjectionRebuild fullRebuild = projectionPersistenceService.rebuild();
+
+        assertThat(taskService.getAll())
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("createdAt", "updatedAt")
+                .containsExactlyInAnyOrderElementsOf(createdTasks);
+
+        ProjectionRebuild snapshotRebuild = projectionPersistenceService.rebuild();
+
+        assertThat(snapshotRebuild.startSnapshotId()).isNotNull();
+        assertThat(snapshotRebuild.replayedEvents()).isZero();
+        assertThat(snapshotRebuild.eventCount()).isEqualTo(fullRebuild.eventCount());
+        assertThat(taskService.getAll()).hasSameSizeAs(createdTasks);
+    }
+
+    // statements recorded in taskboard.http.statements for the request, which may complete after the response is sent
+    private double statementsOf(String method, String uri, Runnable request) throws InterruptedException {
+        DistributionSummary before = meterRegistry.find("taskboard.http.statements")
+                .tags("method", method, "uri", uri)
+                .summary();
+        long count = before == null ? 0 : before.count();
+        double total = before == null ? 0 : before.totalAmount();
+        request.run();
+        for (int attempt = 0; attempt < 50; attempt++) {
+            DistributionSummary after = meterRegistry.find("taskboard.http.statements")
+                    .tags("method", method, "uri", uri)
+                    .summary();
+            if (after != null && after.count() > count) {
+                assertThat(after.count()).isEqualTo(count + 1);
+                return after.totalAmount() - total;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No statements recorded for " + method + " " + uri);
+    }
+
+    private double userCacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tags("cache", "users", "result", result)
+                .functionCounter()
+                .count();
+    }
+
+    /**
+     * System clock of the application that the tests can move forward instead of waiting.
+     */
+    static class AdjustableClock extends Clock {
+        private volatile Duration offset = Duration.ZERO;
+
+        void advance(Duration duration) {
+            offset = offset.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return Clock.offset(Clock.system(zone), offset);
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.now().plus(offset);
+        }
+    }
+
+    @TestConfiguration
+    static class ClockConfig {
+        @Bean
+        @Primary
+        AdjustableClock adjustableClock() {
+            return new AdjustableClock();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package de.unibayreuth.se.taskboard;
+
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.domain.User;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.Order;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * System tests for filtered task queries, which capture the SQL that Hibernate generates and therefore require a
+ * separate application context.
+ */
+@Import(TaskQuerySystemTests.CapturingConfig.class)
+public class TaskQuerySystemTests extends AbstractSystemTest {
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void filterTasksByStatusAssigneeAndUpdateTime() throws Exception {
+        User alice = TestFixtures.createUsers(userService).getFirst();
+        List<Task> createdTasks = TestFixtures.createTasks(taskService);
+        Task first = createdTasks.getFirst();
+        first.setAssigneeId(alice.getId());
+        first.setStatus(TaskStatus.DOING);
+        taskService.upsert(first);
+        Thread.sleep(10);
+        LocalDateTime beforeUpdate = LocalDateTime.now(ZoneId.of("UTC")); // like updatedAt
+        Thread.sleep(10);
+        Task second = createdTasks.get(1);
+        second.setAssigneeId(alice.getId());
+        second.setStatus(TaskStatus.DOING);
+        taskService.upsert(second);
+
+        given()
+                .queryParam("status", "DOING")
+                .queryParam("assignee", alice.getId())
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(200)
+                .body("title", contains(first.getTitle(), second.getTitle()));
+
+        given()
+                .queryParam("assignee", alice.getId())
+                .queryParam("updatedSince", beforeUpdate.toString())
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(200)
+                .body("title", contains(second.getTitle()));
+
+        given()
+                .queryParam("status", "DONE")
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(200)
+                .body(".", hasSize(0));
+
+        given()
+                .queryParam("status", "DOING")
+                .queryParam("asOf", beforeUpdate.toString())
+                .when()
+                .get("/api/tasks")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void everyFilterCombinationIsOneIndexScan() throws Exception {
+        for (TaskStatus status : new TaskStatus[]{null, TaskStatus.TODO}) {
+            for (UUID assigneeId : new UUID[]{null, UUID.randomUUID()}) {
+                for (LocalDateTime updatedSince : new LocalDateTime[]{null, LocalDateTime.now()}) {
+                    for (Cursor after : new Cursor[]{null, new Cursor(LocalDateTime.now(), UUID.randomUUID())}) {
+                        STATEMENTS.get().clear();
+                        taskService.find(new TaskQuery(status, assigneeId, updatedSince), after, 10);
+                        List<String> statements = STATEMENTS.get();
+                        assertThat(statements).hasSize(1);
+
+                        String index = assigneeId == null
+                                ? status == null ? "tasks_updated_at_id_idx" : "tasks_status_updated_at_id_idx"
+                                : status == null ? "tasks_assignee_id_updated_at_id_idx" : "tasks_assignee_id_status_updated_at_id_idx";
+                        assertThat(explain(statements.getFirst()))
+                                .as("status=%s, assignee=%s, updatedSince=%s, cursor=%s", status, assigneeId, updatedSince, after)
+                                .contains("Index Scan using " + index)
+                                .doesNotContain("Seq Scan", "Sort");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Plans the statement independent of parameter values and table statistics (empty in this test), with sequential
+     * scans disabled, so that the plan shows which index the statement can use.
+     */
+    private String explain(String sql) throws Exception {
+        StringBuilder numbered = new StringBuilder();
+        int parameters = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameters);
+            } else {
+                numbered.append(c);
+            }
+        }
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("set enable_seqscan = off");
+            statement.execute("set plan_cache_mode = force_generic_plan");
+            statement.execute("prepare task_query as " + numbered);
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery("explain execute task_query("
+                    + String.join(", ", Collections.nCopies(parameters, "null")) + ")")) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            } finally {
+                statement.execute("deallocate task_query");
+                statement.execute("reset plan_cache_mode");
+                statement.execute("reset enable_seqscan");
+            }
+            return plan.toString();
+        }
+    }
+
+    /**
+     * Records the SQL statements that Hibernate prepares on the current thread, before the inspector of the application.
+     */
+    @TestConfiguration
+    static class CapturingConfig {
+        @Bean
+        @Order // after the customizer of the application, whose inspector is wrapped
+        HibernatePropertiesCustomizer capturingCustomizer() {
+            return properties -> {
+                StatementInspector next = (StatementInspector) properties.get(AvailableSettings.STATEMENT_INSPECTOR);
+                StatementInspector capturing = sql -> {
+                    STATEMENTS.get().add(sql);
+                    return next == null ? sql : next.inspect(sql);
+                };
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, capturing);
+            };
+        }
+    }
+}
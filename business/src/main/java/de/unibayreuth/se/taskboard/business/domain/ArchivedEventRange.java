@@ -0,0 +1,14 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Events that were compacted into the archive, i.e., replaced by the state of their tasks and users at the end.
+ *
+ * @param end start of the month before which all events are archived
+ * @param eventCount number of events archived up to end since the previous range
+ */
+public record ArchivedEventRange(@NonNull LocalDateTime end, long eventCount) {
+}
@@ -0,0 +1,24 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * Outcome of a single item of a bulk operation.
+ *
+ * @param value the resulting value, null if the item failed
+ * @param error the reason why the item failed, null if it succeeded
+ */
+public record BatchResult<T>(@Nullable T value, @Nullable String error) {
+    public static <T> BatchResult<T> success(@NonNull T value) {
+        return new BatchResult<>(value, null);
+    }
+
+    public static <T> BatchResult<T> failure(@NonNull String error) {
+        return new BatchResult<>(null, error);
+    }
+
+    public boolean succeeded() {
+        return error == null;
+    }
+}
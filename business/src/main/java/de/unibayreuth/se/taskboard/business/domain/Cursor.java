@@ -0,0 +1,15 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Keyset position in a list that is sorted by a timestamp and the ID as tie-breaker.
+ *
+ * @param timestamp sort key of the last returned element (updatedAt for tasks, createdAt for users)
+ * @param id ID of the last returned element
+ */
+public record Cursor(@NonNull LocalDateTime timestamp, @NonNull UUID id) {
+}
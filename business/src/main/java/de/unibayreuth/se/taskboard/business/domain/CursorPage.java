@@ -0,0 +1,26 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list.
+ *
+ * @param items elements of this page
+ * @param next cursor to request the following page, null if this is the last page
+ */
+public record CursorPage<T>(@NonNull List<T> items, @Nullable Cursor next) {
+    /**
+     * Creates a page from a result that was fetched with {@code limit + 1} elements to detect whether there is a next page.
+     */
+    public static <T> CursorPage<T> of(@NonNull List<T> items, int limit, @NonNull Function<T, Cursor> cursorOf) {
+        if (items.size() <= limit) {
+            return new CursorPage<>(items, null);
+        }
+        List<T> page = items.subList(0, limit);
+        return new CursorPage<>(page, cursorOf.apply(page.getLast()));
+    }
+}
@@ -0,0 +1,24 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Application event announcing that an entity was changed, possibly by another node. Caches evict the entity on it.
+ *
+ * @param entity simple class name of the changed entity (e.g. "User"), null if any entity may have changed
+ * @param id ID of the changed entity, null if any entity of the type may have changed
+ */
+public record EntityChangedEvent(@Nullable String entity, @Nullable UUID id) {
+    /**
+     * Event for the case that changes may have been missed, e.g., after a lost database connection.
+     */
+    public static EntityChangedEvent all() {
+        return new EntityChangedEvent(null, null);
+    }
+
+    public boolean affects(Class<?> entityType) {
+        return entity == null || entity.equals(entityType.getSimpleName());
+    }
+}
@@ -0,0 +1,47 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+
+import java.util.Comparator;
+
+/**
+ * Position of an event in the change feed, which is ordered by the inserting transaction and then by the insert order.
+ * Its text form ({@link #toString()}) is the token that clients send back to continue after the event.
+ *
+ * @param transactionId ID of the transaction that inserted the event
+ * @param position sequence number of the event, assigned on insert
+ */
+public record EventPosition(long transactionId, long position) implements Comparable<EventPosition> {
+    /**
+     * Position before the first event.
+     */
+    public static final EventPosition START = new EventPosition(0, 0);
+
+    private static final Comparator<EventPosition> ORDER = Comparator.comparingLong(EventPosition::transactionId)
+            .thenComparingLong(EventPosition::position);
+    private static final char SEPARATOR = '.';
+
+    /**
+     * Parses the text form of a position.
+     *
+     * @throws IllegalArgumentException if the text is not a position
+     */
+    public static EventPosition parse(@NonNull String text) {
+        int separator = text.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid event position: " + text);
+        }
+        return new EventPosition(Long.parseLong(text.substring(0, separator)), Long.parseLong(text.substring(separator + 1)));
+    }
+
+    @Override
+    public int compareTo(@NonNull EventPosition other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return transactionId + String.valueOf(SEPARATOR) + position;
+    }
+}
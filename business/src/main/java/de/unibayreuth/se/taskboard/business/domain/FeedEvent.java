@@ -0,0 +1,28 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An event of the change feed, i.e., one entry of the event log.
+ *
+ * @param position position of the event in the feed
+ * @param type kind of the change
+ * @param entity simple class name of the changed entity (e.g. "Task")
+ * @param entityId ID of the changed entity
+ * @param version version of the entity after the change
+ * @param createdAt time of the change
+ * @param body state of the entity after the change, only the ID for deletions
+ */
+public record FeedEvent(@NonNull EventPosition position, @NonNull Type type, @NonNull String entity,
+                        @NonNull UUID entityId, long version, @NonNull LocalDateTime createdAt,
+                        @NonNull Map<String, Object> body) {
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+}
@@ -0,0 +1,25 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * One page of the change feed.
+ *
+ * @param events events of this page, in feed order
+ * @param next position to request the following page, null if no further events are available yet
+ */
+public record FeedPage(@NonNull List<FeedEvent> events, @Nullable EventPosition next) {
+    /**
+     * Creates a page from a result that was fetched with {@code limit + 1} events to detect whether there is a next page.
+     */
+    public static FeedPage of(@NonNull List<FeedEvent> events, int limit) {
+        if (events.size() <= limit) {
+            return new FeedPage(events, null);
+        }
+        List<FeedEvent> page = events.subList(0, limit);
+        return new FeedPage(page, page.getLast().position());
+    }
+}
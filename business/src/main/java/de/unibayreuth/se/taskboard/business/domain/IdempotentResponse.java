@@ -0,0 +1,17 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * State of an idempotency key: the request that claimed it and, once that request has completed, its response.
+ *
+ * @param requestHash hash of the request that claimed the key, to detect keys that are reused for another request
+ * @param status HTTP status of the response, null while the request is in progress
+ * @param body serialized body of the response, null while the request is in progress
+ */
+public record IdempotentResponse(@NonNull String requestHash, @Nullable Integer status, @Nullable String body) {
+    public boolean isCompleted() {
+        return status != null;
+    }
+}
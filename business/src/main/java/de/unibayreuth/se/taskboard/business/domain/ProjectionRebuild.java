@@ -0,0 +1,19 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Outcome of a rebuild of the projections from the event log.
+ *
+ * @param startSnapshotId snapshot the rebuild started from, null if it replayed all events
+ * @param replayedEvents number of events replayed after the start snapshot
+ * @param eventCount number of events the rebuilt projection reflects
+ * @param duration wall-clock time of the rebuild
+ */
+public record ProjectionRebuild(@Nullable UUID startSnapshotId, long replayedEvents, long eventCount,
+                                @NonNull Duration duration) {
+}
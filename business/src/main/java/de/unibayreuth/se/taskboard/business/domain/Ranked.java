@@ -0,0 +1,12 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+
+/**
+ * Search result with its relevance.
+ *
+ * @param item the matching element
+ * @param rank relevance of the element for the query, higher is more relevant
+ */
+public record Ranked<T>(@NonNull T item, float rank) {
+}
@@ -0,0 +1,55 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Revision of a task, a user, or a list of them, which lets clients revalidate their copy without loading it again.
+ *
+ * @param tag opaque value that changes whenever the content changes
+ * @param lastModified time of the last change, null if unknown
+ */
+public record Revision(@NonNull String tag, @Nullable LocalDateTime lastModified) {
+    private static final String VERSION_SEPARATOR = "-";
+
+    /**
+     * Creates a revision whose tag is a hash of the provided components.
+     */
+    public static Revision of(@Nullable LocalDateTime lastModified, @NonNull Object... components) {
+        String joined = Arrays.stream(components)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        return new Revision(DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8)), lastModified);
+    }
+
+    /**
+     * Creates the revision of a versioned entity. The tag starts with the version, so that clients can send it back as
+     * the version they expect (see {@link #versionOf(String)}), followed by a hash of the components that may change
+     * without a new version.
+     */
+    public static Revision of(long version, @Nullable LocalDateTime lastModified, @NonNull Object... components) {
+        return new Revision(version + VERSION_SEPARATOR + of(lastModified, components).tag(), lastModified);
+    }
+
+    /**
+     * Returns the version of a tag created by {@link #of(long, LocalDateTime, Object...)}, null for other tags.
+     */
+    @Nullable
+    public static Long versionOf(@NonNull String tag) {
+        int separator = tag.indexOf(VERSION_SEPARATOR);
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return Long.parseLong(tag.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
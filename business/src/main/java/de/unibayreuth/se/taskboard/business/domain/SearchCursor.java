@@ -0,0 +1,14 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+
+import java.util.UUID;
+
+/**
+ * Keyset position in a list of search results that is sorted by descending rank and descending ID as tie-breaker.
+ *
+ * @param rank rank of the last returned element
+ * @param id ID of the last returned element
+ */
+public record SearchCursor(float rank, @NonNull UUID id) {
+}
@@ -0,0 +1,31 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * One page of keyset-paginated search results, most relevant first.
+ *
+ * @param items elements of this page
+ * @param next cursor to request the following page, null if this is the last page
+ */
+public record SearchPage<T>(@NonNull List<T> items, @Nullable SearchCursor next) {
+    /**
+     * Creates a page from results that were fetched with {@code limit + 1} elements to detect whether there is a next page.
+     */
+    public static <T> SearchPage<T> of(@NonNull List<Ranked<T>> results, int limit, @NonNull Function<T, UUID> idOf) {
+        List<Ranked<T>> page = results.size() <= limit ? results : results.subList(0, limit);
+        List<T> items = page.stream()
+                .map(Ranked::item)
+                .toList();
+        if (results.size() <= limit) {
+            return new SearchPage<>(items, null);
+        }
+        Ranked<T> last = page.getLast();
+        return new SearchPage<>(items, new SearchCursor(last.rank(), idOf.apply(last.item())));
+    }
+}
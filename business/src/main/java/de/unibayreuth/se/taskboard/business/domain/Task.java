@@ -32,6 +32,8 @@ public class Task implements Serializable, Identifiable {
         private TaskStatus status = TaskStatus.TODO;
         @Nullable
         private UUID assigneeId; // null when no user is assigned yet
+        @Nullable
+        private Long version; // incremented on every change, null when task is not persisted yet
 
         @Override
         public long getSerialVersionUID() {
@@ -0,0 +1,15 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of a bulk operation on tasks, whose upserts and deletes are written together.
+ *
+ * @param upserts one result per upserted task, in the order of the request
+ * @param deletes one result per deleted ID, in the order of the request
+ */
+public record TaskBatchResults(@NonNull List<BatchResult<Task>> upserts, @NonNull List<BatchResult<UUID>> deletes) {
+}
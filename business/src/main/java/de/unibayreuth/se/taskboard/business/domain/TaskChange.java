@@ -0,0 +1,21 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single change of a task as recorded in the event log.
+ *
+ * @param changedAt time of the event that recorded the change
+ * @param type kind of the change
+ * @param task state of the task after the change, null if the task was deleted
+ */
+public record TaskChange(@NonNull LocalDateTime changedAt, @NonNull Type type, @Nullable Task task) {
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+}
@@ -0,0 +1,14 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Number of tasks with a status and assignee.
+ *
+ * @param assigneeId null for unassigned tasks
+ */
+public record TaskCount(@NonNull TaskStatus status, @Nullable UUID assigneeId, long count) {
+}
@@ -0,0 +1,19 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Filter for tasks. All criteria are optional and combined with AND.
+ *
+ * @param status status of the tasks, any status if null
+ * @param assigneeId ID of the assigned user, any assignee (or none) if null
+ * @param updatedSince earliest update time (inclusive), any time if null
+ */
+public record TaskQuery(@Nullable TaskStatus status, @Nullable UUID assigneeId, @Nullable LocalDateTime updatedSince) {
+    public static TaskQuery all() {
+        return new TaskQuery(null, null, null);
+    }
+}
@@ -0,0 +1,40 @@
+package de.unibayreuth.se.taskboard.business.domain;
+
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Task counts of the board.
+ *
+ * @param total number of tasks
+ * @param byStatus number of tasks per status, including statuses without tasks
+ * @param byAssignee number of tasks per assignee, only assignees with tasks
+ * @param unassigned number of tasks without assignee
+ */
+public record TaskStats(long total, @NonNull Map<TaskStatus, Long> byStatus, @NonNull Map<UUID, Long> byAssignee,
+                        long unassigned) {
+    public static TaskStats of(@NonNull Collection<TaskCount> counts) {
+        long total = 0;
+        long unassigned = 0;
+        Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status, 0L);
+        }
+        Map<UUID, Long> byAssignee = new HashMap<>();
+        for (TaskCount count : counts) {
+            total += count.count();
+            byStatus.merge(count.status(), count.count(), Long::sum);
+            if (count.assigneeId() == null) {
+                unassigned += count.count();
+            } else {
+                byAssignee.merge(count.assigneeId(), count.count(), Long::sum);
+            }
+        }
+        return new TaskStats(total, byStatus, byAssignee, unassigned);
+    }
+}
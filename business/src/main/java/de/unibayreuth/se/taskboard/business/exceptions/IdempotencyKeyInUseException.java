@@ -0,0 +1,7 @@
+package de.unibayreuth.se.taskboard.business.exceptions;
+
+public class IdempotencyKeyInUseException extends RuntimeException {
+    public IdempotencyKeyInUseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package de.unibayreuth.se.taskboard.business.exceptions;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package de.unibayreuth.se.taskboard.business.exceptions;
+
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
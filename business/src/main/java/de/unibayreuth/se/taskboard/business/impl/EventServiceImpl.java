@@ -0,0 +1,38 @@
+package de.unibayreuth.se.taskboard.business.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.EventPosition;
+import de.unibayreuth.se.taskboard.business.domain.FeedEvent;
+import de.unibayreuth.se.taskboard.business.domain.FeedPage;
+import de.unibayreuth.se.taskboard.business.ports.EventPersistenceService;
+import de.unibayreuth.se.taskboard.business.ports.EventService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+public class EventServiceImpl implements EventService {
+    private final EventPersistenceService eventPersistenceService;
+
+    @Override
+    @NonNull
+    public FeedPage getPage(@Nullable EventPosition after, int limit) {
+        return FeedPage.of(getAfter(Objects.requireNonNullElse(after, EventPosition.START), limit + 1), limit);
+    }
+
+    @Override
+    @NonNull
+    public List<FeedEvent> getAfter(@NonNull EventPosition after, int limit) {
+        return eventPersistenceService.getAfter(after, limit);
+    }
+
+    @Override
+    @NonNull
+    public EventPosition getHead() {
+        return eventPersistenceService.getHead();
+    }
+}
@@ -0,0 +1,47 @@
+package de.unibayreuth.se.taskboard.business.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.IdempotentResponse;
+import de.unibayreuth.se.taskboard.business.exceptions.IdempotencyKeyInUseException;
+import de.unibayreuth.se.taskboard.business.exceptions.IdempotencyKeyReusedException;
+import de.unibayreuth.se.taskboard.business.ports.IdempotencyPersistenceService;
+import de.unibayreuth.se.taskboard.business.ports.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class IdempotencyServiceImpl implements IdempotencyService {
+    private final IdempotencyPersistenceService idempotencyPersistenceService;
+
+    @Override
+    @NonNull
+    public Optional<IdempotentResponse> begin(@NonNull String scope, @NonNull String key, @NonNull String requestHash)
+            throws IdempotencyKeyInUseException, IdempotencyKeyReusedException {
+        Optional<IdempotentResponse> existing = idempotencyPersistenceService.claim(scope, key, requestHash);
+        if (existing.isPresent()) {
+            IdempotentResponse response = existing.get();
+            if (!response.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(
+                        "Idempotency key " + key + " was already used for another request.");
+            }
+            if (!response.isCompleted()) {
+                throw new IdempotencyKeyInUseException(
+                        "A request with idempotency key " + key + " is still in progress.");
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public void complete(@NonNull String scope, @NonNull String key, int status, @NonNull String body) {
+        idempotencyPersistenceService.complete(scope, key, status, body);
+    }
+
+    @Override
+    public void release(@NonNull String scope, @NonNull String key) {
+        idempotencyPersistenceService.release(scope, key);
+    }
+}
@@ -1,24 +1,54 @@
 package de.unibayreuth.se.taskboard.business.impl;
 
-import de.unibayreuth.se.taskboard.business.domain.*;
+import de.unibayreuth.se.taskboard.business.domain.BatchResult;
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.CursorPage;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.SearchCursor;
+import de.unibayreuth.se.taskboard.business.domain.SearchPage;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskBatchResults;
+import de.unibayreuth.se.taskboard.business.domain.TaskChange;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
+import de.unibayreuth.se.taskboard.business.domain.TaskStats;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.domain.User;
 import de.unibayreuth.se.taskboard.business.exceptions.MalformedRequestException;
 import de.unibayreuth.se.taskboard.business.exceptions.TaskNotFoundException;
 import de.unibayreuth.se.taskboard.business.exceptions.UserNotFoundException;
-import de.unibayreuth.se.taskboard.business.ports.*;
+import de.unibayreuth.se.taskboard.business.exceptions.VersionConflictException;
+import de.unibayreuth.se.taskboard.business.ports.TaskCounterPersistenceService;
+import de.unibayreuth.se.taskboard.business.ports.TaskHistoryPersistenceService;
+import de.unibayreuth.se.taskboard.business.ports.TaskPersistenceService;
+import de.unibayreuth.se.taskboard.business.ports.TaskService;
+import de.unibayreuth.se.taskboard.business.ports.UserPersistenceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TaskServiceImpl implements TaskService {
     private final TaskPersistenceService taskPersistenceService;
+    private final TaskHistoryPersistenceService taskHistoryPersistenceService;
     private final UserPersistenceService userPersistenceService;
+    private final TaskCounterPersistenceService taskCounterPersistenceService;
 
     @Override
     public void clear() {
@@ -40,6 +70,23 @@ public class TaskServiceImpl implements TaskService {
         return taskPersistenceService.getAll();
     }
 
+    @Override
+    public void exportAll(@NonNull Consumer<Task> consumer) {
+        taskPersistenceService.forEach(consumer);
+    }
+
+    @Override
+    @NonNull
+    public CursorPage<Task> getPage(@Nullable Cursor after, int limit) {
+        return CursorPage.of(taskPersistenceService.getPage(after, limit + 1), limit, TaskServiceImpl::cursorOf);
+    }
+
+    @Override
+    @NonNull
+    public CursorPage<Task> find(@NonNull TaskQuery query, @Nullable Cursor after, int limit) {
+        return CursorPage.of(taskPersistenceService.find(query, after, limit + 1), limit, TaskServiceImpl::cursorOf);
+    }
+
     @Override
     @NonNull
     public Task getById(@NonNull UUID id) throws TaskNotFoundException {
@@ -47,12 +94,53 @@ public class TaskServiceImpl implements TaskService {
                 .orElseThrow(() -> new TaskNotFoundException("Task with ID " + id + " does not exist."));
     }
 
+    @Override
+    @NonNull
+    public Revision getRevision(@NonNull UUID id) throws TaskNotFoundException {
+        return taskPersistenceService.getRevision(id)
+                .orElseThrow(() -> new TaskNotFoundException("Task with ID " + id + " does not exist."));
+    }
+
+    @Override
+    @NonNull
+    public Revision getRevision() {
+        return taskPersistenceService.getRevision();
+    }
+
+    @Override
+    @NonNull
+    public TaskStats getStats() {
+        return TaskStats.of(taskCounterPersistenceService.getCounts());
+    }
+
+    @Override
+    @NonNull
+    public List<TaskChange> getHistory(@NonNull UUID id) throws TaskNotFoundException {
+        List<TaskChange> history = taskHistoryPersistenceService.getHistory(id);
+        if (history.isEmpty()) {
+            throw new TaskNotFoundException("Task with ID " + id + " does not exist.");
+        }
+        return history;
+    }
+
+    @Override
+    @NonNull
+    public List<Task> getAllAsOf(@NonNull LocalDateTime asOf) {
+        return taskHistoryPersistenceService.getAllAsOf(asOf);
+    }
+
     @Override
     @NonNull
     public List<Task> getByStatus(@NonNull TaskStatus status) {
         return taskPersistenceService.getByStatus(status);
     }
 
+    @Override
+    @NonNull
+    public CursorPage<Task> getPageByStatus(@NonNull TaskStatus status, @Nullable Cursor after, int limit) {
+        return CursorPage.of(taskPersistenceService.getPageByStatus(status, after, limit + 1), limit, TaskServiceImpl::cursorOf);
+    }
+
     @Override
     @NonNull
     public List<Task> getByAssignee(@NonNull UUID userId) throws UserNotFoundException {
@@ -61,9 +149,25 @@ public class TaskServiceImpl implements TaskService {
 
     @Override
     @NonNull
-    public Task upsert(@NonNull Task task) throws TaskNotFoundException, UserNotFoundException {
+    public CursorPage<Task> getPageByAssignee(@NonNull UUID userId, @Nullable Cursor after, int limit) {
+        return CursorPage.of(taskPersistenceService.getPageByAssignee(userId, after, limit + 1), limit, TaskServiceImpl::cursorOf);
+    }
+
+    @Override
+    @NonNull
+    public SearchPage<Task> search(@NonNull String query, @Nullable TaskStatus status, @Nullable UUID assigneeId,
+                                   @Nullable SearchCursor after, int limit) throws MalformedRequestException {
+        if (query.isBlank()) {
+            throw new MalformedRequestException("Search query must not be blank.");
+        }
+        return SearchPage.of(taskPersistenceService.search(query, status, assigneeId, after, limit + 1), limit, Task::getId);
+    }
+
+    @Override
+    @NonNull
+    public Task upsert(@NonNull Task task) throws TaskNotFoundException, UserNotFoundException, VersionConflictException {
         if (task.getId() != null) {
-            verifyTaskExists(task.getId());
+            // the persistence service rejects updates of tasks that do not exist
             task.setUpdatedAt(LocalDateTime.now(ZoneId.of("UTC")));
         }
         if (task.getAssigneeId() != null) {
@@ -73,13 +177,81 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
-    public void delete(@NonNull UUID id) throws TaskNotFoundException {
-        taskPersistenceService.delete(id);
+    public void delete(@NonNull UUID id, @Nullable Long expectedVersion) throws TaskNotFoundException, VersionConflictException {
+        taskPersistenceService.delete(id, expectedVersion);
     }
 
-    private void verifyTaskExists(@NonNull UUID id) throws TaskNotFoundException {
-        taskPersistenceService.getById(id)
-                .orElseThrow(() -> new TaskNotFoundException("Task with ID " + id + " does not exist."));
+    @Override
+    @NonNull
+    public List<BatchResult<Task>> upsertAll(@NonNull List<Task> tasks) throws VersionConflictException {
+        return applyAll(tasks, List.of()).upserts();
+    }
+
+    @Override
+    @NonNull
+    public List<BatchResult<UUID>> deleteAll(@NonNull List<UUID> ids) throws VersionConflictException {
+        return applyAll(List.of(), ids).deletes();
+    }
+
+    @Override
+    @NonNull
+    public TaskBatchResults applyAll(@NonNull List<Task> upserts, @NonNull List<UUID> deletes)
+            throws VersionConflictException {
+        // validate the whole batch with one query for tasks and one query for users
+        Map<UUID, Long> taskVersions = taskPersistenceService.getVersions(Stream.concat(
+                        upserts.stream().map(Task::getId).filter(Objects::nonNull), deletes.stream())
+                .collect(Collectors.toSet()));
+        Set<UUID> existingUserIds = userPersistenceService.getByIds(upserts.stream()
+                        .map(Task::getAssigneeId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+
+        List<BatchResult<Task>> upsertResults = new ArrayList<>(upserts.size());
+        List<Task> validTasks = new ArrayList<>(upserts.size());
+        Map<UUID, Long> batchVersions = new HashMap<>(taskVersions); // including the updates of this batch
+        LocalDateTime utcNow = LocalDateTime.now(ZoneId.of("UTC"));
+        for (Task task : upserts) {
+            // repeated IDs are conditional on the version left by their previous update in this batch
+            Long currentVersion = task.getId() == null ? null : batchVersions.get(task.getId());
+            if (task.getId() != null && currentVersion == null) {
+                upsertResults.add(BatchResult.failure("Task with ID " + task.getId() + " does not exist."));
+            } else if (task.getVersion() != null && currentVersion != null && !task.getVersion().equals(currentVersion)) {
+                upsertResults.add(BatchResult.failure("Task with ID " + task.getId() + " has version " + currentVersion
+                        + ", not " + task.getVersion() + "."));
+            } else if (task.getAssigneeId() != null && !existingUserIds.contains(task.getAssigneeId())) {
+                upsertResults.add(BatchResult.failure("User with ID " + task.getAssigneeId() + " does not exist."));
+            } else {
+                if (task.getId() != null) {
+                    task.setUpdatedAt(utcNow);
+                    task.setVersion(currentVersion); // updates without a version are conditional on the one read here
+                    batchVersions.put(task.getId(), currentVersion + 1);
+                }
+                validTasks.add(task);
+                upsertResults.add(null); // placeholder, replaced by the persisted task below
+            }
+        }
+        Map<UUID, Long> validDeletes = new LinkedHashMap<>();
+        List<BatchResult<UUID>> deleteResults = new ArrayList<>(deletes.size());
+        for (UUID id : deletes) {
+            Long currentVersion = batchVersions.get(id);
+            if (currentVersion == null) {
+                deleteResults.add(BatchResult.failure("Task with ID " + id + " does not exist."));
+            } else {
+                validDeletes.put(id, currentVersion); // conditional on the version read here, like the updates
+                deleteResults.add(BatchResult.success(id));
+            }
+        }
+
+        // all or nothing: a task changed or deleted since the validation fails the whole batch
+        Iterator<Task> persistedTasks = taskPersistenceService.writeAll(validTasks, validDeletes).iterator();
+        upsertResults.replaceAll(result -> result == null ? BatchResult.success(persistedTasks.next()) : result);
+        return new TaskBatchResults(upsertResults, deleteResults);
+    }
+
+    private static Cursor cursorOf(@NonNull Task task) {
+        return new Cursor(task.getUpdatedAt(), Objects.requireNonNull(task.getId()));
     }
 
     private void verifyUserExists(@NonNull UUID id) throws UserNotFoundException {
@@ -1,15 +1,21 @@
 package de.unibayreuth.se.taskboard.business.impl;
 
 import de.unibayreuth.se.taskboard.business.exceptions.DuplicateNameException;
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.CursorPage;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
 import de.unibayreuth.se.taskboard.business.domain.User;
 import de.unibayreuth.se.taskboard.business.exceptions.MalformedRequestException;
 import de.unibayreuth.se.taskboard.business.ports.UserPersistenceService;
 import de.unibayreuth.se.taskboard.business.ports.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -29,12 +35,34 @@ public class UserServiceImpl implements UserService {
         return userPersistenceService.getAll();
     }
 
+    @Override
+    @NonNull
+    public CursorPage<User> getPage(@Nullable Cursor after, int limit) {
+        return CursorPage.of(userPersistenceService.getPage(after, limit + 1), limit,
+                user -> new Cursor(user.getCreatedAt(), Objects.requireNonNull(user.getId())));
+    }
+
     @Override
     @NonNull
     public Optional<User> getById(@NonNull UUID id) {
         return userPersistenceService.getById(id);
     }
 
+    @Override
+    @NonNull
+    public List<User> getByIds(@NonNull Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return userPersistenceService.getByIds(ids);
+    }
+
+    @Override
+    @NonNull
+    public Revision getRevision() {
+        return userPersistenceService.getRevision();
+    }
+
     @Override
     @NonNull
     public User create(@NonNull User user) throws MalformedRequestException, DuplicateNameException {
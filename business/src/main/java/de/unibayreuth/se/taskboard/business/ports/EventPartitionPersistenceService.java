@@ -0,0 +1,15 @@
+package de.unibayreuth.se.taskboard.business.ports;
+
+import de.unibayreuth.se.taskboard.business.domain.ArchivedEventRange;
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+
+/**
+ * Interface for the maintenance of the monthly partitions of the event log and of its archive.
+ */
+public interface EventPartitionPersistenceService {
+    int createPartitions(); // for the current and the coming months, returns the number of new partitions
+    @NonNull
+    List<ArchivedEventRange> archive(); // the events before the retention period, oldest month first
+}
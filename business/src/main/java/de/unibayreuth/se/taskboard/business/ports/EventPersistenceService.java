@@ -0,0 +1,18 @@
+package de.unibayreuth.se.taskboard.business.ports;
+
+import de.unibayreuth.se.taskboard.business.domain.EventPosition;
+import de.unibayreuth.se.taskboard.business.domain.FeedEvent;
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+
+/**
+ * Interface for reading the event log as a change feed. Only events that precede every running transaction are
+ * returned, so that no event can appear later before a returned one.
+ */
+public interface EventPersistenceService {
+    @NonNull
+    List<FeedEvent> getAfter(@NonNull EventPosition after, int limit); // in feed order
+    @NonNull
+    EventPosition getHead(); // of the latest event that getAfter() returns, START if there is none
+}
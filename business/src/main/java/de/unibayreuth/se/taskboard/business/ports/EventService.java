@@ -0,0 +1,21 @@
+package de.unibayreuth.se.taskboard.business.ports;
+
+import de.unibayreuth.se.taskboard.business.domain.EventPosition;
+import de.unibayreuth.se.taskboard.business.domain.FeedEvent;
+import de.unibayreuth.se.taskboard.business.domain.FeedPage;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Interface for the change feed service that the business layer provides as a port.
+ */
+public interface EventService {
+    @NonNull
+    FeedPage getPage(@Nullable EventPosition after, int limit); // from the first event if after is null
+    @NonNull
+    List<FeedEvent> getAfter(@NonNull EventPosition after, int limit); // without detecting a next page
+    @NonNull
+    EventPosition getHead();
+}
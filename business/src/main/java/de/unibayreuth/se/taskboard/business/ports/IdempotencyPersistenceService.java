@@ -0,0 +1,19 @@
+package de.unibayreuth.se.taskboard.business.ports;
+
+import de.unibayreuth.se.taskboard.business.domain.IdempotentResponse;
+import org.springframework.lang.NonNull;
+
+import java.util.Optional;
+
+/**
+ * Interface for the store of idempotency keys that the business layer provides as a port. Keys are scoped by endpoint
+ * (e.g., tasks or users) and expire, claims of requests that never complete sooner than responses.
+ */
+public interface IdempotencyPersistenceService {
+    // empty if the key was claimed for the request, otherwise the state of the key, which has not expired
+    @NonNull
+    Optional<IdempotentResponse> claim(@NonNull String scope, @NonNull String key, @NonNull String requestHash);
+    void complete(@NonNull String scope, @NonNull String key, int status, @NonNull String body);
+    void release(@NonNull String scope, @NonNull String key); // deletes the claim of a failed request
+    long deleteExpired(); // returns the number of deleted keys
+}
@@ -0,0 +1,21 @@
+package de.unibayreuth.se.taskboard.business.ports;
+
+import de.unibayreuth.se.taskboard.business.domain.IdempotentResponse;
+import de.unibayreuth.se.taskboard.business.exceptions.IdempotencyKeyInUseException;
+import de.unibayreuth.se.taskboard.business.exceptions.IdempotencyKeyReusedException;
+import org.springframework.lang.NonNull;
+
+import java.util.Optional;
+
+/**
+ * Interface for the idempotency keys of create requests that the business layer provides as a port.
+ */
+public interface IdempotencyService {
+    // empty if the key was claimed, then the request must run and be completed or released, otherwise the response of
+    // the earlier request with the key, which must not run again
+    @NonNull
+    Optional<IdempotentResponse> begin(@NonNull String scope, @NonNull String key, @NonNull String requestHash)
+            throws IdempotencyKeyInUseException, IdempotencyKeyReusedException;
+    void complete(@NonNull String scope, @NonNull String key, int status, @NonNull String body);
+    void release(@NonNull String scope, @NonNull String key);
+}
@@ -0,0 +1,12 @@
+package de.unibayreuth.se.taskboard.business.ports;
+
+import de.unibayreuth.se.taskboard.business.domain.ProjectionRebuild;
+import org.springframework.lang.NonNull;
+
+/**
+ * Interface for the maintenance of the projections (tasks and users) that are derived from the event log.
+ */
+public interface ProjectionPersistenceService {
+    @NonNull
+    ProjectionRebuild rebuild(); // from the latest snapshot, replays the remaining events
+}
@@ -0,0 +1,16 @@
+package de.unibayreuth.se.taskboard.business.ports;
+
+import org.springframework.lang.NonNull;
+
+import java.time.Instant;
+
+/**
+ * Interface for routing the reads of the current thread to the primary database instead of a replica, so that a
+ * client reads its own writes until the replicas caught up with them.
+ */
+public interface ReplicaRoutingPersistenceService {
+    @NonNull
+    Instant primaryRequiredUntil(@NonNull Instant writtenAt); // when the replicas are expected to show a write
+    void requirePrimary(); // on the current thread, until reset
+    void reset();
+}
@@ -0,0 +1,10 @@
+package de.unibayreuth.se.taskboard.business.ports;
+
+/**
+ * Interface for counting the SQL statements that the persistence layer prepares on the current thread, e.g., while an
+ * HTTP request is handled.
+ */
+public interface StatementCountingPersistenceService {
+    void startCounting(); // on the current thread, restarts a running count
+    int stopCounting(); // returns the number of statements since startCounting, zero if not counting
+}
@@ -0,0 +1,16 @@
+package de.unibayreuth.se.taskboard.business.ports;
+
+import de.unibayreuth.se.taskboard.business.domain.TaskCount;
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+
+/**
+ * Interface for the incrementally maintained task counters that the business layer provides as a port.
+ */
+public interface TaskCounterPersistenceService {
+    @NonNull
+    List<TaskCount> getCounts(); // without zero counts
+    long compact(); // folds the changes into the counters, returns the number of folded changes
+    long check(); // against a full recount, repairs and returns the number of wrong counters
+}
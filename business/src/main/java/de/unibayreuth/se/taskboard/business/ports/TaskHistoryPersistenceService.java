@@ -0,0 +1,21 @@
+package de.unibayreuth.se.taskboard.business.ports;
+
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskChange;
+import de.unibayreuth.se.taskboard.business.exceptions.MalformedRequestException;
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Interface for the history of the tasks that the business layer provides as a port, for the persistence
+ * implementations that keep the changes of the tasks. Timestamps are in UTC.
+ */
+public interface TaskHistoryPersistenceService {
+    @NonNull
+    List<TaskChange> getHistory(@NonNull UUID id); // oldest first, empty if the task never existed, archived state first
+    @NonNull
+    List<Task> getAllAsOf(@NonNull LocalDateTime asOf) throws MalformedRequestException; // if the events are archived
+}
@@ -1,28 +1,69 @@
 package de.unibayreuth.se.taskboard.business.ports;
 
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.Ranked;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.SearchCursor;
 import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
 import de.unibayreuth.se.taskboard.business.exceptions.TaskNotFoundException;
+import de.unibayreuth.se.taskboard.business.exceptions.VersionConflictException;
 import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Interface for the implementation of the task data service that the business layer provides as a port.
+ * <p>
+ * Every change of a task increments its version. An update with {@link #upsert(Task)} is conditional on the version
+ * of the provided task, or on the current version if it is null, and fails with a {@link VersionConflictException} if
+ * the task was changed in the meantime. {@link #writeAll(List, Map)} expects the callers to validate the tasks and to
+ * set the version of every update and delete; it fails as a whole with a {@link VersionConflictException} if any of
+ * them is outdated, also if the task was deleted meanwhile. Both return the tasks with their new versions.
+ * <p>
+ * The history of the tasks is a separate port, {@link TaskHistoryPersistenceService}, as not every implementation
+ * keeps it.
  */
 public interface TaskPersistenceService {
     void clear();
     @NonNull
     List<Task> getAll();
+    void forEach(@NonNull Consumer<Task> consumer); // streams all tasks without materializing them
+    @NonNull
+    List<Task> getPage(@Nullable Cursor after, int limit); // sorted by (updatedAt, id)
+    @NonNull
+    List<Task> find(@NonNull TaskQuery query, @Nullable Cursor after, int limit); // sorted by (updatedAt, id)
     @NonNull
     Optional<Task> getById(@NonNull UUID id);
     @NonNull
+    Optional<Revision> getRevision(@NonNull UUID id); // without loading the task
+    @NonNull
+    Revision getRevision(); // of all tasks, without loading them
+    @NonNull
+    Map<UUID, Long> getVersions(@NonNull Collection<UUID> ids); // of the tasks that exist
+    @NonNull
     List<Task> getByStatus(@NonNull TaskStatus status);
     @NonNull
+    List<Task> getPageByStatus(@NonNull TaskStatus status, @Nullable Cursor after, int limit);
+    @NonNull
     List<Task> getByAssignee(@NonNull UUID userId);
     @NonNull
-    Task upsert(@NonNull Task task) throws TaskNotFoundException;
-    void delete(@NonNull UUID id) throws TaskNotFoundException;
+    List<Task> getPageByAssignee(@NonNull UUID userId, @Nullable Cursor after, int limit);
+    @NonNull
+    List<Ranked<Task>> search(@NonNull String query, @Nullable TaskStatus status, @Nullable UUID assigneeId,
+                              @Nullable SearchCursor after, int limit); // sorted by (rank, id) descending
+    @NonNull
+    Task upsert(@NonNull Task task) throws TaskNotFoundException, VersionConflictException; // see below
+    void delete(@NonNull UUID id, @Nullable Long expectedVersion) throws TaskNotFoundException, VersionConflictException;
+    @NonNull
+    List<Task> writeAll(@NonNull List<Task> upserts, @NonNull Map<UUID, Long> deletes)
+            throws VersionConflictException; // in one transaction, deletes by ID and expected version, see below
+    void deleteAll(@NonNull Collection<UUID> ids) throws TaskNotFoundException; // in one transaction
 }
@@ -1,14 +1,28 @@
 package de.unibayreuth.se.taskboard.business.ports;
 
+import de.unibayreuth.se.taskboard.business.domain.BatchResult;
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.CursorPage;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.SearchCursor;
+import de.unibayreuth.se.taskboard.business.domain.SearchPage;
 import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskBatchResults;
+import de.unibayreuth.se.taskboard.business.domain.TaskChange;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
+import de.unibayreuth.se.taskboard.business.domain.TaskStats;
 import de.unibayreuth.se.taskboard.business.exceptions.MalformedRequestException;
 import de.unibayreuth.se.taskboard.business.exceptions.TaskNotFoundException;
 import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
 import de.unibayreuth.se.taskboard.business.exceptions.UserNotFoundException;
+import de.unibayreuth.se.taskboard.business.exceptions.VersionConflictException;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Interface for the implementation of the list service that the business layer provides as a port.
@@ -19,13 +33,42 @@ public interface TaskService {
     Task create(@NonNull Task task) throws MalformedRequestException, UserNotFoundException;
     @NonNull
     List<Task> getAll();
+    void exportAll(@NonNull Consumer<Task> consumer);
+    @NonNull
+    CursorPage<Task> getPage(@Nullable Cursor after, int limit);
+    @NonNull
+    CursorPage<Task> find(@NonNull TaskQuery query, @Nullable Cursor after, int limit);
     @NonNull
     Task getById(@NonNull UUID id) throws TaskNotFoundException;
     @NonNull
+    Revision getRevision(@NonNull UUID id) throws TaskNotFoundException;
+    @NonNull
+    Revision getRevision(); // of all tasks, changes with every write
+    @NonNull
+    TaskStats getStats(); // from counters, independent of the number of tasks
+    @NonNull
+    List<TaskChange> getHistory(@NonNull UUID id) throws TaskNotFoundException;
+    @NonNull
+    List<Task> getAllAsOf(@NonNull LocalDateTime asOf) throws MalformedRequestException;
+    @NonNull
     List<Task> getByStatus(@NonNull TaskStatus status);
     @NonNull
+    CursorPage<Task> getPageByStatus(@NonNull TaskStatus status, @Nullable Cursor after, int limit);
+    @NonNull
     List<Task> getByAssignee(@NonNull UUID userId) throws UserNotFoundException;
     @NonNull
-    Task upsert(@NonNull Task task) throws TaskNotFoundException, UserNotFoundException;
-    void delete(@NonNull UUID id) throws TaskNotFoundException;
+    CursorPage<Task> getPageByAssignee(@NonNull UUID userId, @Nullable Cursor after, int limit);
+    @NonNull
+    SearchPage<Task> search(@NonNull String query, @Nullable TaskStatus status, @Nullable UUID assigneeId,
+                            @Nullable SearchCursor after, int limit) throws MalformedRequestException;
+    @NonNull
+    Task upsert(@NonNull Task task) throws TaskNotFoundException, UserNotFoundException, VersionConflictException;
+    void delete(@NonNull UUID id, @Nullable Long expectedVersion) throws TaskNotFoundException, VersionConflictException;
+    @NonNull
+    List<BatchResult<Task>> upsertAll(@NonNull List<Task> tasks) throws VersionConflictException; // see applyAll
+    @NonNull
+    List<BatchResult<UUID>> deleteAll(@NonNull List<UUID> ids) throws VersionConflictException; // see applyAll
+    @NonNull
+    TaskBatchResults applyAll(@NonNull List<Task> upserts, @NonNull List<UUID> deletes)
+            throws VersionConflictException; // all or nothing, fails if a task changed since the validation
 }
@@ -1,10 +1,14 @@
 package de.unibayreuth.se.taskboard.business.ports;
 
 import de.unibayreuth.se.taskboard.business.exceptions.DuplicateNameException;
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
 import de.unibayreuth.se.taskboard.business.domain.User;
 import de.unibayreuth.se.taskboard.business.exceptions.UserNotFoundException;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,7 +21,13 @@ public interface UserPersistenceService {
     @NonNull
     List<User> getAll();
     @NonNull
+    List<User> getPage(@Nullable Cursor after, int limit); // sorted by (createdAt, id)
+    @NonNull
     Optional<User> getById(UUID id);
     @NonNull
+    List<User> getByIds(@NonNull Collection<UUID> ids); // unknown IDs are skipped
+    @NonNull
+    Revision getRevision(); // of all users, without loading them
+    @NonNull
     User upsert(User user) throws UserNotFoundException, DuplicateNameException;
 }
@@ -1,10 +1,15 @@
 package de.unibayreuth.se.taskboard.business.ports;
 
 import de.unibayreuth.se.taskboard.business.exceptions.DuplicateNameException;
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.CursorPage;
 import de.unibayreuth.se.taskboard.business.domain.User;
 import de.unibayreuth.se.taskboard.business.exceptions.MalformedRequestException;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,7 +19,13 @@ public interface UserService {
     @NonNull
     List<User> getAll();
     @NonNull
+    CursorPage<User> getPage(@Nullable Cursor after, int limit);
+    @NonNull
     Optional<User> getById(@NonNull UUID id);
     @NonNull
+    List<User> getByIds(@NonNull Collection<UUID> ids);
+    @NonNull
+    Revision getRevision(); // of all users, changes with every write
+    @NonNull
     User create(@NonNull User user) throws MalformedRequestException, DuplicateNameException;
 }
@@ -0,0 +1,54 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.User;
+import de.unibayreuth.se.taskboard.data.persistence.ArchivedEntity;
+import de.unibayreuth.se.taskboard.data.persistence.EventEntity;
+import de.unibayreuth.se.taskboard.data.persistence.TaskCountResult;
+import de.unibayreuth.se.taskboard.data.persistence.TaskEntity;
+import de.unibayreuth.se.taskboard.data.persistence.TaskRevision;
+import de.unibayreuth.se.taskboard.data.persistence.TaskSearchResult;
+import de.unibayreuth.se.taskboard.data.persistence.UserEntity;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Reachability metadata for the native image (mvn -Pnative package) that Spring AOT cannot derive from the bean
+ * definitions. Entities and repositories are registered by Spring Data, MapStruct mappers are plain beans, and the
+ * Jackson modules (JavaTimeModule, ParameterNamesModule) are instantiated directly in {@link JacksonConfig}.
+ */
+class DataRuntimeHints implements RuntimeHintsRegistrar {
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, @Nullable ClassLoader classLoader) {
+        // event bodies are converted from the domain classes and read back into the task entity with Jackson
+        bindingRegistrar.registerReflectionHints(hints.reflection(), Task.class, User.class, TaskEntity.class);
+        // the JSONB body of events is bound to Map<String, Object> from the generic field type
+        hints.reflection().registerType(EventEntity.class, MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        hints.reflection().registerType(UserEntity.class, MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        // the journal of the in-memory profile wraps the entities, its record is read via the canonical constructor
+        hints.reflection().registerType(
+                TypeReference.of("de.unibayreuth.se.taskboard.data.impl.InMemoryJournal$Entry"),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        Stream.of(LinkedHashMap.class, ArrayList.class).forEach(type ->
+                hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+        // interface-based projections of native queries are backed by JDK proxies
+        Stream.of(ArchivedEntity.class, TaskCountResult.class, TaskRevision.class, TaskSearchResult.class)
+                .forEach(projection -> hints.proxies().registerJdkProxy(TypeReference.of(projection),
+                        TypeReference.of("org.springframework.data.projection.TargetAware"),
+                        TypeReference.of("org.springframework.aop.SpringProxy"),
+                        TypeReference.of("org.springframework.core.DecoratingProxy")));
+        hints.resources().registerPattern("db/migration/*.sql");
+    }
+}
@@ -0,0 +1,31 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the group commit of events. If it is disabled, events are inserted in the transaction of the caller.
+ *
+ * @param enabled whether events are queued and inserted by a writer thread in batches of several callers
+ * @param queueCapacity number of appends (events of one call) that can wait for the writer
+ * @param maxBatchSize number of events after which a batch is written without waiting for more
+ * @param maxDelay time the writer waits for more events after the first one of a batch
+ * @param enqueueTimeout time a caller blocks while the queue is full before the append fails
+ * @param durability when an append returns to the caller
+ */
+@ConfigurationProperties("taskboard.events.group-commit")
+public record EventAppenderProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") int queueCapacity,
+        @DefaultValue("1000") int maxBatchSize,
+        @DefaultValue("2ms") Duration maxDelay,
+        @DefaultValue("5s") Duration enqueueTimeout,
+        @DefaultValue("commit") Durability durability
+) {
+    public enum Durability {
+        COMMIT, // after the batch was committed, failures of the own events are thrown to the caller
+        ENQUEUE // after the events were queued, failures are only logged and may be lost on a crash
+    }
+}
@@ -0,0 +1,19 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the format of new events. Events of all formats are read, so the format can be changed at any time.
+ *
+ * @param format format in which new events store the state of their task or user
+ */
+@ConfigurationProperties("taskboard.events.encoding")
+public record EventEncodingProperties(
+        @DefaultValue("json") Format format
+) {
+    public enum Format {
+        JSON, // full copy of the entity as JSONB
+        BINARY // compact binary payload with a fixed layout
+    }
+}
@@ -0,0 +1,20 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the listener for event notifications from other nodes.
+ *
+ * @param enabled whether the listener thread is started
+ * @param pollTimeout maximum time to block while waiting for notifications
+ * @param reconnectDelay time to wait before reconnecting after the listening connection failed
+ */
+@ConfigurationProperties("taskboard.notifications")
+public record EventNotificationProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("500ms") Duration pollTimeout,
+        @DefaultValue("1s") Duration reconnectDelay
+) { }
@@ -0,0 +1,23 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.time.Period;
+
+/**
+ * Settings of the monthly partitions of the event log and of the archive of old events.
+ *
+ * @param monthsAhead number of months after the current one for which partitions are created in advance
+ * @param archiveEnabled whether the events before the retention period are compacted into the archive
+ * @param retention age of the events that are kept, older ones are archived by whole months if enabled
+ * @param maintenanceInterval how often partitions are created and, if enabled, events are archived
+ */
+@ConfigurationProperties("taskboard.events.partitions")
+public record EventPartitionProperties(
+        @DefaultValue("3") int monthsAhead,
+        @DefaultValue("false") boolean archiveEnabled,
+        @DefaultValue("P12M") Period retention,
+        @DefaultValue("PT1H") Duration maintenanceInterval
+) { }
@@ -0,0 +1,22 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the idempotency keys of the create requests.
+ *
+ * @param ttl how long the response of a request is replayed to retries with the same key
+ * @param claimTimeout how long a request that neither completed nor failed (e.g., on a crashed node) blocks its key
+ * @param cacheMaximumSize maximum number of responses kept in memory in front of the database
+ * @param cleanupInterval how often expired keys are deleted from the database
+ */
+@ConfigurationProperties("taskboard.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("1m") Duration claimTimeout,
+        @DefaultValue("10000") long cacheMaximumSize,
+        @DefaultValue("PT10M") Duration cleanupInterval
+) { }
@@ -0,0 +1,22 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.lang.Nullable;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of the in-memory persistence services of the {@code in-memory} profile, which need no database.
+ *
+ * @param lockStripes number of locks that writes are distributed over by ID, rounded up to a power of two
+ * @param journal file that every change is appended to and that is replayed on startup, no durability if not set
+ * @param journalSync whether every append is forced to the disk before the write returns, otherwise only to the
+ *                    operating system, which loses the latest changes on a crash of the machine (not of the process)
+ */
+@ConfigurationProperties("taskboard.in-memory")
+public record InMemoryProperties(
+        @DefaultValue("64") int lockStripes,
+        @Nullable Path journal,
+        @DefaultValue("true") boolean journalSync
+) { }
@@ -3,16 +3,26 @@ package de.unibayreuth.se.taskboard.data.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.NativeDetector;
 
 @Configuration
+@ImportRuntimeHints(DataRuntimeHints.class)
 public class JacksonConfig {
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
+        mapper.registerModule(new ParameterNamesModule()); // DTOs with final fields are created via their constructor
         mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false); // ISO-8601-Format
+        if (!NativeDetector.inNativeImage()) {
+            // generated property accessors instead of reflection; a native image cannot define classes at runtime
+            mapper.registerModule(new BlackbirdModule());
+        }
         return mapper;
     }
 }
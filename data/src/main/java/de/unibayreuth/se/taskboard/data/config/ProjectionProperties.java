@@ -0,0 +1,22 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the projection rebuild and of the snapshots.
+ *
+ * @param batchSize number of events applied with one set-based call
+ * @param snapshotInterval number of events after which a snapshot is taken, during a rebuild and while running
+ * @param snapshotsToKeep number of most recent snapshots that are kept, older ones are deleted after a new snapshot
+ * @param snapshotCheckInterval how often the running application checks whether a snapshot is due
+ */
+@ConfigurationProperties("taskboard.projections")
+public record ProjectionProperties(
+        @DefaultValue("100000") int batchSize,
+        @DefaultValue("1000000") int snapshotInterval,
+        @DefaultValue("2") int snapshotsToKeep,
+        @DefaultValue("PT1M") Duration snapshotCheckInterval
+) { }
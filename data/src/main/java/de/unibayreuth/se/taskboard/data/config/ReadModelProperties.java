@@ -0,0 +1,20 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-memory read model of the tasks.
+ *
+ * @param enabled whether the read model is loaded and serves the lookups of tasks instead of the database
+ * @param pollInterval latest delay of events without notification (e.g., from a node without them)
+ * @param batchSize number of events read from the change feed with one query
+ */
+@ConfigurationProperties("taskboard.read-model")
+public record ReadModelProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1s") Duration pollInterval,
+        @DefaultValue("1000") int batchSize
+) { }
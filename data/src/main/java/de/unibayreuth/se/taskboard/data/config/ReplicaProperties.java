@@ -0,0 +1,27 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the read replicas, to which read-only transactions are routed.
+ *
+ * @param enabled whether read-only transactions are routed to the replicas
+ * @param urls JDBC URLs of the streaming replicas of the primary database
+ * @param username user on the replicas, the user of the primary if not set
+ * @param password password on the replicas, the password of the primary if not set
+ * @param readYourWritesWindow time after a mutation during which the reads of the same client go to the primary, which
+ *                             should exceed the replication lag
+ */
+@ConfigurationProperties("taskboard.replicas")
+public record ReplicaProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<String> urls,
+        @Nullable String username,
+        @Nullable String password,
+        @DefaultValue("5s") Duration readYourWritesWindow
+) { }
@@ -0,0 +1,68 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Routes read-only transactions to streaming replicas of the primary database (see {@link ReplicaRoutingDataSource}),
+ * so that the read capacity grows with the number of replicas. All other connections, including those of read-write
+ * transactions, migrations, and the event notifications, go to the primary.
+ * <p>
+ * Requests choose the primary for their reads through
+ * {@link de.unibayreuth.se.taskboard.data.impl.ReplicaRoutingPersistenceServiceImpl}, so that clients read their own
+ * writes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "taskboard.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             ReplicaProperties replicaProperties) {
+        if (replicaProperties.urls().isEmpty()) {
+            throw new IllegalStateException("Routing to replicas is enabled, but no replica URLs are configured.");
+        }
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaProperties.urls()) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(Objects.requireNonNullElse(replicaProperties.username(), properties.determineUsername()))
+                    .password(Objects.requireNonNullElse(replicaProperties.password(), properties.determinePassword()))
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        dataSource.setDefaultAutoCommit(true); // the Hikari default, spares a connection to look it up
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+}
@@ -0,0 +1,90 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Routes the connections of read-only transactions to a replica and all other connections to the primary. It must be
+ * wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that the connection is
+ * only obtained with the first statement, after the transaction is marked as read-only.
+ * <p>
+ * Reads see the own writes: while a thread handles a mutating request or one shortly after a mutation of the same
+ * client (see {@link de.unibayreuth.se.taskboard.data.impl.ReplicaRoutingPersistenceServiceImpl}), or runs
+ * {@link #onPrimary(Supplier)}, its read-only transactions go to the primary. Read-write transactions always go to the
+ * primary, but do not pin the thread, since the scheduler and executor threads that run them outside of requests are
+ * never reset. Each thread reads from the same replica, so that the revision and the data that a request reads in
+ * separate transactions come from the same node, and an ETag never describes a newer state than the body.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final List<HikariDataSource> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ThreadLocal<Integer> replicaOfThread;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas) {
+        this.replicas = List.copyOf(replicas);
+        this.replicaOfThread = ThreadLocal.withInitial(
+                () -> Math.floorMod(nextReplica.getAndIncrement(), this.replicas.size()));
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    /**
+     * Lets the read-only transactions of the current thread go to the primary until {@link #reset()}.
+     */
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static void reset() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    /**
+     * Runs reads on the primary, e.g., to fill a cache that is shared by all clients and must not lag behind.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (PRIMARY_REQUIRED.get() != null) {
+            return reads.get();
+        }
+        requirePrimary();
+        try {
+            return reads.get();
+        } finally {
+            reset();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY; // e.g., migrations, notifications, and the rebuild, which use the data source directly
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PRIMARY_REQUIRED.get() != null) {
+            return PRIMARY;
+        }
+        return replicaOfThread.get();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,19 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import de.unibayreuth.se.taskboard.data.impl.StatementCountingPersistenceServiceImpl;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the statement counter as the statement inspector of Hibernate, which sees every statement it prepares.
+ */
+@Configuration
+public class StatementCountingConfig {
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer(
+            StatementCountingPersistenceServiceImpl statementCountingPersistenceService) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCountingPersistenceService);
+    }
+}
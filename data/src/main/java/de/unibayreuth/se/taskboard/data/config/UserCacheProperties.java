@@ -0,0 +1,18 @@
+package de.unibayreuth.se.taskboard.data.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-process user cache.
+ *
+ * @param maximumSize maximum number of cached users
+ * @param expireAfterWrite time after which a cached user is reloaded from the database
+ */
+@ConfigurationProperties("taskboard.cache.users")
+public record UserCacheProperties(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("10m") Duration expireAfterWrite
+) { }
@@ -0,0 +1,77 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.User;
+import de.unibayreuth.se.taskboard.business.exceptions.DuplicateNameException;
+import de.unibayreuth.se.taskboard.business.exceptions.UserNotFoundException;
+import de.unibayreuth.se.taskboard.business.ports.UserPersistenceService;
+import de.unibayreuth.se.taskboard.data.config.ReplicaRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache in front of the event-sourcing-based user persistence service. Lookups by ID and the list of all
+ * users are served from the {@link UserCache}; the event-sourcing implementation evicts it on every write. The cache is
+ * filled from the primary, as it is shared by all clients and a lagging replica would keep evicted users cached.
+ */
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+@Primary
+public class CachingUserPersistenceService implements UserPersistenceService {
+    private final UserPersistenceServiceEventSourcingImpl delegate;
+    private final UserCache userCache;
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @NonNull
+    @Override
+    public List<User> getAll() {
+        return userCache.getAll(() -> ReplicaRoutingDataSource.onPrimary(delegate::getAll));
+    }
+
+    @NonNull
+    @Override
+    public List<User> getPage(@Nullable Cursor after, int limit) {
+        return delegate.getPage(after, limit); // pages are not cached
+    }
+
+    @NonNull
+    @Override
+    public Optional<User> getById(UUID id) {
+        return userCache.get(id, missingId ->
+                ReplicaRoutingDataSource.onPrimary(() -> delegate.getById(missingId)));
+    }
+
+    @NonNull
+    @Override
+    public List<User> getByIds(@NonNull Collection<UUID> ids) {
+        return userCache.getAll(ids, missingIds ->
+                ReplicaRoutingDataSource.onPrimary(() -> delegate.getByIds(missingIds)));
+    }
+
+    @NonNull
+    @Override
+    public Revision getRevision() {
+        return delegate.getRevision(); // not cached, it changes with every write
+    }
+
+    @NonNull
+    @Override
+    public User upsert(User user) throws UserNotFoundException, DuplicateNameException {
+        return delegate.upsert(user);
+    }
+}
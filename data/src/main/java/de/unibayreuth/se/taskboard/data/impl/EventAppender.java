@@ -0,0 +1,18 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.data.persistence.EventEntity;
+import org.springframework.dao.DataAccessException;
+
+import java.util.List;
+
+/**
+ * Inserts events into the events table, the triggers on the table apply them to the projections.
+ */
+interface EventAppender {
+    /**
+     * Inserts the events all-or-nothing, in the given order.
+     *
+     * @throws DataAccessException if the insert failed, e.g. with the SQLSTATEs in {@link SqlStates}
+     */
+    void append(List<EventEntity> events) throws DataAccessException;
+}
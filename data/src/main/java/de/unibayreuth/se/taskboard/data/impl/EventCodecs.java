@@ -0,0 +1,50 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibayreuth.se.taskboard.data.config.EventEncodingProperties;
+import de.unibayreuth.se.taskboard.data.persistence.BinaryEventCodec;
+import de.unibayreuth.se.taskboard.data.persistence.EventCodec;
+import de.unibayreuth.se.taskboard.data.persistence.EventEntity;
+import de.unibayreuth.se.taskboard.data.persistence.JsonEventCodec;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The codec that writes new events, as configured, and the codecs that read events by their entity version.
+ */
+@Component
+class EventCodecs {
+    private final EventCodec writer;
+    private final Map<Long, EventCodec> readers;
+
+    EventCodecs(ObjectMapper objectMapper, EventEncodingProperties properties) {
+        EventCodec json = new JsonEventCodec(objectMapper);
+        EventCodec binary = new BinaryEventCodec();
+        this.writer = switch (properties.format()) {
+            case JSON -> json;
+            case BINARY -> binary;
+        };
+        this.readers = Stream.of(json, binary)
+                .collect(Collectors.toUnmodifiableMap(EventCodec::entityVersion, Function.identity()));
+    }
+
+    EventCodec writer() {
+        return writer;
+    }
+
+    /**
+     * Returns the state of the event in the JSON format, whichever format it is stored in.
+     */
+    Map<String, Object> decode(EventEntity event) {
+        EventCodec reader = readers.get(event.getEntityVersion());
+        if (reader == null) {
+            throw new IllegalStateException("No codec for entity version " + event.getEntityVersion() + " of event "
+                    + event.getId() + ".");
+        }
+        return reader.decode(event);
+    }
+}
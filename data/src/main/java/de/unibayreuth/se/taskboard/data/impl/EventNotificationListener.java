@@ -0,0 +1,125 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibayreuth.se.taskboard.business.domain.EntityChangedEvent;
+import de.unibayreuth.se.taskboard.data.config.EventNotificationProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Listens on the Postgres channel {@code taskboard_events}, which the events table notifies on every insert (see
+ * {@code V5__notify_event_inserts.sql}), and publishes an {@link EntityChangedEvent} for each notification. This keeps
+ * the in-process caches of all nodes coherent. The listener holds one pooled connection on a dedicated thread. After
+ * the connection was lost, it reconnects and publishes {@link EntityChangedEvent#all()}, as notifications may have
+ * been missed in between.
+ */
+@Component
+@Profile("!in-memory")
+@RequiredArgsConstructor
+@Slf4j
+public class EventNotificationListener implements SmartLifecycle {
+    static final String CHANNEL = "taskboard_events";
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventNotificationProperties properties;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "event-notification-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(properties.pollTimeout().multipliedBy(2).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnect) {
+                    log.info("Listening on {} again, invalidating all cached entities.", CHANNEL);
+                    eventPublisher.publishEvent(EntityChangedEvent.all());
+                }
+                reconnect = true;
+                listen(connection.unwrap(PGConnection.class));
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Listening on {} failed, reconnecting in {}.", CHANNEL, properties.reconnectDelay(), e);
+                try {
+                    Thread.sleep(properties.reconnectDelay().toMillis());
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen(PGConnection connection) throws SQLException {
+        int timeout = (int) properties.pollTimeout().toMillis();
+        while (running) {
+            PGNotification[] notifications = connection.getNotifications(timeout);
+            if (notifications == null) {
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                eventPublisher.publishEvent(parse(notification.getParameter()));
+            }
+        }
+    }
+
+    private EntityChangedEvent parse(String payload) {
+        try {
+            JsonNode node = objectMapper.readTree(payload);
+            String id = node.path("id").asText(null);
+            return new EntityChangedEvent(node.path("entity").asText(null), id == null ? null : UUID.fromString(id));
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Cannot parse notification {}, invalidating all cached entities.", payload, e);
+            return EntityChangedEvent.all();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.ArchivedEventRange;
+import de.unibayreuth.se.taskboard.business.ports.EventPartitionPersistenceService;
+import de.unibayreuth.se.taskboard.data.config.EventPartitionProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maintains the monthly partitions of the events table (see {@code V14__partition_events.sql}): partitions are created
+ * {@link EventPartitionProperties#monthsAhead()} months in advance, so that events never go to the default partition,
+ * and the events before the {@link EventPartitionProperties#retention()} are compacted into the archive month by month,
+ * after which their partitions are dropped. Each month is archived in a transaction of its own.
+ * <p>
+ * The archive holds the state of every task and user after its last archived event. It replaces the archived events
+ * as base of rebuilds and point-in-time queries, which are rejected before its end, and as start of the history.
+ * Writes only need the current versions, which are kept separately, so their latency and the size of the indexes they
+ * maintain only depend on the events of the retention period.
+ * <p>
+ * Only one node maintains the partitions at a time; the others wait and then find nothing left to do.
+ */
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+@Slf4j
+public class EventPartitionPersistenceServiceImpl implements EventPartitionPersistenceService {
+    private final DataSource dataSource;
+    private final EventPartitionProperties properties;
+
+    private interface Work<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    @Override
+    public int createPartitions() {
+        // created_at is set by the application nodes in UTC, so their clock is used here as well
+        LocalDateTime currentMonth = startOfMonth(LocalDateTime.now(ZoneId.of("UTC")));
+        int created = inTransaction("create event partitions", connection -> {
+            int count = 0;
+            try (PreparedStatement statement = connection.prepareStatement("select fn_create_event_partition(?)")) {
+                for (int month = 0; month <= properties.monthsAhead(); month++) {
+                    statement.setTimestamp(1, Timestamp.valueOf(currentMonth.plusMonths(month)));
+                    try (ResultSet result = statement.executeQuery()) {
+                        result.next();
+                        count += result.getBoolean(1) ? 1 : 0;
+                    }
+                }
+            }
+            return count;
+        });
+        if (created > 0) {
+            log.info("Created {} event partitions.", created);
+        }
+        return created;
+    }
+
+    @NonNull
+    @Override
+    public List<ArchivedEventRange> archive() {
+        LocalDateTime archiveEnd = startOfMonth(LocalDateTime.now(ZoneId.of("UTC")).minus(properties.retention()));
+        List<ArchivedEventRange> ranges = new ArrayList<>();
+        LocalDateTime oldest = oldestEventBefore(archiveEnd);
+        if (oldest == null) {
+            return ranges;
+        }
+        LocalDateTime end = startOfMonth(oldest).plusMonths(1);
+        for (; !end.isAfter(archiveEnd); end = end.plusMonths(1)) {
+            Timestamp rangeEnd = Timestamp.valueOf(end);
+            long eventCount = inTransaction("archive events", connection -> {
+                try (PreparedStatement statement = connection.prepareStatement("select fn_archive_events(?)")) {
+                    statement.setTimestamp(1, rangeEnd);
+                    try (ResultSet result = statement.executeQuery()) {
+                        result.next();
+                        return result.getLong(1);
+                    }
+                }
+            });
+            if (eventCount > 0) {
+                log.info("Archived {} events before {}.", eventCount, end);
+                ranges.add(new ArchivedEventRange(end, eventCount));
+            }
+        }
+        return ranges;
+    }
+
+    @Scheduled(fixedDelayString = "${taskboard.events.partitions.maintenance-interval:PT1H}")
+    public void maintainPeriodically() {
+        createPartitions();
+        if (properties.archiveEnabled()) {
+            archive();
+        }
+    }
+
+    @Nullable
+    private LocalDateTime oldestEventBefore(LocalDateTime end) {
+        return inTransaction("find oldest event", connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "select min(created_at) from events where created_at < ?")) {
+                statement.setTimestamp(1, Timestamp.valueOf(end));
+                try (ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    Timestamp oldest = result.getTimestamp(1);
+                    return oldest == null ? null : oldest.toLocalDateTime();
+                }
+            }
+        });
+    }
+
+    private <T> T inTransaction(String task, Work<T> work) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false); // the advisory lock is held until the end of the transaction
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("select pg_advisory_xact_lock(hashtext('event_partitions'))");
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw Objects.requireNonNull(new SQLStateSQLExceptionTranslator().translate(task, null, e));
+        }
+    }
+
+    private static LocalDateTime startOfMonth(LocalDateTime time) {
+        return time.with(TemporalAdjusters.firstDayOfMonth()).truncatedTo(ChronoUnit.DAYS);
+    }
+}
@@ -0,0 +1,49 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.EventPosition;
+import de.unibayreuth.se.taskboard.business.domain.FeedEvent;
+import de.unibayreuth.se.taskboard.business.ports.EventPersistenceService;
+import de.unibayreuth.se.taskboard.data.persistence.EventEntity;
+import de.unibayreuth.se.taskboard.data.persistence.EventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Reads the change feed from the events table.
+ */
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class EventPersistenceServiceImpl implements EventPersistenceService {
+    private final EventRepository eventRepository;
+    private final EventCodecs eventCodecs;
+
+    @Override
+    @NonNull
+    public List<FeedEvent> getAfter(@NonNull EventPosition after, int limit) {
+        return eventRepository.findFeedAfter(after.transactionId(), after.position(), limit).stream()
+                .map(this::toFeedEvent)
+                .toList();
+    }
+
+    @Override
+    @NonNull
+    public EventPosition getHead() {
+        return eventRepository.findFeedHead()
+                .map(EventPersistenceServiceImpl::positionOf)
+                .orElse(EventPosition.START);
+    }
+
+    private FeedEvent toFeedEvent(EventEntity event) {
+        return new FeedEvent(positionOf(event), FeedEvent.Type.valueOf(event.getType().name()), event.getEntity(),
+                event.getAggregateId(), event.getVersion(), event.getCreatedAt(), eventCodecs.decode(event));
+    }
+
+    private static EventPosition positionOf(EventEntity event) {
+        return new EventPosition(event.getTransactionId(), event.getPosition());
+    }
+}
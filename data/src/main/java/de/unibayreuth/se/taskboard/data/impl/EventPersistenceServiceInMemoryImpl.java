@@ -0,0 +1,30 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.EventPosition;
+import de.unibayreuth.se.taskboard.business.domain.FeedEvent;
+import de.unibayreuth.se.taskboard.business.ports.EventPersistenceService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Change feed of the {@code in-memory} profile, which has no event log, so that the feed is always empty.
+ */
+@Service
+@Profile("in-memory")
+public class EventPersistenceServiceInMemoryImpl implements EventPersistenceService {
+
+    @Override
+    @NonNull
+    public List<FeedEvent> getAfter(@NonNull EventPosition after, int limit) {
+        return List.of();
+    }
+
+    @Override
+    @NonNull
+    public EventPosition getHead() {
+        return EventPosition.START;
+    }
+}
@@ -0,0 +1,296 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibayreuth.se.taskboard.data.config.EventAppenderProperties;
+import de.unibayreuth.se.taskboard.data.persistence.EventEntity;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts the events of concurrent callers in batches, so that one commit (and fsync) covers many mutations. Callers
+ * put their events into a bounded queue and block while it is full. A writer thread with its own connection takes up
+ * to {@link EventAppenderProperties#maxBatchSize()} events, waiting at most {@link EventAppenderProperties#maxDelay()}
+ * for more, and inserts them with one multi-row statement in one transaction. If that fails, the events of each caller
+ * are inserted in separate transactions, so that only the failing callers see the error.
+ * <p>
+ * The events are inserted outside the transaction of the caller. With {@link EventAppenderProperties.Durability#COMMIT}
+ * the caller waits for the commit, with {@link EventAppenderProperties.Durability#ENQUEUE} it only waits for the queue.
+ * The persistence services append without a transaction of their own, so waiting callers do not hold a pooled
+ * connection and the batch size is not bounded by the size of the pool.
+ */
+@Component
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "taskboard.events.group-commit.enabled", havingValue = "true")
+@Slf4j
+class GroupCommitEventAppender implements EventAppender, SmartLifecycle {
+    private static final String INSERT = "insert into events(id, type, entity, entity_version, created_by, created_at, "
+            + "body, payload, version) values (?, ?, ?, ?, ?, ?, cast(? as jsonb), ?, ?)";
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final EventAppenderProperties properties;
+    private final BlockingQueue<Append> queue;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread thread;
+    private Connection connection; // only used by the writer thread
+    private LocalDateTime lastCreatedAt = LocalDateTime.MIN;
+
+    /**
+     * The events of one caller, which are inserted all-or-nothing.
+     */
+    private record Append(List<EventEntity> events, CompletableFuture<Void> done) { }
+
+    GroupCommitEventAppender(DataSource dataSource, ObjectMapper objectMapper, EventAppenderProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.batchSizes = DistributionSummary.builder("taskboard.events.batch.size")
+                .description("Number of events inserted with one group commit")
+                .register(meterRegistry);
+        Gauge.builder("taskboard.events.queue.size", queue, BlockingQueue::size)
+                .description("Number of appends waiting for the group commit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void append(List<EventEntity> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!running) {
+            throw new IllegalStateException("The event appender is not running.");
+        }
+        Append append = new Append(events, new CompletableFuture<>());
+        try {
+            if (!queue.offer(append, properties.enqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new TransientDataAccessResourceException("The event queue is full, try again later.");
+            }
+            if (properties.durability() == EventAppenderProperties.Durability.ENQUEUE) {
+                return;
+            }
+            append.done().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransientDataAccessResourceException("Interrupted while appending events.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void start() {
+        try {
+            connection(); // before any caller, so that the writer cannot be starved by a busy pool
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot connect the event appender.", e);
+        }
+        running = true;
+        thread = new Thread(this::run, "event-group-commit");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false; // the writer drains the queue before it exits
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // started before and stopped after the web server (DEFAULT_PHASE - 2048), which stops accepting requests first
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        List<Append> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Append first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int events = first.events().size();
+                long deadline = System.nanoTime() + properties.maxDelay().toNanos();
+                while (events < properties.maxBatchSize()) {
+                    Append next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    events += next.events().size();
+                }
+                write(batch, events);
+            } catch (InterruptedException e) {
+                running = false; // the writer is not interrupted on a regular shutdown, fail everything left
+                queue.drainTo(batch);
+                batch.forEach(append -> append.done().completeExceptionally(
+                        new TransientDataAccessResourceException("The event appender was interrupted.", e)));
+            } catch (RuntimeException e) {
+                log.error("Writing events failed.", e);
+                batch.forEach(append -> append.done().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        closeConnection();
+    }
+
+    private void write(List<Append> batch, int events) {
+        assignKeys(batch);
+        try {
+            Connection connection = connection();
+            try {
+                insert(connection, batch);
+                connection.commit();
+                batchSizes.record(events);
+                batch.forEach(append -> append.done().complete(null));
+            } catch (SQLException e) {
+                connection.rollback();
+                if (batch.size() == 1) {
+                    fail(batch.getFirst(), e);
+                    return;
+                }
+                // a trigger rejected an event, isolate it by inserting the appends one by one
+                for (Append append : batch) {
+                    try {
+                        insert(connection, List.of(append));
+                        connection.commit();
+                        batchSizes.record(append.events().size());
+                        append.done().complete(null);
+                    } catch (SQLException appendException) {
+                        connection.rollback();
+                        fail(append, appendException);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            closeConnection(); // reconnect for the next batch
+            batch.stream()
+                    .filter(append -> !append.done().isDone())
+                    .forEach(append -> fail(append, e));
+        }
+    }
+
+    /**
+     * Assigns the event IDs and strictly increasing timestamps in queue order, so that the events are replayed in the
+     * order in which they were appended (see {@link ProjectionPersistenceServiceImpl}).
+     */
+    private void assignKeys(List<Append> batch) {
+        for (Append append : batch) {
+            for (EventEntity event : append.events()) {
+                LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC")).truncatedTo(ChronoUnit.MICROS); // precision
+                lastCreatedAt = now.isAfter(lastCreatedAt) ? now : lastCreatedAt.plus(1, ChronoUnit.MICROS);
+                event.setId(UUID.randomUUID());
+                event.setCreatedAt(lastCreatedAt);
+            }
+        }
+    }
+
+    private void insert(Connection connection, List<Append> batch) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (Append append : batch) {
+                for (EventEntity event : append.events()) {
+                    statement.setObject(1, event.getId());
+                    statement.setString(2, event.getType().name());
+                    statement.setString(3, event.getEntity());
+                    statement.setLong(4, event.getEntityVersion());
+                    statement.setObject(5, event.getCreatedBy(), Types.OTHER);
+                    statement.setTimestamp(6, Timestamp.valueOf(event.getCreatedAt()));
+                    statement.setString(7, event.getBody() == null ? null : toJson(event));
+                    statement.setBytes(8, event.getPayload());
+                    statement.setObject(9, event.getVersion(), Types.BIGINT); // assigned by the database if null
+                    statement.addBatch();
+                }
+            }
+            statement.executeBatch(); // rewritten into multi-row inserts (reWriteBatchedInserts)
+        }
+    }
+
+    private String toJson(EventEntity event) {
+        try {
+            return objectMapper.writeValueAsString(event.getBody());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize the body of event " + event.getId() + ".", e);
+        }
+    }
+
+    private void fail(Append append, SQLException e) {
+        DataAccessException exception = Objects.requireNonNullElseGet(
+                new SQLStateSQLExceptionTranslator().translate("append events", INSERT, e),
+                () -> new UncategorizedSQLException("append events", INSERT, e));
+        if (properties.durability() == EventAppenderProperties.Durability.ENQUEUE) {
+            log.warn("Dropped {} events that were already acknowledged.", append.events().size(), exception);
+        }
+        append.done().completeExceptionally(exception);
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null) {
+            connection = dataSource.getConnection(); // held, so that waiting callers cannot starve the writer
+            connection.setAutoCommit(false);
+        }
+        return connection;
+    }
+
+    private void closeConnection() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Closing the event connection failed.", e);
+            }
+            connection = null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.unibayreuth.se.taskboard.business.domain.IdempotentResponse;
+import de.unibayreuth.se.taskboard.business.ports.IdempotencyPersistenceService;
+import de.unibayreuth.se.taskboard.data.config.IdempotencyProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Idempotency keys in the {@code idempotency_keys} table (see {@code V15__add_idempotency_keys.sql}), with the
+ * completed responses in a size-bounded cache in front of it. A retry that finds its response in the cache costs no
+ * query, any other claim costs one statement, which inserts the key (or takes over an expired one) and reads the
+ * existing key together. Statements run in autocommit mode on the primary, so that a claim is visible to all nodes
+ * before the request runs. The cache publishes its statistics as the Micrometer cache {@code idempotency}.
+ */
+@Service
+@Profile("!in-memory")
+@Slf4j
+public class IdempotencyPersistenceServiceImpl implements IdempotencyPersistenceService {
+    // the select sees the table as of the start of the statement, i.e., the existing key but not the inserted one
+    private static final String CLAIM = """
+            with claimed as (
+                insert into idempotency_keys (scope, idempotency_key, request_hash, expires_at)
+                values (?, ?, ?, ?)
+                on conflict (scope, idempotency_key) do update
+                    set request_hash = excluded.request_hash, status = null, body = null,
+                        expires_at = excluded.expires_at
+                    where idempotency_keys.expires_at < ?
+                returning 1)
+            select exists (select 1 from claimed), k.request_hash, k.status, k.body, k.expires_at
+            from (select 1) as request
+            left join idempotency_keys k on k.scope = ? and k.idempotency_key = ? and k.expires_at >= ?""";
+    private static final String COMPLETE = """
+            update idempotency_keys set status = ?, body = ?, expires_at = ?
+            where scope = ? and idempotency_key = ?
+            returning request_hash""";
+    private static final String RELEASE = """
+            delete from idempotency_keys where scope = ? and idempotency_key = ? and status is null""";
+    private static final String DELETE_EXPIRED = "delete from idempotency_keys where expires_at < ?";
+    private static final int CLAIM_ATTEMPTS = 3;
+
+    private final DataSource dataSource;
+    private final IdempotencyProperties properties;
+    private final Cache<String, CachedResponse> responses;
+
+    private record CachedResponse(IdempotentResponse response, LocalDateTime expiresAt) { }
+
+    public IdempotencyPersistenceServiceImpl(DataSource dataSource, IdempotencyProperties properties,
+                                             MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.cacheMaximumSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency");
+    }
+
+    @NonNull
+    @Override
+    public Optional<IdempotentResponse> claim(@NonNull String scope, @NonNull String key,
+                                              @NonNull String requestHash) {
+        LocalDateTime now = utcNow();
+        CachedResponse cached = responses.getIfPresent(cacheKey(scope, key));
+        if (cached != null && !cached.expiresAt().isBefore(now)) {
+            return Optional.of(cached.response());
+        }
+        for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = prepare(connection, CLAIM, scope, key, requestHash,
+                         now.plus(properties.claimTimeout()), now, scope, key, now);
+                 ResultSet result = statement.executeQuery()) {
+                result.next();
+                if (result.getBoolean(1)) {
+                    return Optional.empty();
+                }
+                String existingHash = result.getString(2);
+                if (existingHash != null) {
+                    Integer status = result.getObject(3, Integer.class);
+                    IdempotentResponse response = new IdempotentResponse(existingHash, status, result.getString(4));
+                    if (response.isCompleted()) {
+                        responses.put(cacheKey(scope, key),
+                                new CachedResponse(response, result.getObject(5, LocalDateTime.class)));
+                    }
+                    return Optional.of(response);
+                }
+                // the key was inserted by a concurrent claim after the statement started, or released meanwhile
+            } catch (SQLException e) {
+                throw Objects.requireNonNull(new SQLStateSQLExceptionTranslator().translate("claim", CLAIM, e));
+            }
+        }
+        return Optional.of(new IdempotentResponse(requestHash, null, null)); // still contended, i.e., in progress
+    }
+
+    @Override
+    public void complete(@NonNull String scope, @NonNull String key, int status, @NonNull String body) {
+        LocalDateTime expiresAt = utcNow().plus(properties.ttl());
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = prepare(connection, COMPLETE, status, body, expiresAt, scope, key);
+             ResultSet result = statement.executeQuery()) {
+            if (result.next()) { // not if the claim has expired and was deleted meanwhile
+                IdempotentResponse response = new IdempotentResponse(result.getString(1), status, body);
+                responses.put(cacheKey(scope, key), new CachedResponse(response, expiresAt));
+            }
+        } catch (SQLException e) {
+            throw Objects.requireNonNull(new SQLStateSQLExceptionTranslator().translate("complete", COMPLETE, e));
+        }
+    }
+
+    @Override
+    public void release(@NonNull String scope, @NonNull String key) {
+        update(RELEASE, scope, key);
+    }
+
+    @Override
+    public long deleteExpired() {
+        responses.asMap().values().removeIf(cached -> cached.expiresAt().isBefore(utcNow()));
+        return update(DELETE_EXPIRED, utcNow());
+    }
+
+    @Scheduled(fixedDelayString = "${taskboard.idempotency.cleanup-interval:PT10M}")
+    public void deleteExpiredPeriodically() {
+        long deleted = deleteExpired();
+        if (deleted > 0) {
+            log.debug("Deleted {} expired idempotency keys.", deleted);
+        }
+    }
+
+    private long update(String sql, Object... parameters) { // in autocommit mode, each update is a transaction
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = prepare(connection, sql, parameters)) {
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw Objects.requireNonNull(new SQLStateSQLExceptionTranslator().translate("update", sql, e));
+        }
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, Object... parameters)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+        return statement;
+    }
+
+    private static String cacheKey(String scope, String key) {
+        return scope + '\n' + key;
+    }
+
+    private static LocalDateTime utcNow() {
+        return LocalDateTime.now(ZoneId.of("UTC"));
+    }
+}
@@ -0,0 +1,79 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.IdempotentResponse;
+import de.unibayreuth.se.taskboard.business.ports.IdempotencyPersistenceService;
+import de.unibayreuth.se.taskboard.data.config.IdempotencyProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Idempotency keys of the {@code in-memory} profile, in a map that is not journaled, so that the keys are lost on a
+ * restart. Claims are atomic per key.
+ */
+@Service
+@Profile("in-memory")
+@RequiredArgsConstructor
+public class IdempotencyPersistenceServiceInMemoryImpl implements IdempotencyPersistenceService {
+    private final IdempotencyProperties properties;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(IdempotentResponse response, LocalDateTime expiresAt) { }
+
+    @NonNull
+    @Override
+    public Optional<IdempotentResponse> claim(@NonNull String scope, @NonNull String key,
+                                              @NonNull String requestHash) {
+        LocalDateTime now = utcNow();
+        Entry claim = new Entry(new IdempotentResponse(requestHash, null, null), now.plus(properties.claimTimeout()));
+        Entry entry = entries.compute(mapKey(scope, key),
+                (ignored, existing) -> existing == null || existing.expiresAt().isBefore(now) ? claim : existing);
+        return entry == claim ? Optional.empty() : Optional.of(entry.response());
+    }
+
+    @Override
+    public void complete(@NonNull String scope, @NonNull String key, int status, @NonNull String body) {
+        LocalDateTime expiresAt = utcNow().plus(properties.ttl());
+        entries.computeIfPresent(mapKey(scope, key), (ignored, existing) -> new Entry(
+                new IdempotentResponse(existing.response().requestHash(), status, body), expiresAt));
+    }
+
+    @Override
+    public void release(@NonNull String scope, @NonNull String key) {
+        entries.computeIfPresent(mapKey(scope, key),
+                (ignored, existing) -> existing.response().isCompleted() ? existing : null);
+    }
+
+    @Override
+    public long deleteExpired() {
+        LocalDateTime now = utcNow();
+        long deleted = 0;
+        for (var entry : entries.entrySet()) {
+            if (entry.getValue().expiresAt().isBefore(now) && entries.remove(entry.getKey(), entry.getValue())) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Scheduled(fixedDelayString = "${taskboard.idempotency.cleanup-interval:PT10M}")
+    public void deleteExpiredPeriodically() {
+        deleteExpired();
+    }
+
+    private static String mapKey(String scope, String key) {
+        return scope + '\n' + key;
+    }
+
+    private static LocalDateTime utcNow() {
+        return LocalDateTime.now(ZoneId.of("UTC"));
+    }
+}
@@ -0,0 +1,141 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibayreuth.se.taskboard.data.config.InMemoryProperties;
+import de.unibayreuth.se.taskboard.data.persistence.ChangeType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Append-only file with the changes of the in-memory persistence services, one JSON line per change, which are
+ * replayed on startup (see {@link ProjectionPersistenceServiceInMemoryImpl}). The changes of one write are appended
+ * with a single write call, and, if {@link InMemoryProperties#journalSync()} is set, forced to the disk before the
+ * write is applied in memory. A torn last line of a crash is cut off during the replay.
+ * Without {@link InMemoryProperties#journal()}, nothing is written and the data is lost on shutdown.
+ */
+@Component
+@Profile("in-memory")
+@Slf4j
+class InMemoryJournal implements Closeable {
+    private final ObjectMapper objectMapper;
+    private final boolean sync;
+    @Nullable
+    private final Path path;
+    @Nullable
+    private final FileChannel channel; // guarded by this
+
+    /**
+     * A change of a task or user.
+     *
+     * @param body the task or user entity after the change, null for deletions
+     */
+    record Entry(@NonNull ChangeType type, @NonNull String entity, @NonNull LocalDateTime changedAt, @NonNull UUID id,
+                 @Nullable JsonNode body) { }
+
+    InMemoryJournal(InMemoryProperties properties, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.sync = properties.journalSync();
+        this.path = properties.journal();
+        if (path == null) {
+            this.channel = null;
+            return;
+        }
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        log.info("Journaling the in-memory data to {}.", path);
+    }
+
+    boolean isEnabled() {
+        return channel != null;
+    }
+
+    synchronized void append(@NonNull List<Entry> entries) {
+        if (channel == null || entries.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        try {
+            for (Entry entry : entries) {
+                lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to the journal " + path + ".", e);
+        }
+    }
+
+    /**
+     * Passes all entries to the consumer, in the order of their appends, and returns their number.
+     */
+    synchronized long replay(@NonNull Consumer<Entry> consumer) {
+        if (channel == null) {
+            return 0;
+        }
+        long count = 0;
+        long validLength = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry;
+                try {
+                    entry = objectMapper.readValue(line, Entry.class);
+                } catch (JsonProcessingException e) {
+                    if (reader.readLine() != null) {
+                        throw new IllegalStateException("The journal " + path + " is corrupt after " + count
+                                + " entries.", e);
+                    }
+                    log.warn("Cutting off the incomplete last entry of the journal {} after {} entries.", path, count);
+                    channel.truncate(validLength);
+                    break;
+                }
+                consumer.accept(entry);
+                validLength += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                count++;
+            }
+            if (validLength > channel.size()) { // the newline of the last entry is missing
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay the journal " + path + ".", e);
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
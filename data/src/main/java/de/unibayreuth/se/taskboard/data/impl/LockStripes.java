@@ -0,0 +1,66 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of locks that the writes of the in-memory persistence services are distributed over by ID, so that writes
+ * of different entities rarely wait for each other. Writes of several entities take their locks in ascending order,
+ * which rules out deadlocks.
+ */
+class LockStripes {
+    private final ReentrantLock[] locks;
+
+    LockStripes(int count) {
+        locks = new ReentrantLock[Integer.highestOneBit(Math.max(1, count - 1)) << 1];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    <T> T withLock(UUID id, Supplier<T> write) {
+        ReentrantLock lock = locks[indexOf(id)];
+        lock.lock();
+        try {
+            return write.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    <T> T withLocks(Collection<UUID> ids, Supplier<T> write) {
+        int[] indexes = ids.stream().mapToInt(this::indexOf).sorted().distinct().toArray();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                locks[index].lock();
+                locked++;
+            }
+            return write.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[indexes[i]].unlock();
+            }
+        }
+    }
+
+    <T> T withAllLocks(Supplier<T> write) {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            return write.get();
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    private int indexOf(UUID id) {
+        int hash = id.hashCode();
+        return (hash ^ (hash >>> 16)) & (locks.length - 1);
+    }
+}
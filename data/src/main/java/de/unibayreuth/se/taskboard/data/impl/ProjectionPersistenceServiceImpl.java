@@ -0,0 +1,346 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.EntityChangedEvent;
+import de.unibayreuth.se.taskboard.business.domain.ProjectionRebuild;
+import de.unibayreuth.se.taskboard.business.ports.ProjectionPersistenceService;
+import de.unibayreuth.se.taskboard.data.config.ProjectionProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Rebuilds the projection tables ({@code tasks}, {@code users}) from the events table. The rebuild starts from the
+ * latest snapshot, streams the keys of the remaining events in (created_at, id) order through a server-side cursor,
+ * and applies them in batches by key range. A batch is folded to the latest event per entity and applied with a few
+ * set-based statements within the database (see {@code V6__add_snapshots.sql}), so the event bodies never leave it.
+ * Secondary indexes are dropped during the replay and rebuilt at the end.
+ * A snapshot is taken every {@link ProjectionProperties#snapshotInterval()} events and at the end.
+ * <p>
+ * While the application runs, snapshots are taken incrementally from the previous snapshot and the newer events, so
+ * that rebuilds and point-in-time queries (see {@code V7__add_history_queries.sql}) only fold the events after them.
+ * Without a snapshot, they start from the archive of compacted events (see
+ * {@link EventPartitionPersistenceServiceImpl}).
+ * <p>
+ * The rebuild runs in one transaction. It blocks concurrent writes to the events table, and readers of the projection
+ * tables wait until the rebuilt projection is committed.
+ */
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectionPersistenceServiceImpl implements ProjectionPersistenceService {
+    // events of transactions that ended before the oldest one in progress, before the first event of a later one
+    private static final String SEALED = "transaction_id < ? and (created_at, id) < "
+            + "(coalesce(?, 'infinity'::timestamp), coalesce(?, 'ffffffff-ffff-ffff-ffff-ffffffffffff'::uuid))";
+
+    private final DataSource dataSource;
+    private final ProjectionProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private record Position(@Nullable UUID snapshotId, Timestamp createdAt, UUID eventId, long eventCount) { }
+
+    @NonNull
+    @Override
+    public ProjectionRebuild rebuild() {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false); // required for the server-side cursor
+            try {
+                ProjectionRebuild result = rebuild(connection, start);
+                connection.commit();
+                eventPublisher.publishEvent(EntityChangedEvent.all());
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw Objects.requireNonNull(
+                    new SQLStateSQLExceptionTranslator().translate("rebuild projections", null, e));
+        }
+    }
+
+    /**
+     * Takes a snapshot if at least {@link ProjectionProperties#snapshotInterval()} sealed events were inserted after
+     * the latest snapshot. Only one node takes it.
+     * <p>
+     * Events are sealed once their transaction ended before the oldest transaction still in progress, like in the
+     * change feed (see {@code V11__add_event_positions.sql}), instead of by their age on the clock of some node. The
+     * snapshot ends at the newest sealed event before the first visible event of a later transaction, and events are
+     * stamped right before they are inserted, so the transactions still in progress insert their events after it.
+     */
+    @Scheduled(fixedDelayString = "${taskboard.projections.snapshot-check-interval:PT1M}")
+    public void takeSnapshotIfDue() {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false); // the advisory lock is held until the end of the transaction
+            try {
+                takeSnapshotIfDue(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw Objects.requireNonNull(new SQLStateSQLExceptionTranslator().translate("take snapshot", null, e));
+        }
+    }
+
+    private void takeSnapshotIfDue(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet locked = statement.executeQuery("select pg_try_advisory_xact_lock(hashtext('snapshots'))")) {
+            if (!locked.next() || !locked.getBoolean(1)) {
+                return; // another node is taking a snapshot
+            }
+        }
+        long xmin;
+        try (Statement statement = connection.createStatement();
+             ResultSet snapshot = statement.executeQuery(
+                     "select cast(cast(pg_snapshot_xmin(pg_current_snapshot()) as text) as bigint)")) {
+            snapshot.next();
+            xmin = snapshot.getLong(1); // only grows, so later statements see at least the events sealed here
+        }
+        Timestamp unsealedCreatedAt = null;
+        UUID unsealedId = null;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select created_at, id from events where transaction_id >= ? order by created_at, id limit 1")) {
+            statement.setLong(1, xmin);
+            try (ResultSet unsealed = statement.executeQuery()) {
+                if (unsealed.next()) {
+                    unsealedCreatedAt = unsealed.getTimestamp(1);
+                    unsealedId = unsealed.getObject(2, UUID.class);
+                }
+            }
+        }
+        Position snapshot = latestSnapshot(connection);
+        long newEvents;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select count(*) from (select 1 from events where (created_at, id) > (coalesce(?, "
+                        + "'-infinity'::timestamp), coalesce(?, '00000000-0000-0000-0000-000000000000'::uuid)) "
+                        + "and " + SEALED + " limit ?) e")) {
+            Batch.setBound(statement, 1, snapshot);
+            setSealed(statement, 3, xmin, unsealedCreatedAt, unsealedId);
+            statement.setInt(6, properties.snapshotInterval());
+            try (ResultSet count = statement.executeQuery()) {
+                count.next();
+                newEvents = count.getLong(1);
+            }
+        }
+        if (newEvents < properties.snapshotInterval()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select fn_take_folded_snapshot(e.created_at, e.id) from events e where " + SEALED
+                        + " order by created_at desc, id desc limit 1")) {
+            setSealed(statement, 1, xmin, unsealedCreatedAt, unsealedId);
+            statement.executeQuery().close();
+        }
+        deleteOldSnapshots(connection);
+        log.info("Took snapshot after at least {} new events.", newEvents);
+    }
+
+    private static void setSealed(PreparedStatement statement, int index, long xmin,
+                                  @Nullable Timestamp unsealedCreatedAt, @Nullable UUID unsealedId)
+            throws SQLException {
+        statement.setLong(index, xmin);
+        statement.setTimestamp(index + 1, unsealedCreatedAt);
+        statement.setObject(index + 2, unsealedId, Types.OTHER);
+    }
+
+    private ProjectionRebuild rebuild(Connection connection, long start) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("lock table events in share mode"); // wait for and block concurrent writers
+            statement.execute("truncate tasks, users, task_counters, task_counter_deltas"); // no delete triggers
+        }
+        List<String> secondaryIndexes = dropSecondaryIndexes(connection);
+
+        Position snapshot = latestSnapshot(connection);
+        if (snapshot != null) {
+            try (PreparedStatement statement = connection.prepareStatement("select fn_restore_snapshot(?)")) {
+                statement.setObject(1, snapshot.snapshotId());
+                statement.executeQuery().close();
+            }
+            log.info("Restored snapshot {} covering {} events.", snapshot.snapshotId(), snapshot.eventCount());
+        }
+        long archivedEvents = snapshot == null ? restoreArchive(connection) : 0; // snapshots are newer than the archive
+
+        // only the keys are streamed, the events of each batch are applied within the database by their key range
+        Position position = snapshot;
+        Position applied = snapshot;
+        long replayedEvents = 0;
+        long eventsSinceSnapshot = 0;
+        try (PreparedStatement query = connection.prepareStatement(
+                "select created_at, id from events where (created_at, id) > (coalesce(?, '-infinity'::timestamp), "
+                        + "coalesce(?, '00000000-0000-0000-0000-000000000000'::uuid)) order by created_at, id")) {
+            Batch.setBound(query, 1, snapshot);
+            query.setFetchSize(properties.batchSize());
+            try (ResultSet keys = query.executeQuery();
+                 PreparedStatement apply = connection.prepareStatement("select fn_apply_events_folded(?, ?, ?, ?)");
+                 PreparedStatement applyInOrder = connection.prepareStatement("select fn_apply_events(?, ?, ?, ?)")) {
+                Batch batch = new Batch(connection, apply, applyInOrder);
+                int eventsInBatch = 0;
+                while (keys.next()) {
+                    position = new Position(null, keys.getTimestamp(1), keys.getObject(2, UUID.class),
+                            (position == null ? archivedEvents : position.eventCount()) + 1);
+                    replayedEvents++;
+                    eventsSinceSnapshot++;
+                    if (++eventsInBatch == properties.batchSize()
+                            || eventsSinceSnapshot == properties.snapshotInterval()) {
+                        batch.apply(applied, position);
+                        applied = position;
+                        eventsInBatch = 0;
+                    }
+                    if (eventsSinceSnapshot == properties.snapshotInterval()) {
+                        takeSnapshot(connection, position);
+                        eventsSinceSnapshot = 0;
+                    }
+                }
+                if (eventsInBatch > 0) {
+                    batch.apply(applied, position);
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String index : secondaryIndexes) {
+                statement.execute(index); // building once is much cheaper than maintaining them per event
+            }
+        }
+        if (eventsSinceSnapshot > 0) {
+            takeSnapshot(connection, position);
+        }
+        deleteOldSnapshots(connection);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("notify " + EventNotificationListener.CHANNEL + ", '{}'"); // all entities changed
+        }
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        long eventCount = position == null ? archivedEvents : position.eventCount();
+        log.info("Rebuilt projections from {} events ({} replayed) in {}.", eventCount, replayedEvents, duration);
+        return new ProjectionRebuild(snapshot == null ? null : snapshot.snapshotId(), replayedEvents, eventCount,
+                duration);
+    }
+
+    /**
+     * Drops the non-unique indexes of the projection tables and returns their definitions.
+     */
+    private static List<String> dropSecondaryIndexes(Connection connection) throws SQLException {
+        List<String> definitions = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet indexes = statement.executeQuery(
+                    "select indexrelid::regclass::text, pg_get_indexdef(indexrelid) from pg_index "
+                            + "where indrelid in ('tasks'::regclass, 'users'::regclass) and not indisunique")) {
+                List<String> names = new ArrayList<>();
+                while (indexes.next()) {
+                    names.add(indexes.getString(1));
+                    definitions.add(indexes.getString(2));
+                }
+                indexes.close();
+                for (String name : names) {
+                    statement.execute("drop index " + name);
+                }
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * Loads the state after the compacted events (see {@code V14__partition_events.sql}) and returns their number.
+     */
+    private static long restoreArchive(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet archivedEvents = statement.executeQuery("select fn_restore_archive()")) {
+            archivedEvents.next();
+            if (archivedEvents.getLong(1) > 0) {
+                log.info("Restored the archive covering {} events.", archivedEvents.getLong(1));
+            }
+            return archivedEvents.getLong(1);
+        }
+    }
+
+    @Nullable
+    private static Position latestSnapshot(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet snapshot = statement.executeQuery(
+                     "select id, last_event_created_at, last_event_id, event_count from snapshots "
+                             + "order by last_event_created_at desc, last_event_id desc limit 1")) {
+            return snapshot.next()
+                    ? new Position(snapshot.getObject(1, UUID.class), snapshot.getTimestamp(2),
+                            snapshot.getObject(3, UUID.class), snapshot.getLong(4))
+                    : null;
+        }
+    }
+
+    /**
+     * Applies the events of a key range set-based and falls back to applying them one by one if that fails, e.g.
+     * because a user name was passed on from one user to another within the range.
+     */
+    private record Batch(Connection connection, PreparedStatement apply, PreparedStatement applyInOrder) {
+        void apply(@Nullable Position from, Position to) throws SQLException {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                execute(apply, from, to);
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                log.debug("Applying events up to {} set-based failed, applying them one by one.", to, e);
+                execute(applyInOrder, from, to);
+            }
+        }
+
+        private static void execute(PreparedStatement statement, @Nullable Position from, Position to)
+                throws SQLException {
+            setBound(statement, 1, from);
+            setBound(statement, 3, to);
+            statement.executeQuery().close();
+        }
+
+        static void setBound(PreparedStatement statement, int index, @Nullable Position position)
+                throws SQLException {
+            if (position == null) {
+                statement.setNull(index, Types.TIMESTAMP);
+                statement.setNull(index + 1, Types.OTHER);
+            } else {
+                statement.setTimestamp(index, position.createdAt());
+                statement.setObject(index + 1, position.eventId());
+            }
+        }
+    }
+
+    private static void takeSnapshot(Connection connection, Position position) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select fn_take_snapshot(?, ?, ?)")) {
+            statement.setTimestamp(1, position.createdAt());
+            statement.setObject(2, position.eventId());
+            statement.setLong(3, position.eventCount());
+            statement.executeQuery().close();
+        }
+        log.info("Took snapshot after {} events.", position.eventCount());
+    }
+
+    private void deleteOldSnapshots(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "delete from snapshots where id not in (select id from snapshots "
+                        + "order by last_event_created_at desc, last_event_id desc limit ?)")) {
+            statement.setInt(1, properties.snapshotsToKeep());
+            statement.executeUpdate();
+        }
+    }
+}
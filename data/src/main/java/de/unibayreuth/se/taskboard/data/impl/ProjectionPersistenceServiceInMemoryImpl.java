@@ -0,0 +1,55 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.ProjectionRebuild;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.ports.ProjectionPersistenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Rebuilds the in-memory tasks and users of the {@code in-memory} profile from the {@link InMemoryJournal}, which
+ * happens on startup as well. No user or task is written during the rebuild.
+ */
+@Service
+@Profile("in-memory")
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectionPersistenceServiceInMemoryImpl implements ProjectionPersistenceService, InitializingBean {
+    private final InMemoryJournal journal;
+    private final TaskPersistenceServiceInMemoryImpl taskPersistenceService;
+    private final UserPersistenceServiceInMemoryImpl userPersistenceService;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (journal.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @NonNull
+    @Override
+    public ProjectionRebuild rebuild() {
+        long start = System.nanoTime();
+        // users before tasks, in the order in which deleting users locks their tasks
+        long replayed = userPersistenceService.exclusively(() -> taskPersistenceService.exclusively(() -> {
+            taskPersistenceService.reset();
+            userPersistenceService.reset();
+            return journal.replay(entry -> {
+                if (Task.class.getSimpleName().equals(entry.entity())) {
+                    taskPersistenceService.replay(entry);
+                } else {
+                    userPersistenceService.replay(entry);
+                }
+            });
+        }));
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        log.info("Replayed {} journal entries in {}.", replayed, duration);
+        return new ProjectionRebuild(null, replayed, replayed, duration);
+    }
+}
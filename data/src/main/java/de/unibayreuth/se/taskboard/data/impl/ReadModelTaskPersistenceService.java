@@ -0,0 +1,169 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.Ranked;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.SearchCursor;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.exceptions.TaskNotFoundException;
+import de.unibayreuth.se.taskboard.business.exceptions.VersionConflictException;
+import de.unibayreuth.se.taskboard.business.ports.TaskHistoryPersistenceService;
+import de.unibayreuth.se.taskboard.business.ports.TaskPersistenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Serves the reads of the current tasks, i.e., the lists, pages and queries, the lookups by ID, and their revisions,
+ * from the {@link TaskReadModel} if it is enabled, so that the database only handles the writes and the remaining
+ * queries. The writes go to the event-sourcing-based implementation and are then applied to the read model, so that
+ * clients read their own writes. The full-text search, whose ranking the database computes, and the versions that
+ * writes are conditional on are always read from the database. The history is not part of this port (see
+ * {@link TaskHistoryPersistenceService}) and is read by the event-sourcing-based implementation itself.
+ */
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+@Primary
+public class ReadModelTaskPersistenceService implements TaskPersistenceService {
+    private final TaskPersistenceServiceEventSourcingImpl delegate;
+    private final TaskReadModel readModel;
+
+    @Override
+    public void clear() {
+        List<UUID> ids = readModel.isLoaded() ? readModel.getAll().stream().map(Task::getId).toList() : List.of();
+        delegate.clear();
+        readModel.deleted(ids); // the tasks created since are not deleted by clear() either
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getAll() {
+        return readModel.isLoaded() ? readModel.getAll() : delegate.getAll();
+    }
+
+    @Override
+    public void forEach(@NonNull Consumer<Task> consumer) {
+        if (readModel.isLoaded()) {
+            readModel.forEach(consumer);
+        } else {
+            delegate.forEach(consumer);
+        }
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getPage(@Nullable Cursor after, int limit) {
+        return readModel.isLoaded() ? readModel.getPage(after, limit) : delegate.getPage(after, limit);
+    }
+
+    @NonNull
+    @Override
+    public List<Task> find(@NonNull TaskQuery query, @Nullable Cursor after, int limit) {
+        return readModel.isLoaded() ? readModel.find(query, after, limit) : delegate.find(query, after, limit);
+    }
+
+    @NonNull
+    @Override
+    public Optional<Task> getById(@NonNull UUID id) {
+        return readModel.isLoaded() ? readModel.getById(id) : delegate.getById(id);
+    }
+
+    @NonNull
+    @Override
+    public Optional<Revision> getRevision(@NonNull UUID id) {
+        // from the same entry as the task, a revision of the database may be newer than the task of the read model
+        return readModel.isLoaded() ? readModel.getRevision(id) : delegate.getRevision(id);
+    }
+
+    @NonNull
+    @Override
+    public Revision getRevision() {
+        // never newer than the search results of the database either, as the read model follows it
+        return readModel.isLoaded() ? readModel.getRevision() : delegate.getRevision();
+    }
+
+    @NonNull
+    @Override
+    public Map<UUID, Long> getVersions(@NonNull Collection<UUID> ids) {
+        return delegate.getVersions(ids); // the versions decide about writes
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getByStatus(@NonNull TaskStatus status) {
+        return readModel.isLoaded() ? readModel.getPageByStatus(status, null, Integer.MAX_VALUE)
+                : delegate.getByStatus(status);
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getPageByStatus(@NonNull TaskStatus status, @Nullable Cursor after, int limit) {
+        return readModel.isLoaded() ? readModel.getPageByStatus(status, after, limit)
+                : delegate.getPageByStatus(status, after, limit);
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getByAssignee(@NonNull UUID userId) {
+        return readModel.isLoaded() ? readModel.getPageByAssignee(userId, null, Integer.MAX_VALUE)
+                : delegate.getByAssignee(userId);
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getPageByAssignee(@NonNull UUID userId, @Nullable Cursor after, int limit) {
+        return readModel.isLoaded() ? readModel.getPageByAssignee(userId, after, limit)
+                : delegate.getPageByAssignee(userId, after, limit);
+    }
+
+    @NonNull
+    @Override
+    public List<Ranked<Task>> search(@NonNull String query, @Nullable TaskStatus status, @Nullable UUID assigneeId,
+                                     @Nullable SearchCursor after, int limit) {
+        return delegate.search(query, status, assigneeId, after, limit);
+    }
+
+    @NonNull
+    @Override
+    public Task upsert(@NonNull Task task) throws TaskNotFoundException, VersionConflictException {
+        Task upserted = delegate.upsert(task);
+        readModel.written(List.of(upserted));
+        return upserted;
+    }
+
+    @Override
+    public void delete(@NonNull UUID id, @Nullable Long expectedVersion) throws TaskNotFoundException,
+            VersionConflictException {
+        delegate.delete(id, expectedVersion);
+        readModel.deleted(List.of(id));
+    }
+
+    @NonNull
+    @Override
+    public List<Task> writeAll(@NonNull List<Task> tasks, @NonNull Map<UUID, Long> deletes)
+            throws VersionConflictException {
+        List<Task> upserted = delegate.writeAll(tasks, deletes);
+        readModel.written(upserted);
+        readModel.deleted(deletes.keySet());
+        return upserted;
+    }
+
+    @Override
+    public void deleteAll(@NonNull Collection<UUID> ids) throws TaskNotFoundException {
+        delegate.deleteAll(ids);
+        readModel.deleted(ids);
+    }
+}
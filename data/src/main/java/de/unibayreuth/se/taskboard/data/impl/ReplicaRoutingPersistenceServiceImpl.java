@@ -0,0 +1,38 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.ports.ReplicaRoutingPersistenceService;
+import de.unibayreuth.se.taskboard.data.config.ReplicaProperties;
+import de.unibayreuth.se.taskboard.data.config.ReplicaRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Routes the reads of the current thread with {@link ReplicaRoutingDataSource} and expects the replicas to show a
+ * write after {@link ReplicaProperties#readYourWritesWindow()}.
+ */
+@Service
+@ConditionalOnProperty(name = "taskboard.replicas.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReplicaRoutingPersistenceServiceImpl implements ReplicaRoutingPersistenceService {
+    private final ReplicaProperties properties;
+
+    @NonNull
+    @Override
+    public Instant primaryRequiredUntil(@NonNull Instant writtenAt) {
+        return writtenAt.plus(properties.readYourWritesWindow());
+    }
+
+    @Override
+    public void requirePrimary() {
+        ReplicaRoutingDataSource.requirePrimary();
+    }
+
+    @Override
+    public void reset() {
+        ReplicaRoutingDataSource.reset();
+    }
+}
@@ -0,0 +1,54 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+
+import java.sql.SQLException;
+import java.util.function.Predicate;
+
+/**
+ * SQLSTATE codes that the projection triggers raise and helpers to find them in translated exceptions.
+ */
+final class SqlStates {
+    static final String NO_DATA_FOUND = "P0002"; // raised by the triggers if the task or user does not exist
+    static final String UNIQUE_VIOLATION = "23505";
+    static final String SERIALIZATION_FAILURE = "40001"; // raised by the version trigger if the version is not the next
+    static final String DEADLOCK_DETECTED = "40P01"; // two transactions wait for each other's version rows
+    static final String VERSION_CONSTRAINT = "event_versions_pkey";
+
+    private SqlStates() {
+    }
+
+    static boolean hasSqlState(Throwable exception, String sqlState) {
+        return anySqlException(exception, next -> sqlState.equals(next.getSQLState()));
+    }
+
+    /**
+     * Whether the events were rejected because the task or user was changed concurrently: either the version trigger
+     * found a newer version, a concurrent transaction created the same entity first, or two transactions that change
+     * the same entities in a different order deadlocked on their version rows (see V14__partition_events.sql).
+     */
+    static boolean isVersionConflict(Throwable exception) {
+        return anySqlException(exception, next -> SERIALIZATION_FAILURE.equals(next.getSQLState())
+                || DEADLOCK_DETECTED.equals(next.getSQLState())
+                || (UNIQUE_VIOLATION.equals(next.getSQLState()) && next instanceof PSQLException psqlException
+                    && violates(psqlException.getServerErrorMessage(), VERSION_CONSTRAINT)));
+    }
+
+    private static boolean violates(ServerErrorMessage message, String constraint) {
+        return message != null && constraint.equals(message.getConstraint());
+    }
+
+    private static boolean anySqlException(Throwable exception, Predicate<SQLException> predicate) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                for (SQLException next = sqlException; next != null; next = next.getNextException()) {
+                    if (predicate.test(next)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
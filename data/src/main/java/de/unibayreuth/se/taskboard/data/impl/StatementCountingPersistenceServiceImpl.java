@@ -0,0 +1,36 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.ports.StatementCountingPersistenceService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Service;
+
+/**
+ * Counts the statements that Hibernate prepares, as its statement inspector (see
+ * {@link de.unibayreuth.se.taskboard.data.config.StatementCountingConfig}). Statements run by database triggers are
+ * not included, as they do not cause a round trip.
+ */
+@Service
+public class StatementCountingPersistenceServiceImpl implements StatementCountingPersistenceService, StatementInspector {
+    private final ThreadLocal<int[]> statementCount = new ThreadLocal<>();
+
+    @Override
+    public void startCounting() {
+        statementCount.set(new int[1]);
+    }
+
+    @Override
+    public int stopCounting() {
+        int[] count = statementCount.get();
+        statementCount.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = statementCount.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
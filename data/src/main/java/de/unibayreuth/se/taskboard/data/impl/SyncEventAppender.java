@@ -0,0 +1,29 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.data.persistence.EventEntity;
+import de.unibayreuth.se.taskboard.data.persistence.EventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Inserts the events with one batched statement, in the transaction of the caller if there is one.
+ */
+@Component
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "taskboard.events.group-commit.enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+class SyncEventAppender implements EventAppender {
+    private final EventRepository eventRepository;
+
+    @Override
+    @Transactional
+    public void append(List<EventEntity> events) {
+        eventRepository.saveAll(events);
+        eventRepository.flush();
+    }
+}
@@ -0,0 +1,81 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.TaskCount;
+import de.unibayreuth.se.taskboard.business.ports.TaskCounterPersistenceService;
+import de.unibayreuth.se.taskboard.data.persistence.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Task counters that the triggers on the tasks table maintain incrementally (see {@code V12__add_task_counters.sql}),
+ * for every write path. The triggers append changes, which are folded into the counters every
+ * {@code taskboard.stats.compaction-interval} (readers sum the changes since then), and the counters are compared with
+ * a full recount, which reads all tasks, every {@code taskboard.stats.check-interval}.
+ */
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+@Slf4j
+public class TaskCounterPersistenceServiceImpl implements TaskCounterPersistenceService {
+    private final TaskRepository taskRepository;
+    private final DataSource dataSource;
+
+    @NonNull
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskCount> getCounts() {
+        return taskRepository.findCounts().stream()
+                .map(count -> new TaskCount(count.getStatus(), count.getAssigneeId(), count.getCount()))
+                .toList();
+    }
+
+    @Override
+    public long compact() {
+        return call("fn_compact_task_counters");
+    }
+
+    @Override
+    public long check() {
+        long corrected = call("fn_check_task_counters");
+        if (corrected > 0) {
+            log.warn("Repaired {} task counters that differed from a full recount.", corrected);
+        }
+        return corrected;
+    }
+
+    @Scheduled(fixedDelayString = "${taskboard.stats.compaction-interval:PT10S}")
+    public void compactPeriodically() {
+        compact();
+    }
+
+    @Scheduled(fixedDelayString = "${taskboard.stats.check-interval:PT1H}",
+            initialDelayString = "${taskboard.stats.check-interval:PT1H}")
+    public void checkPeriodically() {
+        check();
+    }
+
+    private long call(String function) { // in autocommit mode, each call is a transaction of its own
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select " + function + "()")) {
+            result.next();
+            return result.getLong(1);
+        } catch (SQLException e) {
+            throw Objects.requireNonNull(new SQLStateSQLExceptionTranslator().translate(function, null, e));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import de.unibayreuth.se.taskboard.business.domain.TaskCount;
+import de.unibayreuth.se.taskboard.business.ports.TaskCounterPersistenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Task counters of the {@code in-memory} profile, which counts the tasks in memory on every read instead of
+ * maintaining counters, so that there is nothing to compact or to check.
+ */
+@Service
+@Profile("in-memory")
+@RequiredArgsConstructor
+public class TaskCounterPersistenceServiceInMemoryImpl implements TaskCounterPersistenceService {
+    private final TaskPersistenceServiceInMemoryImpl taskPersistenceService;
+
+    @NonNull
+    @Override
+    public List<TaskCount> getCounts() {
+        return taskPersistenceService.getCounts();
+    }
+
+    @Override
+    public long compact() {
+        return 0;
+    }
+
+    @Override
+    public long check() {
+        return 0;
+    }
+}
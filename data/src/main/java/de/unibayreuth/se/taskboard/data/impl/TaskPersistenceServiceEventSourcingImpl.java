@@ -1,61 +1,119 @@
 package de.unibayreuth.se.taskboard.data.impl;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.Ranked;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.SearchCursor;
 import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskChange;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
 import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.exceptions.MalformedRequestException;
 import de.unibayreuth.se.taskboard.business.exceptions.TaskNotFoundException;
+import de.unibayreuth.se.taskboard.business.exceptions.VersionConflictException;
+import de.unibayreuth.se.taskboard.business.ports.TaskHistoryPersistenceService;
 import de.unibayreuth.se.taskboard.business.ports.TaskPersistenceService;
+import de.unibayreuth.se.taskboard.data.config.ReplicaRoutingDataSource;
 import de.unibayreuth.se.taskboard.data.mapper.TaskEntityMapper;
+import de.unibayreuth.se.taskboard.data.persistence.ArchivedEntity;
 import de.unibayreuth.se.taskboard.data.persistence.EventEntity;
 import de.unibayreuth.se.taskboard.data.persistence.EventRepository;
 import de.unibayreuth.se.taskboard.data.persistence.TaskEntity;
 import de.unibayreuth.se.taskboard.data.persistence.TaskRepository;
+import de.unibayreuth.se.taskboard.data.persistence.TaskRevision;
+import de.unibayreuth.se.taskboard.data.persistence.TaskSpecifications;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Event-sourcing-based implementation of the task persistence service that the business layer provides as a port.
  */
 
 @Service
+@Profile("!in-memory")
 @RequiredArgsConstructor
-@Primary
-public class TaskPersistenceServiceEventSourcingImpl implements TaskPersistenceService {
+public class TaskPersistenceServiceEventSourcingImpl implements TaskPersistenceService, TaskHistoryPersistenceService {
+    private static final int MAX_UNCONDITIONAL_ATTEMPTS = 3;
+
     private final TaskRepository taskRepository;
     private final TaskEntityMapper taskEntityMapper;
     private final EventRepository eventRepository;
+    private final EventAppender eventAppender;
+    private final EventCodecs eventCodecs;
     private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     @Override
     public void clear() {
-        taskRepository.findAll()
-                .forEach(taskEntity -> eventRepository.saveAndFlush(
-                        EventEntity.deleteEventOf(taskEntityMapper.fromEntity(taskEntity), null))
-                );
-        if (taskRepository.count() != 0) {
-            throw new IllegalStateException("Tasks not successfully deleted.");
-        }
+        deleteAll(ReplicaRoutingDataSource.onPrimary(taskRepository::findAllIds)); // all IDs, also the latest
     }
 
     @NonNull
     @Override
+    @Transactional(readOnly = true)
     public List<Task> getAll() {
         return taskRepository.findAll().stream()
                 .map(taskEntityMapper::fromEntity)
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(@NonNull Consumer<Task> consumer) {
+        try (Stream<TaskEntity> entities = taskRepository.streamAll()) {
+            entities.forEach(entity -> {
+                consumer.accept(taskEntityMapper.fromEntity(entity));
+                entityManager.detach(entity); // keep the persistence context from growing during the export
+            });
+        }
+    }
+
+    @NonNull
+    @Override
+    @Transactional(readOnly = true)
+    public List<Task> getPage(@Nullable Cursor after, int limit) {
+        List<TaskEntity> page = after == null
+                ? taskRepository.findAllByOrderByUpdatedAtAscIdAsc(Limit.of(limit))
+                : taskRepository.findPageAfter(after.timestamp(), after.id(), Limit.of(limit));
+        return page.stream()
+                .map(taskEntityMapper::fromEntity)
+                .toList();
+    }
+
+    @Override
+    @NonNull
+    @Transactional(readOnly = true)
+    public List<Task> find(@NonNull TaskQuery query, @Nullable Cursor after, int limit) {
+        return taskRepository.findBy(TaskSpecifications.matching(query, after),
+                        q -> q.sortBy(TaskSpecifications.KEYSET_ORDER).limit(limit).all()).stream()
+                .map(taskEntityMapper::fromEntity)
+                .toList();
+    }
+
     @NonNull
     @Override
+    @Transactional(readOnly = true)
     public Optional<Task> getById(@NonNull UUID id) {
         return taskRepository.findById(id)
                 .map(taskEntityMapper::fromEntity);
@@ -63,6 +121,30 @@ public class TaskPersistenceServiceEventSourcingImpl implements TaskPersistenceS
 
     @NonNull
     @Override
+    @Transactional(readOnly = true)
+    public Optional<Revision> getRevision(@NonNull UUID id) {
+        return taskRepository.findRevisionById(id)
+                .map(revision -> revisionOf(revision.getId(), revision.getVersion(), revision.getUpdatedAt()));
+    }
+
+    @NonNull
+    @Override
+    @Transactional(readOnly = true)
+    public Revision getRevision() {
+        return Revision.of(null, eventRepository.findFeedRevision(Task.class.getSimpleName()));
+    }
+
+    @NonNull
+    @Override
+    @Transactional // on the primary, as the versions decide about writes
+    public Map<UUID, Long> getVersions(@NonNull Collection<UUID> ids) {
+        return ids.isEmpty() ? Map.of() : taskRepository.findRevisionsByIdIn(ids).stream()
+                .collect(Collectors.toMap(TaskRevision::getId, TaskRevision::getVersion));
+    }
+
+    @NonNull
+    @Override
+    @Transactional(readOnly = true)
     public List<Task> getByStatus(@NonNull TaskStatus status) {
         return taskRepository.findByStatus(status).stream()
                 .map(taskEntityMapper::fromEntity)
@@ -71,6 +153,19 @@ public class TaskPersistenceServiceEventSourcingImpl implements TaskPersistenceS
 
     @NonNull
     @Override
+    @Transactional(readOnly = true)
+    public List<Task> getPageByStatus(@NonNull TaskStatus status, @Nullable Cursor after, int limit) {
+        List<TaskEntity> page = after == null
+                ? taskRepository.findByStatusOrderByUpdatedAtAscIdAsc(status, Limit.of(limit))
+                : taskRepository.findPageByStatusAfter(status, after.timestamp(), after.id(), Limit.of(limit));
+        return page.stream()
+                .map(taskEntityMapper::fromEntity)
+                .toList();
+    }
+
+    @NonNull
+    @Override
+    @Transactional(readOnly = true)
     public List<Task> getByAssignee(@NonNull UUID userId) {
         return taskRepository.findByAssigneeId(userId).stream()
                 .map(taskEntityMapper::fromEntity)
@@ -79,50 +174,215 @@ public class TaskPersistenceServiceEventSourcingImpl implements TaskPersistenceS
 
     @NonNull
     @Override
-    @Transactional
-    public Task upsert(@NonNull Task task) throws TaskNotFoundException {
+    @Transactional(readOnly = true)
+    public List<Task> getPageByAssignee(@NonNull UUID userId, @Nullable Cursor after, int limit) {
+        List<TaskEntity> page = after == null
+                ? taskRepository.findByAssigneeIdOrderByUpdatedAtAscIdAsc(userId, Limit.of(limit))
+                : taskRepository.findPageByAssigneeIdAfter(userId, after.timestamp(), after.id(), Limit.of(limit));
+        return page.stream()
+                .map(taskEntityMapper::fromEntity)
+                .toList();
+    }
+
+    @Override
+    @NonNull
+    public List<Ranked<Task>> search(@NonNull String query, @Nullable TaskStatus status, @Nullable UUID assigneeId,
+                                     @Nullable SearchCursor after, int limit) {
+        return taskRepository.search(query, status == null ? null : status.name(), assigneeId,
+                        after == null ? null : after.rank(), after == null ? null : after.id(), limit).stream()
+                .map(result -> new Ranked<>(taskEntityMapper.fromSearchResult(result), result.getRank()))
+                .toList();
+    }
+
+    @NonNull
+    @Override
+    public Task upsert(@NonNull Task task) throws TaskNotFoundException, VersionConflictException {
+        // the event is the only write, the triggers on the events table apply it to the tasks table
         if (task.getId() == null) {
             // Create a new task
             task.setId(UUID.randomUUID());
             task.setCreatedAt(LocalDateTime.now(ZoneId.of("UTC")));
             task.setUpdatedAt(task.getCreatedAt());
-            TaskEntity taskEntity = taskEntityMapper.toEntity(task);
-            TaskEntity savedEntity = taskRepository.saveAndFlush(taskEntity);
+            task.setVersion(1L);
 
             // Log the INSERT event
-            eventRepository.saveAndFlush(EventEntity.insertEventOf(task, null, objectMapper));
-            return taskEntityMapper.fromEntity(savedEntity);
+            appendEvent(versioned(EventEntity.insertEventOf(task, null, eventCodecs.writer()), task.getVersion()));
+            return task;
         }
 
-        // Update an existing task
-        TaskEntity existingTaskEntity = taskRepository.findById(task.getId())
-                .orElseThrow(() -> new TaskNotFoundException("Task with ID " + task.getId() + " does not exist."));
-        existingTaskEntity.setTitle(task.getTitle());
-        existingTaskEntity.setDescription(task.getDescription());
-        existingTaskEntity.setStatus(task.getStatus());
-        existingTaskEntity.setAssigneeId(task.getAssigneeId());
-        existingTaskEntity.setUpdatedAt(LocalDateTime.now(ZoneId.of("UTC")));
-        TaskEntity updatedEntity = taskRepository.saveAndFlush(existingTaskEntity);
+        Long expectedVersion = task.getVersion();
+        return retryUnconditional(expectedVersion, () -> {
+            // read the fields the client does not send (createdAt) before, the event may be written asynchronously
+            TaskEntity current = taskRepository.findById(task.getId())
+                    .orElseThrow(() -> new TaskNotFoundException("Task with ID " + task.getId() + " does not exist."));
+            task.setCreatedAt(current.getCreatedAt());
+            task.setVersion(Objects.requireNonNullElse(expectedVersion, current.getVersion()) + 1);
+
+            // Log the UPDATE event (the triggers fail if the task was changed or deleted in the meantime)
+            appendEvent(versioned(EventEntity.updateEventOf(task, null, eventCodecs.writer()), task.getVersion()));
+            return task;
+        });
+    }
 
-        // Log the UPDATE event
-        eventRepository.saveAndFlush(EventEntity.updateEventOf(task, null, objectMapper));
-        return taskEntityMapper.fromEntity(updatedEntity);
+    @Override
+    public void delete(@NonNull UUID id, @Nullable Long expectedVersion) throws TaskNotFoundException,
+            VersionConflictException {
+        // Log the DELETE event (the triggers fail if the task does not exist or was changed in the meantime)
+        retryUnconditional(expectedVersion, () -> {
+            appendEvent(versioned(EventEntity.deleteEventOf(Task.class, id, null, eventCodecs.writer()),
+                    expectedVersion == null ? null : expectedVersion + 1));
+            return null;
+        });
+    }
+
+    @NonNull
+    @Override
+    public List<Task> writeAll(@NonNull List<Task> tasks, @NonNull Map<UUID, Long> deletes)
+            throws VersionConflictException {
+        LocalDateTime utcNow = LocalDateTime.now(ZoneId.of("UTC"));
+        List<EventEntity> events = new ArrayList<>(tasks.size() + deletes.size());
+        for (Task task : tasks) {
+            if (task.getId() == null) {
+                task.setId(UUID.randomUUID()); // IDs are assigned here so that Hibernate can batch the inserts
+                task.setCreatedAt(utcNow);
+                task.setUpdatedAt(utcNow);
+                task.setVersion(1L);
+                events.add(versioned(EventEntity.insertEventOf(task, null, eventCodecs.writer()), task.getVersion()));
+            } else {
+                task.setUpdatedAt(utcNow);
+                task.setVersion(Objects.requireNonNull(task.getVersion(), "The version of an update must be set.") + 1);
+                events.add(versioned(EventEntity.updateEventOf(task, null, eventCodecs.writer()), task.getVersion()));
+            }
+        }
+        deletes.forEach((id, expectedVersion) -> events.add(versioned(
+                EventEntity.deleteEventOf(Task.class, id, null, eventCodecs.writer()), expectedVersion + 1)));
+
+        // one batched INSERT into events, the triggers apply the events to the tasks table; the version trigger rejects
+        // every event whose task was changed or deleted since the caller read its version
+        try {
+            appendEvents(events);
+        } catch (TaskNotFoundException e) {
+            throw new VersionConflictException(e.getMessage());
+        }
+        return tasks;
+    }
+
+    @Override
+    public void deleteAll(@NonNull Collection<UUID> ids) throws TaskNotFoundException {
+        appendEvents(ids.stream()
+                .map(id -> EventEntity.deleteEventOf(Task.class, id, null, eventCodecs.writer()))
+                .toList());
+    }
+
+    @NonNull
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskChange> getHistory(@NonNull UUID id) {
+        List<TaskChange> history = new ArrayList<>();
+        Task state = null;
+        Optional<ArchivedEntity> archived = eventRepository.findArchived(Task.class.getSimpleName(), id);
+        if (archived.isPresent()) { // the compacted events are summarized by their last one
+            state = readTask(archived.get().getBody());
+            history.add(new TaskChange(archived.get().getCreatedAt(),
+                    TaskChange.Type.valueOf(archived.get().getType().name()), state));
+        }
+        for (EventEntity event : eventRepository.findHistory(Task.class.getSimpleName(), id)) {
+            TaskChange.Type type = TaskChange.Type.valueOf(event.getType().name());
+            if (type == TaskChange.Type.DELETE) {
+                state = null;
+            } else {
+                Task task = readTask(objectMapper.valueToTree(eventCodecs.decode(event)));
+                if (state != null) {
+                    task.setCreatedAt(state.getCreatedAt()); // the createdAt of update events is not the original one
+                }
+                state = task;
+            }
+            history.add(new TaskChange(event.getCreatedAt(), type, state));
+        }
+        return history;
     }
 
+    @NonNull
     @Override
-    public void delete(@NonNull UUID id) throws TaskNotFoundException {
-        TaskEntity taskEntity = taskRepository.findById(id)
-                .orElseThrow(() -> new TaskNotFoundException("Task with ID " + id + " does not exist."));
+    @Transactional(readOnly = true)
+    public List<Task> getAllAsOf(@NonNull LocalDateTime asOf) throws MalformedRequestException {
+        if (eventRepository.isArchived(asOf)) {
+            throw new MalformedRequestException("The events up to " + asOf + " are archived.");
+        }
+        return eventRepository.findBodiesAsOf(Task.class.getSimpleName(), asOf).stream()
+                .map(this::readTask)
+                .toList();
+    }
 
-        // Log the DELETE event
-        eventRepository.saveAndFlush(EventEntity.deleteEventOf(taskEntityMapper.fromEntity(taskEntity), null));
+    private Task readTask(JsonNode body) {
+        try {
+            return taskEntityMapper.fromEntity(taskEntityReader().readValue(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Task readTask(String body) {
+        try {
+            return taskEntityMapper.fromEntity(taskEntityReader().readValue(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        // Delete the task
-        taskRepository.delete(taskEntity);
-        taskRepository.flush();
+    private ObjectReader taskEntityReader() {
+        // the bodies have the field names of the task entity, and events additionally contain the serialVersionUID
+        return objectMapper.readerFor(TaskEntity.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Revision of a task, also used by the {@link TaskReadModel} for the tasks that it serves. Every change of a task,
+     * including the removal of a deleted assignee, is an event with a new version, so the tag is the version.
+     */
+    static Revision revisionOf(UUID id, long version, LocalDateTime updatedAt) {
+        return Revision.of(version, updatedAt, id);
+    }
+
+    private static EventEntity versioned(EventEntity event, @Nullable Long version) {
+        event.setVersion(version);
+        return event;
+    }
+
+    /**
+     * Runs a write that is conditional on the expected version, or, if it is null, on the version that the write reads
+     * or the database assigns. Only the latter is repeated after a conflict, which then just lost a race.
+     */
+    private <T> T retryUnconditional(@Nullable Long expectedVersion, Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (VersionConflictException e) {
+                if (expectedVersion != null || attempt == MAX_UNCONDITIONAL_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void appendEvent(EventEntity event) throws TaskNotFoundException, VersionConflictException {
+        appendEvents(List.of(event));
+    }
 
-        if (taskRepository.existsById(id)) {
-            throw new IllegalStateException("Task with ID " + id + " was not successfully deleted.");
+    private void appendEvents(List<EventEntity> events) throws TaskNotFoundException, VersionConflictException {
+        try {
+            eventAppender.append(events);
+        } catch (DataAccessException e) {
+            if (SqlStates.hasSqlState(e, SqlStates.NO_DATA_FOUND)) {
+                throw new TaskNotFoundException(Objects.requireNonNullElse(e.getMostSpecificCause().getMessage(),
+                        "Task does not exist."));
+            }
+            if (SqlStates.isVersionConflict(e)) {
+                throw new VersionConflictException(SqlStates.hasSqlState(e, SqlStates.SERIALIZATION_FAILURE)
+                        ? e.getMostSpecificCause().getMessage()
+                        : "Task was changed concurrently.");
+            }
+            throw e;
         }
     }
 }
@@ -1,28 +1,49 @@
 package de.unibayreuth.se.taskboard.data.impl;
 
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.Ranked;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.SearchCursor;
 import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
 import de.unibayreuth.se.taskboard.business.exceptions.TaskNotFoundException;
+import de.unibayreuth.se.taskboard.business.exceptions.VersionConflictException;
 import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
 import de.unibayreuth.se.taskboard.business.ports.TaskPersistenceService;
 import de.unibayreuth.se.taskboard.data.mapper.TaskEntityMapper;
 import de.unibayreuth.se.taskboard.data.persistence.TaskEntity;
 import de.unibayreuth.se.taskboard.data.persistence.TaskRepository;
+import de.unibayreuth.se.taskboard.data.persistence.TaskRevision;
+import de.unibayreuth.se.taskboard.data.persistence.TaskSpecifications;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Database-based implementation of the task persistence service that the business layer provides as a port.
  */
 @Service
+@Profile("!in-memory")
 @RequiredArgsConstructor
 class TaskPersistenceServiceImpl implements TaskPersistenceService {
     private final TaskRepository repository;
     private final TaskEntityMapper mapper;
+    private final EntityManager entityManager;
 
     @Override
     public void clear() {
@@ -32,14 +53,49 @@ class TaskPersistenceServiceImpl implements TaskPersistenceService {
 
     @Override
     @NonNull
+    @Transactional(readOnly = true)
     public List<Task> getAll() {
         return repository.findAll().stream()
                 .map(mapper::fromEntity)
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void forEach(@NonNull Consumer<Task> consumer) {
+        try (Stream<TaskEntity> entities = repository.streamAll()) {
+            entities.forEach(entity -> {
+                consumer.accept(mapper.fromEntity(entity));
+                entityManager.detach(entity); // keep the persistence context from growing during the export
+            });
+        }
+    }
+
+    @Override
+    @NonNull
+    @Transactional(readOnly = true)
+    public List<Task> getPage(@Nullable Cursor after, int limit) {
+        List<TaskEntity> page = after == null
+                ? repository.findAllByOrderByUpdatedAtAscIdAsc(Limit.of(limit))
+                : repository.findPageAfter(after.timestamp(), after.id(), Limit.of(limit));
+        return page.stream()
+                .map(mapper::fromEntity)
+                .toList();
+    }
+
+    @Override
+    @NonNull
+    @Transactional(readOnly = true)
+    public List<Task> find(@NonNull TaskQuery query, @Nullable Cursor after, int limit) {
+        return repository.findBy(TaskSpecifications.matching(query, after),
+                        q -> q.sortBy(TaskSpecifications.KEYSET_ORDER).limit(limit).all()).stream()
+                .map(mapper::fromEntity)
+                .toList();
+    }
+
     @Override
     @NonNull
+    @Transactional(readOnly = true)
     public Optional<Task> getById(@NonNull UUID id) throws TaskNotFoundException {
         return repository.findById(id)
                 .map(mapper::fromEntity);
@@ -47,6 +103,30 @@ class TaskPersistenceServiceImpl implements TaskPersistenceService {
 
     @Override
     @NonNull
+    @Transactional(readOnly = true)
+    public Optional<Revision> getRevision(@NonNull UUID id) {
+        return repository.findRevisionById(id)
+                .map(revision -> Revision.of(revision.getVersion(), revision.getUpdatedAt(), revision.getAssigneeId()));
+    }
+
+    @Override
+    @NonNull
+    @Transactional(readOnly = true)
+    public Revision getRevision() {
+        return Revision.of(null, repository.findListRevision());
+    }
+
+    @Override
+    @NonNull
+    @Transactional // on the primary, as the versions decide about writes
+    public Map<UUID, Long> getVersions(@NonNull Collection<UUID> ids) {
+        return ids.isEmpty() ? Map.of() : repository.findRevisionsByIdIn(ids).stream()
+                .collect(Collectors.toMap(TaskRevision::getId, TaskRevision::getVersion));
+    }
+
+    @Override
+    @NonNull
+    @Transactional(readOnly = true)
     public List<Task> getByStatus(@NonNull TaskStatus status) {
         return repository.findByStatus(status).stream()
                 .map(mapper::fromEntity)
@@ -55,6 +135,19 @@ class TaskPersistenceServiceImpl implements TaskPersistenceService {
 
     @Override
     @NonNull
+    @Transactional(readOnly = true)
+    public List<Task> getPageByStatus(@NonNull TaskStatus status, @Nullable Cursor after, int limit) {
+        List<TaskEntity> page = after == null
+                ? repository.findByStatusOrderByUpdatedAtAscIdAsc(status, Limit.of(limit))
+                : repository.findPageByStatusAfter(status, after.timestamp(), after.id(), Limit.of(limit));
+        return page.stream()
+                .map(mapper::fromEntity)
+                .toList();
+    }
+
+    @Override
+    @NonNull
+    @Transactional(readOnly = true)
     public List<Task> getByAssignee(@NonNull UUID userId) {
         return repository.findByAssigneeId(userId).stream()
                 .map(mapper::fromEntity)
@@ -63,15 +156,40 @@ class TaskPersistenceServiceImpl implements TaskPersistenceService {
 
     @Override
     @NonNull
-    public Task upsert(@NonNull Task task) throws TaskNotFoundException {
+    @Transactional(readOnly = true)
+    public List<Task> getPageByAssignee(@NonNull UUID userId, @Nullable Cursor after, int limit) {
+        List<TaskEntity> page = after == null
+                ? repository.findByAssigneeIdOrderByUpdatedAtAscIdAsc(userId, Limit.of(limit))
+                : repository.findPageByAssigneeIdAfter(userId, after.timestamp(), after.id(), Limit.of(limit));
+        return page.stream()
+                .map(mapper::fromEntity)
+                .toList();
+    }
+
+    @Override
+    @NonNull
+    public List<Ranked<Task>> search(@NonNull String query, @Nullable TaskStatus status, @Nullable UUID assigneeId,
+                                     @Nullable SearchCursor after, int limit) {
+        return repository.search(query, status == null ? null : status.name(), assigneeId,
+                        after == null ? null : after.rank(), after == null ? null : after.id(), limit).stream()
+                .map(result -> new Ranked<>(mapper.fromSearchResult(result), result.getRank()))
+                .toList();
+    }
+
+    @Override
+    @NonNull
+    public Task upsert(@NonNull Task task) throws TaskNotFoundException, VersionConflictException {
         if (task.getId() == null) {
             // create new task
+            task.setVersion(1L);
             return mapper.fromEntity(repository.saveAndFlush(mapper.toEntity(task)));
         }
 
-        // update existing task
+        // update existing task (the version is checked on the read, this implementation does not lock the row)
         TaskEntity taskEntity = repository.findById(task.getId())
                 .orElseThrow(() -> new TaskNotFoundException("Task with ID " + task.getId() + " does not exist."));
+        checkVersion(taskEntity, task.getVersion());
+        taskEntity.setVersion(taskEntity.getVersion() + 1);
         taskEntity.setTitle(task.getTitle());
         taskEntity.setDescription(task.getDescription());
         taskEntity.setUpdatedAt(task.getUpdatedAt());
@@ -81,10 +199,65 @@ class TaskPersistenceServiceImpl implements TaskPersistenceService {
     }
 
     @Override
-    public void delete(@NonNull UUID id) throws TaskNotFoundException {
-        if (!repository.existsById(id)) {
-            throw new TaskNotFoundException("Task with ID " + id + " does not exist.");
+    public void delete(@NonNull UUID id, @Nullable Long expectedVersion) throws TaskNotFoundException,
+            VersionConflictException {
+        TaskEntity taskEntity = repository.findById(id)
+                .orElseThrow(() -> new TaskNotFoundException("Task with ID " + id + " does not exist."));
+        checkVersion(taskEntity, expectedVersion);
+        repository.delete(taskEntity);
+    }
+
+    @Override
+    @NonNull
+    @Transactional
+    public List<Task> writeAll(@NonNull List<Task> tasks, @NonNull Map<UUID, Long> deletes)
+            throws VersionConflictException {
+        // the versions are checked on the read, like in upsert, this implementation does not lock the rows
+        Map<UUID, Long> versions = repository.findRevisionsByIdIn(Stream.concat(
+                        tasks.stream().map(Task::getId).filter(Objects::nonNull), deletes.keySet().stream())
+                .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(TaskRevision::getId, TaskRevision::getVersion));
+        for (Task task : tasks) {
+            if (task.getId() != null) {
+                checkVersion(task.getId(), versions.get(task.getId()), task.getVersion());
+                versions.put(task.getId(), task.getVersion() + 1);
+            }
+        }
+        for (Map.Entry<UUID, Long> delete : deletes.entrySet()) {
+            checkVersion(delete.getKey(), versions.remove(delete.getKey()), delete.getValue());
+        }
+        tasks.forEach(task -> task.setVersion(task.getVersion() == null ? 1L : task.getVersion() + 1));
+        List<TaskEntity> savedEntities = repository.saveAll(tasks.stream()
+                .map(mapper::toEntity)
+                .toList());
+        repository.deleteAllByIdInBatch(deletes.keySet());
+        repository.flush();
+        return savedEntities.stream()
+                .map(mapper::fromEntity)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public void deleteAll(@NonNull Collection<UUID> ids) {
+        repository.deleteAllByIdInBatch(ids);
+    }
+
+    private static void checkVersion(UUID id, @Nullable Long version, long expectedVersion)
+            throws VersionConflictException {
+        if (version == null) {
+            throw new VersionConflictException("Task with ID " + id + " was deleted concurrently.");
+        }
+        if (version != expectedVersion) {
+            throw new VersionConflictException("Task with ID " + id + " has version " + version + ", not "
+                    + expectedVersion + ".");
+        }
+    }
+
+    private static void checkVersion(TaskEntity taskEntity, @Nullable Long expectedVersion) throws VersionConflictException {
+        if (expectedVersion != null && !expectedVersion.equals(taskEntity.getVersion())) {
+            throw new VersionConflictException("Task with ID " + taskEntity.getId() + " has version "
+                    + taskEntity.getVersion() + ", not " + expectedVersion + ".");
         }
-        repository.deleteById(id);
     }
 }
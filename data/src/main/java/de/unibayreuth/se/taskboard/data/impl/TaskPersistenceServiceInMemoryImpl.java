@@ -0,0 +1,533 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.Ranked;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.SearchCursor;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskChange;
+import de.unibayreuth.se.taskboard.business.domain.TaskCount;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.exceptions.TaskNotFoundException;
+import de.unibayreuth.se.taskboard.business.exceptions.VersionConflictException;
+import de.unibayreuth.se.taskboard.business.ports.TaskHistoryPersistenceService;
+import de.unibayreuth.se.taskboard.business.ports.TaskPersistenceService;
+import de.unibayreuth.se.taskboard.data.config.InMemoryProperties;
+import de.unibayreuth.se.taskboard.data.mapper.TaskEntityMapper;
+import de.unibayreuth.se.taskboard.data.persistence.ChangeType;
+import de.unibayreuth.se.taskboard.data.persistence.TaskEntity;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory implementation of the task persistence service for the {@code in-memory} profile, which needs no database.
+ * <p>
+ * The tasks are kept in a concurrent map by ID. All tasks, and the tasks of every status and of every assignee, are
+ * additionally indexed by (updatedAt, id) in sorted sets, from which the lists and pages are read directly. Reads take
+ * no locks: they skip index keys whose task was changed in the meantime, as a change adds the new keys before it
+ * replaces the task and removes the old keys afterward. Writes lock the stripes of their tasks (see
+ * {@link LockStripes}), check the versions, append the changes to the {@link InMemoryJournal}, and only then apply
+ * them. The stored tasks are never changed, the domain class is mutable and therefore copied on the way in and out.
+ * <p>
+ * The changes of every task are kept as its history, which point-in-time queries fold. The search matches the words
+ * of the query in the title and description, without the stemming of the database, and ranks title matches higher.
+ */
+@Service
+@Profile("in-memory")
+public class TaskPersistenceServiceInMemoryImpl implements TaskPersistenceService, TaskHistoryPersistenceService {
+    private static final Comparator<Cursor> KEY_ORDER = Comparator.comparing(Cursor::timestamp)
+            .thenComparing(Cursor::id);
+    private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE); // first in the order of UUID
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float TITLE_WEIGHT = 1.0f; // like the weights A and B of ts_rank_cd
+    private static final float DESCRIPTION_WEIGHT = 0.4f;
+
+    private final InMemoryJournal journal;
+    private final TaskEntityMapper taskEntityMapper;
+    private final ObjectMapper objectMapper;
+    private final LockStripes stripes;
+    private final String instanceId = UUID.randomUUID().toString(); // revisions of another process never match
+
+    private final ConcurrentMap<UUID, Task> tasks = new ConcurrentHashMap<>();
+    private final NavigableSet<Cursor> byUpdatedAt = new ConcurrentSkipListSet<>(KEY_ORDER);
+    private final Map<TaskStatus, NavigableSet<Cursor>> byStatus = new EnumMap<>(TaskStatus.class); // sets are fixed
+    private final ConcurrentMap<UUID, NavigableSet<Cursor>> byAssignee = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, List<TaskChange>> histories = new ConcurrentHashMap<>();
+    private final AtomicLong changeCount = new AtomicLong();
+
+    private record Change(ChangeType type, UUID id, @Nullable Task task) { }
+
+    public TaskPersistenceServiceInMemoryImpl(InMemoryJournal journal, TaskEntityMapper taskEntityMapper,
+                                              ObjectMapper objectMapper, InMemoryProperties properties) {
+        this.journal = journal;
+        this.taskEntityMapper = taskEntityMapper;
+        this.objectMapper = objectMapper;
+        this.stripes = new LockStripes(properties.lockStripes());
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status, new ConcurrentSkipListSet<>(KEY_ORDER));
+        }
+    }
+
+    @Override
+    public void clear() {
+        deleteAll(List.copyOf(tasks.keySet()));
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getAll() {
+        return tasks.values().stream()
+                .map(TaskPersistenceServiceInMemoryImpl::copyOf)
+                .toList();
+    }
+
+    @Override
+    public void forEach(@NonNull Consumer<Task> consumer) {
+        tasks.values().forEach(task -> consumer.accept(copyOf(task)));
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getPage(@Nullable Cursor after, int limit) {
+        return page(keysAfter(byUpdatedAt, after), limit, task -> true);
+    }
+
+    @NonNull
+    @Override
+    public List<Task> find(@NonNull TaskQuery query, @Nullable Cursor after, int limit) {
+        // read the smallest index that the query restricts, and filter by the other criteria
+        NavigableSet<Cursor> index = query.assigneeId() != null
+                ? byAssignee.getOrDefault(query.assigneeId(), Collections.emptyNavigableSet())
+                : query.status() != null ? byStatus.get(query.status()) : byUpdatedAt;
+        Iterable<Cursor> keys = keysAfter(index, after);
+        if (query.updatedSince() != null) {
+            Cursor since = new Cursor(query.updatedSince(), MIN_ID);
+            if (after == null || KEY_ORDER.compare(after, since) < 0) {
+                keys = index.tailSet(since, true);
+            }
+        }
+        return page(keys, limit, task -> (query.status() == null || task.getStatus() == query.status())
+                && (query.assigneeId() == null || query.assigneeId().equals(task.getAssigneeId())));
+    }
+
+    @NonNull
+    @Override
+    public Optional<Task> getById(@NonNull UUID id) {
+        return Optional.ofNullable(tasks.get(id))
+                .map(TaskPersistenceServiceInMemoryImpl::copyOf);
+    }
+
+    @NonNull
+    @Override
+    public Optional<Revision> getRevision(@NonNull UUID id) {
+        return Optional.ofNullable(tasks.get(id))
+                .map(task -> Revision.of(task.getVersion(), task.getUpdatedAt(), id));
+    }
+
+    @NonNull
+    @Override
+    public Revision getRevision() {
+        return Revision.of(null, instanceId, changeCount.get());
+    }
+
+    @NonNull
+    @Override
+    public Map<UUID, Long> getVersions(@NonNull Collection<UUID> ids) {
+        Map<UUID, Long> versions = new HashMap<>();
+        for (UUID id : ids) {
+            Task task = tasks.get(id);
+            if (task != null) {
+                versions.put(id, task.getVersion());
+            }
+        }
+        return versions;
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getByStatus(@NonNull TaskStatus status) {
+        return getPageByStatus(status, null, Integer.MAX_VALUE);
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getPageByStatus(@NonNull TaskStatus status, @Nullable Cursor after, int limit) {
+        return page(keysAfter(byStatus.get(status), after), limit, task -> task.getStatus() == status);
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getByAssignee(@NonNull UUID userId) {
+        return getPageByAssignee(userId, null, Integer.MAX_VALUE);
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getPageByAssignee(@NonNull UUID userId, @Nullable Cursor after, int limit) {
+        return page(keysAfter(byAssignee.getOrDefault(userId, Collections.emptyNavigableSet()), after), limit,
+                task -> userId.equals(task.getAssigneeId()));
+    }
+
+    @NonNull
+    @Override
+    public List<Ranked<Task>> search(@NonNull String query, @Nullable TaskStatus status, @Nullable UUID assigneeId,
+                                     @Nullable SearchCursor after, int limit) {
+        Set<String> terms = words(query).collect(Collectors.toSet());
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        Comparator<Ranked<Task>> order = Comparator.<Ranked<Task>>comparingDouble(Ranked::rank)
+                .thenComparing(ranked -> Objects.requireNonNull(ranked.item().getId()))
+                .reversed();
+        return tasks.values().stream()
+                .filter(task -> (status == null || task.getStatus() == status)
+                        && (assigneeId == null || assigneeId.equals(task.getAssigneeId())))
+                .map(task -> new Ranked<>(task, rank(task, terms)))
+                .filter(ranked -> ranked.rank() > 0)
+                .filter(ranked -> after == null || ranked.rank() < after.rank()
+                        || (ranked.rank() == after.rank() && Objects.requireNonNull(ranked.item().getId())
+                        .compareTo(after.id()) < 0))
+                .sorted(order)
+                .limit(limit)
+                .map(ranked -> new Ranked<>(copyOf(ranked.item()), ranked.rank()))
+                .toList();
+    }
+
+    @NonNull
+    @Override
+    public Task upsert(@NonNull Task task) throws TaskNotFoundException, VersionConflictException {
+        if (task.getId() == null) {
+            // Create a new task
+            task.setId(UUID.randomUUID());
+            task.setCreatedAt(LocalDateTime.now(ZoneId.of("UTC")));
+            task.setUpdatedAt(task.getCreatedAt());
+            task.setVersion(1L);
+            Task created = copyOf(task);
+            return stripes.withLock(task.getId(), () -> {
+                apply(List.of(new Change(ChangeType.INSERT, created.getId(), created)));
+                return task;
+            });
+        }
+
+        return stripes.withLock(task.getId(), () -> {
+            Task current = getCurrent(task.getId());
+            checkVersion(current, task.getVersion());
+            task.setCreatedAt(current.getCreatedAt());
+            task.setVersion(current.getVersion() + 1);
+            apply(List.of(new Change(ChangeType.UPDATE, task.getId(), copyOf(task))));
+            return task;
+        });
+    }
+
+    @Override
+    public void delete(@NonNull UUID id, @Nullable Long expectedVersion) throws TaskNotFoundException,
+            VersionConflictException {
+        stripes.withLock(id, () -> {
+            checkVersion(getCurrent(id), expectedVersion);
+            apply(List.of(new Change(ChangeType.DELETE, id, null)));
+            return null;
+        });
+    }
+
+    @NonNull
+    @Override
+    public List<Task> writeAll(@NonNull List<Task> tasks, @NonNull Map<UUID, Long> deletes)
+            throws VersionConflictException {
+        LocalDateTime utcNow = LocalDateTime.now(ZoneId.of("UTC"));
+        Set<UUID> createdIds = new HashSet<>();
+        for (Task task : tasks) {
+            if (task.getId() == null) {
+                task.setId(UUID.randomUUID());
+                task.setCreatedAt(utcNow);
+                task.setVersion(0L); // incremented below
+                createdIds.add(task.getId());
+            }
+        }
+        List<UUID> ids = new ArrayList<>(tasks.size() + deletes.size());
+        tasks.forEach(task -> ids.add(task.getId()));
+        ids.addAll(deletes.keySet());
+        return stripes.withLocks(ids, () -> {
+            // all or nothing: every task is checked before the first change is applied
+            Map<UUID, Task> changed = new HashMap<>();
+            List<Change> changes = new ArrayList<>(tasks.size() + deletes.size());
+            for (Task task : tasks) {
+                boolean insert = createdIds.contains(task.getId());
+                if (!insert) {
+                    Task current = getCurrentInBatch(changed, task.getId());
+                    checkVersion(current, Objects.requireNonNull(task.getVersion(),
+                            "The version of an update must be set."));
+                    task.setCreatedAt(current.getCreatedAt());
+                }
+                task.setUpdatedAt(utcNow);
+                task.setVersion(task.getVersion() + 1);
+                Task copy = copyOf(task);
+                changed.put(task.getId(), copy);
+                changes.add(new Change(insert ? ChangeType.INSERT : ChangeType.UPDATE, task.getId(), copy));
+            }
+            for (Map.Entry<UUID, Long> delete : deletes.entrySet()) {
+                checkVersion(getCurrentInBatch(changed, delete.getKey()), delete.getValue());
+                changed.put(delete.getKey(), null);
+                changes.add(new Change(ChangeType.DELETE, delete.getKey(), null));
+            }
+            apply(changes);
+            return tasks;
+        });
+    }
+
+    @Override
+    public void deleteAll(@NonNull Collection<UUID> ids) throws TaskNotFoundException {
+        Set<UUID> distinctIds = new LinkedHashSet<>(ids);
+        stripes.withLocks(distinctIds, () -> {
+            distinctIds.forEach(this::getCurrent); // all or nothing
+            apply(distinctIds.stream()
+                    .map(id -> new Change(ChangeType.DELETE, id, null))
+                    .toList());
+            return null;
+        });
+    }
+
+    @NonNull
+    @Override
+    public List<TaskChange> getHistory(@NonNull UUID id) {
+        return histories.getOrDefault(id, List.of()).stream()
+                .map(change -> new TaskChange(change.changedAt(), change.type(),
+                        change.task() == null ? null : copyOf(change.task())))
+                .toList();
+    }
+
+    @NonNull
+    @Override
+    public List<Task> getAllAsOf(@NonNull LocalDateTime asOf) {
+        List<Task> result = new ArrayList<>();
+        for (List<TaskChange> history : histories.values()) {
+            Task state = null;
+            for (TaskChange change : history) {
+                if (change.changedAt().isAfter(asOf)) {
+                    break;
+                }
+                state = change.task();
+            }
+            if (state != null) {
+                result.add(copyOf(state));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the tasks by status and assignee, without zero counts.
+     */
+    @NonNull
+    List<TaskCount> getCounts() {
+        Map<TaskStatus, Map<Optional<UUID>, Long>> counts = tasks.values().stream()
+                .collect(Collectors.groupingBy(Task::getStatus,
+                        Collectors.groupingBy(task -> Optional.ofNullable(task.getAssigneeId()),
+                                Collectors.counting())));
+        List<TaskCount> result = new ArrayList<>();
+        counts.forEach((status, byAssigneeId) -> byAssigneeId.forEach((assigneeId, count) ->
+                result.add(new TaskCount(status, assigneeId.orElse(null), count))));
+        return result;
+    }
+
+    /**
+     * Removes deleted users from their tasks with an update of every task, which is journaled and changes its version
+     * and updatedAt (like the user delete trigger of the database).
+     */
+    void unassign(@NonNull Collection<UUID> userIds) {
+        for (UUID userId : userIds) {
+            for (Cursor key : byAssignee.getOrDefault(userId, Collections.emptyNavigableSet())) {
+                stripes.withLock(key.id(), () -> {
+                    Task current = tasks.get(key.id());
+                    if (current != null && userId.equals(current.getAssigneeId())) {
+                        Task unassigned = copyOf(current);
+                        unassigned.setAssigneeId(null);
+                        unassigned.setUpdatedAt(LocalDateTime.now(ZoneId.of("UTC")));
+                        unassigned.setVersion(current.getVersion() + 1);
+                        apply(List.of(new Change(ChangeType.UPDATE, unassigned.getId(), unassigned)));
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    /**
+     * Runs the provided action while no task is written.
+     */
+    <T> T exclusively(@NonNull Supplier<T> action) {
+        return stripes.withAllLocks(action);
+    }
+
+    /**
+     * Removes all tasks and their histories, to replay the journal.
+     */
+    void reset() {
+        tasks.clear();
+        byUpdatedAt.clear();
+        byStatus.values().forEach(Set::clear);
+        byAssignee.clear();
+        histories.clear();
+        changeCount.set(0);
+    }
+
+    /**
+     * Applies a change of the journal (see {@link ProjectionPersistenceServiceInMemoryImpl}).
+     */
+    void replay(@NonNull InMemoryJournal.Entry entry) {
+        Task task = entry.body() == null ? null : taskEntityMapper.fromEntity(objectMapper.convertValue(entry.body(),
+                TaskEntity.class));
+        applyInMemory(new Change(entry.type(), entry.id(), task), entry.changedAt());
+    }
+
+    private static Iterable<Cursor> keysAfter(NavigableSet<Cursor> index, @Nullable Cursor after) {
+        return after == null ? index : index.tailSet(after, false);
+    }
+
+    private List<Task> page(Iterable<Cursor> keys, int limit, Predicate<Task> filter) {
+        List<Task> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Cursor key : keys) {
+            if (page.size() == limit) {
+                break;
+            }
+            Task task = tasks.get(key.id());
+            if (task != null && task.getUpdatedAt().equals(key.timestamp()) && filter.test(task)) {
+                page.add(copyOf(task)); // else the key is outdated, the task is found under its current one
+            }
+        }
+        return page;
+    }
+
+    private Task getCurrent(UUID id) throws TaskNotFoundException {
+        Task current = tasks.get(id);
+        if (current == null) {
+            throw new TaskNotFoundException("Task with ID " + id + " does not exist.");
+        }
+        return current;
+    }
+
+    /**
+     * Returns the state of a task after the previous changes of a batch, which fails if the task does not exist (any
+     * longer), as the callers of {@link #writeAll(List, Map)} have read its version.
+     */
+    private Task getCurrentInBatch(Map<UUID, Task> changed, UUID id) throws VersionConflictException {
+        Task current = changed.containsKey(id) ? changed.get(id) : tasks.get(id);
+        if (current == null) {
+            throw new VersionConflictException("Task with ID " + id + " was deleted concurrently.");
+        }
+        return current;
+    }
+
+    private static void checkVersion(Task current, @Nullable Long expectedVersion) throws VersionConflictException {
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new VersionConflictException("Task with ID " + current.getId() + " has version "
+                    + current.getVersion() + ", not " + expectedVersion + ".");
+        }
+    }
+
+    /**
+     * Appends the changes to the journal, then applies them. The caller holds the locks of the tasks.
+     */
+    private void apply(List<Change> changes) {
+        LocalDateTime changedAt = LocalDateTime.now(ZoneId.of("UTC"));
+        journal.append(changes.stream()
+                .map(change -> new InMemoryJournal.Entry(change.type(), Task.class.getSimpleName(), changedAt,
+                        change.id(), change.task() == null ? null
+                        : objectMapper.valueToTree(taskEntityMapper.toEntity(change.task()))))
+                .toList());
+        changes.forEach(change -> applyInMemory(change, changedAt));
+    }
+
+    private void applyInMemory(Change change, LocalDateTime changedAt) {
+        store(tasks.get(change.id()), change.task());
+        histories.computeIfAbsent(change.id(), id -> new CopyOnWriteArrayList<>())
+                .add(new TaskChange(changedAt, TaskChange.Type.valueOf(change.type().name()), change.task()));
+        changeCount.incrementAndGet();
+    }
+
+    /**
+     * Replaces the previous state of a task, adding the new index keys before and removing the old ones after.
+     */
+    private void store(@Nullable Task previous, @Nullable Task task) {
+        Cursor previousKey = previous == null ? null : keyOf(previous);
+        Cursor key = task == null ? null : keyOf(task);
+        if (task != null) {
+            byUpdatedAt.add(key);
+            byStatus.get(task.getStatus()).add(key);
+            if (task.getAssigneeId() != null) {
+                byAssignee.compute(task.getAssigneeId(), (assigneeId, keys) -> {
+                    NavigableSet<Cursor> assigned = keys == null ? new ConcurrentSkipListSet<>(KEY_ORDER) : keys;
+                    assigned.add(key);
+                    return assigned;
+                });
+            }
+            tasks.put(task.getId(), task);
+        } else if (previous != null) {
+            tasks.remove(previous.getId());
+        }
+        if (previous == null) {
+            return;
+        }
+        boolean sameKey = previousKey.equals(key);
+        if (!sameKey) {
+            byUpdatedAt.remove(previousKey);
+        }
+        if (!sameKey || previous.getStatus() != task.getStatus()) {
+            byStatus.get(previous.getStatus()).remove(previousKey);
+        }
+        if (previous.getAssigneeId() != null
+                && (!sameKey || !previous.getAssigneeId().equals(task.getAssigneeId()))) {
+            byAssignee.computeIfPresent(previous.getAssigneeId(), (assigneeId, keys) -> {
+                keys.remove(previousKey);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private static Cursor keyOf(Task task) {
+        return new Cursor(task.getUpdatedAt(), Objects.requireNonNull(task.getId()));
+    }
+
+    private static float rank(Task task, Set<String> terms) {
+        return TITLE_WEIGHT * occurrences(task.getTitle(), terms)
+                + DESCRIPTION_WEIGHT * occurrences(task.getDescription(), terms);
+    }
+
+    private static long occurrences(String text, Set<String> terms) {
+        return words(text).filter(terms::contains).count();
+    }
+
+    private static Stream<String> words(String text) {
+        return NON_WORD.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(word -> !word.isEmpty());
+    }
+
+    private static Task copyOf(Task task) {
+        Task copy = new Task(task.getTitle(), task.getDescription());
+        copy.setId(task.getId());
+        copy.setCreatedAt(task.getCreatedAt());
+        copy.setUpdatedAt(task.getUpdatedAt());
+        copy.setStatus(task.getStatus());
+        copy.setAssigneeId(task.getAssigneeId());
+        copy.setVersion(task.getVersion());
+        return copy;
+    }
+}
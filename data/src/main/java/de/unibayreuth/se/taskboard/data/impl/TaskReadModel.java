@@ -0,0 +1,443 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.EntityChangedEvent;
+import de.unibayreuth.se.taskboard.business.domain.EventPosition;
+import de.unibayreuth.se.taskboard.business.domain.FeedEvent;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.Task;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import de.unibayreuth.se.taskboard.business.ports.EventPersistenceService;
+import de.unibayreuth.se.taskboard.data.config.ReadModelProperties;
+import de.unibayreuth.se.taskboard.data.config.ReplicaRoutingDataSource;
+import de.unibayreuth.se.taskboard.data.mapper.TaskEntityMapper;
+import de.unibayreuth.se.taskboard.data.persistence.TaskEntity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-memory read model of the tasks (see {@link ReadModelTaskPersistenceService}). On startup, it loads the tasks
+ * table and the position of the latest event of the change feed; afterward, one thread applies the new events, woken
+ * up by the event notifications ({@link EntityChangedEvent}) and at least every poll interval. The events that the
+ * table already contained are skipped by their versions. Deleted users are removed from their tasks by update events
+ * of the tasks (see {@code V16__unassign_tasks_with_events.sql}), which are applied like any other.
+ * <p>
+ * The tasks are indexed like in {@link TaskPersistenceServiceInMemoryImpl}: in a concurrent map by ID, and by
+ * (updatedAt, id) in sorted sets of all tasks and of the tasks of every status and assignee, which are changed in
+ * place. Reads take no locks and skip index keys whose task was changed in the meantime; changes are serialized, but
+ * only touch the keys of their tasks. The writes of this node are applied as soon as they return, so that clients read
+ * their own writes; the tasks deleted by them are remembered until their events arrive, so that older events do not
+ * bring them back in the meantime. Revisions are derived from the same entries as the tasks, so that a revision never
+ * describes a newer state than the body that is returned with it.
+ * <p>
+ * The staleness is published as the gauges {@code taskboard.read-model.lag}, the number of events between the applied
+ * position and the head of the change feed when it was last read, and {@code taskboard.read-model.staleness}, the
+ * time since the read model last reached the head.
+ */
+@Component
+@Profile("!in-memory")
+@Slf4j
+class TaskReadModel implements SmartLifecycle {
+    private static final Comparator<Cursor> KEY_ORDER = Comparator.comparing(Cursor::timestamp)
+            .thenComparing(Cursor::id);
+    private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE); // first in the order of UUID
+
+    private final TaskPersistenceServiceEventSourcingImpl taskPersistenceService;
+    private final EventPersistenceService eventPersistenceService;
+    private final TaskEntityMapper taskEntityMapper;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader taskEntityReader;
+    private final ReadModelProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final String instanceId = UUID.randomUUID().toString(); // revisions of another node never match
+
+    private final ConcurrentMap<UUID, Task> tasks = new ConcurrentHashMap<>();
+    private final NavigableSet<Cursor> byUpdatedAt = new ConcurrentSkipListSet<>(KEY_ORDER);
+    private final Map<TaskStatus, NavigableSet<Cursor>> byStatus = new EnumMap<>(TaskStatus.class); // sets are fixed
+    private final ConcurrentMap<UUID, NavigableSet<Cursor>> byAssignee = new ConcurrentHashMap<>();
+    private final AtomicLong changeCount = new AtomicLong();
+
+    private final Object lock = new Object(); // serializes the changes
+    private final Set<UUID> deleted = new HashSet<>(); // by this node, events not applied yet, guarded by the lock
+    private EventPosition position = EventPosition.START; // of the latest applied event, guarded by the lock
+    private volatile boolean loaded; // false while the read model is disabled or not loaded
+    private final BlockingQueue<Boolean> wakeUp = new ArrayBlockingQueue<>(1);
+    private volatile long lag;
+    private volatile long caughtUpAt; // System.nanoTime()
+
+    private volatile boolean running;
+    private Thread thread;
+
+    TaskReadModel(TaskPersistenceServiceEventSourcingImpl taskPersistenceService,
+                  EventPersistenceService eventPersistenceService, TaskEntityMapper taskEntityMapper,
+                  ObjectMapper objectMapper, ReadModelProperties properties, MeterRegistry meterRegistry) {
+        this.taskPersistenceService = taskPersistenceService;
+        this.eventPersistenceService = eventPersistenceService;
+        this.taskEntityMapper = taskEntityMapper;
+        this.objectMapper = objectMapper;
+        // the bodies have the field names of the task entity, and events additionally contain the serialVersionUID
+        this.taskEntityReader = objectMapper.readerFor(TaskEntity.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status, new ConcurrentSkipListSet<>(KEY_ORDER));
+        }
+    }
+
+    /**
+     * Whether the read model serves the reads; otherwise, the tasks must be read from the database.
+     */
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    @NonNull
+    List<Task> getAll() {
+        return tasks.values().stream()
+                .map(TaskReadModel::copyOf)
+                .toList();
+    }
+
+    void forEach(@NonNull Consumer<Task> consumer) {
+        tasks.values().forEach(task -> consumer.accept(copyOf(task)));
+    }
+
+    @NonNull
+    List<Task> getPage(@Nullable Cursor after, int limit) {
+        return page(keysAfter(byUpdatedAt, after), limit, task -> true);
+    }
+
+    @NonNull
+    List<Task> find(@NonNull TaskQuery query, @Nullable Cursor after, int limit) {
+        // read the smallest index that the query restricts, and filter by the other criteria
+        NavigableSet<Cursor> index = query.assigneeId() != null
+                ? byAssignee.getOrDefault(query.assigneeId(), Collections.emptyNavigableSet())
+                : query.status() != null ? byStatus.get(query.status()) : byUpdatedAt;
+        Iterable<Cursor> keys = keysAfter(index, after);
+        if (query.updatedSince() != null) {
+            Cursor since = new Cursor(query.updatedSince(), MIN_ID);
+            if (after == null || KEY_ORDER.compare(after, since) < 0) {
+                keys = index.tailSet(since, true);
+            }
+        }
+        return page(keys, limit, task -> (query.status() == null || task.getStatus() == query.status())
+                && (query.assigneeId() == null || query.assigneeId().equals(task.getAssigneeId())));
+    }
+
+    @NonNull
+    Optional<Task> getById(@NonNull UUID id) {
+        return Optional.ofNullable(tasks.get(id))
+                .map(TaskReadModel::copyOf);
+    }
+
+    @NonNull
+    Optional<Revision> getRevision(@NonNull UUID id) {
+        return Optional.ofNullable(tasks.get(id))
+                .map(task -> TaskPersistenceServiceEventSourcingImpl.revisionOf(id, task.getVersion(), task.getUpdatedAt()));
+    }
+
+    @NonNull
+    Revision getRevision() {
+        return Revision.of(null, instanceId, changeCount.get());
+    }
+
+    @NonNull
+    List<Task> getPageByStatus(@NonNull TaskStatus status, @Nullable Cursor after, int limit) {
+        return page(keysAfter(byStatus.get(status), after), limit, task -> task.getStatus() == status);
+    }
+
+    @NonNull
+    List<Task> getPageByAssignee(@NonNull UUID userId, @Nullable Cursor after, int limit) {
+        return page(keysAfter(byAssignee.getOrDefault(userId, Collections.emptyNavigableSet()), after), limit,
+                task -> userId.equals(task.getAssigneeId()));
+    }
+
+    /**
+     * Applies tasks that this node has written, unless the read model already has the same or a newer version.
+     */
+    void written(@NonNull Collection<Task> written) {
+        update(() -> written.forEach(task -> {
+            Task current = tasks.get(task.getId());
+            if (current == null || current.getVersion() < task.getVersion()) {
+                store(current, copyOf(task));
+            }
+        }));
+    }
+
+    /**
+     * Removes tasks that this node has deleted.
+     */
+    void deleted(@NonNull Collection<UUID> ids) {
+        update(() -> ids.forEach(id -> {
+            store(tasks.get(id), null);
+            deleted.add(id);
+        }));
+    }
+
+    @EventListener
+    void onEntityChanged(EntityChangedEvent event) {
+        if (event.affects(Task.class)) { // deleted users are removed from their tasks by events of the tasks
+            wakeUp.offer(Boolean.TRUE); // coalesced, the thread reads all new events at once
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        load();
+        Gauge.builder("taskboard.read-model.lag", this, readModel -> readModel.lag)
+                .description("Number of events of the change feed that the read model has not applied yet")
+                .register(meterRegistry);
+        TimeGauge.builder("taskboard.read-model.staleness", this, TimeUnit.NANOSECONDS,
+                        readModel -> System.nanoTime() - readModel.caughtUpAt)
+                .description("Time since the read model last reached the head of the change feed")
+                .register(meterRegistry);
+        running = true;
+        thread = new Thread(this::run, "task-read-model");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(properties.pollInterval().multipliedBy(2).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        loaded = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void load() {
+        long startedAt = System.nanoTime();
+        // nothing else changes the indexes until the read model is loaded, the writes meanwhile are in the table or
+        // the change feed
+        tasks.clear();
+        byUpdatedAt.clear();
+        byStatus.values().forEach(Set::clear);
+        byAssignee.clear();
+        // the position first, so that the events of the tasks loaded afterward are either skipped or still applied
+        EventPosition head = ReplicaRoutingDataSource.onPrimary(() -> {
+            EventPosition loadedHead = eventPersistenceService.getHead();
+            taskPersistenceService.forEach(task -> store(null, task));
+            return loadedHead;
+        });
+        synchronized (lock) {
+            deleted.clear();
+            position = head;
+            changeCount.incrementAndGet();
+            loaded = true;
+        }
+        caughtUpAt = System.nanoTime();
+        log.info("Loaded {} tasks into the read model in {} ms.", tasks.size(),
+                TimeUnit.NANOSECONDS.toMillis(caughtUpAt - startedAt));
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                wakeUp.poll(properties.pollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                catchUp();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Reading the change feed failed, retrying in {}.", properties.pollInterval(), e);
+            }
+        }
+    }
+
+    private void catchUp() {
+        if (!loaded) {
+            return;
+        }
+        EventPosition head = eventPersistenceService.getHead();
+        EventPosition applied;
+        synchronized (lock) {
+            applied = position;
+        }
+        lag = backlog(head, applied);
+        List<FeedEvent> events;
+        do {
+            events = eventPersistenceService.getAfter(applied, properties.batchSize());
+            if (events.isEmpty()) {
+                break;
+            }
+            List<FeedEvent> batch = events;
+            update(() -> {
+                batch.forEach(this::apply);
+                position = batch.getLast().position();
+            });
+            applied = events.getLast().position();
+            lag = backlog(head, applied);
+        } while (events.size() == properties.batchSize());
+        caughtUpAt = System.nanoTime();
+    }
+
+    private static long backlog(EventPosition head, EventPosition applied) {
+        // positions are assigned by a sequence on insert, so their difference approximates the number of events
+        return Math.max(0, head.position() - applied.position());
+    }
+
+    private void apply(FeedEvent event) { // the caller holds the lock
+        if (!Task.class.getSimpleName().equals(event.entity())) {
+            return;
+        }
+        Task current = tasks.get(event.entityId());
+        if (event.type() == FeedEvent.Type.DELETE) {
+            store(current, null);
+            deleted.remove(event.entityId());
+            return;
+        }
+        if (deleted.contains(event.entityId())) {
+            return; // deleted by this node, the event of the deletion follows
+        }
+        if (current != null && current.getVersion() >= event.version()) {
+            return; // already loaded or written by this node
+        }
+        Task task = readTask(event.body());
+        task.setVersion(event.version());
+        if (current != null) {
+            task.setCreatedAt(current.getCreatedAt()); // the createdAt of update events is not the original one
+        }
+        store(current, task);
+    }
+
+    private void update(Runnable action) {
+        synchronized (lock) {
+            if (!loaded) {
+                return; // the writes are contained in the table or the change feed when the read model is loaded
+            }
+            action.run();
+            changeCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Replaces the previous state of a task, adding the new index keys before and removing the old ones after. The
+     * caller holds the lock.
+     */
+    private void store(@Nullable Task previous, @Nullable Task task) {
+        Cursor previousKey = previous == null ? null : keyOf(previous);
+        Cursor key = task == null ? null : keyOf(task);
+        if (task != null) {
+            byUpdatedAt.add(key);
+            byStatus.get(task.getStatus()).add(key);
+            if (task.getAssigneeId() != null) {
+                byAssignee.computeIfAbsent(task.getAssigneeId(), assigneeId -> new ConcurrentSkipListSet<>(KEY_ORDER))
+                        .add(key);
+            }
+            tasks.put(task.getId(), task);
+        } else if (previous != null) {
+            tasks.remove(previous.getId());
+        }
+        if (previous == null) {
+            return;
+        }
+        boolean sameKey = previousKey.equals(key);
+        if (!sameKey) {
+            byUpdatedAt.remove(previousKey);
+        }
+        if (!sameKey || previous.getStatus() != task.getStatus()) {
+            byStatus.get(previous.getStatus()).remove(previousKey);
+        }
+        if (previous.getAssigneeId() != null
+                && (!sameKey || !previous.getAssigneeId().equals(task.getAssigneeId()))) {
+            byAssignee.computeIfPresent(previous.getAssigneeId(), (assigneeId, keys) -> {
+                keys.remove(previousKey);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private static Iterable<Cursor> keysAfter(NavigableSet<Cursor> index, @Nullable Cursor after) {
+        return after == null ? index : index.tailSet(after, false);
+    }
+
+    private List<Task> page(Iterable<Cursor> keys, int limit, Predicate<Task> filter) {
+        List<Task> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Cursor key : keys) {
+            if (page.size() == limit) {
+                break;
+            }
+            Task task = tasks.get(key.id());
+            if (task != null && task.getUpdatedAt().equals(key.timestamp()) && filter.test(task)) {
+                page.add(copyOf(task)); // else the key is outdated, the task is found under its current one
+            }
+        }
+        return page;
+    }
+
+    private Task readTask(Map<String, Object> body) {
+        try {
+            return taskEntityMapper.fromEntity(taskEntityReader.readValue((JsonNode) objectMapper.valueToTree(body)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Cursor keyOf(Task task) {
+        return new Cursor(task.getUpdatedAt(), Objects.requireNonNull(task.getId()));
+    }
+
+    private static Task copyOf(Task task) {
+        Task copy = new Task(task.getTitle(), task.getDescription());
+        copy.setId(task.getId());
+        copy.setCreatedAt(task.getCreatedAt());
+        copy.setUpdatedAt(task.getUpdatedAt());
+        copy.setStatus(task.getStatus());
+        copy.setAssigneeId(task.getAssigneeId());
+        copy.setVersion(task.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,156 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.unibayreuth.se.taskboard.business.domain.EntityChangedEvent;
+import de.unibayreuth.se.taskboard.business.domain.User;
+import de.unibayreuth.se.taskboard.data.config.UserCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Size- and TTL-bounded cache of users by ID and of the list of all users. Hit, miss and eviction statistics are
+ * published as the Micrometer caches {@code users} and {@code users.all}.
+ * Cached users are copied on the way in and out, as the domain class is mutable.
+ * <p>
+ * A single user is loaded atomically with its entry, so that an eviction of the user waits for the load and removes
+ * its result. Every eviction also advances a generation, and users or lists loaded while the generation advanced are
+ * removed again, so that no eviction is lost to a load that read the old state.
+ */
+@Component
+public class UserCache {
+    private static final String ALL_KEY = "all";
+
+    private final Cache<UUID, User> usersById;
+    private final Cache<String, List<User>> allUsers;
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserCache(UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.expireAfterWrite())
+                .recordStats()
+                .build();
+        this.allUsers = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(properties.expireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users");
+        CaffeineCacheMetrics.monitor(meterRegistry, allUsers, "users.all");
+    }
+
+    @NonNull
+    public Optional<User> get(@NonNull UUID id, @NonNull Function<UUID, Optional<User>> loader) {
+        long loadedGeneration = generation.get();
+        // absent users are not cached (a null result is not stored), so that users created on another node are found
+        // immediately
+        User user = usersById.get(id, key -> loader.apply(key).map(UserCache::copyOf).orElse(null));
+        if (user != null && generation.get() != loadedGeneration) {
+            usersById.invalidate(id);
+        }
+        return Optional.ofNullable(user).map(UserCache::copyOf);
+    }
+
+    @NonNull
+    public List<User> getAll(@NonNull Collection<UUID> ids, @NonNull Function<Set<UUID>, List<User>> loader) {
+        Map<UUID, User> cachedUsers = usersById.getAllPresent(ids);
+        Set<UUID> missingIds = new HashSet<>(ids);
+        missingIds.removeAll(cachedUsers.keySet());
+        List<User> users = new ArrayList<>(ids.size());
+        cachedUsers.values().forEach(user -> users.add(copyOf(user)));
+        if (!missingIds.isEmpty()) {
+            long loadedGeneration = generation.get();
+            List<User> loadedUsers = loader.apply(missingIds); // one query for all misses
+            loadedUsers.forEach(this::put);
+            if (generation.get() != loadedGeneration) {
+                usersById.invalidateAll(missingIds);
+            }
+            users.addAll(loadedUsers);
+        }
+        return users;
+    }
+
+    @NonNull
+    public List<User> getAll(@NonNull Supplier<List<User>> loader) {
+        long loadedGeneration = generation.get();
+        List<User> users = allUsers.get(ALL_KEY, key -> loader.get().stream().map(UserCache::copyOf).toList());
+        if (generation.get() != loadedGeneration) {
+            allUsers.invalidateAll();
+        }
+        return users.stream()
+                .map(UserCache::copyOf)
+                .toList();
+    }
+
+    /**
+     * Evicts the user with the given ID now and, if a transaction is active, again after it has completed, so that
+     * concurrent readers cannot put back the old state while the transaction is in flight.
+     */
+    public void evict(@Nullable UUID id) {
+        runNowAndAfterCompletion(() -> invalidate(id == null ? Set.of() : Set.of(id)));
+    }
+
+    /**
+     * Evicts all users now and, if a transaction is active, again after it has completed.
+     */
+    public void evictAll() {
+        runNowAndAfterCompletion(() -> invalidate(null));
+    }
+
+    /**
+     * Evicts users changed by this or another node, see {@link EventNotificationListener}.
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.affects(User.class)) {
+            invalidate(event.id() == null ? null : Set.of(event.id()));
+        }
+    }
+
+    private void invalidate(@Nullable Set<UUID> ids) { // all users if the IDs are null, the list of all users always
+        generation.incrementAndGet(); // before the entries are removed, so that loads in flight see it afterward
+        if (ids == null) {
+            usersById.invalidateAll();
+        } else {
+            usersById.invalidateAll(ids);
+        }
+        allUsers.invalidateAll();
+    }
+
+    private void put(User user) {
+        if (user.getId() != null) {
+            usersById.put(user.getId(), copyOf(user));
+        }
+    }
+
+    private static void runNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User(user.getName());
+        copy.setId(user.getId());
+        copy.setCreatedAt(user.getCreatedAt());
+        return copy;
+    }
+}
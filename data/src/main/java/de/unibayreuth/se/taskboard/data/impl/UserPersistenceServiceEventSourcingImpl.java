@@ -1,46 +1,56 @@
 package de.unibayreuth.se.taskboard.data.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
 import de.unibayreuth.se.taskboard.business.domain.User;
 import de.unibayreuth.se.taskboard.business.exceptions.DuplicateNameException;
 import de.unibayreuth.se.taskboard.business.exceptions.UserNotFoundException;
 import de.unibayreuth.se.taskboard.business.ports.UserPersistenceService;
+import de.unibayreuth.se.taskboard.data.config.ReplicaRoutingDataSource;
 import de.unibayreuth.se.taskboard.data.mapper.UserEntityMapper;
 import de.unibayreuth.se.taskboard.data.persistence.*;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
+@Profile("!in-memory")
 @RequiredArgsConstructor
-@Primary
 public class UserPersistenceServiceEventSourcingImpl implements UserPersistenceService {
+    private static final int MAX_ATTEMPTS = 3;
+
     private final UserRepository userRepository;
-    private final UserEntityMapper userEntityMapper;
     private final EventRepository eventRepository;
-    private final ObjectMapper objectMapper;
+    private final UserEntityMapper userEntityMapper;
+    private final EventAppender eventAppender;
+    private final EventCodecs eventCodecs;
+    private final UserCache userCache;
 
     @Override
     public void clear() {
-        userRepository.findAll()
-                .forEach(userEntity -> eventRepository.saveAndFlush(
-                        EventEntity.deleteEventOf(userEntityMapper.fromEntity(userEntity), null))
-                );
-        if (userRepository.count() != 0) {
-            throw new IllegalStateException("Tasks not successfully deleted.");
-        }
+        // one batched INSERT of delete events, the triggers remove the users
+        eventAppender.append(ReplicaRoutingDataSource.onPrimary(userRepository::findAllIds).stream()
+                .map(id -> EventEntity.deleteEventOf(User.class, id, null, eventCodecs.writer()))
+                .toList());
+        userCache.evictAll();
     }
 
     @NonNull
     @Override
+    @Transactional(readOnly = true)
     public List<User> getAll() {
         return userRepository.findAll().stream()
                 .map(userEntityMapper::fromEntity)
@@ -49,6 +59,19 @@ public class UserPersistenceServiceEventSourcingImpl implements UserPersistenceS
 
     @NonNull
     @Override
+    @Transactional(readOnly = true)
+    public List<User> getPage(@Nullable Cursor after, int limit) {
+        List<UserEntity> page = after == null
+                ? userRepository.findAllByOrderByCreatedAtAscIdAsc(Limit.of(limit))
+                : userRepository.findPageAfter(after.timestamp(), after.id(), Limit.of(limit));
+        return page.stream()
+                .map(userEntityMapper::fromEntity)
+                .toList();
+    }
+
+    @NonNull
+    @Override
+    @Transactional(readOnly = true)
     public Optional<User> getById(UUID id) {
         return userRepository.findById(id)
                 .map(userEntityMapper::fromEntity);
@@ -56,31 +79,68 @@ public class UserPersistenceServiceEventSourcingImpl implements UserPersistenceS
 
     @NonNull
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public List<User> getByIds(@NonNull Collection<UUID> ids) {
+        return userRepository.findAllById(ids).stream() // single "IN" query
+                .map(userEntityMapper::fromEntity)
+                .toList();
+    }
+
+    @NonNull
+    @Override
+    @Transactional(readOnly = true)
+    public Revision getRevision() {
+        return Revision.of(null, eventRepository.findFeedRevision(User.class.getSimpleName()));
+    }
+
+    @NonNull
+    @Override
     public User upsert(User user) throws UserNotFoundException, DuplicateNameException {
+        // the event is the only write, the triggers on the events table apply it to the users table
         if (user.getId() == null) {
-            // Create a new user
-            if (userRepository.existsByName(user.getName())) {
-                throw new DuplicateNameException("User with name " + user.getName() + " already exists.");
-            }
+            // Create a new user (the unique constraint on the name rejects duplicates)
             user.setId(UUID.randomUUID());
             user.setCreatedAt(LocalDateTime.now(ZoneId.of("UTC")));
-            UserEntity userEntity = userEntityMapper.toEntity(user);
-            UserEntity savedEntity = userRepository.saveAndFlush(userEntity);
 
             // Log the INSERT event
-            eventRepository.saveAndFlush(EventEntity.insertEventOf(user, null, objectMapper));
-            return userEntityMapper.fromEntity(savedEntity);
+            appendEvent(() -> EventEntity.insertEventOf(user, null, eventCodecs.writer()), user);
+            userCache.evict(null); // the list of all users changes
+            return user;
         }
 
-        // Update an existing user
-        UserEntity existingUserEntity = userRepository.findById(user.getId())
+        // read the fields the client does not send (createdAt) before, the event may be written asynchronously
+        UserEntity current = userRepository.findById(user.getId())
                 .orElseThrow(() -> new UserNotFoundException("User with ID " + user.getId() + " does not exist."));
-        existingUserEntity.setName(user.getName());
-        UserEntity updatedEntity = userRepository.saveAndFlush(existingUserEntity);
+        user.setCreatedAt(current.getCreatedAt());
+
+        // Log the UPDATE event (the trigger fails if the user was deleted in the meantime)
+        appendEvent(() -> EventEntity.updateEventOf(user, null, eventCodecs.writer()), user);
+        userCache.evict(user.getId());
+        return user;
+    }
 
-        // Log the UPDATE event
-        eventRepository.saveAndFlush(EventEntity.updateEventOf(user, null, objectMapper));
-        return userEntityMapper.fromEntity(updatedEntity);
+    private void appendEvent(Supplier<EventEntity> event, User user) throws UserNotFoundException,
+            DuplicateNameException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                eventAppender.append(List.of(event.get())); // a new event per attempt, the failed one has an ID
+                return;
+            } catch (DataAccessException e) {
+                if (SqlStates.isVersionConflict(e) && attempt < MAX_ATTEMPTS) {
+                    continue; // a concurrent change took the next version first, users are updated unconditionally
+                }
+                throw translate(e, user);
+            }
+        }
+    }
+
+    private RuntimeException translate(DataAccessException e, User user) {
+        if (SqlStates.hasSqlState(e, SqlStates.NO_DATA_FOUND)) {
+            return new UserNotFoundException("User with ID " + user.getId() + " does not exist.");
+        }
+        if (SqlStates.hasSqlState(e, SqlStates.UNIQUE_VIOLATION) && !SqlStates.isVersionConflict(e)) {
+            return new DuplicateNameException("User with name " + user.getName() + " already exists.");
+        }
+        return e;
     }
 }
@@ -8,9 +8,14 @@ import de.unibayreuth.se.taskboard.data.mapper.UserEntityMapper;
 import de.unibayreuth.se.taskboard.data.persistence.UserEntity;
 import de.unibayreuth.se.taskboard.data.persistence.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,6 +24,7 @@ import java.util.UUID;
  * Database-based implementation of the user persistence service that the business layer provides as a port.
  */
 @Service
+@Profile("!in-memory")
 @RequiredArgsConstructor
 public class UserPersistenceServiceImpl implements UserPersistenceService {
     private final UserRepository repository;
@@ -32,6 +38,7 @@ public class UserPersistenceServiceImpl implements UserPersistenceService {
 
     @Override
     @NonNull
+    @Transactional(readOnly = true)
     public List<User> getAll() {
         return repository.findAll().stream()
                 .map(mapper::fromEntity)
@@ -40,11 +47,40 @@ public class UserPersistenceServiceImpl implements UserPersistenceService {
 
     @Override
     @NonNull
+    @Transactional(readOnly = true)
+    public List<User> getPage(@Nullable Cursor after, int limit) {
+        List<UserEntity> page = after == null
+                ? repository.findAllByOrderByCreatedAtAscIdAsc(Limit.of(limit))
+                : repository.findPageAfter(after.timestamp(), after.id(), Limit.of(limit));
+        return page.stream()
+                .map(mapper::fromEntity)
+                .toList();
+    }
+
+    @Override
+    @NonNull
+    @Transactional(readOnly = true)
     public Optional<User> getById(UUID id) {
         return repository.findById(id)
                 .map(mapper::fromEntity);
     }
 
+    @Override
+    @NonNull
+    @Transactional(readOnly = true)
+    public List<User> getByIds(@NonNull Collection<UUID> ids) {
+        return repository.findAllById(ids).stream() // single "IN" query
+                .map(mapper::fromEntity)
+                .toList();
+    }
+
+    @Override
+    @NonNull
+    @Transactional(readOnly = true)
+    public Revision getRevision() {
+        return Revision.of(null, repository.findSnapshot());
+    }
+
     @Override
     @NonNull
     public User upsert(User user) throws UserNotFoundException, DuplicateNameException {
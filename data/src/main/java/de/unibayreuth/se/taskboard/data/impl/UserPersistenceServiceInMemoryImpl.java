@@ -0,0 +1,232 @@
+package de.unibayreuth.se.taskboard.data.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.Revision;
+import de.unibayreuth.se.taskboard.business.domain.User;
+import de.unibayreuth.se.taskboard.business.exceptions.DuplicateNameException;
+import de.unibayreuth.se.taskboard.business.exceptions.UserNotFoundException;
+import de.unibayreuth.se.taskboard.business.ports.UserPersistenceService;
+import de.unibayreuth.se.taskboard.data.config.InMemoryProperties;
+import de.unibayreuth.se.taskboard.data.mapper.UserEntityMapper;
+import de.unibayreuth.se.taskboard.data.persistence.ChangeType;
+import de.unibayreuth.se.taskboard.data.persistence.UserEntity;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory implementation of the user persistence service for the {@code in-memory} profile, which needs no database.
+ * Like {@link TaskPersistenceServiceInMemoryImpl}, the users are kept in a concurrent map with a sorted index for the
+ * pages, read without locks, and written under the lock of their stripe after the change was journaled. Names are
+ * claimed atomically in a map of their own, which replaces the unique constraint. Deleted users are removed from their
+ * tasks by updates of the tasks.
+ */
+@Service
+@Profile("in-memory")
+public class UserPersistenceServiceInMemoryImpl implements UserPersistenceService {
+    private static final Comparator<Cursor> KEY_ORDER = Comparator.comparing(Cursor::timestamp)
+            .thenComparing(Cursor::id);
+
+    private final InMemoryJournal journal;
+    private final TaskPersistenceServiceInMemoryImpl taskPersistenceService;
+    private final UserEntityMapper userEntityMapper;
+    private final ObjectMapper objectMapper;
+    private final LockStripes stripes;
+    private final String instanceId = UUID.randomUUID().toString(); // revisions of another process never match
+
+    private final ConcurrentMap<UUID, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, UUID> idsByName = new ConcurrentHashMap<>();
+    private final NavigableSet<Cursor> byCreatedAt = new ConcurrentSkipListSet<>(KEY_ORDER);
+    private final AtomicLong changeCount = new AtomicLong();
+
+    public UserPersistenceServiceInMemoryImpl(InMemoryJournal journal,
+                                              TaskPersistenceServiceInMemoryImpl taskPersistenceService,
+                                              UserEntityMapper userEntityMapper, ObjectMapper objectMapper,
+                                              InMemoryProperties properties) {
+        this.journal = journal;
+        this.taskPersistenceService = taskPersistenceService;
+        this.userEntityMapper = userEntityMapper;
+        this.objectMapper = objectMapper;
+        this.stripes = new LockStripes(properties.lockStripes());
+    }
+
+    @Override
+    public void clear() {
+        List<UUID> ids = List.copyOf(users.keySet());
+        stripes.withLocks(ids, () -> {
+            LocalDateTime changedAt = LocalDateTime.now(ZoneId.of("UTC"));
+            journal.append(ids.stream()
+                    .map(id -> new InMemoryJournal.Entry(ChangeType.DELETE, User.class.getSimpleName(), changedAt,
+                            id, null))
+                    .toList());
+            ids.forEach(id -> store(id, null));
+            return null;
+        });
+        taskPersistenceService.unassign(ids); // journaled as updates of the tasks, which a replay applies
+    }
+
+    @NonNull
+    @Override
+    public List<User> getAll() {
+        return users.values().stream()
+                .map(UserPersistenceServiceInMemoryImpl::copyOf)
+                .toList();
+    }
+
+    @NonNull
+    @Override
+    public List<User> getPage(@Nullable Cursor after, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        for (Cursor key : after == null ? byCreatedAt : byCreatedAt.tailSet(after, false)) {
+            if (page.size() == limit) {
+                break;
+            }
+            User user = users.get(key.id());
+            if (user != null) {
+                page.add(copyOf(user));
+            }
+        }
+        return page;
+    }
+
+    @NonNull
+    @Override
+    public Optional<User> getById(UUID id) {
+        return Optional.ofNullable(users.get(id))
+                .map(UserPersistenceServiceInMemoryImpl::copyOf);
+    }
+
+    @NonNull
+    @Override
+    public List<User> getByIds(@NonNull Collection<UUID> ids) {
+        return ids.stream()
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(UserPersistenceServiceInMemoryImpl::copyOf)
+                .toList();
+    }
+
+    @NonNull
+    @Override
+    public Revision getRevision() {
+        return Revision.of(null, instanceId, changeCount.get());
+    }
+
+    @NonNull
+    @Override
+    public User upsert(User user) throws UserNotFoundException, DuplicateNameException {
+        if (user.getId() == null) {
+            // Create a new user
+            user.setId(UUID.randomUUID());
+            user.setCreatedAt(LocalDateTime.now(ZoneId.of("UTC")));
+            return stripes.withLock(user.getId(), () -> {
+                write(ChangeType.INSERT, user);
+                return user;
+            });
+        }
+
+        return stripes.withLock(user.getId(), () -> {
+            User current = users.get(user.getId());
+            if (current == null) {
+                throw new UserNotFoundException("User with ID " + user.getId() + " does not exist.");
+            }
+            user.setCreatedAt(current.getCreatedAt());
+            write(ChangeType.UPDATE, user);
+            return user;
+        });
+    }
+
+    /**
+     * Runs the provided action while no user is written.
+     */
+    <T> T exclusively(@NonNull Supplier<T> action) {
+        return stripes.withAllLocks(action);
+    }
+
+    /**
+     * Removes all users, to replay the journal.
+     */
+    void reset() {
+        users.clear();
+        idsByName.clear();
+        byCreatedAt.clear();
+        changeCount.set(0);
+    }
+
+    /**
+     * Applies a change of the journal (see {@link ProjectionPersistenceServiceInMemoryImpl}).
+     */
+    void replay(@NonNull InMemoryJournal.Entry entry) {
+        User user = entry.body() == null ? null : userEntityMapper.fromEntity(objectMapper.convertValue(entry.body(),
+                UserEntity.class));
+        if (user != null) {
+            idsByName.put(user.getName(), user.getId());
+        }
+        store(entry.id(), user);
+    }
+
+    /**
+     * Claims the name, journals the change, and applies it. The caller holds the lock of the user.
+     */
+    private void write(ChangeType type, User user) throws DuplicateNameException {
+        UUID owner = idsByName.putIfAbsent(user.getName(), user.getId());
+        if (owner != null && !owner.equals(user.getId())) {
+            throw new DuplicateNameException("User with name " + user.getName() + " already exists.");
+        }
+        User stored = copyOf(user);
+        try {
+            journal.append(List.of(new InMemoryJournal.Entry(type, User.class.getSimpleName(),
+                    LocalDateTime.now(ZoneId.of("UTC")), user.getId(),
+                    objectMapper.valueToTree(userEntityMapper.toEntity(stored)))));
+        } catch (RuntimeException e) {
+            if (owner == null) {
+                idsByName.remove(user.getName(), user.getId());
+            }
+            throw e;
+        }
+        store(user.getId(), stored);
+    }
+
+    /**
+     * Replaces the previous state of a user, releasing a previous name.
+     */
+    private void store(UUID id, @Nullable User user) {
+        User previous = user == null ? users.remove(id) : users.put(id, user);
+        if (user != null) {
+            byCreatedAt.add(new Cursor(user.getCreatedAt(), id));
+        }
+        if (previous != null && (user == null || !previous.getName().equals(user.getName()))) {
+            idsByName.remove(previous.getName(), id);
+        }
+        if (user == null && previous != null) {
+            byCreatedAt.remove(new Cursor(previous.getCreatedAt(), id));
+        }
+        changeCount.incrementAndGet();
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User(user.getName());
+        copy.setId(user.getId());
+        copy.setCreatedAt(user.getCreatedAt());
+        return copy;
+    }
+}
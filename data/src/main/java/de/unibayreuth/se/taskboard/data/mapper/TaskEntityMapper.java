@@ -2,6 +2,7 @@ package de.unibayreuth.se.taskboard.data.mapper;
 
 import de.unibayreuth.se.taskboard.business.domain.Task;
 import de.unibayreuth.se.taskboard.data.persistence.TaskEntity;
+import de.unibayreuth.se.taskboard.data.persistence.TaskSearchResult;
 import org.mapstruct.Mapper;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 
@@ -10,4 +11,5 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 public interface TaskEntityMapper {
     TaskEntity toEntity(Task source);
     Task fromEntity(TaskEntity source);
+    Task fromSearchResult(TaskSearchResult source);
 }
@@ -0,0 +1,12 @@
+package de.unibayreuth.se.taskboard.data.persistence;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the archive entry of a task or user, the state after its last compacted event.
+ */
+public interface ArchivedEntity {
+    ChangeType getType(); // of the last compacted event
+    LocalDateTime getCreatedAt(); // of the last compacted event
+    String getBody();
+}
@@ -0,0 +1,33 @@
+package de.unibayreuth.se.taskboard.data.persistence;
+
+import de.unibayreuth.se.taskboard.business.domain.Identifiable;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Format in which events store the state of their task or user. The entity version of an event identifies the codec
+ * that wrote it, so that events of all formats can be read regardless of the configured one; the database decodes them
+ * the same way for the projections (see {@code V17__project_binary_events_from_typed_columns.sql}).
+ */
+public interface EventCodec {
+    /**
+     * Entity version of the events written by this codec.
+     */
+    long entityVersion();
+
+    /**
+     * Sets the entity version and the state of the entity on an INSERT or UPDATE event.
+     */
+    void encode(EventEntity event, Identifiable entity);
+
+    /**
+     * Sets the entity version and the ID of the deleted entity on a DELETE event.
+     */
+    void encodeDeletion(EventEntity event, UUID id);
+
+    /**
+     * Returns the state of an event of this codec in the JSON format, including the version of tasks.
+     */
+    Map<String, Object> decode(EventEntity event);
+}
@@ -1,15 +1,14 @@
 package de.unibayreuth.se.taskboard.data.persistence;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import de.unibayreuth.se.taskboard.business.domain.Identifiable;
 import jakarta.persistence.*;
 import jakarta.persistence.Table;
 import lombok.*;
 import org.hibernate.annotations.*;
 import org.hibernate.type.SqlTypes;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Map;
 import java.util.UUID;
 
@@ -22,6 +21,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "events")
+@Immutable // events are append-only, no dirty checking of the JSON body on flush
 @Builder(toBuilder = true)
 public class EventEntity {
     /**
@@ -43,11 +43,35 @@ public class EventEntity {
     private String entity;
 
     /**
-     * Version of the entity.
+     * Version of the entity format, which selects the {@link EventCodec} of the body or payload.
      */
     @Column(name = "entity_version")
     private Long entityVersion;
 
+    /**
+     * ID of the task or user the event belongs to, generated by the database from the ID in the body.
+     */
+    @Column(name = "aggregate_id", insertable = false, updatable = false)
+    private UUID aggregateId;
+
+    /**
+     * Version of the task or user after the event. If set, the database rejects the event unless the version is the
+     * next one, otherwise it assigns the next one (see V14__partition_events.sql).
+     */
+    private Long version;
+
+    /**
+     * Sequence number of the event, assigned by the database on insert.
+     */
+    @Column(insertable = false, updatable = false)
+    private Long position;
+
+    /**
+     * ID of the transaction that inserted the event, assigned by the database (see V11__add_event_positions.sql).
+     */
+    @Column(name = "transaction_id", insertable = false, updatable = false)
+    private Long transactionId;
+
     /**
      * User who triggered the event.
      */
@@ -55,51 +79,66 @@ public class EventEntity {
     private UUID createdBy; // nullable as we are currently do not have authentication and hence do not know the user
 
     /**
-     * Timestamp when the event was triggered (should not be set manually but by the database on insert).
+     * Timestamp when the event was triggered, in UTC like all timestamps of the domain, so that point-in-time queries
+     * can be given in API time.
      */
     @Column(name = "created_at", updatable = false)
-    @CreationTimestamp
     private LocalDateTime createdAt;
 
     /**
-     * This is the payload of the event stored as binary json.
+     * This is the payload of the event stored as binary json, null if it is stored in the binary payload.
      */
     @JdbcTypeCode(SqlTypes.JSON)
     private Map<String, Object> body;
 
+    /**
+     * Compact binary payload of the event, null if it is stored in the JSON body (see {@link EventCodec}).
+     */
+    private byte[] payload;
+
     public static EventEntity insertEventOf(Identifiable entity,
                                             UUID userId,
-                                            ObjectMapper objectMapper) {
-        return EventEntity.builder()
+                                            EventCodec codec) {
+        EventEntity event = EventEntity.builder()
                 .type(ChangeType.INSERT)
                 .entity(entity.getClass().getSimpleName()) // to keep it readable, we're not using the FQN
-                .entityVersion(entity.getSerialVersionUID())
                 .createdBy(userId)
-                .body(objectMapper.convertValue(entity, new TypeReference<>() { })) // convert to Map<String, Object>
+                .createdAt(LocalDateTime.now(ZoneId.of("UTC")))
                 .build();
+        codec.encode(event, entity);
+        return event;
     }
 
     public static EventEntity deleteEventOf(Identifiable entity,
-                                            UUID userId) {
-        return EventEntity.builder()
+                                            UUID userId,
+                                            EventCodec codec) {
+        return deleteEventOf(entity.getClass(), entity.getId(), userId, codec);
+    }
+
+    public static EventEntity deleteEventOf(Class<? extends Identifiable> entityType,
+                                            UUID id,
+                                            UUID userId,
+                                            EventCodec codec) {
+        EventEntity event = EventEntity.builder()
                 .type(ChangeType.DELETE)
-                .entity(entity.getClass().getSimpleName())
-                .entityVersion(entity.getSerialVersionUID())
+                .entity(entityType.getSimpleName())
                 .createdBy(userId)
-                .body(Map.of("id", String.valueOf(entity.getId())))
+                .createdAt(LocalDateTime.now(ZoneId.of("UTC")))
                 .build();
+        codec.encodeDeletion(event, id);
+        return event;
     }
 
     public static EventEntity updateEventOf(Identifiable entity,
                                             UUID userId,
-                                            ObjectMapper objectMapper) {
-        return EventEntity.builder()
+                                            EventCodec codec) {
+        EventEntity event = EventEntity.builder()
                 .type(ChangeType.UPDATE)
                 .entity(entity.getClass().getSimpleName()) // to keep it readable, we're not using the FQN
-                .entityVersion(entity.getSerialVersionUID())
                 .createdBy(userId)
-                .body(objectMapper.convertValue(entity, new TypeReference<>() { })) // convert to Map<String, Object>
+                .createdAt(LocalDateTime.now(ZoneId.of("UTC")))
                 .build();
+        codec.encode(event, entity);
+        return event;
     }
 }
-
@@ -1,11 +1,67 @@
 package de.unibayreuth.se.taskboard.data.persistence;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface EventRepository extends JpaRepository<EventEntity, UUID> {
+    // backed by the index on (entity, aggregate_id, created_at) of every partition, which covers both event formats
+    @Query(value = "select * from events where entity = :entity and aggregate_id = :id order by created_at, id",
+            nativeQuery = true)
+    List<EventEntity> findHistory(String entity, UUID id);
 
-}
\ No newline at end of file
+    // state after the compacted events of an entity, see V14__partition_events.sql
+    @Query(value = """
+            select last_event_type as type, last_event_created_at as "createdAt", cast(body as text) as body
+            from event_archive
+            where entity = :entity and id = :id""", nativeQuery = true)
+    Optional<ArchivedEntity> findArchived(String entity, UUID id);
+
+    // whether the events up to asOf were already compacted, so that their state is no longer known
+    @Query(value = "select exists (select 1 from archived_event_ranges where range_end > :asOf)", nativeQuery = true)
+    boolean isArchived(LocalDateTime asOf);
+
+    // bodies of all entities of a type after the events up to asOf, folded from the latest snapshot before asOf
+    @Query(value = "select cast(f.body as text) from fn_fold_as_of(:asOf, "
+            + "cast('ffffffff-ffff-ffff-ffff-ffffffffffff' as uuid)) f where f.entity = :entity", nativeQuery = true)
+    List<String> findBodiesAsOf(String entity, LocalDateTime asOf);
+
+    // change feed in (transaction_id, position) order, backed by the index from V11__add_event_positions.sql; only the
+    // events of transactions older than the oldest running one, which cannot be followed by earlier events any more
+    @Query(value = """
+            select * from events
+            where (transaction_id, position) > (:afterTransactionId, :afterPosition)
+              and transaction_id < cast(cast(pg_snapshot_xmin(pg_current_snapshot()) as text) as bigint)
+            order by transaction_id, position
+            limit :limit""", nativeQuery = true)
+    List<EventEntity> findFeedAfter(long afterTransactionId, long afterPosition, int limit);
+
+    @Query(value = """
+            select * from events
+            where transaction_id < cast(cast(pg_snapshot_xmin(pg_current_snapshot()) as text) as bigint)
+            order by transaction_id desc, position desc
+            limit 1""", nativeQuery = true)
+    Optional<EventEntity> findFeedHead();
+
+    // state of all tasks or users, without the writes to other tables or databases: the last event of the entity in
+    // the feed (see findFeedHead) and the number of committed events after it, which only grows until they become part
+    // of the feed and the head moves (so that a revision can change once more after a write that overlapped with a
+    // longer transaction, but never stays the same across a write); both are range scans of the index from
+    // V11__add_event_positions.sql
+    @Query(value = """
+            select coalesce((select e.transaction_id || ':' || e.position
+                             from events e
+                             where e.entity = :entity and e.transaction_id < x.xmin
+                             order by e.transaction_id desc, e.position desc
+                             limit 1), '')
+                   || '+' || (select count(*) from events e where e.entity = :entity and e.transaction_id >= x.xmin)
+            from (select cast(cast(pg_snapshot_xmin(pg_current_snapshot()) as text) as bigint) as xmin) x""",
+            nativeQuery = true)
+    String findFeedRevision(String entity);
+}
@@ -0,0 +1,41 @@
+package de.unibayreuth.se.taskboard.data.persistence;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unibayreuth.se.taskboard.business.domain.Identifiable;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stores a full copy of the entity as JSONB in the body, the default format.
+ */
+@RequiredArgsConstructor
+public class JsonEventCodec implements EventCodec {
+    public static final long ENTITY_VERSION = 1; // serialVersionUID of the domain classes when the format was introduced
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public long entityVersion() {
+        return ENTITY_VERSION;
+    }
+
+    @Override
+    public void encode(EventEntity event, Identifiable entity) {
+        event.setEntityVersion(ENTITY_VERSION);
+        event.setBody(objectMapper.convertValue(entity, new TypeReference<>() { })); // convert to Map<String, Object>
+    }
+
+    @Override
+    public void encodeDeletion(EventEntity event, UUID id) {
+        event.setEntityVersion(ENTITY_VERSION);
+        event.setBody(Map.of("id", String.valueOf(id)));
+    }
+
+    @Override
+    public Map<String, Object> decode(EventEntity event) {
+        return event.getBody();
+    }
+}
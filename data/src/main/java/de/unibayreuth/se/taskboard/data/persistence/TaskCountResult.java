@@ -0,0 +1,14 @@
+package de.unibayreuth.se.taskboard.data.persistence;
+
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+
+import java.util.UUID;
+
+/**
+ * Projection of a task counter.
+ */
+public interface TaskCountResult {
+    TaskStatus getStatus();
+    UUID getAssigneeId();
+    long getCount();
+}
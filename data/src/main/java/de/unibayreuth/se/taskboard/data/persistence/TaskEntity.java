@@ -36,4 +36,6 @@ public class TaskEntity {
 
     @Column(name = "assignee_id")
     private UUID assigneeId; // deliberately not using a @ManyToOne relationship here to decouple the entities
+
+    private Long version; // version of the latest event of the task, no @Version as the events table checks it
 }
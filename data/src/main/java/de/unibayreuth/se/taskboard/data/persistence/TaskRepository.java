@@ -1,15 +1,79 @@
 package de.unibayreuth.se.taskboard.data.persistence;
 
 import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for persisting tasks.
  */
-public interface TaskRepository extends JpaRepository<TaskEntity, UUID> {
+public interface TaskRepository extends JpaRepository<TaskEntity, UUID>, JpaSpecificationExecutor<TaskEntity> {
     List<TaskEntity> findByStatus(TaskStatus status);
     List<TaskEntity> findByAssigneeId(UUID userId);
+    Optional<TaskRevision> findRevisionById(UUID id);
+    List<TaskRevision> findRevisionsByIdIn(Collection<UUID> ids);
+
+    @Query("select t.id from TaskEntity t")
+    List<UUID> findAllIds();
+
+    // must be consumed inside a (read-only) transaction, otherwise Postgres ignores the fetch size and loads all rows
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from TaskEntity t")
+    Stream<TaskEntity> streamAll();
+
+    // keyset pagination on (updated_at, id), backed by the indexes from V3__add_pagination_indexes.sql
+    List<TaskEntity> findAllByOrderByUpdatedAtAscIdAsc(Limit limit);
+
+    @Query("select t from TaskEntity t where (t.updatedAt, t.id) > (:updatedAt, :id) order by t.updatedAt, t.id")
+    List<TaskEntity> findPageAfter(LocalDateTime updatedAt, UUID id, Limit limit);
+
+    List<TaskEntity> findByStatusOrderByUpdatedAtAscIdAsc(TaskStatus status, Limit limit);
+
+    @Query("select t from TaskEntity t where t.status = :status and (t.updatedAt, t.id) > (:updatedAt, :id) order by t.updatedAt, t.id")
+    List<TaskEntity> findPageByStatusAfter(TaskStatus status, LocalDateTime updatedAt, UUID id, Limit limit);
+
+    List<TaskEntity> findByAssigneeIdOrderByUpdatedAtAscIdAsc(UUID userId, Limit limit);
+
+    @Query("select t from TaskEntity t where t.assigneeId = :userId and (t.updatedAt, t.id) > (:updatedAt, :id) order by t.updatedAt, t.id")
+    List<TaskEntity> findPageByAssigneeIdAfter(UUID userId, LocalDateTime updatedAt, UUID id, Limit limit);
+
+    // full-text search ranked by relevance with keyset pagination on (rank, id) descending, backed by the GIN index from
+    // V8__add_task_search.sql; status and assignee are optional filters, the cursor is optional as well
+    @Query(value = """
+            select t.id, t.created_at as "createdAt", t.updated_at as "updatedAt", t.title, t.description, t.status,
+                   t.assignee_id as "assigneeId", t.version, ts_rank_cd(t.search_vector, q.query) as rank
+            from tasks t, websearch_to_tsquery('english', :query) q(query)
+            where t.search_vector @@ q.query
+              and (cast(:status as varchar) is null or t.status = cast(:status as varchar))
+              and (cast(:assigneeId as uuid) is null or t.assignee_id = cast(:assigneeId as uuid))
+              and (cast(:afterRank as real) is null
+                   or (ts_rank_cd(t.search_vector, q.query), t.id) < (cast(:afterRank as real), cast(:afterId as uuid)))
+            order by rank desc, t.id desc
+            limit :limit""", nativeQuery = true)
+    List<TaskSearchResult> search(String query, String status, UUID assigneeId, Float afterRank, UUID afterId, int limit);
+
+    // state of all tasks without the events: every insert and delete changes the count, every update the sum of the
+    // versions, and the latest change time tells apart a deletion and an insertion between two requests
+    @Query(value = "select count(*) || ':' || coalesce(sum(t.version), 0) || ':' || coalesce(cast(max(t.updated_at) "
+            + "as text), '') from tasks t", nativeQuery = true)
+    String findListRevision();
+
+    // counters maintained by the triggers from V12__add_task_counters.sql, read in one snapshot
+    @Query(value = "select c.status, c.assignee_id as \"assigneeId\", c.count from task_counts c", nativeQuery = true)
+    List<TaskCountResult> findCounts();
 }
@@ -0,0 +1,14 @@
+package de.unibayreuth.se.taskboard.data.persistence;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection of the columns of a task that change with its content.
+ */
+public interface TaskRevision {
+    UUID getId();
+    long getVersion();
+    LocalDateTime getUpdatedAt();
+    UUID getAssigneeId(); // unset by ON DELETE SET NULL without a new version if the users are not event-sourced
+}
@@ -0,0 +1,21 @@
+package de.unibayreuth.se.taskboard.data.persistence;
+
+import de.unibayreuth.se.taskboard.business.domain.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection of a task that matches a full-text search, with its relevance.
+ */
+public interface TaskSearchResult {
+    UUID getId();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+    String getTitle();
+    String getDescription();
+    TaskStatus getStatus();
+    UUID getAssigneeId();
+    Long getVersion();
+    float getRank();
+}
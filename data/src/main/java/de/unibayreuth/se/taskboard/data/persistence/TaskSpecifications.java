@@ -0,0 +1,47 @@
+package de.unibayreuth.se.taskboard.data.persistence;
+
+import de.unibayreuth.se.taskboard.business.domain.Cursor;
+import de.unibayreuth.se.taskboard.business.domain.TaskQuery;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates task queries into one statement that is sorted by (updated_at, id) for keyset pagination. Every
+ * combination of criteria is backed by an index from V3__add_pagination_indexes.sql or V9__add_task_query_indexes.sql.
+ */
+public final class TaskSpecifications {
+    public static final Sort KEYSET_ORDER = Sort.by("updatedAt", "id");
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<TaskEntity> matching(@NonNull TaskQuery query, @Nullable Cursor after) {
+        return (root, criteriaQuery, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (query.status() != null) {
+                predicates.add(builder.equal(root.get("status"), query.status()));
+            }
+            if (query.assigneeId() != null) {
+                predicates.add(builder.equal(root.get("assigneeId"), query.assigneeId()));
+            }
+            if (query.updatedSince() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("updatedAt"), query.updatedSince()));
+            }
+            if (after != null) {
+                // (updated_at, id) > (:updatedAt, :id), with the first column separately as index range condition
+                predicates.add(builder.greaterThanOrEqualTo(root.get("updatedAt"), after.timestamp()));
+                predicates.add(builder.or(
+                        builder.greaterThan(root.get("updatedAt"), after.timestamp()),
+                        builder.greaterThan(root.get("id"), after.id())
+                ));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -1,7 +1,11 @@
 package de.unibayreuth.se.taskboard.data.persistence;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -9,4 +13,18 @@ import java.util.UUID;
  */
 public interface UserRepository extends JpaRepository<UserEntity, UUID> {
     boolean existsByName(String name);
+
+    @Query("select u.id from UserEntity u")
+    List<UUID> findAllIds();
+
+    // keyset pagination on (created_at, id), users are never updated
+    List<UserEntity> findAllByOrderByCreatedAtAscIdAsc(Limit limit);
+
+    @Query("select u from UserEntity u where (u.createdAt, u.id) > (:createdAt, :id) order by u.createdAt, u.id")
+    List<UserEntity> findPageAfter(LocalDateTime createdAt, UUID id, Limit limit);
+
+    // visible state of this transaction, which changes with every commit (unlike the latest event, which can be
+    // committed before an earlier one)
+    @Query(value = "select cast(pg_current_snapshot() as text)", nativeQuery = true)
+    String findSnapshot();
 }
@@ -0,0 +1,221 @@
+-- Optimistic concurrency: every event carries the version of its aggregate (the task or user with the ID in the body)
+-- after the event, starting at 1 and without gaps. Two writers that read the same version write events with the same
+-- version, and the unique constraint lets only the first one commit, so no lock is held between the read and the write.
+ALTER TABLE events ADD COLUMN aggregate_id uuid GENERATED ALWAYS AS (cast(body ->> 'id' as uuid)) STORED;
+ALTER TABLE events ADD COLUMN version bigint;
+
+-- the existing events are numbered in replay order, and the state of a task includes its version
+UPDATE events e
+SET version = v.version,
+    body = case when e.entity = 'Task' and e.type <> 'DELETE'
+                    then jsonb_set(e.body, '{version}', to_jsonb(v.version))
+                else e.body
+           end
+FROM (select id, row_number() over (partition by entity, aggregate_id order by created_at, id) as version
+      from events) v
+WHERE e.id = v.id;
+
+ALTER TABLE events ALTER COLUMN version SET NOT NULL;
+-- also serves the lookup of the current version of an aggregate
+ALTER TABLE events ADD CONSTRAINT events_entity_aggregate_id_version_key UNIQUE (entity, aggregate_id, version);
+
+ALTER TABLE tasks ADD COLUMN version bigint;
+UPDATE tasks t
+SET version = coalesce((select max(e.version) from events e where e.entity = 'Task' and e.aggregate_id = t.id), 1);
+ALTER TABLE tasks ALTER COLUMN version SET NOT NULL;
+
+-- the snapshot bodies do not contain the versions, the scheduler takes a new snapshot from the events
+DELETE FROM snapshots;
+
+-- assigns the next version to events without one and rejects events whose version is not the next one (SQLSTATE 40001
+-- serialization_failure); the lookup sees the events of previous rows of the same statement, but not those of
+-- concurrent transactions, whose duplicate versions the unique constraint rejects on commit of the first one
+create or replace function fn_event_version_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+declare
+    current_version bigint;
+begin
+    -- the generated aggregate_id is not computed yet in a BEFORE trigger
+    select coalesce(max(e.version), 0) into current_version
+    from events e
+    where e.entity = new.entity and e.aggregate_id = cast(new.body ->> 'id' as uuid);
+
+    if new.version is null then
+        new.version := current_version + 1;
+    elsif new.version <> current_version + 1 then
+        raise exception '% with ID % has version %, not %.', new.entity, new.body ->> 'id', current_version,
+            new.version - 1 using errcode = 'serialization_failure';
+    end if;
+
+    if new.entity = 'Task' and new.type <> 'DELETE' then
+        new.body := jsonb_set(new.body, '{version}', to_jsonb(new.version));
+    end if;
+    return new;
+end;
+$$;
+
+-- register version trigger (runs before the projection triggers, which read the version from the body)
+create trigger events_version
+    before insert
+    on events
+    for each row
+execute procedure fn_event_version_trigger();
+
+-- TASK insert function
+create or replace function fn_task_insert(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    insert into tasks(id, title, description, status, assignee_id, created_at, updated_at, version)
+    values (cast(body ->> 'id' as uuid),
+            cast(body ->> 'title' as varchar(255)),
+            cast(body ->> 'description' as text),
+            cast(body ->> 'status' as varchar(255)),
+            cast(body ->> 'assigneeId' as uuid),
+            cast(body ->> 'createdAt' as timestamp),
+            cast(body ->> 'updatedAt' as timestamp),
+            cast(body ->> 'version' as bigint));
+end;
+$$;
+
+-- TASK update function
+create or replace function fn_task_update(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    update tasks
+    set title = cast(body ->> 'title' as varchar(255)),
+        description = cast(body ->> 'description' as text),
+        status = cast(body ->> 'status' as varchar(255)),
+        assignee_id = cast(body ->> 'assigneeId' as uuid),
+        updated_at = cast(body ->> 'updatedAt' as timestamp),
+        version = cast(body ->> 'version' as bigint)
+    where id = cast(body ->> 'id' as uuid);
+    if not found then
+        raise exception 'Task with ID % does not exist.', body ->> 'id' using errcode = 'no_data_found';
+    end if;
+end;
+$$;
+
+-- same as in V6__add_snapshots.sql, with the version of the tasks
+create or replace function fn_apply_events_folded(from_created_at timestamp, from_id uuid,
+                                                  to_created_at timestamp, to_id uuid) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    create temporary table if not exists folded_events (
+        type text not null,
+        entity text not null,
+        id uuid not null,
+        body jsonb not null,
+        created_at timestamp
+    ) on commit drop;
+    truncate folded_events;
+
+    insert into folded_events(type, entity, id, body, created_at)
+    select distinct on (e.entity, e.id) e.type, e.entity, e.id, e.body,
+           cast(max(case when e.type = 'INSERT' then e.body ->> 'createdAt' end)
+                over (partition by e.entity, e.id) as timestamp)
+    from (select e.type, e.entity, cast(e.body ->> 'id' as uuid) as id, e.body, e.created_at, e.id as event_id
+          from events e
+          where (e.created_at, e.id) > (coalesce(from_created_at, '-infinity'),
+                                        coalesce(from_id, '00000000-0000-0000-0000-000000000000'))
+            and (e.created_at, e.id) <= (to_created_at, to_id)
+            and e.entity in ('Task', 'User')) e
+    order by e.entity, e.id, e.created_at desc, e.event_id desc;
+
+    insert into users(id, created_at, name)
+    select f.id, coalesce(f.created_at, cast(f.body ->> 'createdAt' as timestamp)),
+           cast(f.body ->> 'name' as varchar(255))
+    from folded_events f
+    where f.entity = 'User' and f.type <> 'DELETE'
+    on conflict (id) do update set name = excluded.name;
+
+    delete from tasks where id in (select f.id from folded_events f where f.entity = 'Task' and f.type = 'DELETE');
+
+    insert into tasks(id, title, description, status, assignee_id, created_at, updated_at, version)
+    select f.id,
+           cast(f.body ->> 'title' as varchar(255)),
+           cast(f.body ->> 'description' as text),
+           cast(f.body ->> 'status' as varchar(255)),
+           cast(f.body ->> 'assigneeId' as uuid),
+           coalesce(f.created_at, cast(f.body ->> 'createdAt' as timestamp)),
+           cast(f.body ->> 'updatedAt' as timestamp),
+           cast(f.body ->> 'version' as bigint)
+    from folded_events f
+    where f.entity = 'Task' and f.type <> 'DELETE'
+    on conflict (id) do update set title = excluded.title,
+                                   description = excluded.description,
+                                   status = excluded.status,
+                                   assignee_id = excluded.assignee_id,
+                                   updated_at = excluded.updated_at,
+                                   version = excluded.version;
+
+    delete from users where id in (select f.id from folded_events f where f.entity = 'User' and f.type = 'DELETE');
+end;
+$$;
+
+-- same as in V6__add_snapshots.sql, with the version of the tasks
+create or replace function fn_take_snapshot(last_event_created_at timestamp, last_event_id uuid, event_count bigint)
+    returns uuid
+    security definer
+    language plpgsql
+as
+$$
+declare
+    snapshot_id uuid;
+begin
+    insert into snapshots(last_event_created_at, last_event_id, event_count)
+    values (last_event_created_at, last_event_id, event_count)
+    returning id into snapshot_id;
+
+    insert into snapshot_entries(snapshot_id, entity, id, body)
+    select snapshot_id, 'User', u.id,
+           jsonb_build_object('id', u.id, 'createdAt', u.created_at, 'name', u.name)
+    from users u;
+
+    insert into snapshot_entries(snapshot_id, entity, id, body)
+    select snapshot_id, 'Task', t.id,
+           jsonb_build_object('id', t.id, 'createdAt', t.created_at, 'updatedAt', t.updated_at, 'title', t.title,
+                              'description', t.description, 'status', t.status, 'assigneeId', t.assignee_id,
+                              'version', t.version)
+    from tasks t;
+
+    return snapshot_id;
+end;
+$$;
+
+-- same as in V6__add_snapshots.sql, with the version of the tasks
+create or replace function fn_restore_snapshot(restored_snapshot_id uuid) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    insert into users(id, created_at, name)
+    select e.id, cast(e.body ->> 'createdAt' as timestamp), cast(e.body ->> 'name' as varchar(255))
+    from snapshot_entries e
+    where e.snapshot_id = restored_snapshot_id and e.entity = 'User';
+
+    insert into tasks(id, title, description, status, assignee_id, created_at, updated_at, version)
+    select e.id,
+           cast(e.body ->> 'title' as varchar(255)),
+           cast(e.body ->> 'description' as text),
+           cast(e.body ->> 'status' as varchar(255)),
+           cast(e.body ->> 'assigneeId' as uuid),
+           cast(e.body ->> 'createdAt' as timestamp),
+           cast(e.body ->> 'updatedAt' as timestamp),
+           cast(e.body ->> 'version' as bigint)
+    from snapshot_entries e
+    where e.snapshot_id = restored_snapshot_id and e.entity = 'Task';
+end;
+$$;
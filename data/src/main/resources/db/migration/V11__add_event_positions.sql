@@ -0,0 +1,22 @@
+-- Change feed: events are read in the order (transaction_id, position), where position is a sequence number assigned on
+-- insert and transaction_id the ID of the inserting transaction. Positions alone are not enough, as a transaction can
+-- commit an event with a smaller position after a reader has already seen a larger one. Readers therefore only return
+-- the events of transactions older than the oldest running one (pg_snapshot_xmin), which can no longer change, so
+-- that a reader that continues after the last returned event never skips one.
+ALTER TABLE events ADD COLUMN position bigint;
+
+-- the existing events are numbered in replay order
+UPDATE events e
+SET position = p.position
+FROM (select id, row_number() over (order by created_at, id) as position from events) p
+WHERE e.id = p.id;
+
+ALTER TABLE events ALTER COLUMN position SET NOT NULL;
+ALTER TABLE events ALTER COLUMN position ADD GENERATED BY DEFAULT AS IDENTITY;
+SELECT setval(pg_get_serial_sequence('events', 'position'), coalesce(max(position), 0) + 1, false) FROM events;
+
+-- the existing events were committed long ago, 0 sorts them first
+ALTER TABLE events ADD COLUMN transaction_id bigint NOT NULL DEFAULT 0;
+ALTER TABLE events ALTER COLUMN transaction_id SET DEFAULT cast(cast(pg_current_xact_id() as text) as bigint);
+
+CREATE INDEX events_transaction_id_position_idx ON events (transaction_id, position);
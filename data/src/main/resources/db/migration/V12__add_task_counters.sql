@@ -0,0 +1,149 @@
+-- Board statistics: the number of tasks per status and assignee (null for unassigned tasks), maintained incrementally.
+-- Every statement that changes tasks appends its net change per counter to task_counter_deltas, which are folded into
+-- task_counters periodically (fn_compact_task_counters). Writers therefore never update a shared counter row, which
+-- would serialize all concurrent transactions that create tasks, and readers sum the counters and the few deltas.
+-- The triggers are on the tasks table, so that all writes are counted: the projection triggers of the events, the
+-- set-based replay of a rebuild, the restore of a snapshot, and ON DELETE SET NULL when an assignee is deleted.
+CREATE TABLE task_counters (
+    status varchar(255) NOT NULL,
+    assignee_id uuid,
+    count bigint NOT NULL,
+    UNIQUE NULLS NOT DISTINCT (status, assignee_id)
+);
+
+CREATE TABLE task_counter_deltas (
+    id bigint GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    status varchar(255) NOT NULL,
+    assignee_id uuid,
+    delta bigint NOT NULL
+);
+
+INSERT INTO task_counters(status, assignee_id, count)
+SELECT status, assignee_id, count(*) FROM tasks GROUP BY status, assignee_id;
+
+-- the transition tables contain all rows of the statement, e.g., all tasks of a folded batch
+create or replace function fn_task_counters_insert_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    insert into task_counter_deltas(status, assignee_id, delta)
+    select n.status, n.assignee_id, count(*) from new_tasks n group by n.status, n.assignee_id;
+    return null;
+end;
+$$;
+
+-- most updates change neither the status nor the assignee and append nothing
+create or replace function fn_task_counters_update_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    insert into task_counter_deltas(status, assignee_id, delta)
+    select c.status, c.assignee_id, sum(c.delta)
+    from (select n.status, n.assignee_id, 1 as delta from new_tasks n
+          union all
+          select o.status, o.assignee_id, -1 from old_tasks o) c
+    group by c.status, c.assignee_id
+    having sum(c.delta) <> 0;
+    return null;
+end;
+$$;
+
+create or replace function fn_task_counters_delete_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    insert into task_counter_deltas(status, assignee_id, delta)
+    select o.status, o.assignee_id, -count(*) from old_tasks o group by o.status, o.assignee_id;
+    return null;
+end;
+$$;
+
+create trigger tasks_counters_insert
+    after insert
+    on tasks
+    referencing new table as new_tasks
+    for each statement
+execute procedure fn_task_counters_insert_trigger();
+
+create trigger tasks_counters_update
+    after update
+    on tasks
+    referencing old table as old_tasks new table as new_tasks
+    for each statement
+execute procedure fn_task_counters_update_trigger();
+
+create trigger tasks_counters_delete
+    after delete
+    on tasks
+    referencing old table as old_tasks
+    for each statement
+execute procedure fn_task_counters_delete_trigger();
+
+-- current counters, consistent within the snapshot of the query
+create or replace view task_counts as
+select c.status, c.assignee_id, sum(c.count) as count
+from (select status, assignee_id, count from task_counters
+      union all
+      select status, assignee_id, delta from task_counter_deltas) c
+group by c.status, c.assignee_id
+having sum(c.count) <> 0;
+
+-- moves the committed deltas into the counters in one statement, concurrent writers keep appending new deltas; returns
+-- the number of folded deltas
+create or replace function fn_compact_task_counters() returns bigint
+    security definer
+    language plpgsql
+as
+$$
+declare
+    folded bigint;
+begin
+    with moved as (delete from task_counter_deltas returning status, assignee_id, delta),
+         summed as (select m.status, m.assignee_id, sum(m.delta) as delta, count(*) as deltas
+                    from moved m group by m.status, m.assignee_id),
+         applied as (insert into task_counters(status, assignee_id, count)
+                     select s.status, s.assignee_id, s.delta from summed s where s.delta <> 0
+                     on conflict (status, assignee_id) do update set count = task_counters.count + excluded.count)
+    select coalesce(sum(s.deltas), 0) into folded from summed s;
+
+    delete from task_counters where count = 0;
+    return folded;
+end;
+$$;
+
+-- compares the counters with a full recount within one snapshot and appends a corrective delta for every difference,
+-- so that the counters are repaired without blocking writers; returns the number of corrected counters (only one node
+-- checks at a time, otherwise both would append the same corrections)
+create or replace function fn_check_task_counters() returns bigint
+    security definer
+    language plpgsql
+as
+$$
+declare
+    corrected bigint;
+begin
+    if not pg_try_advisory_xact_lock(hashtext('task_counters')) then
+        return 0;
+    end if;
+    with recount as (select t.status, t.assignee_id, count(*) as count
+                     from tasks t group by t.status, t.assignee_id),
+         differences as (select coalesce(r.status, c.status) as status,
+                                case when r.status is null then c.assignee_id else r.assignee_id end as assignee_id,
+                                coalesce(r.count, 0) - coalesce(c.count, 0) as delta
+                         from recount r
+                                  full join task_counts c
+                                            on c.status = r.status and c.assignee_id is not distinct from r.assignee_id
+                         where coalesce(r.count, 0) <> coalesce(c.count, 0)),
+         inserted as (insert into task_counter_deltas(status, assignee_id, delta)
+                      select d.status, d.assignee_id, d.delta from differences d
+                      returning 1)
+    select count(*) into corrected from inserted;
+    return corrected;
+end;
+$$;
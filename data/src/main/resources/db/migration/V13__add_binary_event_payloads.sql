@@ -0,0 +1,346 @@
+-- Compact event encoding: besides the JSONB body (entity_version 1), events can carry their state in a binary payload
+-- with a fixed layout (entity_version 2, see BinaryEventCodec), which is decoded here, so that the projection triggers,
+-- the rebuild and the point-in-time queries read both formats. Every event has exactly one of them.
+ALTER TABLE events ALTER COLUMN body DROP NOT NULL;
+ALTER TABLE events ADD COLUMN payload bytea;
+ALTER TABLE events ADD CONSTRAINT events_body_or_payload CHECK ((body is null) <> (payload is null));
+
+-- ID of the task or user of an event, the first 16 bytes of every binary payload
+create or replace function fn_event_aggregate_id(body jsonb, payload bytea) returns uuid
+    language sql
+    immutable
+as
+$$
+select coalesce(cast(body ->> 'id' as uuid), cast(encode(substring(payload from 1 for 16), 'hex') as uuid));
+$$;
+
+-- the generation expression cannot be changed in place, the unique constraint is recreated with the column
+ALTER TABLE events DROP COLUMN aggregate_id;
+ALTER TABLE events ADD COLUMN aggregate_id uuid GENERATED ALWAYS AS (fn_event_aggregate_id(body, payload)) STORED;
+ALTER TABLE events ADD CONSTRAINT events_entity_aggregate_id_version_key UNIQUE (entity, aggregate_id, version);
+
+-- the history of an entity is looked up by aggregate_id (unique constraint), which also covers binary payloads
+DROP INDEX events_entity_body_id_created_at_idx;
+
+-- microseconds since 1970-01-01 as big-endian int8
+create or replace function fn_decode_timestamp(bytes bytea) returns timestamp
+    language sql
+    immutable
+as
+$$
+select timestamp '1970-01-01' + cast(cast('x' || encode(bytes, 'hex') as bit(64)) as bigint) * interval '1 microsecond';
+$$;
+
+-- binary payload (entity_version 2) to the JSON body of the same event; all fields are big-endian, strings UTF-8:
+--   deletions: id (16)
+--   Task:      id (16), createdAt (8), updatedAt (8), status ordinal (1), assigneeId (16, zero if unassigned),
+--              title length (4), title, description (until the end)
+--   User:      id (16), createdAt (8), name (until the end)
+-- the version of tasks is taken from the version column instead of the payload
+create or replace function fn_decode_payload(entity varchar, type varchar, version bigint, payload bytea) returns jsonb
+    language sql
+    immutable
+as
+$$
+select case
+    when type = 'DELETE' then
+        jsonb_build_object('id', cast(encode(substring(payload from 1 for 16), 'hex') as uuid))
+    when entity = 'Task' then
+        (select jsonb_build_object(
+                    'id', cast(encode(substring(payload from 1 for 16), 'hex') as uuid),
+                    'createdAt', fn_decode_timestamp(substring(payload from 17 for 8)),
+                    'updatedAt', fn_decode_timestamp(substring(payload from 25 for 8)),
+                    'status', (array ['TODO', 'DOING', 'DONE'])[get_byte(payload, 32) + 1],
+                    'assigneeId', nullif(cast(encode(substring(payload from 34 for 16), 'hex') as uuid),
+                                         '00000000-0000-0000-0000-000000000000'),
+                    'title', convert_from(substring(payload from 54 for l.title_length), 'UTF8'),
+                    'description', convert_from(substring(payload from 54 + l.title_length), 'UTF8'),
+                    'version', version)
+         from (select cast(cast('x' || encode(substring(payload from 50 for 4), 'hex') as bit(32)) as integer)
+                          as title_length) l)
+    when entity = 'User' then
+        jsonb_build_object('id', cast(encode(substring(payload from 1 for 16), 'hex') as uuid),
+                           'createdAt', fn_decode_timestamp(substring(payload from 17 for 8)),
+                           'name', convert_from(substring(payload from 25), 'UTF8'))
+end;
+$$;
+
+-- body of an event in the JSON format, the entity version selects the decoder
+create or replace function fn_event_body(e events) returns jsonb
+    language sql
+    immutable
+as
+$$
+select case e.entity_version
+    when 2 then fn_decode_payload(e.entity, e.type, e.version, e.payload)
+    else e.body
+end;
+$$;
+
+-- same as in V10__add_event_versions.sql, with the ID from either format; the version is only added to JSON bodies
+create or replace function fn_event_version_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+declare
+    current_version bigint;
+    new_aggregate_id uuid := fn_event_aggregate_id(new.body, new.payload);
+begin
+    -- the generated aggregate_id is not computed yet in a BEFORE trigger
+    select coalesce(max(e.version), 0) into current_version
+    from events e
+    where e.entity = new.entity and e.aggregate_id = new_aggregate_id;
+
+    if new.version is null then
+        new.version := current_version + 1;
+    elsif new.version <> current_version + 1 then
+        raise exception '% with ID % has version %, not %.', new.entity, new_aggregate_id, current_version,
+            new.version - 1 using errcode = 'serialization_failure';
+    end if;
+
+    if new.entity = 'Task' and new.type <> 'DELETE' and new.body is not null then
+        new.body := jsonb_set(new.body, '{version}', to_jsonb(new.version));
+    end if;
+    return new;
+end;
+$$;
+
+-- same as in V5__notify_event_inserts.sql, with the generated ID
+create or replace function fn_notify_event_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform pg_notify('taskboard_events',
+                      json_build_object('type', new.type, 'entity', new.entity, 'id', new.aggregate_id)::text);
+    return new;
+end;
+$$;
+
+-- projection triggers (V2__add_event_sourcing.sql) with the decoded body
+create or replace function fn_task_insert_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform fn_task_insert(fn_event_body(new));
+    return new;
+end;
+$$;
+
+create or replace function fn_task_update_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform fn_task_update(fn_event_body(new));
+    return new;
+end;
+$$;
+
+create or replace function fn_task_delete_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform fn_task_delete(fn_event_body(new));
+    return new;
+end;
+$$;
+
+create or replace function fn_user_insert_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform fn_user_insert(fn_event_body(new));
+    return new;
+end;
+$$;
+
+create or replace function fn_user_update_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform fn_user_update(fn_event_body(new));
+    return new;
+end;
+$$;
+
+create or replace function fn_user_delete_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform fn_user_delete(fn_event_body(new));
+    return new;
+end;
+$$;
+
+-- same as in V6__add_snapshots.sql, with the decoded body
+create or replace function fn_apply_events(from_created_at timestamp, from_id uuid,
+                                           to_created_at timestamp, to_id uuid) returns void
+    security definer
+    language plpgsql
+as
+$$
+declare
+    event record;
+begin
+    for event in
+        select e.type, e.entity, fn_event_body(e) as body
+        from events e
+        where (e.created_at, e.id) > (coalesce(from_created_at, '-infinity'),
+                                      coalesce(from_id, '00000000-0000-0000-0000-000000000000'))
+          and (e.created_at, e.id) <= (to_created_at, to_id)
+        order by e.created_at, e.id
+    loop
+        case event.entity || ':' || event.type
+            when 'Task:INSERT' then perform fn_task_insert(event.body);
+            when 'Task:UPDATE' then perform fn_task_update(event.body);
+            when 'Task:DELETE' then perform fn_task_delete(event.body);
+            when 'User:INSERT' then perform fn_user_insert(event.body);
+            when 'User:UPDATE' then perform fn_user_update(event.body);
+            when 'User:DELETE' then perform fn_user_delete(event.body);
+            else null; -- events of other entities do not affect these projections
+        end case;
+    end loop;
+end;
+$$;
+
+-- same as in V10__add_event_versions.sql, with the decoded body
+create or replace function fn_apply_events_folded(from_created_at timestamp, from_id uuid,
+                                                  to_created_at timestamp, to_id uuid) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    create temporary table if not exists folded_events (
+        type text not null,
+        entity text not null,
+        id uuid not null,
+        body jsonb not null,
+        created_at timestamp
+    ) on commit drop;
+    truncate folded_events;
+
+    insert into folded_events(type, entity, id, body, created_at)
+    select distinct on (e.entity, e.id) e.type, e.entity, e.id, e.body,
+           cast(max(case when e.type = 'INSERT' then e.body ->> 'createdAt' end)
+                over (partition by e.entity, e.id) as timestamp)
+    from (select e.type, e.entity, e.aggregate_id as id, fn_event_body(e) as body, e.created_at, e.id as event_id
+          from events e
+          where (e.created_at, e.id) > (coalesce(from_created_at, '-infinity'),
+                                        coalesce(from_id, '00000000-0000-0000-0000-000000000000'))
+            and (e.created_at, e.id) <= (to_created_at, to_id)
+            and e.entity in ('Task', 'User')) e
+    order by e.entity, e.id, e.created_at desc, e.event_id desc;
+
+    insert into users(id, created_at, name)
+    select f.id, coalesce(f.created_at, cast(f.body ->> 'createdAt' as timestamp)),
+           cast(f.body ->> 'name' as varchar(255))
+    from folded_events f
+    where f.entity = 'User' and f.type <> 'DELETE'
+    on conflict (id) do update set name = excluded.name;
+
+    delete from tasks where id in (select f.id from folded_events f where f.entity = 'Task' and f.type = 'DELETE');
+
+    insert into tasks(id, title, description, status, assignee_id, created_at, updated_at, version)
+    select f.id,
+           cast(f.body ->> 'title' as varchar(255)),
+           cast(f.body ->> 'description' as text),
+           cast(f.body ->> 'status' as varchar(255)),
+           cast(f.body ->> 'assigneeId' as uuid),
+           coalesce(f.created_at, cast(f.body ->> 'createdAt' as timestamp)),
+           cast(f.body ->> 'updatedAt' as timestamp),
+           cast(f.body ->> 'version' as bigint)
+    from folded_events f
+    where f.entity = 'Task' and f.type <> 'DELETE'
+    on conflict (id) do update set title = excluded.title,
+                                   description = excluded.description,
+                                   status = excluded.status,
+                                   assignee_id = excluded.assignee_id,
+                                   updated_at = excluded.updated_at,
+                                   version = excluded.version;
+
+    delete from users where id in (select f.id from folded_events f where f.entity = 'User' and f.type = 'DELETE');
+end;
+$$;
+
+-- same as in V7__add_history_queries.sql, with the decoded body
+create or replace function fn_fold_as_of(to_created_at timestamp, to_id uuid)
+    returns table (entity varchar, entity_id uuid, body jsonb)
+    security definer
+    language plpgsql
+    stable
+as
+$$
+#variable_conflict use_column
+declare
+    base snapshots%rowtype;
+begin
+    -- resolved first so that the snapshot entries are planned with their actual size and only the tail is hashed
+    select * into base
+    from snapshots s
+    where (s.last_event_created_at, s.last_event_id) <= (to_created_at, to_id)
+    order by s.last_event_created_at desc, s.last_event_id desc
+    limit 1;
+
+    return query
+    with tail as (
+        select distinct on (e.entity, e.id)
+               e.entity, e.id, e.type, e.body,
+               max(case when e.type = 'INSERT' then e.body ->> 'createdAt' end)
+                   over (partition by e.entity, e.id) as inserted_at
+        from (select e.entity, e.aggregate_id as id, e.type, fn_event_body(e) as body, e.created_at,
+                     e.id as event_id
+              from events e
+              where e.entity in ('Task', 'User')
+                and (e.created_at, e.id) > (coalesce(base.last_event_created_at, '-infinity'),
+                                            coalesce(base.last_event_id, '00000000-0000-0000-0000-000000000000'))
+                and (e.created_at, e.id) <= (to_created_at, to_id)) e
+        order by e.entity, e.id, e.created_at desc, e.event_id desc
+    ),
+    merged as (
+        select b.entity, b.id,
+               case
+                   when t.id is null then b.body
+                   else jsonb_set(t.body, '{createdAt}',
+                                  to_jsonb(coalesce(t.inserted_at, b.body ->> 'createdAt', t.body ->> 'createdAt')))
+               end as body
+        from snapshot_entries b
+        left join tail t on t.entity = b.entity and t.id = b.id
+        where b.snapshot_id = base.id
+          and (t.id is null or t.type <> 'DELETE')
+        union all
+        select t.entity, t.id,
+               jsonb_set(t.body, '{createdAt}', to_jsonb(coalesce(t.inserted_at, t.body ->> 'createdAt')))
+        from tail t
+        where t.type <> 'DELETE'
+          and not exists (select 1
+                          from snapshot_entries b
+                          where b.snapshot_id = base.id and b.entity = t.entity and b.id = t.id)
+    )
+    select m.entity,
+           m.id,
+           case
+               when m.entity = 'Task'
+                   and cast(m.body ->> 'assigneeId' as uuid) in (select t.id
+                                                                 from tail t
+                                                                 where t.entity = 'User' and t.type = 'DELETE')
+                   then jsonb_set(m.body, '{assigneeId}', 'null')
+               else m.body
+           end
+    from merged m;
+end;
+$$;
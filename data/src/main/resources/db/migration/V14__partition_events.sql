@@ -0,0 +1,474 @@
+-- Retention: events are partitioned by month of created_at, so that old events can be compacted into an archive and
+-- their partitions dropped as a whole, and the indexes of a partition only grow with the events of its month. Events
+-- outside of all monthly partitions (e.g., inserted with an old created_at) go to events_default. The triggers are
+-- defined on the partitioned table and apply to all partitions.
+
+-- current version of every task and user: a unique constraint on the partitioned table would have to include
+-- created_at, so the optimistic concurrency check of V10__add_event_versions.sql moves to this table, which also makes
+-- the lookup of the current version independent of the number of partitions; its rows outlive compacted events
+CREATE TABLE event_versions (
+    entity varchar(255) NOT NULL,
+    aggregate_id uuid NOT NULL,
+    version bigint NOT NULL,
+    CONSTRAINT event_versions_pkey PRIMARY KEY (entity, aggregate_id)
+);
+
+INSERT INTO event_versions(entity, aggregate_id, version)
+SELECT entity, aggregate_id, max(version)
+FROM events
+GROUP BY entity, aggregate_id;
+
+-- fn_event_body depends on the row type of the table and is recreated for the partitioned one
+DROP FUNCTION fn_event_body(events);
+ALTER TABLE events RENAME TO events_unpartitioned;
+ALTER TABLE events_unpartitioned DROP CONSTRAINT events_pkey; -- frees the names of the primary key
+ALTER TABLE events_unpartitioned ALTER COLUMN position DROP IDENTITY; -- and of the sequence
+
+CREATE SEQUENCE events_position_seq;
+SELECT setval('events_position_seq', coalesce(max(position), 0) + 1, false) FROM events_unpartitioned;
+
+CREATE TABLE events (
+    id uuid NOT NULL DEFAULT gen_random_uuid(),
+    type varchar(255) NOT NULL,
+    entity varchar(255) NOT NULL,
+    entity_version bigint NOT NULL,
+    created_by uuid DEFAULT NULL,
+    created_at timestamp NOT NULL,
+    body jsonb,
+    payload bytea,
+    aggregate_id uuid GENERATED ALWAYS AS (fn_event_aggregate_id(body, payload)) STORED,
+    version bigint NOT NULL,
+    position bigint NOT NULL DEFAULT nextval('events_position_seq'),
+    transaction_id bigint NOT NULL DEFAULT cast(cast(pg_current_xact_id() as text) as bigint),
+    CONSTRAINT events_body_or_payload CHECK ((body is null) <> (payload is null)),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE events_position_seq OWNED BY events.position;
+
+CREATE TABLE events_default PARTITION OF events DEFAULT;
+
+-- creates the partition of the month that contains month_start, if it does not exist yet; events of that month in the
+-- default partition are moved into it, as they would otherwise overlap with it
+create or replace function fn_create_event_partition(month_start timestamp) returns boolean
+    security definer
+    language plpgsql
+as
+$$
+declare
+    range_start timestamp := date_trunc('month', month_start);
+    range_end timestamp := date_trunc('month', month_start) + interval '1 month';
+    partition_name text := 'events_' || to_char(month_start, 'YYYY_MM');
+begin
+    if to_regclass(partition_name) is not null then
+        return false;
+    end if;
+
+    if not exists (select 1 from events_default where created_at >= range_start and created_at < range_end) then
+        execute format('create table %I partition of events for values from (%L) to (%L)',
+                       partition_name, range_start, range_end);
+        return true;
+    end if;
+
+    execute format('create table %I (like events including all)', partition_name);
+    execute format('insert into %I(id, type, entity, entity_version, created_by, created_at, body, payload, version, '
+                       || 'position, transaction_id) '
+                       || 'select id, type, entity, entity_version, created_by, created_at, body, payload, version, '
+                       || 'position, transaction_id from events_default where created_at >= %L and created_at < %L',
+                   partition_name, range_start, range_end);
+    delete from events_default where created_at >= range_start and created_at < range_end;
+    execute format('alter table events attach partition %I for values from (%L) to (%L)',
+                   partition_name, range_start, range_end);
+    return true;
+end;
+$$;
+
+-- partitions for the existing events and the next months, created before the copy so that no event is moved
+SELECT fn_create_event_partition(m)
+FROM generate_series(date_trunc('month', coalesce((select min(created_at) from events_unpartitioned), localtimestamp)),
+                     date_trunc('month', localtimestamp) + interval '3 months',
+                     interval '1 month') m;
+
+INSERT INTO events(id, type, entity, entity_version, created_by, created_at, body, payload, version, position,
+                   transaction_id)
+SELECT id, type, entity, entity_version, created_by, created_at, body, payload, version, position, transaction_id
+FROM events_unpartitioned;
+
+DROP TABLE events_unpartitioned;
+
+-- the indexes of V6, V11, and V13 (history by aggregate_id), created on every partition
+CREATE INDEX events_created_at_id_idx ON events (created_at, id);
+CREATE INDEX events_transaction_id_position_idx ON events (transaction_id, position);
+CREATE INDEX events_entity_aggregate_id_created_at_idx ON events (entity, aggregate_id, created_at);
+
+-- same as in V13__add_binary_event_payloads.sql
+create or replace function fn_event_body(e events) returns jsonb
+    language sql
+    immutable
+as
+$$
+select case e.entity_version
+    when 2 then fn_decode_payload(e.entity, e.type, e.version, e.payload)
+    else e.body
+end;
+$$;
+
+-- same as in V13__add_binary_event_payloads.sql, with the current version from event_versions: the row lock makes a
+-- concurrent writer of the same entity wait until this transaction ends and then read the version it committed, and
+-- two writers of a new entity cannot both insert its row (unique violation of event_versions_pkey)
+create or replace function fn_event_version_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+declare
+    current_version bigint;
+    new_aggregate_id uuid := fn_event_aggregate_id(new.body, new.payload);
+begin
+    -- the generated aggregate_id is not computed yet in a BEFORE trigger
+    select v.version into current_version
+    from event_versions v
+    where v.entity = new.entity and v.aggregate_id = new_aggregate_id
+    for update;
+
+    if new.version is null then
+        new.version := coalesce(current_version, 0) + 1;
+    elsif new.version <> coalesce(current_version, 0) + 1 then
+        raise exception '% with ID % has version %, not %.', new.entity, new_aggregate_id,
+            coalesce(current_version, 0), new.version - 1 using errcode = 'serialization_failure';
+    end if;
+
+    if current_version is null then
+        insert into event_versions(entity, aggregate_id, version) values (new.entity, new_aggregate_id, new.version);
+    else
+        update event_versions v
+        set version = new.version
+        where v.entity = new.entity and v.aggregate_id = new_aggregate_id;
+    end if;
+
+    if new.entity = 'Task' and new.type <> 'DELETE' and new.body is not null then
+        new.body := jsonb_set(new.body, '{version}', to_jsonb(new.version));
+    end if;
+    return new;
+end;
+$$;
+
+-- the triggers of V2, V5, and V10 on the partitioned table
+create trigger events_version
+    before insert
+    on events
+    for each row
+execute procedure fn_event_version_trigger();
+
+create trigger events_insert_task
+    after insert
+    on events
+    for each row
+    when (new.type = 'INSERT' and new.entity = 'Task')
+execute procedure fn_task_insert_trigger();
+
+create trigger events_update_task
+    after insert
+    on events
+    for each row
+    when (new.type = 'UPDATE' and new.entity = 'Task')
+execute procedure fn_task_update_trigger();
+
+create trigger events_delete_task
+    after insert
+    on events
+    for each row
+    when (new.type = 'DELETE' and new.entity = 'Task')
+execute procedure fn_task_delete_trigger();
+
+create trigger events_insert_user
+    after insert
+    on events
+    for each row
+    when (new.type = 'INSERT' and new.entity = 'User')
+execute procedure fn_user_insert_trigger();
+
+create trigger events_update_user
+    after insert
+    on events
+    for each row
+    when (new.type = 'UPDATE' and new.entity = 'User')
+execute procedure fn_user_update_trigger();
+
+create trigger events_delete_user
+    after insert
+    on events
+    for each row
+    when (new.type = 'DELETE' and new.entity = 'User')
+execute procedure fn_user_delete_trigger();
+
+create trigger events_notify
+    after insert
+    on events
+    for each row
+execute procedure fn_notify_event_trigger();
+
+-- Cold archive: the events before a month boundary are compacted into one entry per task or user, the state after
+-- its last archived event, in the format of the snapshot entries (deleted entities have none). The archive is the base
+-- of rebuilds and point-in-time queries when there is no snapshot after it; states before its end are no longer known.
+CREATE TABLE event_archive (
+    entity varchar(255) NOT NULL,
+    id uuid NOT NULL,
+    last_event_type varchar(255) NOT NULL,
+    last_event_created_at timestamp NOT NULL,
+    body jsonb NOT NULL,
+    PRIMARY KEY (entity, id)
+);
+
+-- archived ranges of the event log, the latest range_end is the start of the remaining events
+CREATE TABLE archived_event_ranges (
+    range_end timestamp NOT NULL PRIMARY KEY,
+    event_count bigint NOT NULL,
+    dropped_partitions text[] NOT NULL,
+    archived_at timestamp NOT NULL DEFAULT (now() at time zone 'UTC')
+);
+
+-- compacts all events before archive_end (a month boundary, no transaction may still insert events before it) into the
+-- archive, drops their partitions, and deletes the snapshots before it, which would miss the archived events as base;
+-- returns the number of archived events
+create or replace function fn_archive_events(archive_end timestamp) returns bigint
+    security definer
+    language plpgsql
+as
+$$
+declare
+    archived_count bigint;
+    partition_names text[];
+    partition_name text;
+begin
+    if archive_end <> date_trunc('month', archive_end) then
+        raise exception 'Events can only be archived up to the start of a month, not %.', archive_end
+            using errcode = 'invalid_parameter_value';
+    end if;
+
+    create temporary table if not exists archived_entries (
+        entity varchar not null,
+        id uuid not null,
+        type varchar not null,
+        created_at timestamp not null,
+        body jsonb not null,
+        inserted_at text,
+        event_count bigint not null
+    ) on commit drop;
+    truncate archived_entries;
+
+    -- the latest event per entity, folded like in fn_apply_events_folded
+    insert into archived_entries(entity, id, type, created_at, body, inserted_at, event_count)
+    select distinct on (e.entity, e.id) e.entity, e.id, e.type, e.created_at, e.body,
+           max(case when e.type = 'INSERT' then e.body ->> 'createdAt' end) over (partition by e.entity, e.id),
+           count(*) over (partition by e.entity, e.id)
+    from (select e.entity, e.aggregate_id as id, e.type, e.created_at, e.id as event_id, fn_event_body(e) as body
+          from events e
+          where e.created_at < archive_end) e
+    order by e.entity, e.id, e.created_at desc, e.event_id desc;
+
+    select coalesce(sum(f.event_count), 0) into archived_count from archived_entries f;
+    if archived_count = 0 then
+        return 0;
+    end if;
+
+    delete from event_archive a
+    using archived_entries f
+    where f.type = 'DELETE' and a.entity = f.entity and a.id = f.id;
+
+    -- an entity whose INSERT event is archived now has no archive entry yet, the others keep their createdAt
+    insert into event_archive(entity, id, last_event_type, last_event_created_at, body)
+    select f.entity, f.id, f.type, f.created_at,
+           case
+               when f.inserted_at is null then f.body
+               else jsonb_set(f.body, '{createdAt}', to_jsonb(f.inserted_at))
+           end
+    from archived_entries f
+    where f.type <> 'DELETE'
+    on conflict (entity, id) do update set last_event_type = excluded.last_event_type,
+                                           last_event_created_at = excluded.last_event_created_at,
+                                           body = jsonb_set(excluded.body, '{createdAt}',
+                                                            event_archive.body -> 'createdAt');
+
+    -- ON DELETE SET NULL of the assignees
+    update event_archive a
+    set body = jsonb_set(a.body, '{assigneeId}', 'null')
+    where a.entity = 'Task'
+      and cast(a.body ->> 'assigneeId' as uuid) in (select f.id
+                                                    from archived_entries f
+                                                    where f.entity = 'User' and f.type = 'DELETE');
+
+    delete from snapshots where last_event_created_at < archive_end;
+
+    select coalesce(array_agg(c.relname order by c.relname), '{}') into partition_names
+    from pg_inherits i
+    join pg_class c on c.oid = i.inhrelid
+    where i.inhparent = 'events'::regclass
+      and c.relname ~ '^events_\d{4}_\d{2}$'
+      and cast(to_date(substring(c.relname from 8), 'YYYY_MM') as timestamp) + interval '1 month' <= archive_end;
+    foreach partition_name in array partition_names loop
+        execute format('drop table %I', partition_name);
+    end loop;
+    delete from events_default where created_at < archive_end;
+
+    insert into archived_event_ranges(range_end, event_count, dropped_partitions)
+    values (archive_end, archived_count, partition_names);
+    return archived_count;
+end;
+$$;
+
+-- loads the archive into the (empty) projection tables, users first for the foreign key of the tasks; returns the
+-- number of archived events
+create or replace function fn_restore_archive() returns bigint
+    security definer
+    language plpgsql
+as
+$$
+begin
+    insert into users(id, created_at, name)
+    select a.id, cast(a.body ->> 'createdAt' as timestamp), cast(a.body ->> 'name' as varchar(255))
+    from event_archive a
+    where a.entity = 'User';
+
+    insert into tasks(id, title, description, status, assignee_id, created_at, updated_at, version)
+    select a.id,
+           cast(a.body ->> 'title' as varchar(255)),
+           cast(a.body ->> 'description' as text),
+           cast(a.body ->> 'status' as varchar(255)),
+           cast(a.body ->> 'assigneeId' as uuid),
+           cast(a.body ->> 'createdAt' as timestamp),
+           cast(a.body ->> 'updatedAt' as timestamp),
+           cast(a.body ->> 'version' as bigint)
+    from event_archive a
+    where a.entity = 'Task';
+
+    return (select coalesce(sum(r.event_count), 0) from archived_event_ranges r);
+end;
+$$;
+
+-- same as in V13__add_binary_event_payloads.sql, with the archive as base if there is no snapshot before to_created_at
+-- (the caller rejects positions before the end of the archive)
+create or replace function fn_fold_as_of(to_created_at timestamp, to_id uuid)
+    returns table (entity varchar, entity_id uuid, body jsonb)
+    security definer
+    language plpgsql
+    stable
+as
+$$
+#variable_conflict use_column
+declare
+    base snapshots%rowtype;
+begin
+    -- resolved first so that the snapshot entries are planned with their actual size and only the tail is hashed
+    select * into base
+    from snapshots s
+    where (s.last_event_created_at, s.last_event_id) <= (to_created_at, to_id)
+    order by s.last_event_created_at desc, s.last_event_id desc
+    limit 1;
+
+    return query
+    with base_entries as (
+        select b.entity, b.id, b.body
+        from snapshot_entries b
+        where b.snapshot_id = base.id
+        union all
+        select a.entity, a.id, a.body
+        from event_archive a
+        where base.id is null
+    ),
+    tail as (
+        select distinct on (e.entity, e.id)
+               e.entity, e.id, e.type, e.body,
+               max(case when e.type = 'INSERT' then e.body ->> 'createdAt' end)
+                   over (partition by e.entity, e.id) as inserted_at
+        from (select e.entity, e.aggregate_id as id, e.type, fn_event_body(e) as body, e.created_at,
+                     e.id as event_id
+              from events e
+              where e.entity in ('Task', 'User')
+                and (e.created_at, e.id) > (coalesce(base.last_event_created_at, '-infinity'),
+                                            coalesce(base.last_event_id, '00000000-0000-0000-0000-000000000000'))
+                and (e.created_at, e.id) <= (to_created_at, to_id)) e
+        order by e.entity, e.id, e.created_at desc, e.event_id desc
+    ),
+    merged as (
+        select b.entity, b.id,
+               case
+                   when t.id is null then b.body
+                   else jsonb_set(t.body, '{createdAt}',
+                                  to_jsonb(coalesce(t.inserted_at, b.body ->> 'createdAt', t.body ->> 'createdAt')))
+               end as body
+        from base_entries b
+        left join tail t on t.entity = b.entity and t.id = b.id
+        where t.id is null or t.type <> 'DELETE'
+        union all
+        select t.entity, t.id,
+               jsonb_set(t.body, '{createdAt}', to_jsonb(coalesce(t.inserted_at, t.body ->> 'createdAt')))
+        from tail t
+        where t.type <> 'DELETE'
+          and not exists (select 1
+                          from base_entries b
+                          where b.entity = t.entity and b.id = t.id)
+    )
+    select m.entity,
+           m.id,
+           case
+               when m.entity = 'Task'
+                   and cast(m.body ->> 'assigneeId' as uuid) in (select t.id
+                                                                 from tail t
+                                                                 where t.entity = 'User' and t.type = 'DELETE')
+                   then jsonb_set(m.body, '{assigneeId}', 'null')
+               else m.body
+           end
+    from merged m;
+end;
+$$;
+
+-- same as in V7__add_history_queries.sql, counting the archived events if the archive is the base
+create or replace function fn_take_folded_snapshot(to_created_at timestamp, to_id uuid) returns uuid
+    security definer
+    language plpgsql
+as
+$$
+declare
+    base snapshots%rowtype;
+    base_count bigint;
+    tail_count bigint;
+    new_snapshot_id uuid;
+begin
+    select * into base
+    from snapshots s
+    where (s.last_event_created_at, s.last_event_id) <= (to_created_at, to_id)
+    order by s.last_event_created_at desc, s.last_event_id desc
+    limit 1;
+
+    base_count := coalesce(base.event_count, (select coalesce(sum(r.event_count), 0) from archived_event_ranges r));
+
+    -- folded before the new snapshot is inserted, which would otherwise be the (still empty) base of the fold
+    create temporary table if not exists folded_entries (
+        entity varchar not null,
+        id uuid not null,
+        body jsonb not null
+    ) on commit drop;
+    truncate folded_entries;
+
+    insert into folded_entries(entity, id, body)
+    select f.entity, f.entity_id, f.body
+    from fn_fold_as_of(to_created_at, to_id) f;
+
+    select count(*) into tail_count
+    from events e
+    where (e.created_at, e.id) > (coalesce(base.last_event_created_at, '-infinity'),
+                                  coalesce(base.last_event_id, '00000000-0000-0000-0000-000000000000'))
+      and (e.created_at, e.id) <= (to_created_at, to_id);
+
+    insert into snapshots(last_event_created_at, last_event_id, event_count)
+    values (to_created_at, to_id, base_count + tail_count)
+    returning id into new_snapshot_id;
+
+    insert into snapshot_entries(snapshot_id, entity, id, body)
+    select new_snapshot_id, f.entity, f.id, f.body
+    from folded_entries f;
+
+    return new_snapshot_id;
+end;
+$$;
@@ -0,0 +1,17 @@
+-- Idempotency keys of the create requests (Idempotency-Key header), so that a retried request gets the response of the
+-- first one instead of creating the task or user again. A request claims its key before it runs (status and body are
+-- null while it is in progress) and stores its response afterward; the claims of failed requests are deleted, so that
+-- they can be retried. The request hash detects keys that are reused for another request.
+-- Claims expire after a short timeout (e.g., when the node crashed), responses after the retention of the keys. Expired
+-- keys can be claimed again and are deleted periodically.
+CREATE TABLE idempotency_keys (
+    scope varchar(32) NOT NULL, -- e.g., tasks or users, keys of different endpoints do not collide
+    idempotency_key varchar(255) NOT NULL,
+    request_hash varchar(64) NOT NULL, -- SHA-256 of the request body
+    status integer,
+    body text,
+    expires_at timestamp NOT NULL,
+    PRIMARY KEY (scope, idempotency_key)
+);
+
+CREATE INDEX idempotency_keys_expires_at_idx ON idempotency_keys (expires_at);
@@ -0,0 +1,23 @@
+-- Deleted users are removed from their tasks by an UPDATE event of every task instead of only by the ON DELETE SET NULL
+-- of the foreign key, so that the version and updated_at of the tasks change with their assignee: the validators of
+-- conditional requests, the change feed, the read model, and the history see the change like any other update. The
+-- events are inserted before the user is deleted, at the time of the delete event; the foreign key then finds no tasks.
+
+-- same as in V13__add_binary_event_payloads.sql, with the update events of the assigned tasks
+create or replace function fn_user_delete_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    insert into events(type, entity, entity_version, created_by, created_at, body)
+    select 'UPDATE', 'Task', 1, new.created_by, new.created_at,
+           jsonb_build_object('id', t.id, 'createdAt', t.created_at, 'updatedAt', new.created_at, 'title', t.title,
+                              'description', t.description, 'status', t.status, 'assigneeId', null)
+    from tasks t
+    where t.assignee_id = new.aggregate_id
+    order by t.id; -- the version trigger locks the versions of the tasks in a deterministic order
+    perform fn_user_delete(fn_event_body(new));
+    return new;
+end;
+$$;
@@ -0,0 +1,357 @@
+-- The projection triggers read binary payloads (entity_version 2) into typed values instead of decoding them into a
+-- JSON body first, and JSON bodies (entity_version 1) into the same typed values, so that the write path never converts
+-- one format into the other; both formats share one projection per change. fn_event_body still decodes payloads into
+-- JSON for the rebuild and the point-in-time queries.
+
+-- The status of tasks is stored by name instead of by ordinal, so that the database does not repeat the order of the
+-- TaskStatus enum: one length byte and the UTF-8 name in place of the ordinal. The stored payloads are converted with
+-- the ordinals of V13__add_binary_event_payloads.sql, their last use.
+UPDATE events e
+SET payload = substring(e.payload from 1 for 32) || set_byte('\x00'::bytea, 0, length(s.name))
+                  || convert_to(s.name, 'UTF8') || substring(e.payload from 34)
+FROM (VALUES (0, 'TODO'), (1, 'DOING'), (2, 'DONE')) s(ordinal, name)
+WHERE e.entity_version = 2
+  AND e.entity = 'Task'
+  AND e.type <> 'DELETE'
+  AND get_byte(e.payload, 32) = s.ordinal;
+
+-- state of a task or user as written to the projection tables
+CREATE TYPE task_state AS (
+    id uuid,
+    title varchar(255),
+    description text,
+    status varchar(255),
+    assignee_id uuid,
+    created_at timestamp,
+    updated_at timestamp,
+    version bigint
+);
+
+CREATE TYPE user_state AS (
+    id uuid,
+    created_at timestamp,
+    name varchar(255)
+);
+
+-- binary payload (entity_version 2) of a task; all fields are big-endian, strings UTF-8:
+--   id (16), createdAt (8), updatedAt (8), status length (1), status name, assigneeId (16, zero if unassigned),
+--   title length (4), title, description (until the end)
+-- the version is taken from the version column instead of the payload
+create or replace function fn_decode_task_payload(payload bytea, version bigint) returns task_state
+    language sql
+    immutable
+as
+$$
+select cast(encode(substring(payload from 1 for 16), 'hex') as uuid),
+       cast(convert_from(substring(payload from 54 + l.status_length for l.title_length), 'UTF8') as varchar(255)),
+       convert_from(substring(payload from 54 + l.status_length + l.title_length), 'UTF8'),
+       cast(convert_from(substring(payload from 34 for l.status_length), 'UTF8') as varchar(255)),
+       nullif(cast(encode(substring(payload from 34 + l.status_length for 16), 'hex') as uuid),
+              '00000000-0000-0000-0000-000000000000'),
+       fn_decode_timestamp(substring(payload from 17 for 8)),
+       fn_decode_timestamp(substring(payload from 25 for 8)),
+       version
+from (select s.status_length,
+             cast(cast('x' || encode(substring(payload from 50 + s.status_length for 4), 'hex') as bit(32))
+                  as integer) as title_length
+      from (select get_byte(payload, 32) as status_length) s) l;
+$$;
+
+-- binary payload (entity_version 2) of a user: id (16), createdAt (8), name (until the end)
+create or replace function fn_decode_user_payload(payload bytea) returns user_state
+    language sql
+    immutable
+as
+$$
+select cast(encode(substring(payload from 1 for 16), 'hex') as uuid),
+       fn_decode_timestamp(substring(payload from 17 for 8)),
+       cast(convert_from(substring(payload from 25), 'UTF8') as varchar(255));
+$$;
+
+-- same as in V13__add_binary_event_payloads.sql, with the typed decoders (deletions only contain the ID)
+create or replace function fn_decode_payload(entity varchar, type varchar, version bigint, payload bytea) returns jsonb
+    language sql
+    immutable
+as
+$$
+select case
+    when type = 'DELETE' then
+        jsonb_build_object('id', fn_event_aggregate_id(null, payload))
+    when entity = 'Task' then
+        (select jsonb_build_object('id', t.id, 'createdAt', t.created_at, 'updatedAt', t.updated_at,
+                                   'status', t.status, 'assigneeId', t.assignee_id, 'title', t.title,
+                                   'description', t.description, 'version', t.version)
+         from fn_decode_task_payload(payload, version) t)
+    when entity = 'User' then
+        (select jsonb_build_object('id', u.id, 'createdAt', u.created_at, 'name', u.name)
+         from fn_decode_user_payload(payload) u)
+end;
+$$;
+
+-- TASK projection, same as the JSON functions of V4__check_projection_row_counts.sql and V10__add_event_versions.sql
+create or replace function fn_task_insert(task task_state) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    insert into tasks(id, title, description, status, assignee_id, created_at, updated_at, version)
+    values (task.id, task.title, task.description, task.status, task.assignee_id, task.created_at, task.updated_at,
+            task.version);
+end;
+$$;
+
+create or replace function fn_task_update(task task_state) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    update tasks
+    set title = task.title,
+        description = task.description,
+        status = task.status,
+        assignee_id = task.assignee_id,
+        updated_at = task.updated_at,
+        version = task.version
+    where id = task.id;
+    if not found then
+        raise exception 'Task with ID % does not exist.', task.id using errcode = 'no_data_found';
+    end if;
+end;
+$$;
+
+create or replace function fn_task_delete(task_id uuid) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    delete from tasks where id = task_id;
+    if not found then
+        raise exception 'Task with ID % does not exist.', task_id using errcode = 'no_data_found';
+    end if;
+end;
+$$;
+
+-- USER projection, same as the JSON functions of V2__add_event_sourcing.sql and V4__check_projection_row_counts.sql
+create or replace function fn_user_insert(app_user user_state) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    insert into users(id, created_at, name)
+    values (app_user.id, app_user.created_at, app_user.name);
+end;
+$$;
+
+create or replace function fn_user_update(app_user user_state) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    update users
+    set name = app_user.name
+    where id = app_user.id;
+    if not found then
+        raise exception 'User with ID % does not exist.', app_user.id using errcode = 'no_data_found';
+    end if;
+end;
+$$;
+
+create or replace function fn_user_delete(user_id uuid) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    delete from users where id = user_id;
+    if not found then
+        raise exception 'User with ID % does not exist.', user_id using errcode = 'no_data_found';
+    end if;
+end;
+$$;
+
+-- JSON body (entity_version 1) of a task or user to its state
+create or replace function fn_task_state(body jsonb) returns task_state
+    language sql
+    immutable
+as
+$$
+select cast(body ->> 'id' as uuid),
+       cast(body ->> 'title' as varchar(255)),
+       body ->> 'description',
+       cast(body ->> 'status' as varchar(255)),
+       cast(body ->> 'assigneeId' as uuid),
+       cast(body ->> 'createdAt' as timestamp),
+       cast(body ->> 'updatedAt' as timestamp),
+       cast(body ->> 'version' as bigint);
+$$;
+
+create or replace function fn_user_state(body jsonb) returns user_state
+    language sql
+    immutable
+as
+$$
+select cast(body ->> 'id' as uuid),
+       cast(body ->> 'createdAt' as timestamp),
+       cast(body ->> 'name' as varchar(255));
+$$;
+
+-- the JSON functions of V2, V4, and V10, still used by fn_apply_events (V13) with the decoded body of both formats
+create or replace function fn_task_insert(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform fn_task_insert(fn_task_state(body));
+end;
+$$;
+
+create or replace function fn_task_update(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform fn_task_update(fn_task_state(body));
+end;
+$$;
+
+create or replace function fn_task_delete(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    if body ->> 'id' is not null then
+        perform fn_task_delete(cast(body ->> 'id' as uuid));
+    end if;
+end;
+$$;
+
+create or replace function fn_user_insert(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform fn_user_insert(fn_user_state(body));
+end;
+$$;
+
+create or replace function fn_user_update(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform fn_user_update(fn_user_state(body));
+end;
+$$;
+
+create or replace function fn_user_delete(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    if body ->> 'id' is not null then
+        perform fn_user_delete(cast(body ->> 'id' as uuid));
+    end if;
+end;
+$$;
+
+-- projection triggers (V13__add_binary_event_payloads.sql) by format; deletions use the generated aggregate_id
+create or replace function fn_task_insert_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    if new.entity_version = 2 then
+        perform fn_task_insert(fn_decode_task_payload(new.payload, new.version));
+    else
+        perform fn_task_insert(fn_task_state(new.body));
+    end if;
+    return new;
+end;
+$$;
+
+create or replace function fn_task_update_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    if new.entity_version = 2 then
+        perform fn_task_update(fn_decode_task_payload(new.payload, new.version));
+    else
+        perform fn_task_update(fn_task_state(new.body));
+    end if;
+    return new;
+end;
+$$;
+
+create or replace function fn_task_delete_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform fn_task_delete(new.aggregate_id);
+    return new;
+end;
+$$;
+
+create or replace function fn_user_insert_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    if new.entity_version = 2 then
+        perform fn_user_insert(fn_decode_user_payload(new.payload));
+    else
+        perform fn_user_insert(fn_user_state(new.body));
+    end if;
+    return new;
+end;
+$$;
+
+create or replace function fn_user_update_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    if new.entity_version = 2 then
+        perform fn_user_update(fn_decode_user_payload(new.payload));
+    else
+        perform fn_user_update(fn_user_state(new.body));
+    end if;
+    return new;
+end;
+$$;
+
+-- same as in V16__unassign_tasks_with_events.sql, with the generated aggregate_id
+create or replace function fn_user_delete_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    insert into events(type, entity, entity_version, created_by, created_at, body)
+    select 'UPDATE', 'Task', 1, new.created_by, new.created_at,
+           jsonb_build_object('id', t.id, 'createdAt', t.created_at, 'updatedAt', new.created_at, 'title', t.title,
+                              'description', t.description, 'status', t.status, 'assigneeId', null)
+    from tasks t
+    where t.assignee_id = new.aggregate_id
+    order by t.id; -- the version trigger locks the versions of the tasks in a deterministic order
+    perform fn_user_delete(new.aggregate_id);
+    return new;
+end;
+$$;
@@ -0,0 +1,99 @@
+-- The archive job also deletes the rows of event_versions (V14__partition_events.sql) that only belong to archived
+-- events: a task or user that was deleted before the end of the archive has no events left, and without this, the
+-- table would keep one row per task or user ever created.
+
+-- same as in V14__partition_events.sql, deleting the versions of the archived deletions
+create or replace function fn_archive_events(archive_end timestamp) returns bigint
+    security definer
+    language plpgsql
+as
+$$
+declare
+    archived_count bigint;
+    partition_names text[];
+    partition_name text;
+begin
+    if archive_end <> date_trunc('month', archive_end) then
+        raise exception 'Events can only be archived up to the start of a month, not %.', archive_end
+            using errcode = 'invalid_parameter_value';
+    end if;
+
+    create temporary table if not exists archived_entries (
+        entity varchar not null,
+        id uuid not null,
+        type varchar not null,
+        created_at timestamp not null,
+        body jsonb not null,
+        inserted_at text,
+        event_count bigint not null
+    ) on commit drop;
+    truncate archived_entries;
+
+    -- the latest event per entity, folded like in fn_apply_events_folded
+    insert into archived_entries(entity, id, type, created_at, body, inserted_at, event_count)
+    select distinct on (e.entity, e.id) e.entity, e.id, e.type, e.created_at, e.body,
+           max(case when e.type = 'INSERT' then e.body ->> 'createdAt' end) over (partition by e.entity, e.id),
+           count(*) over (partition by e.entity, e.id)
+    from (select e.entity, e.aggregate_id as id, e.type, e.created_at, e.id as event_id, fn_event_body(e) as body
+          from events e
+          where e.created_at < archive_end) e
+    order by e.entity, e.id, e.created_at desc, e.event_id desc;
+
+    select coalesce(sum(f.event_count), 0) into archived_count from archived_entries f;
+    if archived_count = 0 then
+        return 0;
+    end if;
+
+    delete from event_archive a
+    using archived_entries f
+    where f.type = 'DELETE' and a.entity = f.entity and a.id = f.id;
+
+    -- an entity whose INSERT event is archived now has no archive entry yet, the others keep their createdAt
+    insert into event_archive(entity, id, last_event_type, last_event_created_at, body)
+    select f.entity, f.id, f.type, f.created_at,
+           case
+               when f.inserted_at is null then f.body
+               else jsonb_set(f.body, '{createdAt}', to_jsonb(f.inserted_at))
+           end
+    from archived_entries f
+    where f.type <> 'DELETE'
+    on conflict (entity, id) do update set last_event_type = excluded.last_event_type,
+                                           last_event_created_at = excluded.last_event_created_at,
+                                           body = jsonb_set(excluded.body, '{createdAt}',
+                                                            event_archive.body -> 'createdAt');
+
+    -- ON DELETE SET NULL of the assignees
+    update event_archive a
+    set body = jsonb_set(a.body, '{assigneeId}', 'null')
+    where a.entity = 'Task'
+      and cast(a.body ->> 'assigneeId' as uuid) in (select f.id
+                                                    from archived_entries f
+                                                    where f.entity = 'User' and f.type = 'DELETE');
+
+    delete from snapshots where last_event_created_at < archive_end;
+
+    select coalesce(array_agg(c.relname order by c.relname), '{}') into partition_names
+    from pg_inherits i
+    join pg_class c on c.oid = i.inhrelid
+    where i.inhparent = 'events'::regclass
+      and c.relname ~ '^events_\d{4}_\d{2}$'
+      and cast(to_date(substring(c.relname from 8), 'YYYY_MM') as timestamp) + interval '1 month' <= archive_end;
+    foreach partition_name in array partition_names loop
+        execute format('drop table %I', partition_name);
+    end loop;
+    delete from events_default where created_at < archive_end;
+
+    -- the versions of the entities deleted by an archived event, unless they have newer events; the versions of the
+    -- other entities are kept, their next event continues them
+    delete from event_versions v
+    using archived_entries f
+    where f.type = 'DELETE'
+      and v.entity = f.entity
+      and v.aggregate_id = f.id
+      and not exists (select 1 from events e where e.entity = f.entity and e.aggregate_id = f.id);
+
+    insert into archived_event_ranges(range_end, event_count, dropped_partitions)
+    values (archive_end, archived_count, partition_names);
+    return archived_count;
+end;
+$$;
@@ -0,0 +1,46 @@
+-- The version trigger checks the expected version with the write of event_versions itself instead of reading the row
+-- with select ... for update first: one statement per event, and no lock is taken for a check that fails. A concurrent
+-- writer of the same entity still waits for the row this transaction wrote, and then finds the version it committed.
+
+-- same as in V14__partition_events.sql; serialization_failure if the version is not the next, as before
+create or replace function fn_event_version_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+declare
+    written_version bigint;
+    current_version bigint;
+    new_aggregate_id uuid := fn_event_aggregate_id(new.body, new.payload);
+begin
+    -- the generated aggregate_id is not computed yet in a BEFORE trigger
+    if new.version is null or new.version = 1 then
+        -- unconditional writes take the next version, inserts only succeed for entities without a version
+        insert into event_versions as v(entity, aggregate_id, version)
+        values (new.entity, new_aggregate_id, 1)
+        on conflict (entity, aggregate_id) do update
+        set version = v.version + 1
+        where new.version is null
+        returning v.version into written_version;
+    else
+        update event_versions v
+        set version = new.version
+        where v.entity = new.entity and v.aggregate_id = new_aggregate_id and v.version = new.version - 1
+        returning v.version into written_version;
+    end if;
+
+    if written_version is null then
+        select v.version into current_version
+        from event_versions v
+        where v.entity = new.entity and v.aggregate_id = new_aggregate_id;
+        raise exception '% with ID % has version %, not %.', new.entity, new_aggregate_id,
+            coalesce(current_version, 0), new.version - 1 using errcode = 'serialization_failure';
+    end if;
+    new.version := written_version;
+
+    if new.entity = 'Task' and new.type <> 'DELETE' and new.body is not null then
+        new.body := jsonb_set(new.body, '{version}', to_jsonb(new.version));
+    end if;
+    return new;
+end;
+$$;
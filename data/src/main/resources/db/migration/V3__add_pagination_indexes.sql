@@ -0,0 +1,5 @@
+-- indexes for keyset pagination on (updated_at, id) / (created_at, id)
+CREATE INDEX tasks_updated_at_id_idx ON tasks (updated_at, id);
+CREATE INDEX tasks_status_updated_at_id_idx ON tasks (status, updated_at, id);
+CREATE INDEX tasks_assignee_id_updated_at_id_idx ON tasks (assignee_id, updated_at, id);
+CREATE INDEX users_created_at_id_idx ON users (created_at, id);
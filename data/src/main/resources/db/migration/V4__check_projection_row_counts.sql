@@ -0,0 +1,70 @@
+-- The event insert is the only write of a mutation: the triggers apply it to the projection tables and reject events
+-- for tasks or users that do not exist (SQLSTATE P0002 no_data_found), which replaces the existence checks in Java.
+
+-- TASK update function
+create or replace function fn_task_update(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    update tasks
+    set title = cast(body ->> 'title' as varchar(255)),
+        description = cast(body ->> 'description' as text),
+        status = cast(body ->> 'status' as varchar(255)),
+        assignee_id = cast(body ->> 'assigneeId' as uuid),
+        updated_at = cast(body ->> 'updatedAt' as timestamp)
+    where id = cast(body ->> 'id' as uuid);
+    if not found then
+        raise exception 'Task with ID % does not exist.', body ->> 'id' using errcode = 'no_data_found';
+    end if;
+end;
+$$;
+
+-- TASK delete function
+create or replace function fn_task_delete(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    if body ->> 'id' is not null then
+        delete from tasks where id = cast(body ->> 'id' as uuid);
+        if not found then
+            raise exception 'Task with ID % does not exist.', body ->> 'id' using errcode = 'no_data_found';
+        end if;
+    end if;
+end;
+$$;
+
+-- USER update function
+create or replace function fn_user_update(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    update users
+    set name = cast(body ->> 'name' as text)
+    where id = cast(body ->> 'id' as uuid);
+    if not found then
+        raise exception 'User with ID % does not exist.', body ->> 'id' using errcode = 'no_data_found';
+    end if;
+end;
+$$;
+
+-- USER delete function
+create or replace function fn_user_delete(body jsonb) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    if body ->> 'id' is not null then
+        delete from users where id = cast(body ->> 'id' as uuid);
+        if not found then
+            raise exception 'User with ID % does not exist.', body ->> 'id' using errcode = 'no_data_found';
+        end if;
+    end if;
+end;
+$$;
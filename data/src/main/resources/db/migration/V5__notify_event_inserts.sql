@@ -0,0 +1,20 @@
+-- Every event is announced on the channel 'taskboard_events' so that all app nodes can invalidate their caches.
+-- Notifications are delivered when the inserting transaction commits (and not at all on rollback).
+create or replace function fn_notify_event_trigger() returns trigger
+    security definer
+    language plpgsql
+as
+$$
+begin
+    perform pg_notify('taskboard_events',
+                      json_build_object('type', new.type, 'entity', new.entity, 'id', new.body ->> 'id')::text);
+    return new;
+end;
+$$;
+
+-- register notify trigger
+create trigger events_notify
+    after insert
+    on events
+    for each row
+execute procedure fn_notify_event_trigger();
@@ -0,0 +1,169 @@
+-- order in which the events are replayed when the projections are rebuilt
+CREATE INDEX events_created_at_id_idx ON events (created_at, id);
+
+-- full copy of the projection tables after all events up to (last_event_created_at, last_event_id)
+CREATE TABLE snapshots (
+    id uuid NOT NULL PRIMARY KEY DEFAULT gen_random_uuid(),
+    created_at timestamp NOT NULL DEFAULT (now() at time zone 'UTC'),
+    last_event_created_at timestamp NOT NULL,
+    last_event_id uuid NOT NULL,
+    event_count bigint NOT NULL
+);
+
+CREATE INDEX snapshots_last_event_idx ON snapshots (last_event_created_at, last_event_id);
+
+-- entities of a snapshot, the body has the same format as the body of an INSERT event
+CREATE TABLE snapshot_entries (
+    snapshot_id uuid NOT NULL REFERENCES snapshots(id) ON DELETE CASCADE,
+    entity varchar(255) NOT NULL,
+    id uuid NOT NULL,
+    body jsonb NOT NULL,
+    PRIMARY KEY (snapshot_id, entity, id)
+);
+
+-- applies the events in the range ((from_created_at, from_id), (to_created_at, to_id)] one by one in order, using the
+-- same functions as the triggers (a null lower bound means from the first event)
+create or replace function fn_apply_events(from_created_at timestamp, from_id uuid,
+                                           to_created_at timestamp, to_id uuid) returns void
+    security definer
+    language plpgsql
+as
+$$
+declare
+    event record;
+begin
+    for event in
+        select e.type, e.entity, e.body
+        from events e
+        where (e.created_at, e.id) > (coalesce(from_created_at, '-infinity'),
+                                      coalesce(from_id, '00000000-0000-0000-0000-000000000000'))
+          and (e.created_at, e.id) <= (to_created_at, to_id)
+        order by e.created_at, e.id
+    loop
+        case event.entity || ':' || event.type
+            when 'Task:INSERT' then perform fn_task_insert(event.body);
+            when 'Task:UPDATE' then perform fn_task_update(event.body);
+            when 'Task:DELETE' then perform fn_task_delete(event.body);
+            when 'User:INSERT' then perform fn_user_insert(event.body);
+            when 'User:UPDATE' then perform fn_user_update(event.body);
+            when 'User:DELETE' then perform fn_user_delete(event.body);
+            else null; -- events of other entities do not affect these projections
+        end case;
+    end loop;
+end;
+$$;
+
+-- applies the events of the same range set-based: only the latest event per entity matters, as INSERT and UPDATE
+-- events carry the full state (except createdAt, which is taken from the INSERT event like in fn_task_update and
+-- fn_user_update); the order users, task deletes, tasks, user deletes keeps the foreign key and its ON DELETE SET NULL
+-- action intact
+create or replace function fn_apply_events_folded(from_created_at timestamp, from_id uuid,
+                                                  to_created_at timestamp, to_id uuid) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    create temporary table if not exists folded_events (
+        type text not null,
+        entity text not null,
+        id uuid not null,
+        body jsonb not null,
+        created_at timestamp
+    ) on commit drop;
+    truncate folded_events;
+
+    insert into folded_events(type, entity, id, body, created_at)
+    select distinct on (e.entity, e.id) e.type, e.entity, e.id, e.body,
+           cast(max(case when e.type = 'INSERT' then e.body ->> 'createdAt' end)
+                over (partition by e.entity, e.id) as timestamp)
+    from (select e.type, e.entity, cast(e.body ->> 'id' as uuid) as id, e.body, e.created_at, e.id as event_id
+          from events e
+          where (e.created_at, e.id) > (coalesce(from_created_at, '-infinity'),
+                                        coalesce(from_id, '00000000-0000-0000-0000-000000000000'))
+            and (e.created_at, e.id) <= (to_created_at, to_id)
+            and e.entity in ('Task', 'User')) e
+    order by e.entity, e.id, e.created_at desc, e.event_id desc;
+
+    insert into users(id, created_at, name)
+    select f.id, coalesce(f.created_at, cast(f.body ->> 'createdAt' as timestamp)),
+           cast(f.body ->> 'name' as varchar(255))
+    from folded_events f
+    where f.entity = 'User' and f.type <> 'DELETE'
+    on conflict (id) do update set name = excluded.name;
+
+    delete from tasks where id in (select f.id from folded_events f where f.entity = 'Task' and f.type = 'DELETE');
+
+    insert into tasks(id, title, description, status, assignee_id, created_at, updated_at)
+    select f.id,
+           cast(f.body ->> 'title' as varchar(255)),
+           cast(f.body ->> 'description' as text),
+           cast(f.body ->> 'status' as varchar(255)),
+           cast(f.body ->> 'assigneeId' as uuid),
+           coalesce(f.created_at, cast(f.body ->> 'createdAt' as timestamp)),
+           cast(f.body ->> 'updatedAt' as timestamp)
+    from folded_events f
+    where f.entity = 'Task' and f.type <> 'DELETE'
+    on conflict (id) do update set title = excluded.title,
+                                   description = excluded.description,
+                                   status = excluded.status,
+                                   assignee_id = excluded.assignee_id,
+                                   updated_at = excluded.updated_at;
+
+    delete from users where id in (select f.id from folded_events f where f.entity = 'User' and f.type = 'DELETE');
+end;
+$$;
+
+-- copies the current projection tables into a new snapshot
+create or replace function fn_take_snapshot(last_event_created_at timestamp, last_event_id uuid, event_count bigint)
+    returns uuid
+    security definer
+    language plpgsql
+as
+$$
+declare
+    snapshot_id uuid;
+begin
+    insert into snapshots(last_event_created_at, last_event_id, event_count)
+    values (last_event_created_at, last_event_id, event_count)
+    returning id into snapshot_id;
+
+    insert into snapshot_entries(snapshot_id, entity, id, body)
+    select snapshot_id, 'User', u.id,
+           jsonb_build_object('id', u.id, 'createdAt', u.created_at, 'name', u.name)
+    from users u;
+
+    insert into snapshot_entries(snapshot_id, entity, id, body)
+    select snapshot_id, 'Task', t.id,
+           jsonb_build_object('id', t.id, 'createdAt', t.created_at, 'updatedAt', t.updated_at, 'title', t.title,
+                              'description', t.description, 'status', t.status, 'assigneeId', t.assignee_id)
+    from tasks t;
+
+    return snapshot_id;
+end;
+$$;
+
+-- loads a snapshot into the (empty) projection tables, users first for the foreign key of the tasks
+create or replace function fn_restore_snapshot(restored_snapshot_id uuid) returns void
+    security definer
+    language plpgsql
+as
+$$
+begin
+    insert into users(id, created_at, name)
+    select e.id, cast(e.body ->> 'createdAt' as timestamp), cast(e.body ->> 'name' as varchar(255))
+    from snapshot_entries e
+    where e.snapshot_id = restored_snapshot_id and e.entity = 'User';
+
+    insert into tasks(id, title, description, status, assignee_id, created_at, updated_at)
+    select e.id,
+           cast(e.body ->> 'title' as varchar(255)),
+           cast(e.body ->> 'description' as text),
+           cast(e.body ->> 'status' as varchar(255)),
+           cast(e.body ->> 'assigneeId' as uuid),
+           cast(e.body ->> 'createdAt' as timestamp),
+           cast(e.body ->> 'updatedAt' as timestamp)
+    from snapshot_entries e
+    where e.snapshot_id = restored_snapshot_id and e.entity = 'Task';
+end;
+$$;
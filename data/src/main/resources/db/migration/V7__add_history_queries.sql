@@ -0,0 +1,120 @@
+-- history of a single entity: lookup by entity and ID, ordered by time (replaces the index on (body ->> 'id') only)
+DROP INDEX IF EXISTS events_expr_idx;
+CREATE INDEX events_entity_body_id_created_at_idx ON events (entity, (body ->> 'id'), created_at);
+
+-- state of all tasks and users after the events up to (to_created_at, to_id): the latest snapshot before that position
+-- plus the events after it (the tail), folded to the latest event per entity; createdAt is taken from the INSERT event
+-- or the snapshot, and assignees deleted in the tail are removed (like the ON DELETE SET NULL of tasks), as the
+-- snapshot is consistent and tail events only reference users that existed when they were written
+create or replace function fn_fold_as_of(to_created_at timestamp, to_id uuid)
+    returns table (entity varchar, entity_id uuid, body jsonb)
+    security definer
+    language plpgsql
+    stable
+as
+$$
+#variable_conflict use_column
+declare
+    base snapshots%rowtype;
+begin
+    -- resolved first so that the snapshot entries are planned with their actual size and only the tail is hashed
+    select * into base
+    from snapshots s
+    where (s.last_event_created_at, s.last_event_id) <= (to_created_at, to_id)
+    order by s.last_event_created_at desc, s.last_event_id desc
+    limit 1;
+
+    return query
+    with tail as (
+        select distinct on (e.entity, cast(e.body ->> 'id' as uuid))
+               e.entity, cast(e.body ->> 'id' as uuid) as id, e.type, e.body,
+               max(case when e.type = 'INSERT' then e.body ->> 'createdAt' end)
+                   over (partition by e.entity, e.body ->> 'id') as inserted_at
+        from events e
+        where e.entity in ('Task', 'User')
+          and (e.created_at, e.id) > (coalesce(base.last_event_created_at, '-infinity'),
+                                      coalesce(base.last_event_id, '00000000-0000-0000-0000-000000000000'))
+          and (e.created_at, e.id) <= (to_created_at, to_id)
+        order by e.entity, cast(e.body ->> 'id' as uuid), e.created_at desc, e.id desc
+    ),
+    merged as (
+        select b.entity, b.id,
+               case
+                   when t.id is null then b.body
+                   else jsonb_set(t.body, '{createdAt}',
+                                  to_jsonb(coalesce(t.inserted_at, b.body ->> 'createdAt', t.body ->> 'createdAt')))
+               end as body
+        from snapshot_entries b
+        left join tail t on t.entity = b.entity and t.id = b.id
+        where b.snapshot_id = base.id
+          and (t.id is null or t.type <> 'DELETE')
+        union all
+        select t.entity, t.id,
+               jsonb_set(t.body, '{createdAt}', to_jsonb(coalesce(t.inserted_at, t.body ->> 'createdAt')))
+        from tail t
+        where t.type <> 'DELETE'
+          and not exists (select 1
+                          from snapshot_entries b
+                          where b.snapshot_id = base.id and b.entity = t.entity and b.id = t.id)
+    )
+    select m.entity,
+           m.id,
+           case
+               when m.entity = 'Task'
+                   and cast(m.body ->> 'assigneeId' as uuid) in (select t.id
+                                                                 from tail t
+                                                                 where t.entity = 'User' and t.type = 'DELETE')
+                   then jsonb_set(m.body, '{assigneeId}', 'null')
+               else m.body
+           end
+    from merged m;
+end;
+$$;
+
+-- takes a snapshot at (to_created_at, to_id) from the previous snapshot and the events after it, without reading the
+-- projection tables (the position must be older than any transaction that may still insert events before it)
+create or replace function fn_take_folded_snapshot(to_created_at timestamp, to_id uuid) returns uuid
+    security definer
+    language plpgsql
+as
+$$
+declare
+    base snapshots%rowtype;
+    tail_count bigint;
+    new_snapshot_id uuid;
+begin
+    select * into base
+    from snapshots s
+    where (s.last_event_created_at, s.last_event_id) <= (to_created_at, to_id)
+    order by s.last_event_created_at desc, s.last_event_id desc
+    limit 1;
+
+    -- folded before the new snapshot is inserted, which would otherwise be the (still empty) base of the fold
+    create temporary table if not exists folded_entries (
+        entity varchar not null,
+        id uuid not null,
+        body jsonb not null
+    ) on commit drop;
+    truncate folded_entries;
+
+    insert into folded_entries(entity, id, body)
+    select f.entity, f.entity_id, f.body
+    from fn_fold_as_of(to_created_at, to_id) f;
+
+    select count(*) into tail_count
+    from events e
+    where (e.created_at, e.id) > (coalesce(base.last_event_created_at, '-infinity'),
+                                  coalesce(base.last_event_id, '00000000-0000-0000-0000-000000000000'))
+      and (e.created_at, e.id) <= (to_created_at, to_id);
+
+    insert into snapshots(last_event_created_at, last_event_id, event_count)
+    values (to_created_at, to_id, coalesce(base.event_count, 0) + tail_count)
+    returning id into new_snapshot_id;
+
+    insert into snapshot_entries(snapshot_id, entity, id, body)
+    select new_snapshot_id, f.entity, f.id, f.body
+    from folded_entries f;
+
+    return new_snapshot_id;
+end;
+$$;
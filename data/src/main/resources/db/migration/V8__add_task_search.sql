@@ -0,0 +1,5 @@
+-- full-text search over tasks, titles rank above descriptions
+ALTER TABLE tasks ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', title), 'A') || setweight(to_tsvector('english', description), 'B')
+) STORED;
+CREATE INDEX tasks_search_vector_idx ON tasks USING gin (search_vector);
@@ -0,0 +1,4 @@
+-- status and assignee combined (see TaskSpecifications); single criteria use the indexes from V3__add_pagination_indexes.sql
+-- partial, as tasks are only looked up by a concrete assignee, which skips all unassigned tasks
+CREATE INDEX tasks_assignee_id_status_updated_at_id_idx ON tasks (assignee_id, status, updated_at, id)
+    WHERE assignee_id IS NOT NULL;